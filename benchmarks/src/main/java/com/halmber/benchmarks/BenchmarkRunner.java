@@ -0,0 +1,56 @@
+package com.halmber.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}: runs the selected benchmarks like JMH's own main class, with the
+ * GC profiler always enabled.
+ * <p>
+ * The GC profiler adds the allocation rate per operation ({@code gc.alloc.rate.norm}) and the number and time
+ * of collections to every result, so a change that saves time by allocating more, or the other way round,
+ * shows up in the same table. All JMH options are accepted, e.g.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar JsonReadBenchmark -p megabytes=16 -rf json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.printf("Error parsing command line: %s%n", e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+
+        boolean gcProfilerGiven = commandLine.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc")
+                        || profiler.getKlass().equals(GCProfiler.class.getName()));
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (!gcProfilerGiven) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
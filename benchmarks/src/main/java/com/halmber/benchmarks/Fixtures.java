@@ -0,0 +1,107 @@
+package com.halmber.benchmarks;
+
+import com.halmber.model.Order;
+import com.halmber.service.JsonFileReader;
+import com.halmber.service.order.StatisticProcessor;
+import com.halmber.utils.LargeJsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark input generated by {@link LargeJsonGenerator} with a fixed seed, so every fork and every run
+ * measures the same orders.
+ */
+final class Fixtures {
+    static final long SEED = 42;
+
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final long SAMPLE_ORDERS = 1_000;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Generates an order file in a temporary directory that is deleted when the JVM exits.
+     *
+     * @param orders number of orders
+     * @return the generated file
+     */
+    static Path generateOrders(long orders) throws IOException {
+        Path directory = Files.createTempDirectory("order-benchmarks");
+        Path file = directory.resolve("orders-" + orders + ".json");
+        LargeJsonGenerator.generateLargeJson(file.toString(), orders, SEED);
+        file.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Generates an order file of about the given size, estimating the number of orders from a sample.
+     *
+     * @param megabytes target size in MB
+     * @return the generated file
+     */
+    static Path generateMegabytes(int megabytes) throws IOException {
+        Path sample = generateOrders(SAMPLE_ORDERS);
+        double bytesPerOrder = (double) Files.size(sample) / SAMPLE_ORDERS;
+        Files.delete(sample);
+        return generateOrders(Math.max(1, Math.round(megabytes * MEGABYTE / bytesPerOrder)));
+    }
+
+    /**
+     * Generates orders and parses them into memory.
+     *
+     * @param orders number of orders
+     * @return the parsed orders in file order
+     */
+    static List<Order> loadOrders(int orders) throws IOException {
+        Path file = generateOrders(orders);
+        List<Order> loaded = new ArrayList<>(orders);
+        JsonFileReader.readFile(file.toFile(), Order.class, loaded::add);
+        Files.delete(file);
+        return loaded;
+    }
+
+    /**
+     * Aggregates the orders by an attribute, like a statistics run.
+     *
+     * @param orders    the orders
+     * @param attribute the attribute to count
+     * @return values of the attribute with their counts
+     */
+    static Map<String, Integer> aggregate(List<Order> orders, String attribute) {
+        StatisticProcessor processor = new StatisticProcessor();
+        Map<String, Integer> statistics = new HashMap<>();
+        for (Order order : orders) {
+            processor.processStatistic(order, statistics, attribute);
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the values the orders would add to a statistics map for an attribute, in order.
+     */
+    static String[] values(List<Order> orders, String attribute) {
+        StatisticProcessor processor = new StatisticProcessor();
+        List<String> values = new ArrayList<>();
+        for (Order order : orders) {
+            processor.extractValues(order, attribute, values::add);
+        }
+        return values.toArray(String[]::new);
+    }
+
+    static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.halmber.benchmarks;
+
+import com.halmber.model.Order;
+import com.halmber.service.JsonFileReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a generated order file with {@link JsonFileReader#readFile}. The file is read from the page cache after
+ * the first iteration, so this measures parsing and deserialization rather than the disk.
+ * <p>
+ * One operation reads the whole file of {@code megabytes} MB. The {@code bytes} counter reports the parsed bytes
+ * per second, which is comparable across file sizes; divide {@code gc.alloc.rate.norm} (bytes per file) by
+ * {@code megabytes} for the allocation per MB.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class JsonReadBenchmark {
+    @Param({"1", "16"})
+    public int megabytes;
+
+    private Path file;
+    private long fileSize;
+
+    /**
+     * Bytes parsed, reported as a rate next to the files per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = Fixtures.generateMegabytes(megabytes);
+        fileSize = Fixtures.size(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void readFile(Counters counters, Blackhole blackhole) throws IOException {
+        JsonFileReader.readFile(file.toFile(), Order.class, blackhole::consume);
+        counters.bytes += fileSize;
+    }
+}
@@ -0,0 +1,108 @@
+package com.halmber.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges counts into one shared {@link ConcurrentHashMap} from 1, 2, 4 and 8 threads, the way the file tasks
+ * of a statistics run update the common aggregate. With {@code city} every thread hits the same six keys, which
+ * is the worst case for contention on a bin; with {@code email} the keys are spread over the whole table.
+ * <p>
+ * Results are per merge and thread: a time that grows with the thread count is contention, not work. Run with
+ * at least as many cores as threads, or the numbers measure the scheduler instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MapMergeContentionBenchmark {
+    static final int ORDERS = 100_000;
+
+    /**
+     * The aggregate shared by all threads, emptied before every iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedMap {
+        @Param({"city", "email"})
+        public String attribute;
+
+        String[] values;
+        Map<String, Integer> statistics;
+
+        @Setup(Level.Trial)
+        public void load() throws IOException {
+            values = Fixtures.values(Fixtures.loadOrders(ORDERS), attribute);
+        }
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            statistics = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Position of a thread in the values; threads start at different offsets so they do not move in lockstep.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            next = ThreadLocalRandom.current().nextInt(ORDERS);
+        }
+
+        String nextValue(String[] values) {
+            if (next >= values.length) {
+                next = 0;
+            }
+            return values[next++];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer merge1Thread(SharedMap map, Cursor cursor) {
+        return merge(map, cursor);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Integer merge2Threads(SharedMap map, Cursor cursor) {
+        return merge(map, cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer merge4Threads(SharedMap map, Cursor cursor) {
+        return merge(map, cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer merge8Threads(SharedMap map, Cursor cursor) {
+        return merge(map, cursor);
+    }
+
+    private static Integer merge(SharedMap map, Cursor cursor) {
+        return map.statistics.merge(cursor.nextValue(map.values), 1, Integer::sum);
+    }
+}
@@ -0,0 +1,75 @@
+package com.halmber.benchmarks;
+
+import com.halmber.config.ReportFormat;
+import com.halmber.service.StatisticsWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the same statistics with the {@link StatisticsWriter} of every {@link ReportFormat}, including the sort
+ * by count. The statistics have email-like values with counts skewed towards small numbers, like the
+ * {@code email} statistics, and the report goes to a stream that discards it. The size of each report is printed
+ * once per fork, so the formats can be compared by time and size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReportFormatBenchmark {
+    @Param({"XML", "CSV", "JSON", "BINARY"})
+    public ReportFormat format;
+
+    @Param({"1000", "1000000"})
+    public int entries;
+
+    private StatisticsWriter writer;
+    private Map<String, Integer> statistics;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        writer = StatisticsWriter.forFormat(format, true);
+        statistics = generateStatistics(entries);
+
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        writer.writeStatistics(report, statistics);
+        System.out.printf("%s report of %d entries: %d bytes%n", format, entries, report.size());
+    }
+
+    @Benchmark
+    public void writeStatistics() throws IOException {
+        writer.writeStatistics(OutputStream.nullOutputStream(), statistics);
+    }
+
+    /**
+     * Generates distinct values with counts skewed towards small numbers.
+     */
+    private static Map<String, Integer> generateStatistics(int entryCount) {
+        Random random = new Random(Fixtures.SEED);
+        Map<String, Integer> statistics = new HashMap<>(entryCount * 4 / 3 + 1);
+        for (int i = 0; i < entryCount; i++) {
+            int count = 1 + (int) (-Math.log(1 - random.nextDouble()) * 3);
+            statistics.put("user" + i + "@example.com", count);
+        }
+        return statistics;
+    }
+}
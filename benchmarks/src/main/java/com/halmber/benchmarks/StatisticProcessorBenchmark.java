@@ -0,0 +1,60 @@
+package com.halmber.benchmarks;
+
+import com.halmber.model.Order;
+import com.halmber.service.order.StatisticProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates parsed orders with {@link StatisticProcessor#processStatistic} for every attribute, into a fresh
+ * {@link ConcurrentHashMap} like a statistics run. Results are per order: the {@code id}, {@code email} and
+ * {@code phone} maps grow to one entry per order, {@code tags} splits a comma-separated value, the other
+ * attributes count a handful of values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class StatisticProcessorBenchmark {
+    static final int ORDERS = 10_000;
+
+    @Param({"id", "status", "tags", "paymentMethod", "fullName", "email", "phone", "city"})
+    public String attribute;
+
+    private final StatisticProcessor processor = new StatisticProcessor();
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        orders = Fixtures.loadOrders(ORDERS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public Map<String, Integer> processStatistic() {
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        for (Order order : orders) {
+            processor.processStatistic(order, statistics, attribute);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,54 @@
+package com.halmber.benchmarks;
+
+import com.halmber.model.Order;
+import com.halmber.service.order.StatisticProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the tag strings of generated orders, e.g. {@code "vip, gift, urgent"}, into the values that are
+ * counted. {@link StatisticProcessor#splitValue} is the public entry to the same splitting and de-duplication
+ * ({@code getSetStringAttributes}) that every string attribute goes through while aggregating. Results are
+ * per tag string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class TagSplitBenchmark {
+    static final int ORDERS = 10_000;
+
+    private final StatisticProcessor processor = new StatisticProcessor();
+    private String[] tags;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        List<Order> orders = Fixtures.loadOrders(ORDERS);
+        tags = orders.stream().map(Order::getTags).toArray(String[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void splitTags(Blackhole blackhole) {
+        for (String tag : tags) {
+            processor.splitValue(tag, blackhole::consume);
+        }
+    }
+}
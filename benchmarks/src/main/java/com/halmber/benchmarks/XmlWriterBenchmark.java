@@ -0,0 +1,56 @@
+package com.halmber.benchmarks;
+
+import com.halmber.factory.statistics.StatisticItemFactoryImpl;
+import com.halmber.factory.statistics.StatisticsWrapperFactoryImpl;
+import com.halmber.model.statistics.StatisticItem;
+import com.halmber.model.statistics.StatisticsWrapper;
+import com.halmber.service.XmlFileWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes statistics of several sizes with {@link XmlFileWriter#writeStatistics}, including its sort by count.
+ * The statistics are the {@code email} counts of generated orders, one entry per order, and the XML goes to a
+ * stream that discards it, so the disk does not blur the serialization cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class XmlWriterBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int entries;
+
+    private final XmlFileWriter<StatisticsWrapper, StatisticItem> writer = new XmlFileWriter<>(
+            new StatisticsWrapperFactoryImpl(),
+            new StatisticItemFactoryImpl()
+    );
+    private Map<String, Integer> statistics;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        statistics = Fixtures.aggregate(Fixtures.loadOrders(entries), "email");
+    }
+
+    @Benchmark
+    public void writeStatistics() throws IOException {
+        writer.writeStatistics(OutputStream.nullOutputStream(), statistics);
+    }
+}
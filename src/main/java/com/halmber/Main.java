@@ -1,17 +1,64 @@
 package com.halmber;
 
 import com.halmber.config.ApplicationConfig;
+import com.halmber.config.CommandLineOptions;
 import com.halmber.config.ConsoleInputHandler;
+import com.halmber.distributed.StatisticsCoordinator;
+import com.halmber.distributed.StatisticsWorker;
+import com.halmber.server.StatisticsServer;
+import com.halmber.service.FileDiscovery;
+import com.halmber.service.SizedFile;
+import com.halmber.service.store.OrderColumnStore;
+import com.halmber.service.store.OrderQueryService;
 import com.halmber.service.order.StatisticsService;
+import com.halmber.service.order.WatchStatisticsService;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = CommandLineOptions.parse(args);
         ConsoleInputHandler inputHandler = new ConsoleInputHandler();
 
-        ApplicationConfig config = inputHandler.getConfiguration();
-        StatisticsService orderService = new StatisticsService(config);
+        CommandLineOptions.RunMode mode = options.getMode();
+        ApplicationConfig baseConfig = mode == CommandLineOptions.RunMode.SERVER || mode == CommandLineOptions.RunMode.WORKER
+                ? ApplicationConfig.defaults()
+                : inputHandler.getConfiguration();
+        ApplicationConfig config = options.applyTo(baseConfig);
 
-        orderService.processStatistics();
+        switch (mode) {
+            case BATCH -> {
+                StatisticsService orderService = new StatisticsService(config);
+                orderService.processStatistics();
+            }
+            case WATCH -> {
+                WatchStatisticsService watchService = new WatchStatisticsService(config);
+                Runtime.getRuntime().addShutdownHook(new Thread(watchService::close));
+                watchService.start();
+                watchService.awaitStop();
+            }
+            case SERVER -> {
+                StatisticsServer server = new StatisticsServer(config);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+                server.start();
+                server.awaitStop();
+            }
+            case WORKER -> {
+                StatisticsWorker worker = new StatisticsWorker(config);
+                Runtime.getRuntime().addShutdownHook(new Thread(worker::close));
+                worker.start();
+                worker.awaitStop();
+            }
+            case COORDINATOR -> new StatisticsCoordinator(config).processStatistics();
+            case QUERY -> {
+                try (ExecutorService pool = Executors.newFixedThreadPool(config.getThreadPoolSize())) {
+                    OrderColumnStore store = OrderColumnStore.load(
+                            FileDiscovery.fromConfig(config).discover().stream().map(SizedFile::path).toList(), pool);
+                    inputHandler.runQuerySession(new OrderQueryService(store, pool, config.getThreadPoolSize()));
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
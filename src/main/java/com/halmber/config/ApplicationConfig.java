@@ -1,42 +1,275 @@
 package com.halmber.config;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration holder for application settings.
  * <p>
  * Encapsulates all configuration parameters in one place. Provides default values and utility methods
  * for accessing configuration properties.
+ * <p>
+ * The four basic settings can be passed to {@link #of(String, String, String, int)}; advanced options are set
+ * through {@link #builder()}, which is pre-populated with the default values and is the only place they are set.
  */
 @Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ApplicationConfig {
     private static final int DEFAULT_THREAD_POOL_SIZE = 8;
     private static final String DEFAULT_INPUT_DIRECTORY = "src/main/resources/";
     private static final String DEFAULT_OUTPUT_DIRECTORY = "src/main/resources/outputFiles";
     private static final String DEFAULT_ATTRIBUTE = "id";
-    private static final String XML_FILE_NAME_PREFIX = "statistics_by_";
-    private static final String XML_FILE_TYPE = "xml";
+    private static final String FILE_NAME_PREFIX = "statistics_by_";
     private static final String JSON_FILE_TYPE = "json";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String MANIFEST_SUFFIX = ".manifest.json";
+    private static final String METRICS_SUFFIX = ".metrics.json";
     private static final String[] AVAILABLE_ATTRIBUTES = {"id", "status", "tags", "paymentMethod", "fullName", "email", "phone", "city"};
+    private static final long DEFAULT_FILE_STABILITY_MILLIS = 1_000;
+    private static final long DEFAULT_REPORT_DEBOUNCE_MILLIS = 2_000;
+    private static final long DEFAULT_DEDUP_EXPECTED_ORDERS = 1_000_000;
+    private static final int DEFAULT_MAX_OPEN_FILES = 64;
+    private static final long DEFAULT_MAX_BUFFERED_FILE_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_ASYNC_READ_BYTES = 1024 * 1024;
+    private static final int DEFAULT_ASYNC_READ_AHEAD = 4;
+    private static final int DEFAULT_ASYNC_BUFFER_POOL_SIZE = 64;
+    private static final int DEFAULT_PIPELINE_READER_THREADS = 2;
+    private static final int DEFAULT_PIPELINE_AGGREGATOR_THREADS = 1;
+    private static final int DEFAULT_PIPELINE_QUEUE_CAPACITY = 8;
+    private static final int DEFAULT_PIPELINE_CHUNK_BYTES = 256 * 1024;
+    private static final long DEFAULT_ADAPTIVE_SAMPLE_MILLIS = 500;
+    private static final long DEFAULT_RESULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    private static final String DEFAULT_SERVER_BIND_ADDRESS = "127.0.0.1";
+    private static final int DEFAULT_SERVER_CACHE_ENTRIES = 64;
+    private static final int DEFAULT_WORKER_PORT = 9100;
+    private static final String DEFAULT_WORKER_ADDRESSES = "localhost:9100";
+    private static final int DEFAULT_WORKER_READ_TIMEOUT_MILLIS = 60_000;
+    private static final String DEFAULT_INCLUDE_GLOBS = "**.json";
+    private static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 1_000;
 
     private final String inputDirectory;
     private final String outputDirectory;
     private final String attribute;
     private final int threadPoolSize;
 
-    public ApplicationConfig() {
-        this(DEFAULT_INPUT_DIRECTORY, DEFAULT_OUTPUT_DIRECTORY, DEFAULT_ATTRIBUTE, DEFAULT_THREAD_POOL_SIZE);
+    // Input discovery
+    private final String inputRoots;
+    private final boolean recursiveInput;
+    private final String includeGlobs;
+    private final String excludeGlobs;
+
+    // Watch mode
+    private final long fileStabilityMillis;
+    private final long reportDebounceMillis;
+
+    // Cross-file order deduplication
+    private final boolean deduplicateOrders;
+    private final long dedupExpectedOrders;
+    private final boolean dedupBloomFilter;
+
+    // Execution strategy
+    private final ExecutionMode executionMode;
+    private final int parserThreads;
+    private final int maxOpenFiles;
+    private final long maxBufferedFileBytes;
+    private final SchedulingPolicy schedulingPolicy;
+
+    // Asynchronous file reading
+    private final boolean asyncReads;
+    private final int asyncReadBytes;
+    private final int asyncReadAhead;
+    private final int asyncBufferPoolSize;
+
+    // Admission control
+    private final long maxBytesInFlight;
+    private final double heapPauseThreshold;
+
+    // Pipeline execution mode
+    private final int pipelineReaderThreads;
+    private final int pipelineParserThreads;
+    private final int pipelineAggregatorThreads;
+    private final int pipelineQueueCapacity;
+    private final int pipelineChunkBytes;
+
+    // Adaptive pool execution mode
+    private final long adaptiveSampleMillis;
+
+    // Report output
+    private final ReportFormat reportFormat;
+    private final boolean prettyPrintXml;
+    private final int reportLimit;
+    private final boolean reportIncludeOthers;
+    private final boolean compressReport;
+    private final int maxEntriesPerShard;
+
+    // Result cache
+    private final boolean resultCache;
+    private final long resultCacheMaxBytes;
+
+    // Progress and metrics
+    private final long progressIntervalMillis;
+    private final boolean writeMetrics;
+
+    // Server mode
+    private final int serverPort;
+    private final String serverBindAddress;
+    private final String serverAllowedRoots;
+    private final int serverCacheEntries;
+
+    // Distributed mode
+    private final int workerPort;
+    private final String workerAddresses;
+    private final int workerReadTimeoutMillis;
+
+    /**
+     * Returns a configuration with the default value of every setting.
+     */
+    public static ApplicationConfig defaults() {
+        return builder().build();
     }
 
-    public ApplicationConfig(String inputDirectory, String outputDirectory, String attribute, int threadPoolSize) {
-        this.inputDirectory = inputDirectory;
-        this.outputDirectory = outputDirectory;
-        this.attribute = attribute;
-        this.threadPoolSize = threadPoolSize;
+    /**
+     * Returns a configuration with the four basic settings and the default value of every other setting.
+     */
+    public static ApplicationConfig of(String inputDirectory, String outputDirectory, String attribute,
+                                       int threadPoolSize) {
+        return builder()
+                .inputDirectory(inputDirectory)
+                .outputDirectory(outputDirectory)
+                .attribute(attribute)
+                .threadPoolSize(threadPoolSize)
+                .build();
+    }
+
+    /**
+     * Creates a builder pre-populated with the default values of every setting.
+     */
+    public static ApplicationConfigBuilder builder() {
+        return new ApplicationConfigBuilder()
+                .inputDirectory(DEFAULT_INPUT_DIRECTORY)
+                .outputDirectory(DEFAULT_OUTPUT_DIRECTORY)
+                .attribute(DEFAULT_ATTRIBUTE)
+                .threadPoolSize(DEFAULT_THREAD_POOL_SIZE)
+                .inputRoots("")
+                .recursiveInput(false)
+                .includeGlobs(DEFAULT_INCLUDE_GLOBS)
+                .excludeGlobs("")
+                .fileStabilityMillis(DEFAULT_FILE_STABILITY_MILLIS)
+                .reportDebounceMillis(DEFAULT_REPORT_DEBOUNCE_MILLIS)
+                .deduplicateOrders(false)
+                .dedupExpectedOrders(DEFAULT_DEDUP_EXPECTED_ORDERS)
+                .dedupBloomFilter(false)
+                .executionMode(ExecutionMode.FIXED_POOL)
+                .parserThreads(Runtime.getRuntime().availableProcessors())
+                .maxOpenFiles(DEFAULT_MAX_OPEN_FILES)
+                .maxBufferedFileBytes(DEFAULT_MAX_BUFFERED_FILE_BYTES)
+                .schedulingPolicy(SchedulingPolicy.DIRECTORY_ORDER)
+                .asyncReads(false)
+                .asyncReadBytes(DEFAULT_ASYNC_READ_BYTES)
+                .asyncReadAhead(DEFAULT_ASYNC_READ_AHEAD)
+                .asyncBufferPoolSize(DEFAULT_ASYNC_BUFFER_POOL_SIZE)
+                .maxBytesInFlight(0)
+                .heapPauseThreshold(0)
+                .pipelineReaderThreads(DEFAULT_PIPELINE_READER_THREADS)
+                .pipelineParserThreads(Runtime.getRuntime().availableProcessors())
+                .pipelineAggregatorThreads(DEFAULT_PIPELINE_AGGREGATOR_THREADS)
+                .pipelineQueueCapacity(DEFAULT_PIPELINE_QUEUE_CAPACITY)
+                .pipelineChunkBytes(DEFAULT_PIPELINE_CHUNK_BYTES)
+                .adaptiveSampleMillis(DEFAULT_ADAPTIVE_SAMPLE_MILLIS)
+                .reportFormat(ReportFormat.XML)
+                .prettyPrintXml(true)
+                .reportLimit(0)
+                .reportIncludeOthers(false)
+                .compressReport(false)
+                .maxEntriesPerShard(0)
+                .resultCache(false)
+                .resultCacheMaxBytes(DEFAULT_RESULT_CACHE_MAX_BYTES)
+                .progressIntervalMillis(DEFAULT_PROGRESS_INTERVAL_MILLIS)
+                .writeMetrics(true)
+                .serverPort(DEFAULT_SERVER_PORT)
+                .serverBindAddress(DEFAULT_SERVER_BIND_ADDRESS)
+                .serverAllowedRoots("")
+                .serverCacheEntries(DEFAULT_SERVER_CACHE_ENTRIES)
+                .workerPort(DEFAULT_WORKER_PORT)
+                .workerAddresses(DEFAULT_WORKER_ADDRESSES)
+                .workerReadTimeoutMillis(DEFAULT_WORKER_READ_TIMEOUT_MILLIS);
     }
 
     public String getOutputFileName() {
-        return XML_FILE_NAME_PREFIX + attribute + "." + XML_FILE_TYPE;
+        return FILE_NAME_PREFIX + attribute + "." + reportFormat.getFileExtension()
+                + (compressReport ? GZIP_SUFFIX : "");
+    }
+
+    /**
+     * Returns the name of a shard of a sharded report, e.g. {@code statistics_by_city-1a2b3c4d.part-0001.xml.gz}.
+     *
+     * @param generation identifier shared by the shards written together
+     * @param shard      shard number, starting at 1
+     */
+    public String getShardFileName(String generation, int shard) {
+        return String.format("%s%s-%s.part-%04d.%s%s", FILE_NAME_PREFIX, attribute, generation, shard,
+                reportFormat.getFileExtension(), compressReport ? GZIP_SUFFIX : "");
+    }
+
+    /**
+     * Returns the name of the manifest that lists the shards of a sharded report.
+     */
+    public String getManifestFileName() {
+        return FILE_NAME_PREFIX + attribute + MANIFEST_SUFFIX;
+    }
+
+    /**
+     * Returns the name of the machine-readable metrics file written next to the report, e.g.
+     * {@code statistics_by_city.metrics.json}.
+     */
+    public String getMetricsFileName() {
+        return FILE_NAME_PREFIX + attribute + METRICS_SUFFIX;
+    }
+
+    /**
+     * Returns the glob that matches the shards of every generation of a sharded report.
+     */
+    public String getShardFileGlob() {
+        return FILE_NAME_PREFIX + attribute + "-*.part-*";
+    }
+
+    /**
+     * Returns the directories to read input from: the comma-separated {@link #getInputRoots()} if set,
+     * otherwise the input directory.
+     */
+    public List<Path> getInputRootPaths() {
+        List<Path> paths = new ArrayList<>();
+        for (String root : inputRoots.split(",")) {
+            if (!root.isBlank()) {
+                paths.add(Path.of(root.trim()));
+            }
+        }
+        if (paths.isEmpty()) {
+            paths.add(Path.of(inputDirectory));
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the directories the statistics server may read: the comma-separated
+     * {@link #getServerAllowedRoots()} if set, otherwise the input roots.
+     */
+    public List<Path> getServerAllowedRootPaths() {
+        List<Path> paths = new ArrayList<>();
+        for (String root : serverAllowedRoots.split(",")) {
+            if (!root.isBlank()) {
+                paths.add(Path.of(root.trim()));
+            }
+        }
+        return paths.isEmpty() ? getInputRootPaths() : paths;
     }
 
     public String getJsonFileType() {
@@ -62,4 +295,4 @@ public class ApplicationConfig {
     public static String[] getAvailableAttributes() {
         return AVAILABLE_ATTRIBUTES;
     }
-}
\ No newline at end of file
+}
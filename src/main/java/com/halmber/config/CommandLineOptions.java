@@ -0,0 +1,212 @@
+package com.halmber.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses program arguments into a run mode and advanced configuration options.
+ * <p>
+ * The first argument that does not start with {@code --} selects the {@link RunMode}; every other
+ * argument must have the form {@code --name=value} and overrides the matching {@link ApplicationConfig}
+ * setting. Settings asked interactively by {@link ConsoleInputHandler} are not affected.
+ * <p>
+ * Example: {@code mvn compile exec:java -Dexec.args="watch --reportDebounceMillis=5000"}
+ */
+public class CommandLineOptions {
+    private final RunMode mode;
+    private final List<String[]> options;
+
+    private CommandLineOptions(RunMode mode, List<String[]> options) {
+        this.mode = mode;
+        this.options = options;
+    }
+
+    /**
+     * Parses the given program arguments.
+     *
+     * @param args program arguments
+     * @return parsed options
+     * @throws IllegalArgumentException if an argument is malformed or the run mode is unknown
+     */
+    public static CommandLineOptions parse(String[] args) {
+        RunMode mode = RunMode.BATCH;
+        List<String[]> options = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                mode = RunMode.fromName(arg);
+                continue;
+            }
+
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(String.format("Option must have form --name=value: %s", arg));
+            }
+            options.add(new String[]{arg.substring(2, separator), arg.substring(separator + 1)});
+        }
+
+        return new CommandLineOptions(mode, options);
+    }
+
+    public RunMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns a copy of {@code config} with all parsed options applied.
+     *
+     * @param config base configuration
+     * @return configuration with overridden settings
+     * @throws IllegalArgumentException if an option is unknown or its value cannot be parsed
+     */
+    public ApplicationConfig applyTo(ApplicationConfig config) {
+        ApplicationConfig.ApplicationConfigBuilder builder = config.toBuilder();
+
+        for (String[] option : options) {
+            String name = option[0];
+            String value = option[1];
+
+            boolean known;
+            try {
+                known = applyOption(builder, name, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format("Invalid value for --%s: '%s'", name, value), e);
+            }
+
+            if (!known) {
+                throw new IllegalArgumentException(String.format("Unknown option: --%s", name));
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Applies a single option to the builder.
+     *
+     * @return {@code false} if the option name is unknown
+     * @throws IllegalArgumentException if the value cannot be parsed
+     */
+    private static boolean applyOption(ApplicationConfig.ApplicationConfigBuilder builder, String name, String value) {
+        switch (name) {
+            case "inputDirectory" -> builder.inputDirectory(value);
+            case "outputDirectory" -> builder.outputDirectory(value);
+            case "attribute" -> builder.attribute(value);
+            case "threadPoolSize" -> builder.threadPoolSize(Integer.parseInt(value));
+            case "inputRoots" -> builder.inputRoots(value);
+            case "recursiveInput" -> builder.recursiveInput(parseBoolean(value));
+            case "includeGlobs" -> builder.includeGlobs(value);
+            case "excludeGlobs" -> builder.excludeGlobs(value);
+            case "fileStabilityMillis" -> builder.fileStabilityMillis(Long.parseLong(value));
+            case "reportDebounceMillis" -> builder.reportDebounceMillis(Long.parseLong(value));
+            case "deduplicateOrders" -> builder.deduplicateOrders(parseBoolean(value));
+            case "dedupExpectedOrders" -> builder.dedupExpectedOrders(Long.parseLong(value));
+            case "dedupBloomFilter" -> builder.dedupBloomFilter(parseBoolean(value));
+            case "executionMode" -> builder.executionMode(parseEnum(ExecutionMode.class, value));
+            case "parserThreads" -> builder.parserThreads(Integer.parseInt(value));
+            case "maxOpenFiles" -> builder.maxOpenFiles(Integer.parseInt(value));
+            case "maxBufferedFileBytes" -> builder.maxBufferedFileBytes(Long.parseLong(value));
+            case "schedulingPolicy" -> builder.schedulingPolicy(parseEnum(SchedulingPolicy.class, value));
+            case "asyncReads" -> builder.asyncReads(parseBoolean(value));
+            case "asyncReadBytes" -> builder.asyncReadBytes(Integer.parseInt(value));
+            case "asyncReadAhead" -> builder.asyncReadAhead(Integer.parseInt(value));
+            case "asyncBufferPoolSize" -> builder.asyncBufferPoolSize(Integer.parseInt(value));
+            case "maxBytesInFlight" -> builder.maxBytesInFlight(Long.parseLong(value));
+            case "heapPauseThreshold" -> builder.heapPauseThreshold(parseFraction(value));
+            case "pipelineReaderThreads" -> builder.pipelineReaderThreads(Integer.parseInt(value));
+            case "pipelineParserThreads" -> builder.pipelineParserThreads(Integer.parseInt(value));
+            case "pipelineAggregatorThreads" -> builder.pipelineAggregatorThreads(Integer.parseInt(value));
+            case "pipelineQueueCapacity" -> builder.pipelineQueueCapacity(Integer.parseInt(value));
+            case "pipelineChunkBytes" -> builder.pipelineChunkBytes(Integer.parseInt(value));
+            case "adaptiveSampleMillis" -> builder.adaptiveSampleMillis(Long.parseLong(value));
+            case "reportFormat" -> builder.reportFormat(parseEnum(ReportFormat.class, value));
+            case "compressReport" -> builder.compressReport(parseBoolean(value));
+            case "maxEntriesPerShard" -> builder.maxEntriesPerShard(Integer.parseInt(value));
+            case "prettyPrintXml" -> builder.prettyPrintXml(parseBoolean(value));
+            case "reportLimit" -> builder.reportLimit(Integer.parseInt(value));
+            case "reportIncludeOthers" -> builder.reportIncludeOthers(parseBoolean(value));
+            case "resultCache" -> builder.resultCache(parseBoolean(value));
+            case "resultCacheMaxBytes" -> builder.resultCacheMaxBytes(Long.parseLong(value));
+            case "progressIntervalMillis" -> builder.progressIntervalMillis(Long.parseLong(value));
+            case "writeMetrics" -> builder.writeMetrics(parseBoolean(value));
+            case "serverPort" -> builder.serverPort(Integer.parseInt(value));
+            case "serverBindAddress" -> builder.serverBindAddress(value);
+            case "serverAllowedRoots" -> builder.serverAllowedRoots(value);
+            case "serverCacheEntries" -> builder.serverCacheEntries(Integer.parseInt(value));
+            case "workerPort" -> builder.workerPort(Integer.parseInt(value));
+            case "workerAddresses" -> builder.workerAddresses(value);
+            case "workerReadTimeoutMillis" -> builder.workerReadTimeoutMillis(Integer.parseInt(value));
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Not a boolean: " + value);
+    }
+
+    private static double parseFraction(String value) {
+        double fraction = Double.parseDouble(value);
+        if (fraction < 0 || fraction >= 1) {
+            throw new IllegalArgumentException("Not a fraction in [0, 1): " + value);
+        }
+        return fraction;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.replace('-', '_'))) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown value: " + value);
+    }
+
+    /**
+     * Top-level modes the application can run in.
+     */
+    public enum RunMode {
+        /**
+         * Processes the input directory once and exits.
+         */
+        BATCH,
+        /**
+         * Keeps running and updates the report as files arrive in the input directory.
+         */
+        WATCH,
+        /**
+         * Serves statistics queries over HTTP until stopped. Settings are taken from defaults and options
+         * only, because the server does not prompt on the console.
+         */
+        SERVER,
+        /**
+         * Processes file shards sent by a coordinator and returns partial statistics. Does not prompt on
+         * the console.
+         */
+        WORKER,
+        /**
+         * Splits the input directory across the configured workers, merges their partial statistics and
+         * writes the report.
+         */
+        COORDINATOR,
+        /**
+         * Loads the input directory into an in-memory column store and answers queries typed on the
+         * console until {@code quit}.
+         */
+        QUERY;
+
+        static RunMode fromName(String name) {
+            for (RunMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException(String.format("Unknown run mode: %s", name));
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.halmber.config;
 
+import com.halmber.service.store.OrderQueryService;
+
 import java.util.Scanner;
 
 /**
  * Handles user input from the console for application configuration.
  * <p>
- * Performs basic input validation and user confirmation for large thread counts.
+ * Performs basic input validation and user confirmation for large thread counts. In the
+ * {@link CommandLineOptions.RunMode#QUERY} mode it also runs the interactive query session.
  */
 public class ConsoleInputHandler {
     private final Scanner scanner;
@@ -40,7 +43,7 @@ public class ConsoleInputHandler {
         System.out.println("====== END Order Statistics Configuration END ======\n");
 
 
-        return new ApplicationConfig(
+        return ApplicationConfig.of(
                 inputDirectory,
                 ApplicationConfig.getDefaultOutputDirectory(),
                 attribute,
@@ -48,6 +51,41 @@ public class ConsoleInputHandler {
         );
     }
 
+    /**
+     * Reads queries from the console and prints their results until {@code quit}, {@code exit} or the end
+     * of the input. A malformed query prints an error and the session continues.
+     *
+     * @param queryService answers the queries
+     */
+    public void runQuerySession(OrderQueryService queryService) {
+        System.out.println("Type a query, 'help' for the syntax or 'quit' to exit.");
+        while (true) {
+            System.out.print("query> ");
+            if (!scanner.hasNextLine()) {
+                System.out.println();
+                return;
+            }
+            String input = scanner.nextLine().trim();
+
+            if (input.isEmpty()) {
+                continue;
+            }
+            if (input.equalsIgnoreCase("quit") || input.equalsIgnoreCase("exit")) {
+                return;
+            }
+            if (input.equalsIgnoreCase("help")) {
+                System.out.println(OrderQueryService.help());
+                continue;
+            }
+
+            try {
+                System.out.println(queryService.execute(input));
+            } catch (IllegalArgumentException e) {
+                System.err.printf("Error: %s%n", e.getMessage());
+            }
+        }
+    }
+
     private String promptForInputDirectory() {
         System.out.printf("Enter input directory path (default: %s): ",
                 ApplicationConfig.getDefaultInputDirectory());
@@ -0,0 +1,28 @@
+package com.halmber.config;
+
+/**
+ * Strategies used by {@link com.halmber.service.order.ProcessingService} to run file tasks.
+ */
+public enum ExecutionMode {
+    /**
+     * Each file is read and parsed on a fixed pool of {@link ApplicationConfig#getThreadPoolSize()} platform threads.
+     */
+    FIXED_POOL,
+    /**
+     * Each file gets its own virtual thread for I/O; parsing runs on a bounded pool of
+     * {@link ApplicationConfig#getParserThreads()} platform threads, and at most
+     * {@link ApplicationConfig#getMaxOpenFiles()} files are in flight at once.
+     */
+    VIRTUAL_THREADS,
+    /**
+     * Reading, parsing and aggregation run as separate stages with their own thread counts, connected by
+     * bounded queues; see {@link com.halmber.service.order.pipeline.OrderPipeline}.
+     */
+    PIPELINE,
+    /**
+     * Like {@link #FIXED_POOL}, but the pool starts with one thread per available processor and is resized
+     * at runtime by hill-climbing on measured throughput; see
+     * {@link com.halmber.service.order.AdaptivePoolController}.
+     */
+    ADAPTIVE_POOL
+}
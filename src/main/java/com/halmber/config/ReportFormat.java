@@ -0,0 +1,33 @@
+package com.halmber.config;
+
+/**
+ * File formats of the statistics report; see {@link com.halmber.service.StatisticsWriter}.
+ */
+public enum ReportFormat {
+    /**
+     * {@code statistics/items/item/(value, count)} XML document, the original report format.
+     */
+    XML("xml"),
+    /**
+     * RFC 4180 CSV with a {@code value,count} header row.
+     */
+    CSV("csv"),
+    /**
+     * JSON object with an {@code items} array of {@code {"value", "count"}} objects.
+     */
+    JSON("json"),
+    /**
+     * Length-prefixed binary records; see {@link com.halmber.service.BinaryStatisticsWriter}.
+     */
+    BINARY("bin");
+
+    private final String fileExtension;
+
+    ReportFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
@@ -0,0 +1,16 @@
+package com.halmber.config;
+
+/**
+ * Order in which {@link com.halmber.service.order.ProcessingService} submits file tasks.
+ */
+public enum SchedulingPolicy {
+    /**
+     * Files are submitted in the order returned by the directory listing.
+     */
+    DIRECTORY_ORDER,
+    /**
+     * File sizes are collected up front and files are submitted from the largest to the smallest
+     * (longest-processing-time-first), so a huge file does not start last and run alone at the end.
+     */
+    LARGEST_FIRST
+}
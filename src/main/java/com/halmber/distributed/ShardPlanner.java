@@ -0,0 +1,70 @@
+package com.halmber.distributed;
+
+import com.halmber.service.SizedFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Splits a file list into shards of similar total size.
+ * <p>
+ * Uses the longest-processing-time-first heuristic: files are taken from the largest to the smallest and
+ * each one goes to the shard with the smallest total so far. A count-based split would leave one worker
+ * with most of the bytes when file sizes vary a lot.
+ */
+final class ShardPlanner {
+
+    private ShardPlanner() {
+    }
+
+    /**
+     * Partitions the files into {@code shardCount} shards balanced by size.
+     *
+     * @param files      files to partition
+     * @param shardCount number of shards; some shards are empty if there are fewer files
+     * @return the shards, each listing its files from the largest to the smallest
+     * @throws IOException if the size of a file cannot be read
+     */
+    static List<List<Path>> partitionBySize(List<Path> files, int shardCount) throws IOException {
+        return partitionSizedFiles(files.stream().map(SizedFile::unsized).toList(), shardCount);
+    }
+
+    /**
+     * Partitions the files into {@code shardCount} shards balanced by size, reading only the sizes that
+     * are not known yet.
+     *
+     * @param files      files to partition, e.g. as found by {@link com.halmber.service.FileDiscovery}
+     * @param shardCount number of shards; some shards are empty if there are fewer files
+     * @return the shards, each listing its files from the largest to the smallest
+     * @throws IOException if the size of a file cannot be read
+     */
+    static List<List<Path>> partitionSizedFiles(List<SizedFile> files, int shardCount) throws IOException {
+        record Shard(int index, long totalBytes) {
+        }
+
+        List<SizedFile> sizedPaths = new ArrayList<>(files.size());
+        for (SizedFile file : files) {
+            sizedPaths.add(new SizedFile(file.path(), file.readSize()));
+        }
+        sizedPaths.sort(Comparator.comparingLong(SizedFile::size).reversed());
+
+        List<List<Path>> shards = new ArrayList<>(shardCount);
+        PriorityQueue<Shard> lightestFirst = new PriorityQueue<>(
+                Comparator.comparingLong(Shard::totalBytes).thenComparingInt(Shard::index));
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+            lightestFirst.add(new Shard(i, 0));
+        }
+
+        for (SizedFile sizedPath : sizedPaths) {
+            Shard lightest = lightestFirst.poll();
+            shards.get(lightest.index()).add(sizedPath.path());
+            lightestFirst.add(new Shard(lightest.index(), lightest.totalBytes() + sizedPath.size()));
+        }
+        return shards;
+    }
+}
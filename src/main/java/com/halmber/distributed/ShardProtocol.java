@@ -0,0 +1,118 @@
+package com.halmber.distributed;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary messages exchanged between the coordinator and a worker over one TCP connection.
+ * <p>
+ * Request: {@code int magic, UTF attribute, int fileCount, UTF path * fileCount}.<br>
+ * Response: any number of progress frames {@code byte status, int filesDone}, sent every
+ * {@value #HEARTBEAT_INTERVAL_MILLIS} ms while the shard is processed, then {@code byte status}; on success {@code int entryCount, (UTF value, int count) * entryCount,
+ * int failedFileCount}, on failure {@code UTF message}. Files that could not be parsed are skipped and counted
+ * like in batch mode; an error status means the worker itself failed and the shard must be reassigned.
+ * <p>
+ * Paths are absolute, so coordinator and workers must see the files under the same paths (one machine or
+ * a shared file system).
+ */
+final class ShardProtocol {
+    private static final int MAGIC = 0x53544154; // "STAT"
+    private static final byte STATUS_OK = 0;
+    private static final byte STATUS_ERROR = 1;
+    private static final byte STATUS_PROGRESS = 2;
+
+    /**
+     * Interval of the progress frames a worker sends while processing, so the coordinator can time out on
+     * silence rather than on the length of a shard.
+     */
+    static final long HEARTBEAT_INTERVAL_MILLIS = 5_000;
+
+    private ShardProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream output, String attribute, List<Path> files) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeUTF(attribute);
+        output.writeInt(files.size());
+        for (Path file : files) {
+            output.writeUTF(file.toAbsolutePath().toString());
+        }
+        output.flush();
+    }
+
+    static ShardRequest readRequest(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a shard request");
+        }
+        String attribute = input.readUTF();
+        int fileCount = input.readInt();
+        List<Path> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(Path.of(input.readUTF()));
+        }
+        return new ShardRequest(attribute, files);
+    }
+
+    static void writePartial(DataOutputStream output, Map<String, Integer> statistics, long failedFiles)
+            throws IOException {
+        output.writeByte(STATUS_OK);
+        output.writeInt(statistics.size());
+        for (Map.Entry<String, Integer> entry : statistics.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeInt(entry.getValue());
+        }
+        output.writeInt((int) failedFiles);
+        output.flush();
+    }
+
+    static void writeProgress(DataOutputStream output, long filesDone) throws IOException {
+        output.writeByte(STATUS_PROGRESS);
+        output.writeInt((int) filesDone);
+        output.flush();
+    }
+
+    static void writeError(DataOutputStream output, String message) throws IOException {
+        output.writeByte(STATUS_ERROR);
+        output.writeUTF(message == null ? "Unknown error" : message);
+        output.flush();
+    }
+
+    /**
+     * Reads a worker response.
+     *
+     * @return the partial statistics and the number of files the worker skipped
+     * @throws IOException if the connection failed or the worker reported an error
+     */
+    static ShardPartial readPartial(DataInputStream input) throws IOException {
+        byte status = input.readByte();
+        while (status == STATUS_PROGRESS) {
+            input.readInt();
+            status = input.readByte();
+        }
+        if (status == STATUS_ERROR) {
+            throw new IOException("Worker error: " + input.readUTF());
+        }
+        if (status != STATUS_OK) {
+            throw new IOException("Unexpected response status: " + status);
+        }
+
+        int entryCount = input.readInt();
+        Map<String, Integer> statistics = new HashMap<>(Math.max(16, entryCount * 4 / 3 + 1));
+        for (int i = 0; i < entryCount; i++) {
+            statistics.put(input.readUTF(), input.readInt());
+        }
+        return new ShardPartial(statistics, input.readInt());
+    }
+
+    record ShardRequest(String attribute, List<Path> files) {
+    }
+
+    record ShardPartial(Map<String, Integer> statistics, int failedFiles) {
+    }
+}
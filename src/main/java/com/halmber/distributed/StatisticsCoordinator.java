@@ -0,0 +1,218 @@
+package com.halmber.distributed;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.exception.InvalidAttributeException;
+import com.halmber.service.FileDiscovery;
+import com.halmber.service.ReportPublisher;
+import com.halmber.service.SizedFile;
+import com.halmber.service.StatisticsWriter;
+import com.halmber.utils.StatisticsSorter;
+import com.halmber.utils.TopEntries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Coordinator of a distributed run.
+ * <p>
+ * Finds the input files with {@link FileDiscovery}, partitions them by size into one shard per worker listed in
+ * {@link ApplicationConfig#getWorkerAddresses()}, sends every shard to its worker over TCP and merges the
+ * partial statistics that come back. If a worker cannot be reached, drops the connection, stays silent for
+ * {@link ApplicationConfig#getWorkerReadTimeoutMillis()} or reports an error, it is marked as failed and its
+ * shard is sent to the next live worker. Files a worker cannot parse are skipped and counted like in batch mode;
+ * they do not mark the worker as failed. The merged statistics are
+ * written with the {@link StatisticsWriter} of the configured format, like in batch mode.
+ */
+public class StatisticsCoordinator {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+
+    private final ApplicationConfig config;
+    private final List<InetSocketAddress> workers;
+    private final ReportPublisher publisher;
+    private final LongAdder failedFiles = new LongAdder();
+
+    public StatisticsCoordinator(ApplicationConfig config) {
+        this.config = config;
+        this.workers = parseAddresses(config.getWorkerAddresses());
+        this.publisher = new ReportPublisher(config,
+                StatisticsWriter.forFormat(config.getReportFormat(), config.isPrettyPrintXml()));
+    }
+
+    /**
+     * Collects the statistics from the workers and writes the report to the output directory.
+     *
+     * @throws IOException          if the input cannot be listed, no worker is left for a shard or the
+     *                              report cannot be written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public void processStatistics() throws IOException, InterruptedException {
+        Map<String, Integer> statistics = collectStatistics();
+
+        try (ExecutorService outputPool = Executors.newFixedThreadPool(config.getThreadPoolSize())) {
+            TopEntries.Selection selection = TopEntries.select(statistics, config.getReportLimit(),
+                    new StatisticsSorter(outputPool, config.getThreadPoolSize()));
+            Path outputPath = publisher.publish(selection, config.isReportIncludeOthers(), outputPool);
+            System.out.printf("Report written: %s%n", outputPath);
+        }
+        System.out.println("\nStatistics processing completed successfully");
+    }
+
+    /**
+     * Distributes the input files across the workers and merges their partial statistics.
+     *
+     * @return merged statistics of all files
+     * @throws InvalidAttributeException if the configured attribute is unknown
+     * @throws IOException               if the input cannot be listed or no worker is left for a shard
+     * @throws InterruptedException      if interrupted while waiting for the workers
+     */
+    public Map<String, Integer> collectStatistics() throws IOException, InterruptedException {
+        if (!Arrays.asList(ApplicationConfig.getAvailableAttributes()).contains(config.getAttribute())) {
+            throw new InvalidAttributeException(String.format("Unknown attribute: %s", config.getAttribute()));
+        }
+
+        List<SizedFile> files = listInputFiles();
+        List<List<Path>> shards = ShardPlanner.partitionSizedFiles(files, workers.size());
+        Set<InetSocketAddress> failedWorkers = ConcurrentHashMap.newKeySet();
+
+        Map<String, Integer> statistics = new HashMap<>();
+        try (ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ShardProtocol.ShardPartial>> partials = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                if (shards.get(i).isEmpty()) {
+                    continue;
+                }
+                int shardIndex = i;
+                partials.add(dispatcher.submit(() -> runShard(shardIndex, shards.get(shardIndex), failedWorkers)));
+            }
+
+            for (Future<ShardProtocol.ShardPartial> partial : partials) {
+                ShardProtocol.ShardPartial shardPartial = getPartial(partial);
+                mergePartial(statistics, shardPartial.statistics());
+                failedFiles.add(shardPartial.failedFiles());
+            }
+        }
+
+        System.out.printf("Merged partial statistics of %d files from %d shards (%d workers failed)%n",
+                files.size(), shards.size(), failedWorkers.size());
+        if (getFailedFileCount() > 0) {
+            System.err.printf("%d of %d files could not be processed; see the worker logs for details%n",
+                    getFailedFileCount(), files.size());
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the number of files the workers skipped because they could not be read or parsed.
+     */
+    public long getFailedFileCount() {
+        return failedFiles.sum();
+    }
+
+    /**
+     * Sends a shard to its preferred worker and, if that worker fails, to the following live workers.
+     */
+    private ShardProtocol.ShardPartial runShard(int shardIndex, List<Path> shard, Set<InetSocketAddress> failedWorkers)
+            throws IOException {
+        for (int attempt = 0; attempt < workers.size(); attempt++) {
+            InetSocketAddress worker = workers.get((shardIndex + attempt) % workers.size());
+            if (failedWorkers.contains(worker)) {
+                continue;
+            }
+
+            try {
+                ShardProtocol.ShardPartial partial = requestPartial(worker, shard);
+                System.out.printf("Shard %d (%d files, %d failed) processed by %s%n",
+                        shardIndex, shard.size(), partial.failedFiles(), worker);
+                return partial;
+            } catch (IOException e) {
+                failedWorkers.add(worker);
+                System.err.printf("Worker %s failed on shard %d: %s. Reassigning the shard%n",
+                        worker, shardIndex, e.getMessage());
+            }
+        }
+        throw new IOException(String.format("No live worker left for shard %d", shardIndex));
+    }
+
+    private ShardProtocol.ShardPartial requestPartial(InetSocketAddress worker, List<Path> shard) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+            // Workers send progress frames while busy, so this only expires for a worker that hangs;
+            // SocketTimeoutException then reassigns the shard like a crash
+            socket.setSoTimeout(config.getWorkerReadTimeoutMillis());
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            ShardProtocol.writeRequest(output, config.getAttribute(), shard);
+            return ShardProtocol.readPartial(input);
+        }
+    }
+
+    private static ShardProtocol.ShardPartial getPartial(Future<ShardProtocol.ShardPartial> partial)
+            throws IOException, InterruptedException {
+        try {
+            return partial.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard dispatch failed", e.getCause());
+        }
+    }
+
+    private static void mergePartial(Map<String, Integer> statistics, Map<String, Integer> partial) {
+        partial.forEach((value, count) -> statistics.merge(value, count, Integer::sum));
+    }
+
+    private List<SizedFile> listInputFiles() throws IOException {
+        List<SizedFile> files = FileDiscovery.fromConfig(config).discover();
+        if (files.isEmpty()) {
+            throw new IOException(String.format("No JSON files found in input directory: %s",
+                    config.getInputRootPaths().stream().map(Path::toString).collect(Collectors.joining(", "))));
+        }
+        return files;
+    }
+
+    /**
+     * Parses a comma-separated list of {@code host:port} addresses.
+     *
+     * @throws IllegalArgumentException if the list is empty or an address is malformed
+     */
+    static List<InetSocketAddress> parseAddresses(String addresses) {
+        List<InetSocketAddress> result = new ArrayList<>();
+        for (String address : addresses.split(",")) {
+            String trimmed = address.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Worker address must have form host:port: " + trimmed);
+            }
+            int port = Integer.parseInt(trimmed.substring(separator + 1));
+            result.add(new InetSocketAddress(trimmed.substring(0, separator), port));
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("No worker addresses configured");
+        }
+        return result;
+    }
+}
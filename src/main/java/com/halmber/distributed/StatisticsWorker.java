@@ -0,0 +1,202 @@
+package com.halmber.distributed;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.service.DirectBufferPool;
+import com.halmber.service.order.AdmissionController;
+import com.halmber.service.order.ProcessingService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker process of a distributed run.
+ * <p>
+ * Listens on {@link ApplicationConfig#getWorkerPort()} and serves one shard per connection: it reads the
+ * attribute and file list sent by a {@link StatisticsCoordinator}, processes the files with
+ * {@link ProcessingService} on a warm thread pool shared by all connections and sends back the partial
+ * statistics in the binary format of {@link ShardProtocol}. Files that cannot be parsed are logged and skipped
+ * like in batch mode, and their number is sent with the partial. While a shard is processed, a progress frame
+ * is sent every {@value ShardProtocol#HEARTBEAT_INTERVAL_MILLIS} ms so the coordinator can tell a busy worker from
+ * a hung one.
+ */
+public class StatisticsWorker implements AutoCloseable {
+    private final ApplicationConfig config;
+    private final ServerSocket serverSocket;
+    private final ExecutorService processingPool;
+    private final AdmissionController admissionController;
+    private final DirectBufferPool readBuffers;
+    private final ExecutorService connectionExecutor;
+    private final ScheduledExecutorService heartbeats;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Creates a worker bound to {@link ApplicationConfig#getWorkerPort()}; port {@code 0} picks a free port.
+     *
+     * @param config processing configuration; the attribute is taken from each request
+     * @throws IOException if the port cannot be bound
+     */
+    public StatisticsWorker(ApplicationConfig config) throws IOException {
+        this.config = config;
+        this.serverSocket = new ServerSocket(config.getWorkerPort());
+        this.processingPool = Executors.newFixedThreadPool(config.getThreadPoolSize());
+        // Shared by all shards, like the processing pool
+        this.admissionController = ProcessingService.createAdmissionController(config);
+        this.readBuffers = ProcessingService.createReadBuffers(config);
+        this.connectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "worker-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts accepting shard requests in the background.
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptConnections, "worker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.printf("Statistics worker listening on port %d%n", getPort());
+    }
+
+    /**
+     * Returns the port the worker is bound to.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Blocks until the worker is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops accepting shards and aborts running ones; their coordinator reassigns them.
+     */
+    @Override
+    public void close() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.printf("Failed to close worker socket: %s%n", e.getMessage());
+        }
+        connectionExecutor.shutdownNow();
+        heartbeats.shutdownNow();
+        processingPool.shutdownNow();
+        if (admissionController != null) {
+            admissionController.close();
+        }
+        stopped.countDown();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionExecutor.execute(() -> serveShard(socket));
+            } catch (SocketException e) {
+                // Socket closed by close()
+                return;
+            } catch (IOException e) {
+                System.err.printf("Failed to accept connection: %s%n", e.getMessage());
+            }
+        }
+    }
+
+    private void serveShard(Socket socket) {
+        try (socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+
+            ShardProtocol.ShardRequest request = ShardProtocol.readRequest(input);
+            ShardResponse response = new ShardResponse(output);
+            if (!Arrays.asList(ApplicationConfig.getAvailableAttributes()).contains(request.attribute())) {
+                response.error("Unknown attribute: " + request.attribute());
+                return;
+            }
+
+            ApplicationConfig shardConfig = config.toBuilder().attribute(request.attribute()).build();
+            Map<String, Integer> statistics = new ConcurrentHashMap<>();
+            ProcessingService processingService = new ProcessingService(
+                    shardConfig, processingPool, admissionController, readBuffers);
+            ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                    () -> response.progress(processingService.getCompletedFileCount()),
+                    ShardProtocol.HEARTBEAT_INTERVAL_MILLIS, ShardProtocol.HEARTBEAT_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+            try {
+                processingService.processFiles(request.files(), statistics);
+            } catch (IOException e) {
+                response.error(e.getMessage() != null ? e.getMessage() : e.toString());
+                return;
+            } finally {
+                heartbeat.cancel(false);
+            }
+            long failedFiles = processingService.getFailedFileCount();
+            response.partial(statistics, failedFiles);
+            System.out.printf("Sent partial statistics for %d files (%d values, %d files failed)%n",
+                    request.files().size(), statistics.size(), failedFiles);
+        } catch (IOException e) {
+            System.err.printf("Shard connection failed: %s%n", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the frames of one response; progress frames from the heartbeat thread never interleave with
+     * the final frame or follow it.
+     */
+    private static final class ShardResponse {
+        private final DataOutputStream output;
+        private boolean finished;
+
+        ShardResponse(DataOutputStream output) {
+            this.output = output;
+        }
+
+        synchronized void progress(long filesDone) {
+            if (finished) {
+                return;
+            }
+            try {
+                ShardProtocol.writeProgress(output, filesDone);
+            } catch (IOException e) {
+                // The coordinator is gone; the final write reports it
+            }
+        }
+
+        synchronized void partial(Map<String, Integer> statistics, long failedFiles) throws IOException {
+            finished = true;
+            ShardProtocol.writePartial(output, statistics, failedFiles);
+        }
+
+        synchronized void error(String message) throws IOException {
+            finished = true;
+            ShardProtocol.writeError(output, message);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.halmber.model.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Index of a sharded report: the shard files in report order and the totals of the whole report.
+ * The totals of the left-out entries are {@code null} unless the report includes them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportManifest {
+    private String attribute;
+    private String format;
+    private boolean compressed;
+    private long entries;
+    private Integer distinctValues;
+    private Integer otherValues;
+    private Long otherCount;
+    private List<Shard> shards;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Shard {
+        private String file;
+        private int entries;
+        private long bytes;
+    }
+}
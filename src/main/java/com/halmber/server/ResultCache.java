@@ -0,0 +1,107 @@
+package com.halmber.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of computed results with least-recently-used eviction.
+ * <p>
+ * Concurrent lookups of a missing key are coalesced: the first caller computes the value and the others
+ * wait for it instead of starting the same computation again. A failed computation is not cached, nor is a
+ * value rejected by the caller's {@code cacheable} check; callers waiting for it still receive it.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+class ResultCache<K, V> {
+    private final Map<K, CompletableFuture<V>> entries;
+
+    /**
+     * @param maxEntries maximum number of results kept; the least recently used one is evicted first
+     */
+    ResultCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CompletableFuture<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the key, computing it with the loader on a miss.
+     *
+     * @param key    cache key
+     * @param loader computes the value on a miss; runs on the calling thread
+     * @return the value and whether it came from the cache
+     * @throws ExecutionException   if the loader failed; the cause is the loader's exception
+     * @throws InterruptedException if interrupted while waiting for a concurrent computation of the same key
+     */
+    Lookup<V> get(K key, Callable<V> loader) throws ExecutionException, InterruptedException {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * Returns the cached value for the key, computing it with the loader on a miss and keeping it only if it
+     * is cacheable.
+     *
+     * @param key       cache key
+     * @param loader    computes the value on a miss; runs on the calling thread
+     * @param cacheable tells whether a computed value may be kept
+     * @return the value and whether it came from the cache
+     * @throws ExecutionException   if the loader failed; the cause is the loader's exception
+     * @throws InterruptedException if interrupted while waiting for a concurrent computation of the same key
+     */
+    Lookup<V> get(K key, Callable<V> loader, Predicate<? super V> cacheable)
+            throws ExecutionException, InterruptedException {
+        CompletableFuture<V> future;
+        boolean hit;
+        synchronized (entries) {
+            future = entries.get(key);
+            hit = future != null;
+            if (!hit) {
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+            }
+        }
+
+        if (!hit) {
+            try {
+                V value = loader.call();
+                future.complete(value);
+                if (!cacheable.test(value)) {
+                    remove(key, future);
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+                remove(key, future);
+            }
+        }
+        return new Lookup<>(future.get(), hit);
+    }
+
+    private void remove(K key, CompletableFuture<V> future) {
+        synchronized (entries) {
+            entries.remove(key, future);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Result of a cache lookup.
+     *
+     * @param value the cached or computed value
+     * @param hit   {@code true} if the value was already cached or being computed by another caller
+     */
+    record Lookup<V>(V value, boolean hit) {
+    }
+}
@@ -0,0 +1,340 @@
+package com.halmber.server;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.service.DirectBufferPool;
+import com.halmber.service.FileDiscovery;
+import com.halmber.service.JsonStatisticsWriter;
+import com.halmber.service.SizedFile;
+import com.halmber.service.StreamingXmlStatisticsWriter;
+import com.halmber.service.order.AdmissionController;
+import com.halmber.service.order.ProcessingService;
+import com.halmber.utils.InputFingerprint;
+import com.halmber.utils.StatisticsSorter;
+import com.halmber.utils.TopEntries;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Long-running server that answers statistics queries over HTTP.
+ * <p>
+ * The JVM, Jackson and the processing thread pool stay warm between queries, so only the first query pays
+ * the start-up costs. Supported request:
+ * <pre>
+ * GET /stats?attribute=city&amp;dir=/data/orders&amp;format=json
+ * </pre>
+ * {@code attribute} is required; {@code dir} defaults to the configured input roots and {@code format}
+ * ({@code xml} or {@code json}) to {@code xml}. A {@code dir} outside
+ * {@link ApplicationConfig#getServerAllowedRootPaths()} is rejected with {@code 403}, and the server binds to
+ * {@link ApplicationConfig#getServerBindAddress()} (loopback by default), so it does not expose the file
+ * system to the network unless configured to. Files are found with {@link FileDiscovery}, so recursion and the
+ * include and exclude globs apply as in batch mode. The response body has the same structure as the XML report
+ * written in batch mode.
+ * <p>
+ * Results are cached by (input fingerprint, attribute) in an LRU cache of
+ * {@link ApplicationConfig#getServerCacheEntries()} entries. The fingerprint covers the path, size and
+ * modification time of every input file, so a changed directory is processed again while repeated queries
+ * are answered from memory. The {@code X-Cache} response header tells whether the result was a
+ * {@code HIT} or a {@code MISS}. Statistics with files that could not be processed are answered with an
+ * {@code X-Failed-Files} header and are not cached.
+ */
+public class StatisticsServer implements AutoCloseable {
+    private static final String STATS_PATH = "/stats";
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final ApplicationConfig config;
+    private final HttpServer httpServer;
+    private final ExecutorService requestExecutor;
+    private final ExecutorService processingPool;
+    private final AdmissionController admissionController;
+    private final DirectBufferPool readBuffers;
+    private final List<Path> allowedRoots;
+    private final ResultCache<CacheKey, CachedStatistics> cache;
+    private final StreamingXmlStatisticsWriter xmlWriter;
+    private final JsonStatisticsWriter jsonWriter;
+    private final StatisticsSorter sorter;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * Creates a server bound to {@link ApplicationConfig#getServerBindAddress()} and
+     * {@link ApplicationConfig#getServerPort()}; port {@code 0} picks a free port.
+     *
+     * @param config server and processing configuration
+     * @throws IOException if the address cannot be bound
+     */
+    public StatisticsServer(ApplicationConfig config) throws IOException {
+        this.config = config;
+        this.httpServer = HttpServer.create(
+                new InetSocketAddress(config.getServerBindAddress(), config.getServerPort()), 0);
+        this.allowedRoots = config.getServerAllowedRootPaths().stream()
+                .map(root -> root.toAbsolutePath().normalize())
+                .toList();
+        // Request threads mostly wait for the processing pool, so virtual threads are enough
+        this.requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.processingPool = Executors.newFixedThreadPool(config.getThreadPoolSize());
+        // Shared by all queries: one memory budget and one heap listener for the JVM, one set of direct buffers
+        this.admissionController = ProcessingService.createAdmissionController(config);
+        this.readBuffers = ProcessingService.createReadBuffers(config);
+        this.cache = new ResultCache<>(config.getServerCacheEntries());
+        this.xmlWriter = new StreamingXmlStatisticsWriter(config.isPrettyPrintXml());
+        this.jsonWriter = new JsonStatisticsWriter(true);
+        this.sorter = new StatisticsSorter(processingPool, config.getThreadPoolSize());
+
+        httpServer.setExecutor(requestExecutor);
+        httpServer.createContext(STATS_PATH, this::handleStats);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        httpServer.start();
+        System.out.printf("Statistics server listening on %s:%d%n",
+                httpServer.getAddress().getHostString(), getPort());
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Blocks until the server is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Stops accepting requests, gives running exchanges a moment to finish and releases all threads.
+     */
+    @Override
+    public void close() {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        httpServer.stop(STOP_DELAY_SECONDS);
+        requestExecutor.shutdownNow();
+        processingPool.shutdownNow();
+        if (admissionController != null) {
+            admissionController.close();
+        }
+        stopped.countDown();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String attribute = query.get("attribute");
+            String directory = query.get("dir");
+            ResponseFormat format = ResponseFormat.fromName(query.getOrDefault("format", "xml"));
+
+            if (attribute == null || !Arrays.asList(ApplicationConfig.getAvailableAttributes()).contains(attribute)) {
+                sendError(exchange, 400, String.format("Unknown attribute: %s. Available attributes: %s",
+                        attribute, String.join(", ", ApplicationConfig.getAvailableAttributes())));
+                return;
+            }
+            if (format == null) {
+                sendError(exchange, 400, "Unknown format: " + query.get("format") + ". Use xml or json");
+                return;
+            }
+            if (directory != null && !isAllowed(Path.of(directory))) {
+                sendError(exchange, 403, "Directory is outside the allowed roots: " + directory);
+                return;
+            }
+            ApplicationConfig queryConfig = queryConfig(directory, attribute);
+
+            long startNanos = System.nanoTime();
+            List<SizedFile> files;
+            try {
+                files = FileDiscovery.fromConfig(queryConfig).discover();
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                sendError(exchange, 404, "Directory does not exist: " + e.getFile());
+                return;
+            }
+            if (files.isEmpty()) {
+                sendError(exchange, 404, "No JSON files found in directory: " + queryConfig.getInputRootPaths().stream()
+                        .map(Path::toString).collect(Collectors.joining(", ")));
+                return;
+            }
+            ResultCache.Lookup<CachedStatistics> result = query(queryConfig, files);
+            byte[] body = result.value().render(format, this::render);
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+            exchange.getResponseHeaders().set("Content-Type", format.contentType);
+            exchange.getResponseHeaders().set("X-Cache", result.hit() ? "HIT" : "MISS");
+            exchange.getResponseHeaders().set("X-Processing-Millis", Long.toString(elapsedMillis));
+            if (result.value().failedFiles > 0) {
+                exchange.getResponseHeaders().set("X-Failed-Files", Long.toString(result.value().failedFiles));
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Server is shutting down");
+        } catch (Exception e) {
+            sendError(exchange, 500, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Tells whether the directory lies in one of the allowed roots. The path is normalized first, so
+     * {@code ..} segments cannot leave a root.
+     */
+    private boolean isAllowed(Path directory) {
+        Path normalized = directory.toAbsolutePath().normalize();
+        return allowedRoots.stream().anyMatch(normalized::startsWith);
+    }
+
+    /**
+     * Returns the configuration of a query: the {@code dir} parameter replaces the configured input roots,
+     * the other discovery settings (recursion, globs) stay as configured.
+     */
+    private ApplicationConfig queryConfig(String directory, String attribute) {
+        ApplicationConfig.ApplicationConfigBuilder builder = config.toBuilder().attribute(attribute);
+        if (directory != null) {
+            builder.inputDirectory(directory).inputRoots("");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the statistics of the files for the attribute, from the cache if the input did not change.
+     * Statistics with failed files are returned but not cached, so the next query tries the files again.
+     */
+    private ResultCache.Lookup<CachedStatistics> query(ApplicationConfig queryConfig, List<SizedFile> files)
+            throws Exception {
+        CacheKey key = new CacheKey(InputFingerprint.of(files.stream().map(SizedFile::path).toList()),
+                queryConfig.getAttribute());
+
+        try {
+            return cache.get(key, () -> process(queryConfig, files), statistics -> statistics.failedFiles == 0);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private CachedStatistics process(ApplicationConfig queryConfig, List<SizedFile> files)
+            throws IOException, InterruptedException {
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        ProcessingService processingService = new ProcessingService(
+                queryConfig, processingPool, admissionController, readBuffers);
+        processingService.processSizedFiles(files, statistics);
+        return new CachedStatistics(Map.copyOf(statistics), processingService.getFailedFileCount());
+    }
+
+    private byte[] render(Map<String, Integer> statistics, ResponseFormat format) throws IOException {
+        TopEntries.Selection selection = TopEntries.select(statistics, 0, sorter);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        switch (format) {
+            case XML -> xmlWriter.writeSelection(output, selection, false);
+            case JSON -> jsonWriter.writeSelection(output, selection, false);
+        }
+        return output.toByteArray();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private record CacheKey(String inputFingerprint, String attribute) {
+    }
+
+    /**
+     * Cached statistics together with their rendered responses, so repeated queries skip serialization too.
+     */
+    private static final class CachedStatistics {
+        private final Map<String, Integer> statistics;
+        private final long failedFiles;
+        private final Map<ResponseFormat, byte[]> rendered = new EnumMap<>(ResponseFormat.class);
+
+        CachedStatistics(Map<String, Integer> statistics, long failedFiles) {
+            this.statistics = statistics;
+            this.failedFiles = failedFiles;
+        }
+
+        synchronized byte[] render(ResponseFormat format, Renderer renderer) throws IOException {
+            byte[] body = rendered.get(format);
+            if (body == null) {
+                body = renderer.render(statistics, format);
+                rendered.put(format, body);
+            }
+            return body;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Renderer {
+        byte[] render(Map<String, Integer> statistics, ResponseFormat format) throws IOException;
+    }
+
+    private enum ResponseFormat {
+        XML("application/xml"),
+        JSON("application/json");
+
+        private final String contentType;
+
+        ResponseFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        static ResponseFormat fromName(String name) {
+            for (ResponseFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+}
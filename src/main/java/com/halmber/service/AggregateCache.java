@@ -0,0 +1,167 @@
+package com.halmber.service;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.utils.TopEntries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistent cache of aggregated statistics in a hidden directory of the output directory.
+ * <p>
+ * An entry is keyed by the {@link com.halmber.utils.InputFingerprint} of the input files together with the
+ * settings that change the aggregate (the attribute and deduplication), and holds the whole statistics map
+ * in the format of {@link BinaryStatisticsWriter}. Report settings such as the format or the limit are not
+ * part of the key, as the report is written from the cached map.
+ * <p>
+ * Entries are written to a temporary file and moved into place, so concurrent runs never read a partly
+ * written entry. A hit updates the modification time of the entry, which serves as its last-use time: after
+ * every store the least recently used entries are deleted until the cache fits into its size limit.
+ * An entry that cannot be read is deleted and treated as a miss.
+ */
+public class AggregateCache {
+    /**
+     * Name of the cache directory inside the output directory.
+     */
+    public static final String DIRECTORY_NAME = ".statistics-cache";
+
+    private static final String ENTRY_SUFFIX = ".bin";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory directory of the cache entries; created on the first store
+     * @param maxBytes  maximum total size of the entries
+     */
+    public AggregateCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates the cache of the configured output directory and size limit.
+     */
+    public static AggregateCache fromConfig(ApplicationConfig config) {
+        return new AggregateCache(Path.of(config.getOutputDirectory(), DIRECTORY_NAME), config.getResultCacheMaxBytes());
+    }
+
+    /**
+     * Returns the cache key of a run, e.g. {@code city-dedup-3f2a...}.
+     *
+     * @param inputFingerprint fingerprint of the input files
+     * @param config           settings of the run
+     */
+    public static String key(String inputFingerprint, ApplicationConfig config) {
+        return config.getAttribute() + (config.isDeduplicateOrders() ? "-dedup-" : "-") + inputFingerprint;
+    }
+
+    /**
+     * Returns the cached statistics of the key and marks the entry as recently used.
+     *
+     * @param key cache key from {@link #key(String, ApplicationConfig)}
+     * @return the statistics, or {@code null} if the key is not cached
+     */
+    public Map<String, Integer> get(String key) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        TopEntries.Selection selection;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(entry), BUFFER_SIZE)) {
+            selection = BinaryStatisticsWriter.read(input);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("Discarding unreadable cache entry %s: %s%n", entry.getFileName(), e.getMessage());
+            deleteQuietly(entry);
+            return null;
+        }
+
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Evicted by a concurrent run; the statistics are still valid
+        }
+
+        Map<String, Integer> statistics = new HashMap<>(selection.entries().size() * 4 / 3 + 1);
+        for (Map.Entry<String, Integer> item : selection.entries()) {
+            statistics.put(item.getKey(), item.getValue());
+        }
+        return statistics;
+    }
+
+    /**
+     * Stores the statistics under the key and evicts the least recently used entries over the size limit.
+     *
+     * @param key        cache key from {@link #key(String, ApplicationConfig)}
+     * @param statistics the complete statistics of the run
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(String key, Map<String, Integer> statistics) throws IOException {
+        Files.createDirectories(directory);
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        Path temp = directory.resolve("." + key + "." + UUID.randomUUID() + ".tmp");
+        TopEntries.Selection selection = new TopEntries.Selection(
+                new ArrayList<>(statistics.entrySet()), statistics.size(), 0, 0);
+        try {
+            try (OutputStream output = new BufferedOutputStream(
+                    Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), BUFFER_SIZE)) {
+                new BinaryStatisticsWriter().writeSelection(output, selection, false);
+            }
+            ReportPublisher.moveIntoPlace(temp, entry);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size is within the limit.
+     */
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                    entries.add(file);
+                } catch (NoSuchFileException e) {
+                    // Evicted by a concurrent run
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparing((Path file) -> attributes.get(file).lastModifiedTime()).reversed());
+        long totalBytes = 0;
+        for (Path file : entries) {
+            totalBytes += attributes.get(file).size();
+            if (totalBytes > maxBytes) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.printf("Could not delete cache entry %s: %s%n", file.getFileName(), e.getMessage());
+        }
+    }
+}
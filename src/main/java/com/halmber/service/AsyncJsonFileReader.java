@@ -0,0 +1,369 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+
+/**
+ * Reads a JSON file containing an array of objects through an {@link AsynchronousFileChannel}, keeping
+ * several reads in flight ahead of the parser.
+ * <p>
+ * The file is read in blocks of {@link DirectBufferPool#getBufferSize()} bytes at aligned offsets. Up to
+ * {@code readAhead} blocks are requested at the same time, each into a direct buffer of a shared
+ * {@link DirectBufferPool}; the parser waits only for the oldest block, while the following ones are
+ * already on their way. A consumed buffer is reused right away for the next block. The reader waits for
+ * one buffer when it is opened and takes further read-ahead buffers only when the pool has free ones, so
+ * a busy pool reduces the read-ahead instead of blocking readers that already hold a buffer.
+ * <p>
+ * The blocks are fed to Jackson's non-blocking parser through a {@link ByteArrayFeeder}. Every array
+ * element is collected in a {@link TokenBuffer} and deserialized once it is complete; the elements,
+ * validation and exceptions are the same as those of {@link JsonFileReader.ArrayReader}.
+ *
+ * @param <T> the type of objects to deserialize
+ */
+public final class AsyncJsonFileReader<T> implements Closeable {
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final AsynchronousFileChannel channel;
+    private final long fileSize;
+    private final DirectBufferPool bufferPool;
+    private final int readAhead;
+    private final Class<T> clazz;
+    private final JsonParser jsonParser;
+    private final ByteArrayFeeder feeder;
+    private final byte[] chunk;
+    private final Deque<PendingRead> pendingReads = new ArrayDeque<>();
+    private long nextPosition;
+    private boolean started;
+
+    private AsyncJsonFileReader(AsynchronousFileChannel channel, DirectBufferPool bufferPool, int readAhead,
+                                Class<T> clazz) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.bufferPool = bufferPool;
+        this.readAhead = Math.max(1, readAhead);
+        this.clazz = clazz;
+        this.jsonParser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) jsonParser.getNonBlockingInputFeeder();
+        this.chunk = new byte[bufferPool.getBufferSize()];
+    }
+
+    /**
+     * Opens a JSON file for pull-based reading and starts reading ahead.
+     *
+     * @param <T>        the type of objects to deserialize
+     * @param file       the JSON file to read
+     * @param clazz      the target class of deserialized objects
+     * @param bufferPool pool of the read buffers, usually shared by all readers
+     * @param readAhead  maximum number of reads in flight
+     * @return a reader that must be closed after use
+     * @throws IOException if the file cannot be opened or interrupted while waiting for a buffer
+     */
+    public static <T> AsyncJsonFileReader<T> open(Path file, Class<T> clazz, DirectBufferPool bufferPool,
+                                                  int readAhead) throws IOException {
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+        try {
+            AsyncJsonFileReader<T> reader = new AsyncJsonFileReader<>(channel, bufferPool, readAhead, clazz);
+            reader.startReads();
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a JSON file expected to contain a top-level array of objects and passes every element to the
+     * consumer. Behaves like {@link JsonFileReader#readFile(java.io.File, Class, Consumer)}.
+     *
+     * @param <T>        the type of objects to deserialize
+     * @param file       the JSON file to read
+     * @param clazz      the target class of deserialized objects
+     * @param bufferPool pool of the read buffers, usually shared by all readers
+     * @param readAhead  maximum number of reads in flight
+     * @param consumer   a consumer to process each deserialized object
+     * @throws IOException              if an I/O error occurs during reading
+     * @throws IllegalArgumentException if the JSON does not start with an array
+     *                                  or an object is not an instance of {@code clazz}
+     */
+    public static <T> void readFile(Path file, Class<T> clazz, DirectBufferPool bufferPool, int readAhead,
+                                    Consumer<T> consumer) throws IOException, IllegalArgumentException {
+        readFile(file, clazz, bufferPool, readAhead, consumer, bytes -> {
+        });
+    }
+
+    /**
+     * Reads a JSON file like {@link #readFile(Path, Class, DirectBufferPool, int, Consumer)} and reports the
+     * bytes consumed by the parser in steps of about {@value JsonFileReader#PROGRESS_STEP_BYTES} bytes.
+     *
+     * @param bytesRead receives the number of bytes consumed since its previous call
+     * @see #readFile(Path, Class, DirectBufferPool, int, Consumer)
+     */
+    public static <T> void readFile(Path file, Class<T> clazz, DirectBufferPool bufferPool, int readAhead,
+                                    Consumer<T> consumer, LongConsumer bytesRead)
+            throws IOException, IllegalArgumentException {
+        try (AsyncJsonFileReader<T> reader = open(file, clazz, bufferPool, readAhead)) {
+            long reported = 0;
+            T obj;
+            while ((obj = reader.next()) != null) {
+                consumer.accept(obj);
+                long offset = reader.getByteOffset();
+                if (offset - reported >= JsonFileReader.PROGRESS_STEP_BYTES) {
+                    bytesRead.accept(offset - reported);
+                    reported = offset;
+                }
+            }
+            long offset = reader.getByteOffset();
+            if (offset > reported) {
+                bytesRead.accept(offset - reported);
+            }
+        }
+    }
+
+    /**
+     * Parses the next element of the array.
+     *
+     * @return the next element, or {@code null} after the end of the array
+     * @throws IOException              if an I/O error occurs during reading
+     * @throws IllegalArgumentException if the JSON does not start with an array
+     *                                  or an object is not an instance of {@code clazz}
+     */
+    public T next() throws IOException {
+        if (!started) {
+            started = true;
+            if (nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON must start with array.");
+            }
+        }
+
+        JsonToken token = nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+
+        TokenBuffer element = new TokenBuffer(OBJECT_MAPPER, false);
+        int depth = 0;
+        while (true) {
+            if (token == null) {
+                throw new EOFException("Unexpected end of input inside the JSON array");
+            }
+            element.copyCurrentEvent(jsonParser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 0) {
+                break;
+            }
+            token = nextToken();
+        }
+
+        T obj;
+        try (JsonParser elementParser = element.asParser(OBJECT_MAPPER)) {
+            obj = OBJECT_MAPPER.readValue(elementParser, clazz);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Failed to deserialize element. %s%n", e.getMessage()));
+        }
+        if (!clazz.isInstance(obj)) {
+            throw new IllegalArgumentException(String.format("Object %s is not of type %s", obj, clazz.getName()));
+        }
+        return obj;
+    }
+
+    /**
+     * Returns the number of bytes the parser has consumed so far, or {@code -1} if unknown.
+     */
+    public long getByteOffset() {
+        return jsonParser.currentLocation().getByteOffset();
+    }
+
+    /**
+     * Waits for the reads still in flight, returns their buffers to the pool and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            releasePendingReads();
+        } finally {
+            try {
+                jsonParser.close();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the next token, feeding blocks to the parser until it has one.
+     */
+    private JsonToken nextToken() throws IOException {
+        JsonToken token;
+        while ((token = jsonParser.nextToken()) == JsonToken.NOT_AVAILABLE) {
+            feedNextBlock();
+        }
+        return token;
+    }
+
+    private void startReads() throws IOException {
+        if (fileSize == 0) {
+            return;
+        }
+        ByteBuffer first;
+        try {
+            first = bufferPool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a read buffer");
+        }
+        issueRead(first);
+        topUpReads();
+    }
+
+    /**
+     * Waits for the oldest read, passes its bytes to the parser and reuses its buffer for the next block.
+     * Signals the end of input when all blocks have been fed.
+     */
+    private void feedNextBlock() throws IOException {
+        PendingRead read = pendingReads.pollFirst();
+        if (read == null) {
+            feeder.endOfInput();
+            return;
+        }
+
+        ByteBuffer buffer = read.buffer();
+        int length;
+        try {
+            length = completeRead(read);
+            buffer.flip();
+            buffer.get(chunk, 0, length);
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(buffer);
+            throw e;
+        }
+        if (length == 0) {
+            // The file was truncated while reading: treat it as the end of the input
+            bufferPool.release(buffer);
+            releasePendingReads();
+            feeder.endOfInput();
+            return;
+        }
+
+        issueRead(buffer);
+        topUpReads();
+        feeder.feedInput(chunk, 0, length);
+    }
+
+    /**
+     * Waits for a read and continues it until the buffer is full or the end of the file is reached,
+     * as a read may return fewer bytes than requested.
+     *
+     * @return the number of bytes in the buffer
+     */
+    private int completeRead(PendingRead read) throws IOException {
+        ByteBuffer buffer = read.buffer();
+        int bytesRead = await(read.result());
+        while (bytesRead >= 0 && buffer.hasRemaining() && read.position() + buffer.position() < fileSize) {
+            bytesRead = await(channel.read(buffer, read.position() + buffer.position()));
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Starts a read of the next block into the buffer, or returns the buffer to the pool after the last block.
+     */
+    private void issueRead(ByteBuffer buffer) {
+        if (nextPosition >= fileSize) {
+            bufferPool.release(buffer);
+            return;
+        }
+        buffer.clear();
+        pendingReads.addLast(new PendingRead(buffer, nextPosition, channel.read(buffer, nextPosition)));
+        nextPosition += buffer.capacity();
+    }
+
+    /**
+     * Starts reads into free buffers of the pool until {@code readAhead} reads are in flight.
+     */
+    private void topUpReads() {
+        while (pendingReads.size() < readAhead && nextPosition < fileSize) {
+            ByteBuffer buffer = bufferPool.tryAcquire();
+            if (buffer == null) {
+                return;
+            }
+            issueRead(buffer);
+        }
+    }
+
+    /**
+     * Waits for the reads in flight and returns their buffers to the pool; a buffer may be reused only
+     * after the read into it has finished.
+     */
+    private void releasePendingReads() {
+        PendingRead read;
+        while ((read = pendingReads.pollFirst()) != null) {
+            awaitQuietly(read.result());
+            bufferPool.release(read.buffer());
+        }
+    }
+
+    private static int await(Future<Integer> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static void awaitQuietly(Future<Integer> result) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                result.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A read in flight.
+     *
+     * @param buffer   buffer the block is read into
+     * @param position offset of the block in the file
+     * @param result   number of bytes read, or {@code -1} at the end of the file
+     */
+    private record PendingRead(ByteBuffer buffer, long position, Future<Integer> result) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.halmber.service;
+
+import com.halmber.utils.TopEntries;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes statistics as compact length-prefixed binary records, big-endian:
+ * <pre>
+ * int magic ("STRB"), byte version, int entryCount,
+ * (int valueLength, byte[valueLength] UTF-8 value, int count) * entryCount,
+ * byte hasOthers, [int otherValues, long otherCount, int distinctValues]
+ * </pre>
+ * Entries are sorted by count in descending order. Unlike {@link DataOutputStream#writeUTF} the value length
+ * is an {@code int}, so values are not limited to 64 KB. {@link #read(InputStream)} reads a report back.
+ */
+public class BinaryStatisticsWriter implements StatisticsWriter {
+    private static final int MAGIC = 0x53545242; // "STRB"
+    private static final byte VERSION = 1;
+
+    @Override
+    public void writeSelection(OutputStream output, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException {
+
+        // Not closed: closing the stream would close the caller's stream
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(selection.entries().size());
+        for (Map.Entry<String, Integer> entry : selection.entries()) {
+            byte[] value = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            data.writeInt(value.length);
+            data.write(value);
+            data.writeInt(entry.getValue());
+        }
+        data.writeBoolean(includeOthers);
+        if (includeOthers) {
+            data.writeInt(selection.otherValues());
+            data.writeLong(selection.otherCount());
+            data.writeInt(selection.distinctValues());
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a report written by this class.
+     *
+     * @param input the stream to read from, preferably buffered; not closed
+     * @return the entries in report order; without the others totals the entries are the whole map
+     * @throws IOException if the stream is not a binary statistics report or cannot be read
+     */
+    public static TopEntries.Selection read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a binary statistics report");
+        }
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary statistics report version: " + version);
+        }
+
+        int entryCount = data.readInt();
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            byte[] value = new byte[data.readInt()];
+            data.readFully(value);
+            entries.add(Map.entry(new String(value, StandardCharsets.UTF_8), data.readInt()));
+        }
+
+        if (data.readBoolean()) {
+            int otherValues = data.readInt();
+            long otherCount = data.readLong();
+            return new TopEntries.Selection(entries, data.readInt(), otherValues, otherCount);
+        }
+        return new TopEntries.Selection(entries, entryCount, 0, 0);
+    }
+}
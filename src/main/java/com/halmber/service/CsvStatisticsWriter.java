@@ -0,0 +1,59 @@
+package com.halmber.service;
+
+import com.halmber.utils.TopEntries;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes statistics as UTF-8 CSV (RFC 4180): a {@code value,count} header followed by one row per entry,
+ * lines separated by CRLF. Values containing a comma, a double quote or a line break are quoted, with
+ * embedded quotes doubled.
+ * <p>
+ * With {@code includeOthers} two more rows follow the entries: {@code (others),<total count>} and
+ * {@code (distinct values),<number of entries in the whole map>}.
+ */
+public class CsvStatisticsWriter implements StatisticsWriter {
+    private static final String HEADER = "value,count";
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    @Override
+    public void writeSelection(OutputStream output, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException {
+
+        // Not closed: closing the writer would close the caller's stream
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write(LINE_SEPARATOR);
+        for (Map.Entry<String, Integer> entry : selection.entries()) {
+            writeRow(writer, escape(entry.getKey()), entry.getValue());
+        }
+        if (includeOthers) {
+            writeRow(writer, "(others)", selection.otherCount());
+            writeRow(writer, "(distinct values)", selection.distinctValues());
+        }
+        writer.flush();
+    }
+
+    private static void writeRow(Writer writer, String value, long count) throws IOException {
+        writer.write(value);
+        writer.write(',');
+        writer.write(Long.toString(count));
+        writer.write(LINE_SEPARATOR);
+    }
+
+    static String escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,91 @@
+package com.halmber.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of reusable direct byte buffers for {@link AsyncJsonFileReader}.
+ * <p>
+ * Buffers are allocated on demand up to {@code maxBuffers} and are never freed, so the native memory
+ * used by reads is bounded by {@code maxBuffers * bufferSize}. The buffer size is rounded up to a multiple
+ * of {@link #ALIGNMENT}, which keeps every read issued at a multiple of the buffer size aligned to the
+ * page size of the file system cache.
+ */
+public class DirectBufferPool {
+    /**
+     * Alignment of the buffer size, in bytes.
+     */
+    public static final int ALIGNMENT = 4096;
+
+    private final BlockingQueue<ByteBuffer> freeBuffers = new LinkedBlockingQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final int maxBuffers;
+    private final int bufferSize;
+
+    /**
+     * @param maxBuffers maximum number of buffers allocated by the pool
+     * @param bufferSize requested size of every buffer; rounded up to a multiple of {@link #ALIGNMENT}
+     * @throws IllegalArgumentException if {@code maxBuffers} or {@code bufferSize} is not positive
+     */
+    public DirectBufferPool(int maxBuffers, int bufferSize) {
+        if (maxBuffers < 1) {
+            throw new IllegalArgumentException("maxBuffers must be positive");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.maxBuffers = maxBuffers;
+        this.bufferSize = (int) Math.min(Integer.MAX_VALUE - ALIGNMENT + 1,
+                ((long) bufferSize + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT);
+    }
+
+    /**
+     * Returns the size of every buffer of the pool, a multiple of {@link #ALIGNMENT}.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns the number of buffers allocated so far.
+     */
+    public int getAllocatedBuffers() {
+        return allocated.get();
+    }
+
+    /**
+     * Returns a cleared buffer, waiting until one is released if all buffers are in use.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buffer = tryAcquire();
+        return buffer != null ? buffer : freeBuffers.take();
+    }
+
+    /**
+     * Returns a cleared buffer, or {@code null} if all buffers are in use.
+     */
+    public ByteBuffer tryAcquire() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated.getAndUpdate(count -> count < maxBuffers ? count + 1 : count) < maxBuffers) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return null;
+    }
+
+    /**
+     * Returns a buffer to the pool. No read may be in progress into the buffer.
+     *
+     * @param buffer a buffer obtained from this pool
+     */
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        freeBuffers.add(buffer);
+    }
+}
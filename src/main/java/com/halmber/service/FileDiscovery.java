@@ -0,0 +1,232 @@
+package com.halmber.service;
+
+import com.halmber.config.ApplicationConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the input files under one or more root directories in a single pass.
+ * <p>
+ * Every directory is listed once. The attributes read for each entry decide whether it is a file or a
+ * directory and also give the file size, so the result is a size-annotated list and schedulers do not have
+ * to stat the files again. With recursion enabled, subdirectories are walked as separate tasks on a
+ * {@link ForkJoinPool}, so many directories are listed at the same time. This matters on network file
+ * systems, where every listing is a round trip.
+ * <p>
+ * Paths are matched relative to their root, e.g. {@code 2024/01/15/orders.json}. A file is included if it
+ * matches one of the include globs and none of the exclude globs. A directory that matches an exclude glob
+ * is not entered. Symbolic links to files are followed; symbolic links to directories are not, so the walk
+ * cannot loop.
+ * <p>
+ * The result keeps a stable order: the roots in the given order, and within a directory its files in
+ * listing order, followed by the files of its subdirectories.
+ */
+public class FileDiscovery {
+    private final List<Path> roots;
+    private final boolean recursive;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final int parallelism;
+
+    /**
+     * @param roots        directories to search
+     * @param recursive    also search subdirectories
+     * @param includeGlobs globs a file must match one of, relative to its root (e.g. {@code **.json})
+     * @param excludeGlobs globs of files and directories to skip, relative to their root
+     * @param parallelism  number of directories listed at the same time
+     */
+    public FileDiscovery(List<Path> roots, boolean recursive, List<String> includeGlobs, List<String> excludeGlobs,
+                         int parallelism) {
+        this.roots = List.copyOf(roots);
+        this.recursive = recursive;
+        this.includes = toMatchers(includeGlobs);
+        this.excludes = toMatchers(excludeGlobs);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Creates a discovery for the input roots, recursion and globs of the configuration; directories are
+     * listed by up to {@link ApplicationConfig#getThreadPoolSize()} threads.
+     */
+    public static FileDiscovery fromConfig(ApplicationConfig config) {
+        return new FileDiscovery(config.getInputRootPaths(), config.isRecursiveInput(),
+                splitGlobs(config.getIncludeGlobs()), splitGlobs(config.getExcludeGlobs()),
+                config.getThreadPoolSize());
+    }
+
+    /**
+     * Lists the matching files of all roots.
+     *
+     * @return the files with their sizes
+     * @throws NoSuchFileException   if a root does not exist
+     * @throws NotDirectoryException if a root is not a directory
+     * @throws AccessDeniedException if a root cannot be read
+     * @throws IOException           if a root cannot be listed
+     */
+    public List<SizedFile> discover() throws IOException {
+        for (Path root : roots) {
+            if (!Files.exists(root)) {
+                throw new NoSuchFileException(root.toString(), null, "Directory does not exist");
+            }
+            if (!Files.isDirectory(root)) {
+                throw new NotDirectoryException(root.toString());
+            }
+            if (!Files.isReadable(root)) {
+                throw new AccessDeniedException(root.toString(), null, "Directory is not readable");
+            }
+        }
+
+        List<SizedFile> files = new ArrayList<>();
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            for (Path root : roots) {
+                files.addAll(pool.invoke(new DirectoryTask(root, root, true)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return files;
+    }
+
+    /**
+     * Returns the directories to search.
+     */
+    public List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Tells whether a file under the root is one {@link #discover()} would return, judged by its path alone:
+     * the path relative to the root matches an include glob and no exclude glob. The file does not have to
+     * exist, so a deleted file can be matched too.
+     */
+    public boolean matches(Path root, Path file) {
+        Path relativePath = root.relativize(file);
+        return matchesAny(includes, relativePath) && !matchesAny(excludes, relativePath);
+    }
+
+    /**
+     * Tells whether {@link #discover()} would enter a subdirectory of the root: recursion is enabled and the
+     * directory does not match an exclude glob.
+     */
+    public boolean entersDirectory(Path root, Path directory) {
+        return recursive && !matchesAny(excludes, root.relativize(directory));
+    }
+
+    /**
+     * Splits a comma-separated list of globs, ignoring blank entries.
+     */
+    public static List<String> splitGlobs(String globs) {
+        List<String> result = new ArrayList<>();
+        for (String glob : globs.split(",")) {
+            if (!glob.isBlank()) {
+                result.add(glob.trim());
+            }
+        }
+        return result;
+    }
+
+    private static List<PathMatcher> toMatchers(List<String> globs) {
+        List<PathMatcher> matchers = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        }
+        return matchers;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relativePath) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the attributes of the symbolic link's target, or {@code null} if the link is broken.
+     */
+    private static BasicFileAttributes readLinkTarget(Path link) {
+        try {
+            return Files.readAttributes(link, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lists one directory and forks a task for each subdirectory.
+     */
+    private final class DirectoryTask extends RecursiveTask<List<SizedFile>> {
+        // ForkJoinTask is Serializable, but a listing task is never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path root;
+        private final transient Path directory;
+        private final transient boolean isRoot;
+
+        DirectoryTask(Path root, Path directory, boolean isRoot) {
+            this.root = root;
+            this.directory = directory;
+            this.isRoot = isRoot;
+        }
+
+        @Override
+        protected List<SizedFile> compute() {
+            List<SizedFile> files = new ArrayList<>();
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    Path relativePath = root.relativize(entry);
+                    if (matchesAny(excludes, relativePath)) {
+                        continue;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isSymbolicLink()) {
+                        attributes = readLinkTarget(entry);
+                        if (attributes == null || attributes.isDirectory()) {
+                            continue;
+                        }
+                    }
+
+                    if (attributes.isDirectory()) {
+                        if (recursive) {
+                            DirectoryTask subdirectory = new DirectoryTask(root, entry, false);
+                            subdirectory.fork();
+                            subdirectories.add(subdirectory);
+                        }
+                    } else if (attributes.isRegularFile() && matchesAny(includes, relativePath)) {
+                        files.add(new SizedFile(entry, attributes.size()));
+                    }
+                }
+            } catch (IOException e) {
+                if (isRoot) {
+                    throw new UncheckedIOException(e);
+                }
+                // A subdirectory that cannot be read must not fail the whole walk
+                System.err.printf("Skipping unreadable directory %s: %s%n", directory, e.getMessage());
+            }
+
+            for (DirectoryTask subdirectory : subdirectories) {
+                files.addAll(subdirectory.join());
+            }
+            return files;
+        }
+    }
+}
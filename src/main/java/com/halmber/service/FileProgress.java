@@ -0,0 +1,40 @@
+package com.halmber.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Adds the bytes a parser reports for one file to a shared counter of consumed bytes.
+ * <p>
+ * A file that fails half way, or whose parser stops before trailing whitespace, would leave the counter
+ * short of the input size; {@link #complete(long)} adds the rest of the file when the task finishes, so that
+ * the counter reaches the total input size at the end of a run.
+ */
+public final class FileProgress implements LongConsumer {
+    private final LongAdder bytesRead;
+    private long reported;
+
+    /**
+     * @param bytesRead counter shared by all files of a run
+     */
+    public FileProgress(LongAdder bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    @Override
+    public void accept(long bytes) {
+        reported += bytes;
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Adds the part of the file that was not reported by the parser.
+     *
+     * @param fileSize size of the file
+     */
+    public void complete(long fileSize) {
+        if (fileSize > reported) {
+            accept(fileSize - reported);
+        }
+    }
+}
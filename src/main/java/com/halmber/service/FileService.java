@@ -42,6 +42,29 @@ public class FileService {
         return Files.newDirectoryStream(dir, "*" + extension.toLowerCase());
     }
 
+    /**
+     * Creates the directory and its missing parents if it does not exist yet.
+     *
+     * @param directoryPath the path to the directory
+     * @return the {@link Path} to the directory
+     * @throws IOException if the directory cannot be created
+     */
+    public static Path createDirectories(String directoryPath) throws IOException {
+        Path dir = Paths.get(directoryPath);
+
+        try {
+            if (!Files.exists(dir)) {
+                Path ok = Files.createDirectories(dir);
+                if (!ok.toFile().exists()) {
+                    throw new IOException("Failed to create directory: " + directoryPath);
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("Error occurred while creating the directory: " + directoryPath, e);
+        }
+        return dir;
+    }
+
     /**
      * Creates a new file with the specified name in the given directory.
      * <p>
@@ -62,19 +85,7 @@ public class FileService {
             throw new IllegalArgumentException("File name cannot be null or empty!");
         }
 
-        Path dir = Paths.get(directoryPath);
-
-        try {
-            if (!Files.exists(dir)) {
-                Path ok = Files.createDirectories(dir);
-                if (!ok.toFile().exists()) {
-                    throw new IOException("Failed to create directory: " + directoryPath);
-                }
-            }
-        } catch (IOException e) {
-            throw new IOException("Error occurred while creating the directory: " + directoryPath, e);
-        }
-
+        Path dir = createDirectories(directoryPath);
         Path file = dir.resolve(fileName);
 
         if (Files.exists(file) && !file.toFile().canWrite()) {
@@ -4,18 +4,33 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
 
 /**
  * Utility class for reading JSON files containing an array of objects.
  * Provides a generic method to process each element as a specific type.
+ * <p>
+ * The reading methods optionally report progress: the bytes consumed by the parser, taken from its
+ * {@link JsonParser#currentLocation()}, are passed to a callback in steps of about
+ * {@value #PROGRESS_STEP_BYTES} bytes, and the rest when the array ends.
  */
 public class JsonFileReader {
+    /**
+     * Minimum number of consumed bytes between two progress callbacks.
+     */
+    public static final int PROGRESS_STEP_BYTES = 64 * 1024;
+
     private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final LongConsumer NO_PROGRESS = bytes -> {
+    };
 
     /**
      * Reads a JSON file expected to contain a top-level array of objects.
@@ -36,25 +51,180 @@ public class JsonFileReader {
      *                                  or an object is not an instance of {@code clazz}
      */
     public static <T> void readFile(File file, Class<T> clazz, Consumer<T> consumer) throws IOException, IllegalArgumentException {
+        readFile(file, clazz, consumer, NO_PROGRESS);
+    }
+
+    /**
+     * Reads a JSON file like {@link #readFile(File, Class, Consumer)} and reports the bytes consumed by
+     * the parser.
+     *
+     * @param <T>       the type of objects to deserialize
+     * @param file      the JSON file to read
+     * @param clazz     the target class of deserialized objects
+     * @param consumer  a consumer to process each deserialized object
+     * @param bytesRead receives the number of bytes consumed since its previous call
+     * @throws IOException              if an I/O error occurs during reading
+     * @throws IllegalArgumentException if the JSON does not start with an array
+     *                                  or an object is not an instance of {@code clazz}
+     */
+    public static <T> void readFile(File file, Class<T> clazz, Consumer<T> consumer, LongConsumer bytesRead)
+            throws IOException, IllegalArgumentException {
         try (JsonParser jsonParser = jsonFactory.createParser(file)) {
-            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
-                throw new IllegalArgumentException("JSON must start with array.");
+            readArray(jsonParser, clazz, consumer, bytesRead);
+        }
+    }
+
+    /**
+     * Reads JSON content that was already loaded into memory. Behaves like
+     * {@link #readFile(File, Class, Consumer)}; useful when the I/O and the parsing
+     * run on different threads.
+     *
+     * @param <T>      the type of objects to deserialize
+     * @param content  the JSON content
+     * @param clazz    the target class of deserialized objects
+     * @param consumer a consumer to process each deserialized object
+     * @throws IOException              if the content cannot be tokenized
+     * @throws IllegalArgumentException if the JSON does not start with an array
+     *                                  or an object is not an instance of {@code clazz}
+     */
+    public static <T> void readBytes(byte[] content, Class<T> clazz, Consumer<T> consumer) throws IOException, IllegalArgumentException {
+        readBytes(content, clazz, consumer, NO_PROGRESS);
+    }
+
+    /**
+     * Reads JSON content like {@link #readBytes(byte[], Class, Consumer)} and reports the bytes consumed
+     * by the parser.
+     *
+     * @param bytesRead receives the number of bytes consumed since its previous call
+     * @see #readBytes(byte[], Class, Consumer)
+     */
+    public static <T> void readBytes(byte[] content, Class<T> clazz, Consumer<T> consumer, LongConsumer bytesRead)
+            throws IOException, IllegalArgumentException {
+        try (JsonParser jsonParser = jsonFactory.createParser(content)) {
+            readArray(jsonParser, clazz, consumer, bytesRead);
+        }
+    }
+
+    /**
+     * Reads JSON content from an input stream. Behaves like {@link #readFile(File, Class, Consumer)}.
+     * The stream is closed when reading finishes.
+     *
+     * @param <T>         the type of objects to deserialize
+     * @param inputStream the JSON content
+     * @param clazz       the target class of deserialized objects
+     * @param consumer    a consumer to process each deserialized object
+     * @throws IOException              if an I/O error occurs during reading
+     * @throws IllegalArgumentException if the JSON does not start with an array
+     *                                  or an object is not an instance of {@code clazz}
+     */
+    public static <T> void readStream(InputStream inputStream, Class<T> clazz, Consumer<T> consumer) throws IOException, IllegalArgumentException {
+        readStream(inputStream, clazz, consumer, NO_PROGRESS);
+    }
+
+    /**
+     * Reads JSON content from an input stream like {@link #readStream(InputStream, Class, Consumer)} and
+     * reports the bytes consumed by the parser.
+     *
+     * @param bytesRead receives the number of bytes consumed since its previous call
+     * @see #readStream(InputStream, Class, Consumer)
+     */
+    public static <T> void readStream(InputStream inputStream, Class<T> clazz, Consumer<T> consumer,
+                                      LongConsumer bytesRead) throws IOException, IllegalArgumentException {
+        try (JsonParser jsonParser = jsonFactory.createParser(inputStream)) {
+            readArray(jsonParser, clazz, consumer, bytesRead);
+        }
+    }
+
+    /**
+     * Opens a JSON file for pull-based reading: elements are parsed one at a time when
+     * {@link ArrayReader#next()} is called, so the caller controls the pace of parsing.
+     *
+     * @param <T>   the type of objects to deserialize
+     * @param file  the JSON file to read
+     * @param clazz the target class of deserialized objects
+     * @return a reader that must be closed after use
+     * @throws IOException if the file cannot be opened
+     */
+    public static <T> ArrayReader<T> openFile(Path file, Class<T> clazz) throws IOException {
+        return new ArrayReader<>(jsonFactory.createParser(file.toFile()), clazz);
+    }
+
+    private static <T> void readArray(JsonParser jsonParser, Class<T> clazz, Consumer<T> consumer,
+                                      LongConsumer bytesRead) throws IOException {
+        ArrayReader<T> reader = new ArrayReader<>(jsonParser, clazz);
+        long reported = 0;
+        T obj;
+        while ((obj = reader.next()) != null) {
+            consumer.accept(obj);
+            long offset = reader.getByteOffset();
+            if (offset - reported >= PROGRESS_STEP_BYTES) {
+                bytesRead.accept(offset - reported);
+                reported = offset;
             }
+        }
+        long offset = reader.getByteOffset();
+        if (offset > reported) {
+            bytesRead.accept(offset - reported);
+        }
+    }
+
+    /**
+     * Reads the elements of a top-level JSON array one at a time.
+     *
+     * @param <T> the type of objects to deserialize
+     */
+    public static final class ArrayReader<T> implements Closeable {
+        private final JsonParser jsonParser;
+        private final Class<T> clazz;
+        private boolean started;
+
+        private ArrayReader(JsonParser jsonParser, Class<T> clazz) {
+            this.jsonParser = jsonParser;
+            this.clazz = clazz;
+        }
 
-            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-                T obj;
-                try {
-                    obj = OBJECT_MAPPER.readValue(jsonParser, clazz);
-
-                    if (!clazz.isInstance(obj)) {
-                        throw new IllegalArgumentException(String.format("Object %s is not of type %s", obj, clazz.getName()));
-                    } else {
-                        consumer.accept(obj);
-                    }
-                } catch (IOException e) {
-                    throw new IllegalArgumentException(String.format("Failed to deserialize element. %s%n", e.getMessage()));
+        /**
+         * Parses the next element of the array.
+         *
+         * @return the next element, or {@code null} after the end of the array
+         * @throws IOException              if an I/O error occurs during reading
+         * @throws IllegalArgumentException if the JSON does not start with an array
+         *                                  or an object is not an instance of {@code clazz}
+         */
+        public T next() throws IOException {
+            if (!started) {
+                started = true;
+                if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("JSON must start with array.");
                 }
             }
+
+            if (jsonParser.nextToken() == JsonToken.END_ARRAY) {
+                return null;
+            }
+
+            T obj;
+            try {
+                obj = OBJECT_MAPPER.readValue(jsonParser, clazz);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(String.format("Failed to deserialize element. %s%n", e.getMessage()));
+            }
+            if (!clazz.isInstance(obj)) {
+                throw new IllegalArgumentException(String.format("Object %s is not of type %s", obj, clazz.getName()));
+            }
+            return obj;
+        }
+
+        /**
+         * Returns the number of bytes the parser has consumed so far, or {@code -1} if unknown.
+         */
+        public long getByteOffset() {
+            return jsonParser.currentLocation().getByteOffset();
+        }
+
+        @Override
+        public void close() throws IOException {
+            jsonParser.close();
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.halmber.utils.TopEntries;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+
+/**
+ * Writes statistics as JSON with Jackson's streaming {@link JsonGenerator}.
+ * <p>
+ * The document has the structure of {@link com.halmber.model.statistics.StatisticsWrapper}:
+ * <pre>
+ * {"items": [{"value": "Kyiv", "count": 5}, ...]}
+ * </pre>
+ * and matches {@code OBJECT_MAPPER.writeValue(wrapper)} byte for byte, without creating the wrapper. With
+ * {@code includeOthers} an {@code "others": {"values", "count"}} object and a {@code "distinctValues"}
+ * number follow the items.
+ */
+public class JsonStatisticsWriter implements StatisticsWriter {
+    private final boolean prettyPrint;
+
+    /**
+     * @param prettyPrint indent the output with Jackson's default pretty printer
+     */
+    public JsonStatisticsWriter(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public void writeSelection(OutputStream output, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException {
+
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (prettyPrint) {
+                generator.useDefaultPrettyPrinter();
+            }
+
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            for (Map.Entry<String, Integer> entry : selection.entries()) {
+                generator.writeStartObject();
+                generator.writeStringField("value", entry.getKey());
+                generator.writeNumberField("count", entry.getValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            if (includeOthers) {
+                generator.writeObjectFieldStart("others");
+                generator.writeNumberField("values", selection.otherValues());
+                generator.writeNumberField("count", selection.otherCount());
+                generator.writeEndObject();
+                generator.writeNumberField("distinctValues", selection.distinctValues());
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.halmber.config.ApplicationConfig;
+import com.halmber.model.statistics.ReportManifest;
+import com.halmber.utils.TopEntries;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+
+/**
+ * Writes a report to the output directory so that readers never see a partly written file.
+ * <p>
+ * Every file is written to a temporary file in the output directory and then renamed to its final name
+ * with {@link StandardCopyOption#ATOMIC_MOVE}, replacing the previous version in one step. With
+ * {@link ApplicationConfig#isCompressReport()} the files are gzip-compressed while they are written.
+ * <p>
+ * With {@link ApplicationConfig#getMaxEntriesPerShard()} above zero, a report with more entries is split
+ * into numbered shards of at most that many entries, each a complete document of the configured format,
+ * written in parallel. The shard names carry a generation id, so a new set never overwrites the shards of
+ * the previous one. The manifest ({@link ReportManifest}) lists the shards in report order and is published
+ * last: a reader that opens the manifest always finds a complete set. Shards of older generations are
+ * deleted after the new manifest is in place. Shards are limited by entry count, not by bytes, so their size
+ * follows the length of the values.
+ * <p>
+ * A report replaces the files of the other layout once it is in place: a single report deletes the manifest
+ * and shards of an earlier sharded report, and a sharded report deletes the earlier single report.
+ * <p>
+ * The metrics of a run ({@link #publishMetrics(Map)}) are published the same way as an uncompressed JSON file
+ * next to the report.
+ */
+public class ReportPublisher {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ApplicationConfig config;
+    private final StatisticsWriter writer;
+
+    /**
+     * @param config output directory, file names, compression and shard size
+     * @param writer writer of the configured report format
+     */
+    public ReportPublisher(ApplicationConfig config, StatisticsWriter writer) {
+        this.config = config;
+        this.writer = writer;
+    }
+
+    /**
+     * Publishes the report, writing shards in parallel on the executor if the report is sharded. If the
+     * executor rejects a shard (e.g. it was shut down), the shard is written on the calling thread.
+     *
+     * @param selection     the entries to write, in report order
+     * @param includeOthers also write the totals of the left-out entries and the number of distinct values
+     * @param executor      executor for writing shards
+     * @return the published report file, or the manifest of a sharded report
+     * @throws IOException if a file cannot be written or moved into place
+     */
+    public Path publish(TopEntries.Selection selection, boolean includeOthers, Executor executor) throws IOException {
+        Path directory = FileService.createDirectories(config.getOutputDirectory());
+        int maxEntriesPerShard = config.getMaxEntriesPerShard();
+
+        if (maxEntriesPerShard <= 0 || selection.entries().size() <= maxEntriesPerShard) {
+            Path target = directory.resolve(config.getOutputFileName());
+            publishFile(target, output -> writer.writeSelection(output, selection, includeOthers));
+            // The manifest goes first, so a reader never finds a manifest whose shards are gone
+            Files.deleteIfExists(directory.resolve(config.getManifestFileName()));
+            deleteShards(directory, null, false);
+            return target;
+        }
+        return publishShards(directory, selection, includeOthers, maxEntriesPerShard, executor);
+    }
+
+    /**
+     * Publishes the metrics of a run as pretty-printed JSON under {@link ApplicationConfig#getMetricsFileName()},
+     * replacing the metrics of the previous run.
+     *
+     * @param metrics names mapped to numbers, strings, lists or nested maps
+     * @return the published metrics file
+     * @throws IOException if the file cannot be written or moved into place
+     */
+    public Path publishMetrics(Map<String, ?> metrics) throws IOException {
+        Path directory = FileService.createDirectories(config.getOutputDirectory());
+        Path target = directory.resolve(config.getMetricsFileName());
+        publishFile(target, output -> OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(output, metrics), false);
+        return target;
+    }
+
+    private Path publishShards(Path directory, TopEntries.Selection selection, boolean includeOthers,
+                               int maxEntriesPerShard, Executor executor) throws IOException {
+        String generation = UUID.randomUUID().toString().substring(0, 8);
+        List<Map.Entry<String, Integer>> entries = selection.entries();
+        int shardCount = (entries.size() + maxEntriesPerShard - 1) / maxEntriesPerShard;
+
+        List<CompletableFuture<ReportManifest.Shard>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int from = shard * maxEntriesPerShard;
+            int to = Math.min(from + maxEntriesPerShard, entries.size());
+            Path target = directory.resolve(config.getShardFileName(generation, shard + 1));
+            TopEntries.Selection part = new TopEntries.Selection(entries.subList(from, to), to - from, 0, 0);
+            futures.add(supplyAsync(() -> {
+                publishFile(target, output -> writer.writeSelection(output, part, false));
+                return new ReportManifest.Shard(target.getFileName().toString(), to - from, Files.size(target));
+            }, executor));
+        }
+
+        List<ReportManifest.Shard> shards = new ArrayList<>(shardCount);
+        try {
+            for (CompletableFuture<ReportManifest.Shard> future : futures) {
+                shards.add(future.join());
+            }
+        } catch (CompletionException e) {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(ignored -> null).join();
+            deleteShards(directory, generation, true);
+            throw e.getCause() instanceof UncheckedIOException io ? io.getCause() : new IOException(e.getCause());
+        }
+
+        ReportManifest manifest = new ReportManifest(
+                config.getAttribute(),
+                config.getReportFormat().name().toLowerCase(),
+                config.isCompressReport(),
+                entries.size(),
+                includeOthers ? selection.distinctValues() : null,
+                includeOthers ? selection.otherValues() : null,
+                includeOthers ? selection.otherCount() : null,
+                shards
+        );
+        Path manifestPath = directory.resolve(config.getManifestFileName());
+        publishFile(manifestPath, output -> OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(output, manifest), false);
+
+        deleteShards(directory, generation, false);
+        Files.deleteIfExists(directory.resolve(config.getOutputFileName()));
+        return manifestPath;
+    }
+
+    /**
+     * Deletes the shards of the generation, or of every other generation; with a {@code null} generation,
+     * every shard.
+     */
+    private void deleteShards(Path directory, String generation, boolean ofGeneration) throws IOException {
+        Set<Path> toDelete = new HashSet<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory, config.getShardFileGlob())) {
+            for (Path shard : shards) {
+                boolean sameGeneration = generation != null
+                        && shard.getFileName().toString().contains("-" + generation + ".part-");
+                if (sameGeneration == ofGeneration) {
+                    toDelete.add(shard);
+                }
+            }
+        }
+        for (Path shard : toDelete) {
+            Files.deleteIfExists(shard);
+        }
+    }
+
+    private void publishFile(Path target, Content content) throws IOException {
+        publishFile(target, content, config.isCompressReport());
+    }
+
+    /**
+     * Writes the content to a temporary file next to the target and renames it to the target.
+     */
+    private static void publishFile(Path target, Content content, boolean compress) throws IOException {
+        // Hidden name in the same directory, so the rename stays on one file system
+        Path temp = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream output = compress
+                         ? new BufferedOutputStream(new GZIPOutputStream(file, BUFFER_SIZE), BUFFER_SIZE)
+                         : new BufferedOutputStream(file, BUFFER_SIZE)) {
+                content.writeTo(output);
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renames the temporary file to the target in one step, replacing the target; falls back to a plain
+     * replace if the file system does not support atomic moves.
+     */
+    static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            System.err.printf("Atomic move not supported, replacing %s non-atomically%n", target);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static <T> CompletableFuture<T> supplyAsync(IoSupplier<T> supplier, Executor executor) {
+        Supplier<T> task = () -> {
+            try {
+                return supplier.get();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (UncheckedIOException failure) {
+                return CompletableFuture.failedFuture(failure);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,31 @@
+package com.halmber.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An input file together with its size in bytes, as found by {@link FileDiscovery}.
+ *
+ * @param path the file
+ * @param size the size in bytes, or {@link #UNKNOWN_SIZE} if it has not been read
+ */
+public record SizedFile(Path path, long size) {
+    public static final long UNKNOWN_SIZE = -1;
+
+    /**
+     * Wraps a file whose size has not been read yet.
+     */
+    public static SizedFile unsized(Path path) {
+        return new SizedFile(path, UNKNOWN_SIZE);
+    }
+
+    /**
+     * Returns the known size, or reads it from the file system.
+     *
+     * @throws IOException if the size cannot be read
+     */
+    public long readSize() throws IOException {
+        return size != UNKNOWN_SIZE ? size : Files.size(path);
+    }
+}
@@ -0,0 +1,115 @@
+package com.halmber.service;
+
+import com.halmber.config.ReportFormat;
+import com.halmber.utils.TopEntries;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Writes a statistics map as a report in one {@link ReportFormat}.
+ * <p>
+ * Implementations stream the entries of a {@link TopEntries.Selection}, sorted by count in descending order
+ * and then by value, straight to the output without building intermediate objects. With a limit only the
+ * top entries are written; optionally the number and total count of the entries left out and the number of
+ * distinct values follow them. Callers with a thread pool select the entries themselves with a parallel
+ * {@link com.halmber.utils.StatisticsSorter} and pass the selection to {@code writeSelection}.
+ */
+public interface StatisticsWriter {
+
+    /**
+     * Returns the writer for the given format.
+     *
+     * @param format      the report format
+     * @param prettyPrint indent XML and JSON output; ignored by the other formats
+     */
+    static StatisticsWriter forFormat(ReportFormat format, boolean prettyPrint) {
+        return switch (format) {
+            case XML -> new StreamingXmlStatisticsWriter(prettyPrint);
+            case CSV -> new CsvStatisticsWriter();
+            case JSON -> new JsonStatisticsWriter(prettyPrint);
+            case BINARY -> new BinaryStatisticsWriter();
+        };
+    }
+
+    /**
+     * Writes the selected entries to the stream. The stream is flushed but not closed.
+     *
+     * @param output        the stream to write the report to
+     * @param selection     the entries to write, in report order, and the totals of the entries left out
+     * @param includeOthers also write the totals of the left-out entries and the number of distinct values
+     * @throws IOException if an I/O error occurs while writing
+     */
+    void writeSelection(OutputStream output, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException;
+
+    /**
+     * Writes the selected entries to the file through a buffered stream, overwriting it.
+     *
+     * @param outputFile    the file to write the report to
+     * @param selection     the entries to write, in report order, and the totals of the entries left out
+     * @param includeOthers also write the totals of the left-out entries and the number of distinct values
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    default void writeSelection(File outputFile, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()), 64 * 1024)) {
+            writeSelection(output, selection, includeOthers);
+        }
+    }
+
+    /**
+     * Writes the entries with the highest counts to the stream, sorting on the calling thread. The stream
+     * is flushed but not closed.
+     *
+     * @param output        the stream to write the report to
+     * @param statistics    a map of statistics where the key is the statistic name and the value is the count
+     * @param limit         maximum number of entries; {@code 0} writes all entries
+     * @param includeOthers also write the totals of the left-out entries and the number of distinct values
+     * @throws IOException if an I/O error occurs while writing
+     */
+    default void writeStatistics(OutputStream output, Map<String, Integer> statistics, int limit,
+                                 boolean includeOthers) throws IOException {
+        writeSelection(output, TopEntries.select(statistics, limit), includeOthers);
+    }
+
+    /**
+     * Writes all entries to the stream. The stream is flushed but not closed.
+     *
+     * @param output     the stream to write the report to
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @throws IOException if an I/O error occurs while writing
+     */
+    default void writeStatistics(OutputStream output, Map<String, Integer> statistics) throws IOException {
+        writeStatistics(output, statistics, 0, false);
+    }
+
+    /**
+     * Writes the entries with the highest counts to the file, overwriting it.
+     *
+     * @param outputFile    the file to write the report to
+     * @param statistics    a map of statistics where the key is the statistic name and the value is the count
+     * @param limit         maximum number of entries; {@code 0} writes all entries
+     * @param includeOthers also write the totals of the left-out entries and the number of distinct values
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    default void writeStatistics(File outputFile, Map<String, Integer> statistics, int limit, boolean includeOthers)
+            throws IOException {
+        writeSelection(outputFile, TopEntries.select(statistics, limit), includeOthers);
+    }
+
+    /**
+     * Writes all entries to the file, overwriting it.
+     *
+     * @param outputFile the file to write the report to
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    default void writeStatistics(File outputFile, Map<String, Integer> statistics) throws IOException {
+        writeStatistics(outputFile, statistics, 0, false);
+    }
+}
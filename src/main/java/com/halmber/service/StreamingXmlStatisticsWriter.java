@@ -0,0 +1,79 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.dataformat.xml.util.DefaultXmlPrettyPrinter;
+import com.halmber.model.statistics.StatisticsWrapper;
+import com.halmber.utils.TopEntries;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes statistics as XML by streaming the elements straight to a {@link ToXmlGenerator}.
+ * <p>
+ * Produces the same document as {@link XmlFileWriter} with {@link StatisticsWrapper}, byte for byte, but
+ * never creates the item objects or the wrapper: the entries are sorted by count in descending order and
+ * each one is written as an {@code <item>} element as soon as it is reached. Apart from the sorted entry
+ * references, memory use does not depend on the number of entries.
+ * <p>
+ * With a limit only the top entries are written; optionally an {@code <others>} element with the number
+ * and total count of the left-out entries and a {@code <distinctValues>} element follow the items.
+ * <p>
+ * The element names are those of {@link StatisticsWrapper} and
+ * {@link com.halmber.model.statistics.StatisticItem}: {@code statistics/items/item/(value, count)}.
+ */
+public class StreamingXmlStatisticsWriter implements StatisticsWriter {
+    private static final QName ROOT_NAME = new QName("statistics");
+
+    private final XmlMapper xmlMapper;
+    private final boolean prettyPrint;
+
+    /**
+     * @param prettyPrint indent the elements like {@link XmlFileWriter}; {@code false} writes a compact document
+     */
+    public StreamingXmlStatisticsWriter(boolean prettyPrint) {
+        this.xmlMapper = new XmlMapper();
+        xmlMapper.configure(ToXmlGenerator.Feature.WRITE_XML_DECLARATION, true);
+        this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public void writeSelection(OutputStream output, TopEntries.Selection selection, boolean includeOthers)
+            throws IOException {
+
+        try (ToXmlGenerator generator = xmlMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (prettyPrint) {
+                generator.setPrettyPrinter(new DefaultXmlPrettyPrinter());
+            }
+            generator.setNextName(ROOT_NAME);
+            generator.initGenerator();
+
+            generator.writeStartObject();
+            generator.writeFieldName("items");
+            generator.writeStartObject();
+            for (Map.Entry<String, Integer> entry : selection.entries()) {
+                generator.writeFieldName("item");
+                generator.writeStartObject();
+                generator.writeStringField("value", entry.getKey());
+                generator.writeNumberField("count", entry.getValue());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+
+            if (includeOthers) {
+                generator.writeFieldName("others");
+                generator.writeStartObject();
+                generator.writeNumberField("values", selection.otherValues());
+                generator.writeNumberField("count", selection.otherCount());
+                generator.writeEndObject();
+                generator.writeNumberField("distinctValues", selection.distinctValues());
+            }
+            generator.writeEndObject();
+        }
+    }
+}
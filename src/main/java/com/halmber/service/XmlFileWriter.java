@@ -1,5 +1,6 @@
 package com.halmber.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import com.halmber.factory.statistics.StatisticItemFactory;
@@ -7,6 +8,7 @@ import com.halmber.factory.statistics.StatisticsWrapperFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,7 +19,7 @@ import java.util.stream.Collectors;
  * This class is fully generic and works with any types of items {@code I} and
  * wrappers {@code W}, provided that corresponding {@link StatisticItemFactory} and
  * {@link StatisticsWrapperFactory} are supplied. It converts a map of statistics
- * into a list of items, sorts them by count in descending order, and wraps them
+ * into a list of items, sorts them by count in descending order (ties by value), and wraps them
  * before serializing to XML using Jackson.
  * </p>
  *
@@ -54,14 +56,37 @@ public class XmlFileWriter<W, I> {
      * @throws IOException if an I/O error occurs while writing the XML file
      */
     public void writeStatistics(File outputFile, Map<String, Integer> statistics) throws IOException {
+        xmlMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, createWrapper(statistics));
+    }
+
+    /**
+     * Writes the given statistics as XML to the specified stream, e.g. an HTTP response body.
+     * The content is the same as written by {@link #writeStatistics(File, Map)}. The stream is not closed.
+     *
+     * @param output     the stream to write the XML content to
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @throws IOException if an I/O error occurs while writing
+     */
+    public void writeStatistics(OutputStream output, Map<String, Integer> statistics) throws IOException {
+        xmlMapper.writerWithDefaultPrettyPrinter()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(output, createWrapper(statistics));
+    }
+
+    /**
+     * Converts the statistics into items sorted by count in descending order, then by value, and wraps them.
+     *
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @return the wrapper that is serialized to XML
+     */
+    public W createWrapper(Map<String, Integer> statistics) {
         List<I> entries = statistics.entrySet().stream()
-                .sorted((e1, e2) -> Integer.compare(e2.getValue(), e1.getValue())) // Sort descending by count
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed() // Sort descending by count
+                        .thenComparing(Map.Entry.comparingByKey()))
                 .map(itemFactory::create)
                 .collect(Collectors.toList());
 
-        W wrapper = wrapperFactory.create(entries);
-
-        xmlMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, wrapper);
+        return wrapperFactory.create(entries);
     }
 }
 
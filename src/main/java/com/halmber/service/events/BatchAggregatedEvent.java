@@ -0,0 +1,27 @@
+package com.halmber.service.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event of one batch of attribute values merged into the statistics by a pipeline aggregator.
+ * Committed only for batches that took longer than the threshold.
+ */
+@Name("com.halmber.BatchAggregated")
+@Label("Batch Aggregated")
+@Category({"Order Statistics", "Processing"})
+@Description("A batch of attribute values was merged into the statistics")
+@StackTrace(false)
+@Threshold("1 ms")
+public class BatchAggregatedEvent extends jdk.jfr.Event {
+    @Label("Values")
+    public int values;
+
+    @Label("Distinct Values")
+    @Description("Size of the statistics map after the merge")
+    public int distinctValues;
+}
@@ -0,0 +1,60 @@
+package com.halmber.service.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.nio.file.Path;
+
+/**
+ * JFR event of one input file read, parsed and aggregated by a worker (or by the parser stage of the pipeline).
+ * Committed only for files that took longer than the threshold.
+ */
+@Name("com.halmber.FileProcessed")
+@Label("File Processed")
+@Category({"Order Statistics", "Processing"})
+@Description("An input file was read, parsed and aggregated")
+@StackTrace(false)
+@Threshold("10 ms")
+public class FileProcessedEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Records")
+    @Description("Orders parsed from the file, including skipped duplicates")
+    public long records;
+
+    @Label("Attribute")
+    public String attribute;
+
+    @Label("Failed")
+    @Description("The file could not be read or parsed completely")
+    public boolean failed;
+
+    /**
+     * Ends the event and commits it if it is enabled and above the threshold; the file size is only looked
+     * up for committed events.
+     *
+     * @param file      the processed file
+     * @param attribute the aggregated attribute
+     * @param failed    whether the file could not be processed completely
+     */
+    public void commitFile(Path file, String attribute, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.path = file.toString();
+            this.bytes = file.toFile().length();
+            this.attribute = attribute;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
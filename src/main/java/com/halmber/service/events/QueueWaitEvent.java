@@ -0,0 +1,34 @@
+package com.halmber.service.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event of a pipeline stage blocked on a queue: a producer waiting for space or a consumer waiting for an
+ * element. Committed only for waits longer than the threshold.
+ */
+@Name("com.halmber.QueueWait")
+@Label("Pipeline Queue Wait")
+@Category({"Order Statistics", "Pipeline"})
+@Description("A pipeline stage waited on the queue to the next stage")
+@StackTrace(false)
+@Threshold("5 ms")
+public class QueueWaitEvent extends jdk.jfr.Event {
+    public static final String PUT = "put";
+    public static final String TAKE = "take";
+
+    @Label("Queue")
+    public String queue;
+
+    @Label("Operation")
+    @Description("put: the producer waited for space; take: the consumer waited for an element")
+    public String operation;
+
+    @Label("Depth")
+    @Description("Elements in the queue after the operation")
+    public int depth;
+}
@@ -0,0 +1,36 @@
+package com.halmber.service.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event of one phase of producing the report: sorting the statistics or writing and publishing the report.
+ */
+@Name("com.halmber.WriterPhase")
+@Label("Writer Phase")
+@Category({"Order Statistics", "Output"})
+@Description("The statistics were sorted or the report was written")
+@StackTrace(false)
+@Threshold("0 ms")
+public class WriterPhaseEvent extends jdk.jfr.Event {
+    public static final String SORT = "sort";
+    public static final String WRITE = "write";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Entries")
+    @Description("Entries of the report, without the aggregated remainder")
+    public int entries;
+
+    @Label("Output")
+    @Description("Path of the published report; empty for the sort phase")
+    public String output;
+}
@@ -0,0 +1,156 @@
+package com.halmber.service.flow;
+
+import com.halmber.exception.InvalidAttributeException;
+import com.halmber.model.Order;
+import com.halmber.service.order.StatisticProcessor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} of the attribute values of the orders published upstream, as counted by
+ * {@link StatisticProcessor#extractValues}. An order may produce several values (e.g. "tags") or none.
+ * <p>
+ * Orders are requested from upstream in small batches and only while the subscriber has unmet demand and
+ * no projected values are waiting, so backpressure propagates to the order publisher. Cancelling this
+ * subscription cancels the upstream one. An unknown attribute cancels the upstream subscription and is
+ * signalled with {@code onError(InvalidAttributeException)}.
+ */
+public class AttributeValuePublisher implements Flow.Publisher<String> {
+    private static final int UPSTREAM_BATCH = 64;
+
+    private final Flow.Publisher<Order> orders;
+    private final String attribute;
+    private final StatisticProcessor statisticProcessor = new StatisticProcessor();
+
+    /**
+     * @param orders    upstream order publisher, e.g. a {@link JsonFilePublisher}
+     * @param attribute the attribute to project (e.g., "status", "city")
+     */
+    public AttributeValuePublisher(Flow.Publisher<Order> orders, String attribute) {
+        this.orders = orders;
+        this.attribute = attribute;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        orders.subscribe(new ValueSubscription(subscriber));
+    }
+
+    /**
+     * Subscribes to the orders and serves the projected values to the downstream subscriber.
+     */
+    private final class ValueSubscription implements Flow.Subscriber<Order>, Flow.Subscription {
+        private final Flow.Subscriber<? super String> downstream;
+        private final Queue<String> values = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger pendingOrders = new AtomicInteger();
+        private volatile Flow.Subscription upstream;
+        private volatile boolean upstreamDone;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private boolean terminated;
+
+        ValueSubscription(Flow.Subscriber<? super String> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void onNext(Order order) {
+            try {
+                statisticProcessor.extractValues(order, attribute, values::add);
+            } catch (InvalidAttributeException e) {
+                error = e;
+                upstream.cancel();
+            }
+            pendingOrders.decrementAndGet();
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested element count must be positive: " + n);
+                upstream.cancel();
+            } else {
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (terminated || cancelled) {
+                    return;
+                }
+                if (error != null) {
+                    terminated = true;
+                    downstream.onError(error);
+                    return;
+                }
+
+                long demand = requested.get();
+                long emitted = 0;
+                String value;
+                while (emitted != demand && (value = values.poll()) != null) {
+                    downstream.onNext(value);
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+
+                if (values.isEmpty()) {
+                    if (upstreamDone) {
+                        terminated = true;
+                        downstream.onComplete();
+                        return;
+                    }
+                    if (requested.get() > 0 && pendingOrders.get() == 0) {
+                        pendingOrders.set(UPSTREAM_BATCH);
+                        upstream.request(UPSTREAM_BATCH);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
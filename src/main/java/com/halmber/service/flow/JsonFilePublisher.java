@@ -0,0 +1,302 @@
+package com.halmber.service.flow;
+
+import com.halmber.service.JsonFileReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} of the elements of JSON array files, e.g. {@code new JsonFilePublisher<>(files,
+ * Order.class, executor, 4, 256)} publishes every order of the given files.
+ * <p>
+ * Up to {@code maxConcurrentFiles} files are parsed at the same time on the given executor and their
+ * elements are fanned in to the subscriber; elements of one file keep their order, elements of different
+ * files interleave. Every open file reads ahead at most {@code prefetch} elements. Parsing of a file pauses
+ * while its read-ahead buffer is full and resumes when the subscriber requests more, so a slow subscriber
+ * slows the parsers down and memory stays bounded by {@code maxConcurrentFiles * prefetch} elements.
+ * <p>
+ * Cancelling the subscription stops parsing after the element in progress and closes all open files.
+ * The first read or parse error cancels the remaining files and is signalled with {@code onError}.
+ * Every subscriber gets its own pass over the files.
+ *
+ * @param <T> the type of the array elements
+ */
+public class JsonFilePublisher<T> implements Flow.Publisher<T> {
+    private final List<Path> files;
+    private final Class<T> clazz;
+    private final Executor executor;
+    private final int maxConcurrentFiles;
+    private final int prefetch;
+
+    /**
+     * @param files              files to publish, opened in this order
+     * @param clazz              the target class of the array elements
+     * @param executor           runs the parsing; must be able to run {@code maxConcurrentFiles} tasks at once
+     * @param maxConcurrentFiles number of files parsed at the same time
+     * @param prefetch           maximum number of parsed elements buffered per open file
+     */
+    public JsonFilePublisher(List<Path> files, Class<T> clazz, Executor executor, int maxConcurrentFiles, int prefetch) {
+        if (maxConcurrentFiles < 1 || prefetch < 1) {
+            throw new IllegalArgumentException("maxConcurrentFiles and prefetch must be positive");
+        }
+        this.files = List.copyOf(files);
+        this.clazz = clazz;
+        this.executor = executor;
+        this.maxConcurrentFiles = maxConcurrentFiles;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        FileSubscription subscription = new FileSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * Read-ahead state of one open file. The reader is only touched by the parse task, which never runs
+     * twice at the same time for one source. A file is opened at most once: a parse task scheduled after
+     * the file ended or failed returns without reading.
+     */
+    private final class FileSource {
+        private final Path path;
+        private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicBoolean parsing = new AtomicBoolean();
+        private JsonFileReader.ArrayReader<T> reader;
+        private boolean opened;
+        private volatile boolean exhausted;
+        private volatile Throwable error;
+
+        FileSource(Path path) {
+            this.path = path;
+        }
+
+        boolean isFinished() {
+            return exhausted && buffered.get() == 0;
+        }
+
+        boolean needsRefill() {
+            return !exhausted && error == null && buffered.get() <= prefetch / 2;
+        }
+
+        /**
+         * Parses elements until the buffer is full, the file ends or the subscription is cancelled.
+         */
+        void parse(FileSubscription subscription) {
+            try {
+                // needsRefill() and winning the parsing flag are two steps; the file may have ended in between
+                if (exhausted || error != null) {
+                    return;
+                }
+                if (!opened) {
+                    if (subscription.cancelled) {
+                        return;
+                    }
+                    opened = true;
+                    reader = JsonFileReader.openFile(path, clazz);
+                } else if (reader == null) {
+                    // Closed after a cancellation
+                    return;
+                }
+                while (buffered.get() < prefetch && !subscription.cancelled) {
+                    T element = reader.next();
+                    if (element == null) {
+                        exhausted = true;
+                        closeReader();
+                        break;
+                    }
+                    buffer.add(element);
+                    buffered.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                error = new IOException(String.format("Failed to read %s: %s", path.getFileName(), e.getMessage()), e);
+                closeReader();
+            } finally {
+                parsing.set(false);
+                if (subscription.cancelled) {
+                    closeReader();
+                }
+                subscription.drain();
+            }
+        }
+
+        T poll() {
+            T element = buffer.poll();
+            if (element != null) {
+                buffered.decrementAndGet();
+            }
+            return element;
+        }
+
+        synchronized void closeReader() {
+            if (reader == null) {
+                return;
+            }
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // Nothing left to read from this file
+            }
+            reader = null;
+        }
+    }
+
+    private final class FileSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final List<FileSource> active = new ArrayList<>();
+        private int nextFile;
+        private int cursor;
+        private volatile boolean cancelled;
+        private volatile Throwable pendingError;
+        private boolean terminated;
+
+        FileSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                pendingError = new IllegalArgumentException("Requested element count must be positive: " + n);
+                drain();
+                return;
+            }
+            requested.getAndAccumulate(n, (current, added) -> {
+                long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        /**
+         * Emits buffered elements up to the outstanding demand and schedules parsing. Calls are serialized:
+         * a call made while another thread is draining only makes that thread loop once more.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (terminated) {
+                    return;
+                }
+                if (pendingError != null) {
+                    terminate(pendingError);
+                    return;
+                }
+                if (cancelled) {
+                    closeAll();
+                    return;
+                }
+
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled) {
+                    T element = pollNext();
+                    if (element == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(element);
+                    } catch (RuntimeException e) {
+                        // A throwing subscriber is treated as cancelled
+                        cancelled = true;
+                        closeAll();
+                        throw e;
+                    }
+                    emitted++;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+
+                if (!cancelled && !housekeep()) {
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Takes the next element from the open files in round-robin order.
+         */
+        private T pollNext() {
+            for (int i = 0; i < active.size(); i++) {
+                FileSource source = active.get((cursor + i) % active.size());
+                T element = source.poll();
+                if (element != null) {
+                    cursor = (cursor + i + 1) % active.size();
+                    return element;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reports errors, replaces finished files with pending ones, schedules refills and signals completion.
+         *
+         * @return {@code false} if the subscription was terminated
+         */
+        private boolean housekeep() {
+            for (FileSource source : active) {
+                if (source.error != null) {
+                    terminate(source.error);
+                    return false;
+                }
+            }
+
+            active.removeIf(FileSource::isFinished);
+            while (active.size() < maxConcurrentFiles && nextFile < files.size()) {
+                active.add(new FileSource(files.get(nextFile++)));
+            }
+            if (active.isEmpty()) {
+                terminated = true;
+                subscriber.onComplete();
+                return false;
+            }
+
+            for (FileSource source : active) {
+                if (source.needsRefill() && source.parsing.compareAndSet(false, true)) {
+                    executor.execute(() -> source.parse(this));
+                }
+            }
+            return true;
+        }
+
+        private void terminate(Throwable error) {
+            terminated = true;
+            cancelled = true;
+            closeAll();
+            subscriber.onError(error);
+        }
+
+        private void closeAll() {
+            for (FileSource source : active) {
+                // A running parse task closes its reader itself when it sees the cancellation
+                if (!source.parsing.get()) {
+                    source.closeReader();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.halmber.service.flow;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link Flow.Subscriber} that counts the values it receives, e.g. from an {@link AttributeValuePublisher}.
+ * <p>
+ * Requests values in batches of {@code batchSize}, so at most one batch is outstanding at any time. The
+ * counts are available from {@link #getResult()} when the publisher completes.
+ */
+public class StatisticsSubscriber implements Flow.Subscriber<String> {
+    private final int batchSize;
+    private final Map<String, Integer> statistics = new HashMap<>();
+    private final CompletableFuture<Map<String, Integer>> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private int remainingInBatch;
+
+    /**
+     * @param batchSize number of values requested at a time
+     */
+    public StatisticsSubscriber(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the counts, completed when the publisher completes or exceptionally when it fails.
+     */
+    public CompletableFuture<Map<String, Integer>> getResult() {
+        return result;
+    }
+
+    /**
+     * Cancels the subscription; the result completes exceptionally.
+     */
+    public void cancel() {
+        subscription.cancel();
+        result.cancel(false);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        remainingInBatch = batchSize;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(String value) {
+        statistics.merge(value, 1, Integer::sum);
+        if (--remainingInBatch == 0) {
+            remainingInBatch = batchSize;
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(statistics);
+    }
+}
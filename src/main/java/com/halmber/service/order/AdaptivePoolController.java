@@ -0,0 +1,228 @@
+package com.halmber.service.order;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Resizes a {@link ThreadPoolExecutor} at runtime by hill-climbing on measured throughput.
+ * <p>
+ * The pool starts with one thread per available processor. Every sampling window the controller measures
+ * records/s and process CPU utilization, then moves the pool size one step in the current direction. If
+ * throughput drops noticeably the direction is reversed and the step halved; the pool stops growing while
+ * the CPU is saturated. The size is considered settled after the step shrinks to zero or throughput stays
+ * flat for several windows; the pool then returns to the size with the best measured throughput and is
+ * left alone.
+ * <p>
+ * Shrinking takes effect as workers finish their current file, because a running task is never interrupted.
+ */
+public class AdaptivePoolController {
+    private static final double SIGNIFICANT_CHANGE = 0.05;
+    private static final double CPU_SATURATED = 0.95;
+    private static final int STABLE_WINDOWS_TO_SETTLE = 3;
+    private static final int MAX_THREADS_PER_CORE = 4;
+
+    private final ThreadPoolExecutor pool;
+    private final LongSupplier processedRecords;
+    private final long sampleMillis;
+    private final int cores;
+    private final int maxPoolSize;
+    private final ScheduledExecutorService sampler;
+    private final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+
+    private long lastRecords;
+    private long lastNanos;
+    private long lastCpuNanos;
+    private double lastThroughput = -1;
+    private int direction = 1;
+    private int step;
+    private int stableWindows;
+    private int window;
+    private int bestSize;
+    private double bestThroughput = -1;
+    private volatile boolean settled;
+
+    /**
+     * @param pool             pool to resize
+     * @param processedRecords supplies the total number of records processed so far
+     * @param sampleMillis     length of one measurement window
+     */
+    public AdaptivePoolController(ThreadPoolExecutor pool, LongSupplier processedRecords, long sampleMillis) {
+        this.pool = pool;
+        this.processedRecords = processedRecords;
+        this.sampleMillis = sampleMillis;
+        this.cores = Runtime.getRuntime().availableProcessors();
+        this.maxPoolSize = cores * MAX_THREADS_PER_CORE;
+        this.step = Math.max(1, cores / 2);
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-pool-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the initial pool size: one thread per available processor.
+     */
+    public static int initialPoolSize() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Starts sampling. Must be called once, right before the first task is submitted.
+     */
+    public void start() {
+        lastRecords = processedRecords.getAsLong();
+        lastNanos = System.nanoTime();
+        lastCpuNanos = processCpuNanos();
+        sampler.scheduleAtFixedRate(this::sample, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling; the pool keeps its current size.
+     */
+    public void stop() {
+        sampler.shutdownNow();
+    }
+
+    public int getCurrentPoolSize() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public boolean isSettled() {
+        return settled;
+    }
+
+    /**
+     * Returns one line per sampling window: pool size, records/s, CPU utilization and the decision taken.
+     */
+    public List<String> getTrace() {
+        synchronized (trace) {
+            return new ArrayList<>(trace);
+        }
+    }
+
+    /**
+     * Returns a multi-line report with the chosen pool size and the convergence trace.
+     */
+    public String summary() {
+        StringBuilder report = new StringBuilder(String.format("Adaptive pool: %s at %d threads (started at %d)",
+                settled ? "settled" : "finished", getCurrentPoolSize(), initialPoolSize()));
+        getTrace().forEach(line -> report.append(System.lineSeparator()).append("  ").append(line));
+        return report.toString();
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        long records = processedRecords.getAsLong();
+        long cpuNanos = processCpuNanos();
+        double elapsedNanos = now - lastNanos;
+
+        double throughput = (records - lastRecords) / (elapsedNanos / 1_000_000_000.0);
+        double cpuUtilization = cpuNanos < 0 ? -1 : (cpuNanos - lastCpuNanos) / (elapsedNanos * cores);
+
+        lastRecords = records;
+        lastNanos = now;
+        lastCpuNanos = cpuNanos;
+        window++;
+
+        int size = getCurrentPoolSize();
+        String decision = settled ? "settled" : decide(throughput, cpuUtilization);
+
+        String cpu = cpuUtilization < 0 ? "  n/a" : String.format("%5.1f%%", cpuUtilization * 100);
+        trace.add(String.format("window %3d: %3d threads, %12.0f records/s, CPU %s, %s",
+                window, size, throughput, cpu, decision));
+    }
+
+    /**
+     * Applies one hill-climbing step for the throughput measured at the current pool size.
+     *
+     * @return the decision taken, for the trace
+     */
+    String decide(double throughput, double cpuUtilization) {
+        int size = getCurrentPoolSize();
+        if (throughput > bestThroughput) {
+            bestThroughput = throughput;
+            bestSize = size;
+        }
+
+        if (lastThroughput < 0) {
+            lastThroughput = throughput;
+            return resize(size + direction * step) ? "probe" : "hold";
+        }
+
+        double change = lastThroughput == 0 ? 0 : (throughput - lastThroughput) / lastThroughput;
+        lastThroughput = throughput;
+
+        if (change < -SIGNIFICANT_CHANGE) {
+            direction = -direction;
+            step /= 2;
+            stableWindows = 0;
+            if (step == 0) {
+                return settle("step exhausted");
+            }
+        } else if (change <= SIGNIFICANT_CHANGE && ++stableWindows >= STABLE_WINDOWS_TO_SETTLE) {
+            return settle("throughput flat");
+        } else if (change > SIGNIFICANT_CHANGE) {
+            stableWindows = 0;
+        }
+
+        if (direction > 0 && cpuUtilization >= CPU_SATURATED) {
+            return "hold (CPU saturated)";
+        }
+        return resize(size + direction * step) ? (direction > 0 ? "grow" : "shrink") : "hold (limit)";
+    }
+
+    /**
+     * Stops climbing and returns to the size with the best throughput seen.
+     */
+    private String settle(String reason) {
+        settled = true;
+        resize(bestSize);
+        return String.format("settled at %d threads (%s)", bestSize, reason);
+    }
+
+    private boolean resize(int requested) {
+        return resizePool(pool, Math.max(1, Math.min(maxPoolSize, requested)));
+    }
+
+    /**
+     * Sets the core and maximum size of a fixed-size pool. Surplus threads exit once their current task is
+     * done; new threads are started for queued tasks.
+     *
+     * @param pool   the pool to resize
+     * @param target new number of threads
+     * @return {@code false} if the pool already had the size
+     */
+    static boolean resizePool(ThreadPoolExecutor pool, int target) {
+        int current = pool.getMaximumPoolSize();
+        if (target == current) {
+            return false;
+        }
+
+        // Keep core <= max at every step
+        if (target > current) {
+            pool.setMaximumPoolSize(target);
+            pool.setCorePoolSize(target);
+        } else {
+            pool.setCorePoolSize(target);
+            pool.setMaximumPoolSize(target);
+        }
+        return true;
+    }
+
+    private static long processCpuNanos() {
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean sunOsBean) {
+            return sunOsBean.getProcessCpuTime();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,184 @@
+package com.halmber.service.order;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the file tasks admitted at the same time by their estimated memory footprint.
+ * <p>
+ * Every task acquires the size of its file before it is submitted and releases it when it finishes.
+ * A new task has to wait while the bytes in flight would exceed the budget, or while the old generation
+ * of the heap is above the configured fraction of its maximum. Heap pressure is detected through the
+ * usage-threshold notification of the tenured {@link MemoryPoolMXBean}; after a notification, submissions
+ * stay paused until the pool drops below the threshold again (usually after the next old-generation GC).
+ * <p>
+ * A task is always admitted when nothing else is in flight, so a file larger than the budget or a heap
+ * that stays full only makes processing sequential instead of stalling it.
+ */
+public class AdmissionController implements AutoCloseable {
+    private static final long RECHECK_MILLIS = 100;
+
+    private final long maxBytesInFlight;
+    private final BooleanSupplier heapAboveThreshold;
+    private final MemoryPoolMXBean tenuredPool;
+    private final NotificationListener thresholdListener;
+    private final Object lock = new Object();
+
+    private long bytesInFlight;
+    private long peakBytesInFlight;
+    private boolean paused;
+    private int pauseCount;
+    private long waitNanos;
+
+    /**
+     * @param maxBytesInFlight   maximum total size of the files processed at the same time; {@code 0} for no limit
+     * @param heapPauseThreshold fraction of the old generation maximum above which submissions pause;
+     *                           {@code 0} to ignore heap usage
+     */
+    public AdmissionController(long maxBytesInFlight, double heapPauseThreshold) {
+        this.maxBytesInFlight = maxBytesInFlight;
+        this.tenuredPool = heapPauseThreshold > 0 ? findTenuredPool() : null;
+
+        if (tenuredPool != null) {
+            long max = tenuredPool.getUsage().getMax() > 0
+                    ? tenuredPool.getUsage().getMax()
+                    : Runtime.getRuntime().maxMemory();
+            tenuredPool.setUsageThreshold((long) (max * heapPauseThreshold));
+            this.heapAboveThreshold = tenuredPool::isUsageThresholdExceeded;
+            this.thresholdListener = this::handleNotification;
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                    .addNotificationListener(thresholdListener, null, null);
+        } else {
+            this.heapAboveThreshold = () -> false;
+            this.thresholdListener = null;
+        }
+    }
+
+    /**
+     * Creates a controller with a custom heap check, e.g. for tests.
+     */
+    AdmissionController(long maxBytesInFlight, BooleanSupplier heapAboveThreshold) {
+        this.maxBytesInFlight = maxBytesInFlight;
+        this.heapAboveThreshold = heapAboveThreshold;
+        this.tenuredPool = null;
+        this.thresholdListener = null;
+    }
+
+    /**
+     * Blocks until a task of the given size may start.
+     *
+     * @param bytes estimated size of the task
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(long bytes) throws InterruptedException {
+        synchronized (lock) {
+            long startNanos = System.nanoTime();
+            while (mustWait(bytes)) {
+                lock.wait(RECHECK_MILLIS);
+            }
+            waitNanos += System.nanoTime() - startNanos;
+
+            bytesInFlight += bytes;
+            peakBytesInFlight = Math.max(peakBytesInFlight, bytesInFlight);
+        }
+    }
+
+    /**
+     * Releases the bytes acquired by a finished task.
+     *
+     * @param bytes the size passed to {@link #acquire(long)}
+     */
+    public void release(long bytes) {
+        synchronized (lock) {
+            bytesInFlight -= bytes;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Pauses submissions until the heap drops below the threshold. Called by the usage-threshold notification.
+     */
+    void onThresholdExceeded() {
+        synchronized (lock) {
+            if (!paused) {
+                paused = true;
+                pauseCount++;
+                System.out.println("Heap usage above threshold, pausing file submissions");
+            }
+        }
+    }
+
+    /**
+     * Returns a one-line report: budget, peak bytes in flight, time spent waiting and heap pauses.
+     */
+    public String summary() {
+        synchronized (lock) {
+            return String.format("Admission control: budget %s, peak in flight %d MB, waited %d ms, %d heap pause(s)",
+                    maxBytesInFlight > 0 ? (maxBytesInFlight >> 20) + " MB" : "unlimited",
+                    peakBytesInFlight >> 20, waitNanos / 1_000_000, pauseCount);
+        }
+    }
+
+    /**
+     * Stops listening for heap notifications.
+     */
+    @Override
+    public void close() {
+        if (thresholdListener == null) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(thresholdListener);
+        } catch (ListenerNotFoundException e) {
+            // Already removed
+        }
+    }
+
+    private boolean mustWait(long bytes) {
+        if (bytesInFlight == 0) {
+            return false;
+        }
+        if (paused) {
+            if (heapAboveThreshold.getAsBoolean()) {
+                return true;
+            }
+            paused = false;
+            System.out.println("Heap usage below threshold, resuming file submissions");
+        }
+        return maxBytesInFlight > 0 && bytesInFlight + bytes > maxBytesInFlight;
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            return;
+        }
+        MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+        if (info.getPoolName().equals(tenuredPool.getName())) {
+            onThresholdExceeded();
+        }
+    }
+
+    /**
+     * Finds the heap pool that holds long-lived objects, e.g. "G1 Old Gen" or "Tenured Gen".
+     *
+     * @return the pool, or {@code null} if the collector does not expose one with usage thresholds
+     */
+    private static MemoryPoolMXBean findTenuredPool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName();
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                    && (name.contains("Old") || name.contains("Tenured"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+}
@@ -1,91 +1,649 @@
 package com.halmber.service.order;
 
 import com.halmber.config.ApplicationConfig;
+import com.halmber.config.ExecutionMode;
+import com.halmber.config.SchedulingPolicy;
 import com.halmber.exception.InvalidAttributeException;
 import com.halmber.model.Order;
-import com.halmber.service.FileService;
+import com.halmber.service.AsyncJsonFileReader;
+import com.halmber.service.DirectBufferPool;
+import com.halmber.service.FileDiscovery;
+import com.halmber.service.FileProgress;
 import com.halmber.service.JsonFileReader;
+import com.halmber.service.SizedFile;
+import com.halmber.service.events.FileProcessedEvent;
+import com.halmber.service.order.pipeline.OrderPipeline;
+import com.halmber.utils.AllocationTracker;
+import com.halmber.utils.LongFingerprintSet;
+import com.halmber.utils.ProgressReporter;
+import com.halmber.utils.TaskTimings;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Service responsible for processing order files in parallel.
  * Manages a thread pool and coordinates processing tasks for JSON files.
  * <p>
- * Uses {@link StatisticProcessor} to aggregate statistics from orders.
+ * In {@link ExecutionMode#VIRTUAL_THREADS} mode every file task runs on its own virtual thread, so tasks
+ * blocked on slow (e.g. network-mounted) storage do not occupy platform threads. The CPU-heavy parsing is
+ * handed to a separate bounded pool of platform threads, and a semaphore limits the number of files
+ * that are open or buffered in memory at the same time.
+ * <p>
+ * With {@link SchedulingPolicy#LARGEST_FIRST} the files are submitted in longest-processing-time-first order.
+ * The executor queue is shared by all workers, so a worker that finishes a task always picks up the
+ * largest remaining file. Task durations are collected in {@link TaskTimings} to show the remaining tail.
+ * <p>
+ * In {@link ExecutionMode#PIPELINE} mode the files are handed to an {@link OrderPipeline} that runs
+ * reading, parsing and aggregation as separate stages.
+ * <p>
+ * In {@link ExecutionMode#ADAPTIVE_POOL} mode the pool size is tuned at runtime by an
+ * {@link AdaptivePoolController}, which reports the chosen size and its convergence trace at the end.
+ * <p>
+ * A service created with a shared executor (e.g. by a long-running server) leaves the executor running
+ * after a run and waits only for the tasks of its own run.
+ * <p>
+ * With {@link ApplicationConfig#getMaxBytesInFlight()} or {@link ApplicationConfig#getHeapPauseThreshold()}
+ * set, file submissions go through an {@link AdmissionController} that bounds the total size of the files
+ * in flight and pauses while the old generation is above the threshold. The pipeline mode bounds its memory
+ * with its own queues and is not affected.
+ * <p>
+ * An unknown attribute cancels the run cooperatively: the error is reported once and the remaining file
+ * tasks return without processing; threads are never interrupted.
+ * <p>
+ * Uses {@link StatisticProcessor} to aggregate statistics from orders. When
+ * {@link ApplicationConfig#isDeduplicateOrders()} is enabled, an order whose id was already seen in any
+ * file is counted only once; the ids are remembered in a {@link LongFingerprintSet}.
+ * <p>
+ * With {@link ApplicationConfig#isAsyncReads()} enabled, files are read by an {@link AsyncJsonFileReader}
+ * that keeps several reads in flight; the read buffers come from one {@link DirectBufferPool} shared by all
+ * tasks of the service.
+ * <p>
+ * With {@link ApplicationConfig#getProgressIntervalMillis()} above zero, a service with its own executor
+ * prints the progress of every run with a {@link ProgressReporter}, driven by the input bytes consumed by the
+ * parsers, instead of a line for every processed file.
  */
 public class ProcessingService {
+    private static final int DEDUP_SHARDS_PER_THREAD = 16;
+    private static final int AGGREGATE_SAMPLE_INTERVAL = 32;
+
     private final ApplicationConfig config;
     private final StatisticProcessor statisticProcessor;
     private final ExecutorService executorService;
+    private final boolean ownsExecutor;
+    private final Queue<Future<?>> runTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final ExecutorService parserPool;
+    private final Semaphore openFiles;
+    private final AdaptivePoolController adaptivePoolController;
+    private final AdmissionController admissionController;
+    private final boolean ownsAdmissionController;
+    private final LongAdder processedRecords = new LongAdder();
+    private final LongFingerprintSet seenOrderIds;
+    private final LongAdder duplicateOrders = new LongAdder();
+    private final LongAdder failedFiles = new LongAdder();
+    private final TaskTimings taskTimings = new TaskTimings();
+    private final LongAdder aggregateNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final AtomicLong totalFiles = new AtomicLong();
+    private final LongAdder completedFiles = new LongAdder();
+    private final LongAdder completedBytes = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final AtomicInteger activeFiles = new AtomicInteger();
+    private volatile OrderPipeline activePipeline;
+    private final DirectBufferPool readBuffers;
 
     public ProcessingService(ApplicationConfig config) {
         this.config = config;
         this.statisticProcessor = new StatisticProcessor();
-        this.executorService = Executors.newFixedThreadPool(config.getThreadPoolSize());
+        this.ownsExecutor = true;
+        switch (config.getExecutionMode()) {
+            case VIRTUAL_THREADS -> {
+                this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+                this.parserPool = Executors.newFixedThreadPool(config.getParserThreads());
+                // Fair, so waiting tasks get their permits in submission order
+                this.openFiles = new Semaphore(config.getMaxOpenFiles(), true);
+                this.adaptivePoolController = null;
+            }
+            case PIPELINE -> {
+                // The pipeline creates its own stage pools for every run
+                this.executorService = null;
+                this.parserPool = null;
+                this.openFiles = null;
+                this.adaptivePoolController = null;
+            }
+            case ADAPTIVE_POOL -> {
+                int initialSize = AdaptivePoolController.initialPoolSize();
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(initialSize, initialSize,
+                        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+                this.executorService = pool;
+                this.parserPool = null;
+                this.openFiles = null;
+                this.adaptivePoolController = new AdaptivePoolController(
+                        pool, processedRecords::sum, config.getAdaptiveSampleMillis());
+            }
+            default -> {
+                this.executorService = Executors.newFixedThreadPool(config.getThreadPoolSize());
+                this.parserPool = null;
+                this.openFiles = null;
+                this.adaptivePoolController = null;
+            }
+        }
+        this.seenOrderIds = createSeenOrderIds(config);
+        this.admissionController = createAdmissionController(config);
+        this.ownsAdmissionController = true;
+        this.readBuffers = createReadBuffers(config);
+    }
+
+    /**
+     * Creates a service that runs its file tasks on an executor owned by the caller. The executor is kept
+     * running after {@link #processAllFiles(Map)}, so one warm pool can serve many runs; every run waits
+     * only for its own tasks. The configured {@link ExecutionMode} is ignored and files are processed
+     * as in {@link ExecutionMode#FIXED_POOL} mode.
+     *
+     * @param config         configuration of this run
+     * @param sharedExecutor executor to submit file tasks to; never shut down by this service
+     */
+    public ProcessingService(ApplicationConfig config, ExecutorService sharedExecutor) {
+        this(config, sharedExecutor, createAdmissionController(config), true, createReadBuffers(config));
+    }
+
+    /**
+     * Creates a service that runs on an executor owned by the caller, like
+     * {@link #ProcessingService(ApplicationConfig, ExecutorService)}, and also shares the caller's admission
+     * controller and read buffers. A long-running process creates them once with
+     * {@link #createAdmissionController(ApplicationConfig)} and {@link #createReadBuffers(ApplicationConfig)},
+     * so concurrent runs share one memory budget and one buffer pool; the controller is never closed by
+     * this service.
+     *
+     * @param config              configuration of this run
+     * @param sharedExecutor      executor to submit file tasks to; never shut down by this service
+     * @param admissionController admission controller shared by the runs, or {@code null} for none
+     * @param readBuffers         direct buffers for asynchronous reads, or {@code null} to read synchronously
+     */
+    public ProcessingService(ApplicationConfig config, ExecutorService sharedExecutor,
+                             AdmissionController admissionController, DirectBufferPool readBuffers) {
+        this(config, sharedExecutor, admissionController, false, readBuffers);
+    }
+
+    private ProcessingService(ApplicationConfig config, ExecutorService sharedExecutor,
+                              AdmissionController admissionController, boolean ownsAdmissionController,
+                              DirectBufferPool readBuffers) {
+        this.config = config.toBuilder().executionMode(ExecutionMode.FIXED_POOL).build();
+        this.statisticProcessor = new StatisticProcessor();
+        this.executorService = sharedExecutor;
+        this.ownsExecutor = false;
+        this.parserPool = null;
+        this.openFiles = null;
+        this.adaptivePoolController = null;
+        this.seenOrderIds = createSeenOrderIds(config);
+        this.admissionController = admissionController;
+        this.ownsAdmissionController = ownsAdmissionController;
+        this.readBuffers = readBuffers;
+    }
+
+    /**
+     * Creates the admission controller configured by {@code maxBytesInFlight} and {@code heapPauseThreshold}.
+     *
+     * @return the controller, or {@code null} if admission control is disabled
+     */
+    public static AdmissionController createAdmissionController(ApplicationConfig config) {
+        return config.getMaxBytesInFlight() > 0 || config.getHeapPauseThreshold() > 0
+                ? new AdmissionController(config.getMaxBytesInFlight(), config.getHeapPauseThreshold())
+                : null;
     }
 
     /**
-     * Processes all JSON files in the configured input directory and aggregates statistics.
+     * Creates the direct buffer pool for asynchronous reads.
+     *
+     * @return the pool, or {@code null} if asynchronous reads are disabled
+     */
+    public static DirectBufferPool createReadBuffers(ApplicationConfig config) {
+        return config.isAsyncReads()
+                ? new DirectBufferPool(config.getAsyncBufferPoolSize(), config.getAsyncReadBytes())
+                : null;
+    }
+
+    private static LongFingerprintSet createSeenOrderIds(ApplicationConfig config) {
+        return config.isDeduplicateOrders()
+                ? new LongFingerprintSet(
+                        config.getDedupExpectedOrders(),
+                        config.getThreadPoolSize() * DEDUP_SHARDS_PER_THREAD,
+                        config.isDedupBloomFilter())
+                : null;
+    }
+
+    /**
+     * Returns start and end times of the file tasks processed so far; in the pipeline mode, of the files
+     * in the parser stage.
+     */
+    public TaskTimings getTaskTimings() {
+        return taskTimings;
+    }
+
+    /**
+     * Returns the worker time spent reading and parsing files, summed across threads. In the pipeline mode
+     * this is the time of the files in the parser stage; otherwise it is the time of the file tasks less the
+     * aggregation done in them.
+     */
+    public double getParseMillis() {
+        double parseMillis = taskTimings.getTotalMillis();
+        if (config.getExecutionMode() != ExecutionMode.PIPELINE) {
+            parseMillis -= getAggregateMillis();
+        }
+        return Math.max(0, parseMillis);
+    }
+
+    /**
+     * Returns the worker time spent skipping duplicates and merging values into the statistics,
+     * summed across threads. Outside the pipeline mode it is estimated from a sample of the orders.
+     */
+    public double getAggregateMillis() {
+        return aggregateNanos.sum() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the heap bytes allocated by the file tasks, measured with {@link AllocationTracker} on the worker
+     * thread before and after every task; in the virtual-thread mode on the parser thread, and in the pipeline
+     * mode in the parser and aggregator stages. {@code 0} if allocation counters are not available.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Returns the total number of orders parsed so far, including skipped duplicates.
+     */
+    public long getProcessedRecordCount() {
+        return processedRecords.sum();
+    }
+
+    /**
+     * Returns the number of orders skipped because their id was already processed.
+     * Always {@code 0} when deduplication is disabled.
+     */
+    public long getDuplicateOrderCount() {
+        return duplicateOrders.sum();
+    }
+
+    /**
+     * Returns the number of files that could not be read or parsed, or were skipped because the run was
+     * cancelled. A result is complete only if this is {@code 0}.
+     */
+    public long getFailedFileCount() {
+        OrderPipeline pipeline = activePipeline;
+        return failedFiles.sum() + (pipeline != null ? pipeline.getFailedFileCount() : 0);
+    }
+
+    /**
+     * Returns the number of files passed to the runs of this service so far.
+     */
+    public long getTotalFileCount() {
+        return totalFiles.get();
+    }
+
+    /**
+     * Returns the number of files finished so far, including failed and skipped ones.
+     */
+    public long getCompletedFileCount() {
+        OrderPipeline pipeline = activePipeline;
+        return completedFiles.sum() + (pipeline != null ? pipeline.getCompletedFileCount() : 0);
+    }
+
+    /**
+     * Returns the total size of the files finished so far.
+     */
+    public long getCompletedBytes() {
+        OrderPipeline pipeline = activePipeline;
+        return completedBytes.sum() + (pipeline != null ? pipeline.getCompletedBytes() : 0);
+    }
+
+    /**
+     * Returns the input bytes consumed by the parsers so far. Grows while a file is parsed and reaches the
+     * total size of the finished files when they are done, also for files that failed half way.
+     */
+    public long getBytesRead() {
+        OrderPipeline pipeline = activePipeline;
+        return bytesRead.sum() + (pipeline != null ? pipeline.getBytesRead() : 0);
+    }
+
+    /**
+     * Returns the number of files being processed right now.
+     */
+    public int getActiveFileCount() {
+        OrderPipeline pipeline = activePipeline;
+        return activeFiles.get() + (pipeline != null ? pipeline.getActiveFileCount() : 0);
+    }
+
+    /**
+     * Returns the current number of worker threads of a resizable pool, or {@code -1} in the modes without one
+     * (virtual threads, pipeline).
+     */
+    public int getPoolSize() {
+        return executorService instanceof ThreadPoolExecutor pool ? pool.getMaximumPoolSize() : -1;
+    }
+
+    /**
+     * Changes the number of worker threads of the running job. Surplus threads exit after their current file.
+     *
+     * @param size new number of threads
+     * @throws IllegalArgumentException      if the size is less than 1
+     * @throws UnsupportedOperationException unless the service owns a fixed pool
+     */
+    public void setPoolSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException(String.format("Pool size must be at least 1: %d", size));
+        }
+        if (!ownsExecutor || adaptivePoolController != null || !(executorService instanceof ThreadPoolExecutor pool)) {
+            throw new UnsupportedOperationException(String.format("The pool size can only be changed in %s mode",
+                    ExecutionMode.FIXED_POOL));
+        }
+        if (AdaptivePoolController.resizePool(pool, size)) {
+            System.out.printf("Pool resized to %d threads%n", size);
+        }
+    }
+
+    /**
+     * Cancels the running job: files that have not started yet are skipped and counted as failed. Files being
+     * processed are finished, except in the pipeline mode, where the stage threads are interrupted and
+     * unfinished files count as failed too.
      * <p>
-     * Files are processed concurrently using a fixed thread pool.
+     * A service is meant for one run, and the cancellation is never reset: a cancel before the run starts, or
+     * between runs on a shared executor, skips every file of the later runs. Create a new service per run, as
+     * the statistics server and the worker do.
+     */
+    public void cancel() {
+        if (!cancelRun()) {
+            return;
+        }
+        OrderPipeline pipeline = activePipeline;
+        if (pipeline != null) {
+            pipeline.cancel();
+        }
+        System.err.println(config.getExecutionMode() == ExecutionMode.PIPELINE
+                ? "Run cancelled: pipeline stages are stopped and unfinished files are skipped"
+                : "Run cancelled: files that have not started are skipped");
+    }
+
+    /**
+     * Returns whether the run was cancelled, by {@link #cancel()} or because of an invalid attribute.
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Processes all JSON files in the configured input roots and aggregates statistics.
+     * <p>
+     * The files are found by {@link FileDiscovery}, which also reads their sizes in the same pass, and are
+     * processed concurrently using the configured {@link ExecutionMode}.
      *
      * @param statistics a thread-safe map to store aggregated statistics
      * @throws IOException          if an I/O error occurs while reading the directory
      * @throws InterruptedException if the thread pool is interrupted while awaiting completion
      */
     public void processAllFiles(Map<String, Integer> statistics) throws IOException, InterruptedException {
-        validateInputDirectory();
+        processSizedFiles(discoverFiles(), statistics);
+    }
 
-        try (DirectoryStream<Path> jsonFiles = getJsonFiles()) {
-            submitProcessingTasks(jsonFiles, statistics);
+    /**
+     * Finds the JSON files in the configured input roots with {@link FileDiscovery}.
+     *
+     * @return the files with their sizes
+     * @throws IOException if an input root cannot be read or contains no JSON files
+     */
+    public List<SizedFile> discoverFiles() throws IOException {
+        List<SizedFile> files = FileDiscovery.fromConfig(config).discover();
+        if (files.isEmpty()) {
+            throw new IOException(String.format("No JSON files found in input directory: %s",
+                    config.getInputRootPaths().stream().map(Path::toString).collect(Collectors.joining(", "))));
         }
-        awaitCompletion();
+        return files;
     }
 
     /**
-     * Validates that input directory contains JSON files.
-     * Opens {@link DirectoryStream} and checks if it has elements.
-     * <p>Reopening the stream consumes negligible resources.
+     * Processes the given JSON files and aggregates statistics, e.g. one shard of a distributed run.
+     * <p>
+     * Files are ordered by the configured {@link SchedulingPolicy} and processed concurrently using the
+     * configured {@link ExecutionMode}; the input directory setting is not used.
+     *
+     * @param files      JSON files to process
+     * @param statistics a thread-safe map to store aggregated statistics
+     * @throws IOException          if an I/O error occurs while preparing the files
+     * @throws InterruptedException if the thread pool is interrupted while awaiting completion
+     */
+    public void processFiles(List<Path> files, Map<String, Integer> statistics) throws IOException, InterruptedException {
+        processSizedFiles(files.stream().map(SizedFile::unsized).toList(), statistics);
+    }
+
+    /**
+     * Processes files found by {@link #discoverFiles()}, reading a size from the file system only if it is
+     * not known yet and needed.
      *
-     * @throws IOException if directory is empty or inaccessible
+     * @param files      JSON files to process
+     * @param statistics a thread-safe map to store aggregated statistics
+     * @throws IOException          if an I/O error occurs while preparing the files
+     * @throws InterruptedException if the thread pool is interrupted while awaiting completion
      */
-    private void validateInputDirectory() throws IOException {
-        try (DirectoryStream<Path> stream = getJsonFiles()) {
+    public void processSizedFiles(List<SizedFile> files, Map<String, Integer> statistics)
+            throws IOException, InterruptedException {
+        totalFiles.addAndGet(files.size());
+        List<SizedFile> orderedFiles = orderFiles(files);
+
+        ProgressReporter progress = startProgress(orderedFiles);
+        try {
+            if (config.getExecutionMode() == ExecutionMode.PIPELINE) {
+                processWithPipeline(orderedFiles, statistics);
+            } else {
+                processWithExecutor(orderedFiles, statistics);
+            }
+        } finally {
+            if (progress != null) {
+                progress.close();
+            }
+        }
+    }
 
-            if (!stream.iterator().hasNext()) {
-                throw new IOException(String.format("No JSON files found in input directory: %s", config.getInputDirectory()));
+    /**
+     * Starts a progress reporter over the total size of the files, unless progress is disabled or the
+     * executor is shared with other runs.
+     *
+     * @return the reporter, or {@code null} if progress is not reported
+     */
+    private ProgressReporter startProgress(List<SizedFile> files) {
+        if (!reportsProgress()) {
+            return null;
+        }
+        long totalBytes = 0;
+        for (SizedFile file : files) {
+            try {
+                totalBytes += file.readSize();
+            } catch (IOException e) {
+                // The task reports the error itself
             }
         }
+        long bytesBefore = getBytesRead();
+        return ProgressReporter.start(totalBytes, () -> getBytesRead() - bytesBefore,
+                config.getProgressIntervalMillis(), System.out);
+    }
+
+    private boolean reportsProgress() {
+        return ownsExecutor && config.getProgressIntervalMillis() > 0;
     }
 
     /**
-     * Reads all JSON files from the input directory as a {@link DirectoryStream}.
+     * Processes the files as tasks of the executor and waits for them.
+     */
+    private void processWithExecutor(List<SizedFile> orderedFiles, Map<String, Integer> statistics)
+            throws InterruptedException {
+        if (adaptivePoolController != null) {
+            adaptivePoolController.start();
+        }
+        try {
+            submitProcessingTasks(orderedFiles, statistics);
+        } catch (InterruptedException e) {
+            // Let the submitted tasks finish so the executor and the controllers are shut down
+            cancelRun();
+            awaitCompletion();
+            throw e;
+        }
+        awaitCompletion();
+    }
+
+    /**
+     * Processes all files with an {@link OrderPipeline} and prints its per-stage queue metrics.
      *
-     * @return a {@link DirectoryStream} of JSON files
-     * @throws IOException if the directory cannot be read
+     * @param files      files to process, in submission order
+     * @param statistics a thread-safe map to store aggregated statistics
      */
-    private DirectoryStream<Path> getJsonFiles() throws IOException {
-        return FileService.listFilesAsStream(
-                config.getInputDirectory(),
-                config.getJsonFileType()
-        );
+    private void processWithPipeline(List<SizedFile> files, Map<String, Integer> statistics) throws InterruptedException {
+        if (!Arrays.asList(ApplicationConfig.getAvailableAttributes()).contains(config.getAttribute())) {
+            System.err.printf("InvalidAttributeException: reading invalid attribute: Unknown attribute: %s%n",
+                    config.getAttribute());
+            failedFiles.add(files.size());
+            completedFiles.add(files.size());
+            return;
+        }
+
+        OrderPipeline pipeline = new OrderPipeline(config, statisticProcessor, order -> {
+            processedRecords.increment();
+            return !isDuplicate(order);
+        });
+        activePipeline = pipeline;
+        if (cancelled.get()) {
+            // Cancelled before the pipeline was visible to cancel()
+            pipeline.cancel();
+        }
+        try {
+            pipeline.run(files.stream().map(SizedFile::path).toList(), statistics);
+        } finally {
+            // Dropped before its counts are added: live readers may briefly see too few files, never one twice
+            activePipeline = null;
+            completedFiles.add(pipeline.getCompletedFileCount());
+            completedBytes.add(pipeline.getCompletedBytes());
+            bytesRead.add(pipeline.getBytesRead());
+            failedFiles.add(pipeline.getFailedFileCount());
+            taskTimings.recordAll(pipeline.getFileTimings());
+            aggregateNanos.add(pipeline.getAggregateNanos());
+            allocatedBytes.add(pipeline.getAllocatedBytes());
+        }
+
+        if (!cancelled.get()) {
+            System.out.println("\nAll files processed successfully");
+            System.out.println(pipeline.metricsSummary());
+        }
     }
 
     /**
-     * Submits a processing task for each file to the executor service.
+     * Submits a processing task for each file to the executor service. With admission control enabled,
+     * every submission first waits until the {@link AdmissionController} admits the size of the file.
      *
      * @param files      JSON files to process
      * @param statistics map to aggregate statistics
+     * @throws InterruptedException if interrupted while waiting for admission
      */
-    private void submitProcessingTasks(DirectoryStream<Path> files, Map<String, Integer> statistics) {
-        files.forEach(path -> executorService.execute(() -> processFile(path, statistics)));
+    private void submitProcessingTasks(List<SizedFile> files, Map<String, Integer> statistics) throws InterruptedException {
+        for (SizedFile file : files) {
+            Path path = file.path();
+            long admittedBytes = admit(file);
+            Runnable task = () -> {
+                try {
+                    processFile(path, statistics);
+                } finally {
+                    if (admissionController != null) {
+                        admissionController.release(admittedBytes);
+                    }
+                }
+            };
+
+            if (ownsExecutor) {
+                executorService.execute(task);
+            } else {
+                runTasks.add(executorService.submit(task));
+            }
+        }
+    }
+
+    /**
+     * Waits until the admission controller admits the file.
+     *
+     * @return the number of bytes to release when the task finishes
+     */
+    private long admit(SizedFile file) throws InterruptedException {
+        if (admissionController == null) {
+            return 0;
+        }
+        long size;
+        try {
+            size = file.readSize();
+        } catch (IOException e) {
+            // The task reports the error itself
+            size = 0;
+        }
+        admissionController.acquire(size);
+        return size;
+    }
+
+    /**
+     * Orders the files according to the configured {@link SchedulingPolicy}.
+     *
+     * @param files files to order
+     * @return files in submission order
+     */
+    private List<SizedFile> orderFiles(List<SizedFile> files) {
+        if (config.getSchedulingPolicy() == SchedulingPolicy.LARGEST_FIRST) {
+            return sortBySizeDescending(files);
+        }
+        return files;
+    }
+
+    /**
+     * Sorts the files from the largest to the smallest, reading the sizes that are not known yet.
+     * Files whose size cannot be read are placed last; their tasks report the error.
+     *
+     * @param files files to sort
+     * @return files in longest-processing-time-first order
+     */
+    private List<SizedFile> sortBySizeDescending(List<SizedFile> files) {
+        List<SizedFile> sizedFiles = new ArrayList<>(files.size());
+        for (SizedFile file : files) {
+            long size;
+            try {
+                size = file.readSize();
+            } catch (IOException e) {
+                size = -1;
+            }
+            sizedFiles.add(new SizedFile(file.path(), size));
+        }
+
+        return sizedFiles.stream()
+                .sorted(Comparator.comparingLong(SizedFile::size).reversed())
+                .toList();
     }
 
     /**
@@ -97,42 +655,277 @@ public class ProcessingService {
      * @param statistics map to aggregate statistics
      */
     private void processFile(Path path, Map<String, Integer> statistics) {
+        if (cancelled.get()) {
+            failedFiles.increment();
+            completedFiles.increment();
+            return;
+        }
+        activeFiles.incrementAndGet();
+        long startNanos = System.nanoTime();
+        // Unknown on a virtual thread: the parser task measures itself then
+        long allocatedBefore = AllocationTracker.currentThreadAllocatedBytes();
+        FileProcessedEvent event = new FileProcessedEvent();
+        event.begin();
+        FileProgress progress = new FileProgress(bytesRead);
+        Consumer<Order> aggregate = orderConsumer(statistics);
+        Consumer<Order> consumer = order -> {
+            event.records++;
+            aggregate.accept(order);
+        };
+        boolean failed = true;
         try {
-            JsonFileReader.readFile(
-                    path.toFile(),
-                    Order.class,
-                    order -> statisticProcessor.processStatistic(
-                            order,
-                            statistics,
-                            config.getAttribute()
-                    )
-            );
-            System.out.printf("Processed by '%s': %s%n",
-                    config.getAttribute(),
-                    path.getFileName());
+            if (parserPool != null) {
+                processFileOnVirtualThread(path, consumer, progress);
+            } else {
+                readOrders(path, consumer, progress);
+            }
+            failed = false;
+            if (!reportsProgress()) {
+                System.out.printf("Processed by '%s': %s%n",
+                        config.getAttribute(),
+                        path.getFileName());
+            }
         } catch (IOException e) {
+            failedFiles.increment();
             System.err.printf("Error reading file %s: %s%n",
                     path.getFileName(),
                     e.getMessage());
         } catch (IllegalArgumentException e) {
+            failedFiles.increment();
             System.err.printf("Error processing file %s: %s%n%s%n", path.getFileName(), e.getMessage(), e);
         } catch (InvalidAttributeException e) {
-            executorService.shutdownNow();
-            System.err.printf("InvalidAttributeException: reading invalid attribute: %s%n", e.getMessage());
+            failedFiles.increment();
+            if (cancelRun()) {
+                System.err.printf("InvalidAttributeException: reading invalid attribute: %s%n", e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            failedFiles.increment();
+            Thread.currentThread().interrupt();
+            System.err.printf("Processing of file %s was interrupted%n", path.getFileName());
+        } finally {
+            taskTimings.record(startNanos, System.nanoTime());
+            allocatedBytes.add(AllocationTracker.allocatedSince(allocatedBefore));
+            event.commitFile(path, config.getAttribute(), failed);
+            long size = path.toFile().length();
+            completedBytes.add(size);
+            progress.complete(size);
+            completedFiles.increment();
+            activeFiles.decrementAndGet();
+        }
+    }
+
+    /**
+     * Processes a file from a virtual thread. Small files are read into memory on the virtual thread and
+     * parsed on the parser pool; files larger than {@link ApplicationConfig#getMaxBufferedFileBytes()} are
+     * streamed by a parser thread directly. The open-files permit is held until parsing completes, which
+     * also bounds the memory used by buffered files.
+     *
+     * @param path      path to the JSON file
+     * @param consumer  consumer of the parsed orders
+     * @param bytesRead receives the bytes consumed by the parser
+     */
+    private void processFileOnVirtualThread(Path path, Consumer<Order> consumer, LongConsumer bytesRead)
+            throws IOException, InterruptedException {
+        openFiles.acquire();
+        try {
+            if (Files.size(path) <= config.getMaxBufferedFileBytes()) {
+                byte[] content = Files.readAllBytes(path);
+                runOnParserPool(() -> {
+                    JsonFileReader.readBytes(content, Order.class, consumer, bytesRead);
+                    return null;
+                });
+            } else {
+                runOnParserPool(() -> {
+                    readOrders(path, consumer, bytesRead);
+                    return null;
+                });
+            }
+        } finally {
+            openFiles.release();
         }
     }
 
+    /**
+     * Runs a parsing task on the parser pool and waits for it, rethrowing its original exception.
+     */
+    private void runOnParserPool(Callable<Void> task) throws IOException, InterruptedException {
+        try {
+            parserPool.submit(() -> {
+                long allocatedBefore = AllocationTracker.currentThreadAllocatedBytes();
+                try {
+                    return task.call();
+                } finally {
+                    allocatedBytes.add(AllocationTracker.allocatedSince(allocatedBefore));
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Reads a single JSON file in the calling thread and aggregates its orders into the statistics map.
+     * With asynchronous reads enabled, the next blocks of the file are read while the current one is parsed.
+     *
+     * @param path       path to the JSON file
+     * @param statistics map to aggregate statistics
+     * @throws IOException               if the file cannot be read
+     * @throws IllegalArgumentException  if the file content is not a valid array of orders
+     * @throws InvalidAttributeException if the configured attribute is unknown
+     */
+    public void processFileStatistics(Path path, Map<String, Integer> statistics) throws IOException {
+        readOrders(path, orderConsumer(statistics), bytes -> {
+        });
+    }
+
+    /**
+     * Reads the orders of a JSON file in the calling thread, asynchronously if configured, and reports the
+     * bytes consumed by the parser.
+     */
+    private void readOrders(Path path, Consumer<Order> consumer, LongConsumer bytesRead) throws IOException {
+        if (readBuffers != null) {
+            AsyncJsonFileReader.readFile(path, Order.class, readBuffers, config.getAsyncReadAhead(), consumer, bytesRead);
+            return;
+        }
+        JsonFileReader.readFile(path.toFile(), Order.class, consumer, bytesRead);
+    }
+
+    /**
+     * Creates the per-order callback that skips duplicates and aggregates the configured attribute. The callback
+     * belongs to one file and is called by one thread at a time.
+     *
+     * @param statistics map to aggregate statistics
+     * @return consumer of parsed orders
+     */
+    private Consumer<Order> orderConsumer(Map<String, Integer> statistics) {
+        return new OrderAggregator(statistics);
+    }
+
+    /**
+     * Aggregates the orders of one file. Timing every order would cost two {@link System#nanoTime()} calls
+     * and a shared counter update per order, so only one order in {@value #AGGREGATE_SAMPLE_INTERVAL} is timed
+     * and its time counts for the whole interval. The first sample is at a random position, so files shorter
+     * than the interval are still timed without bias.
+     */
+    private final class OrderAggregator implements Consumer<Order> {
+        private final Map<String, Integer> statistics;
+        private int ordersUntilSample = ThreadLocalRandom.current().nextInt(1, AGGREGATE_SAMPLE_INTERVAL + 1);
+
+        OrderAggregator(Map<String, Integer> statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void accept(Order order) {
+            processedRecords.increment();
+            if (--ordersUntilSample > 0) {
+                aggregate(order);
+                return;
+            }
+            ordersUntilSample = AGGREGATE_SAMPLE_INTERVAL;
+            long startNanos = System.nanoTime();
+            try {
+                aggregate(order);
+            } finally {
+                aggregateNanos.add((System.nanoTime() - startNanos) * AGGREGATE_SAMPLE_INTERVAL);
+            }
+        }
+
+        private void aggregate(Order order) {
+            if (isDuplicate(order)) {
+                return;
+            }
+            statisticProcessor.processStatistic(
+                    order,
+                    statistics,
+                    config.getAttribute()
+            );
+        }
+    }
+
+    /**
+     * Checks whether an order with the same id was already processed. Orders without an id are never
+     * treated as duplicates.
+     *
+     * @param order the order to check
+     * @return {@code true} if deduplication is enabled and the order id was seen before
+     */
+    private boolean isDuplicate(Order order) {
+        if (seenOrderIds == null || order.getId() == null) {
+            return false;
+        }
+        if (seenOrderIds.add(order.getId())) {
+            return false;
+        }
+        duplicateOrders.increment();
+        return true;
+    }
+
+    /**
+     * Cancels the current run cooperatively: tasks that have not started yet return immediately and the
+     * executor is left to finish normally, so a shared executor keeps serving other runs.
+     *
+     * @return {@code true} for the first call of this run
+     */
+    private boolean cancelRun() {
+        return cancelled.compareAndSet(false, true);
+    }
+
     /**
      * Awaits termination of all submitted tasks.
      *
      * @throws InterruptedException if the thread pool is interrupted while waiting
      */
     private void awaitCompletion() throws InterruptedException {
-        executorService.shutdown();
-        boolean terminated = executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        boolean terminated = ownsExecutor ? awaitExecutorTermination() : awaitRunTasks();
 
-        if (terminated) {
+        if (parserPool != null) {
+            parserPool.shutdown();
+        }
+        if (adaptivePoolController != null) {
+            adaptivePoolController.stop();
+        }
+        if (admissionController != null && ownsAdmissionController) {
+            admissionController.close();
+        }
+
+        if (terminated && !cancelled.get()) {
             System.out.println("\nAll files processed successfully");
+            System.out.println(taskTimings.summary());
+            if (adaptivePoolController != null) {
+                System.out.println(adaptivePoolController.summary());
+            }
+            if (admissionController != null) {
+                System.out.println(admissionController.summary());
+            }
+        }
+    }
+
+    private boolean awaitExecutorTermination() throws InterruptedException {
+        executorService.shutdown();
+        return executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits for the tasks submitted by this run to a shared executor.
+     *
+     * @return always {@code true}, like a completed termination of an owned executor
+     */
+    private boolean awaitRunTasks() throws InterruptedException {
+        for (Future<?> task : runTasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("File task failed", e.getCause());
+            }
         }
+        return true;
     }
 }
@@ -6,6 +6,7 @@ import com.halmber.model.Order;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,36 +25,60 @@ public class StatisticProcessor {
      * @throws InvalidAttributeException if the attribute is unknown
      */
     public void processStatistic(Order order, Map<String, Integer> statistics, String attribute) {
+        extractValues(order, attribute, value -> statistics.merge(value, 1, Integer::sum));
+    }
+
+    /**
+     * Projects the specified attribute of an order to the individual values that should be counted,
+     * without aggregating them. Multi-value attributes such as "tags" produce one value per element.
+     *
+     * @param order     the order to process
+     * @param attribute the attribute to project (e.g., "status", "city")
+     * @param sink      receives every value to count
+     * @throws InvalidAttributeException if the attribute is unknown
+     */
+    public void extractValues(Order order, String attribute, Consumer<String> sink) {
         switch (attribute) {
-            case "id" -> processStatisticAttr(order.getCustomer().getId(), statistics);
-            case "status" -> processStatisticAttr(order.getStatus(), statistics);
-            case "tags" -> processStatisticAttr(order.getTags(), statistics);
-            case "paymentMethod" -> processStatisticAttr(order.getPaymentMethod(), statistics);
-            case "fullName" -> processStatisticAttr(order.getCustomer().getFullName(), statistics);
-            case "email" -> processStatisticAttr(order.getCustomer().getEmail(), statistics);
-            case "phone" -> processStatisticAttr(order.getCustomer().getPhone(), statistics);
-            case "city" -> processStatisticAttr(order.getCustomer().getCity(), statistics);
+            case "id" -> processStatisticAttr(order.getCustomer().getId(), sink);
+            case "status" -> processStatisticAttr(order.getStatus(), sink);
+            case "tags" -> processStatisticAttr(order.getTags(), sink);
+            case "paymentMethod" -> processStatisticAttr(order.getPaymentMethod(), sink);
+            case "fullName" -> processStatisticAttr(order.getCustomer().getFullName(), sink);
+            case "email" -> processStatisticAttr(order.getCustomer().getEmail(), sink);
+            case "phone" -> processStatisticAttr(order.getCustomer().getPhone(), sink);
+            case "city" -> processStatisticAttr(order.getCustomer().getCity(), sink);
             default -> throw new InvalidAttributeException(String.format("Unknown attribute: %s%n", attribute));
         }
     }
 
     /**
-     * Processes a single attribute value and aggregates it in the statistics map.
+     * Splits a raw attribute value into the individual values that are counted, the same way
+     * {@link #extractValues(Order, String, Consumer)} splits the value of an order.
+     *
+     * @param value the attribute value; {@code null} produces no values
+     * @param sink  receives every value to count
+     */
+    public void splitValue(String value, Consumer<String> sink) {
+        processStatisticAttr(value, sink);
+    }
+
+    /**
+     * Processes a single attribute value and passes its individual elements to the sink.
      *
-     * @param value      the attribute value
-     * @param statistics map to store aggregated results
-     * @param <T>        type of the attribute value
+     * @param value the attribute value
+     * @param sink  receives every value to count
+     * @param <T>   type of the attribute value
      */
-    private <T> void processStatisticAttr(T value, Map<String, Integer> statistics) {
+    private <T> void processStatisticAttr(T value, Consumer<String> sink) {
         if (value == null) {
             return;
         }
         if (value instanceof String str) {
             Set<String> elements = getSetStringAttributes(str);
-            elements.forEach(val -> statistics.merge(val, 1, Integer::sum));
+            elements.forEach(sink);
             return;
         }
-        statistics.merge(value.toString(), 1, Integer::sum);
+        sink.accept(value.toString());
     }
 
     /**
@@ -0,0 +1,173 @@
+package com.halmber.service.order;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@link StatisticsJobMXBean} of a {@link ProcessingService} run, registered in the platform MBean server
+ * for the duration of the job, so the run shows up in JConsole, JMC or a JMX exporter next to the JVM's own beans.
+ */
+public class StatisticsJob implements StatisticsJobMXBean, AutoCloseable {
+    /**
+     * Object name of the registered bean.
+     */
+    public static final String OBJECT_NAME = "com.halmber:type=StatisticsJob";
+
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    private static final int KEY_SAMPLE_SIZE = 1000;
+    // ConcurrentHashMap node, its table slot, the String and its byte[] header, and the Integer value
+    private static final long ENTRY_OVERHEAD_BYTES = 32 + 8 + 24 + 16 + 16;
+
+    private final ProcessingService processingService;
+    private final Map<String, Integer> statistics;
+    private final long startNanos = System.nanoTime();
+    private ObjectName objectName;
+    private long rateSampleNanos = startNanos;
+    private long rateSampleRecords;
+    private double recordsPerSecond;
+
+    /**
+     * @param processingService the service running the job
+     * @param statistics        the map the job aggregates into
+     */
+    public StatisticsJob(ProcessingService processingService, Map<String, Integer> statistics) {
+        this.processingService = processingService;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Creates the bean of a job and registers it. A job that cannot be registered, e.g. because another job
+     * of the JVM is already registered, runs without the bean.
+     *
+     * @return the bean; close it when the job has finished
+     */
+    public static StatisticsJob register(ProcessingService processingService, Map<String, Integer> statistics) {
+        StatisticsJob job = new StatisticsJob(processingService, statistics);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            server.registerMBean(job, name);
+            job.objectName = name;
+        } catch (InstanceAlreadyExistsException e) {
+            System.err.printf("JMX bean %s is already registered by another job%n", OBJECT_NAME);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        } catch (JMException e) {
+            System.err.printf("Could not register JMX bean %s: %s%n", OBJECT_NAME, e.getMessage());
+        }
+        return job;
+    }
+
+    /**
+     * Unregisters the bean.
+     */
+    @Override
+    public void close() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            System.err.printf("Could not unregister JMX bean %s: %s%n", OBJECT_NAME, e.getMessage());
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getFilesTotal() {
+        return processingService.getTotalFileCount();
+    }
+
+    @Override
+    public long getFilesDone() {
+        return processingService.getCompletedFileCount();
+    }
+
+    @Override
+    public long getFilesFailed() {
+        return processingService.getFailedFileCount();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return processingService.getBytesRead();
+    }
+
+    @Override
+    public long getRecordsProcessed() {
+        return processingService.getProcessedRecordCount();
+    }
+
+    @Override
+    public synchronized double getRecordsPerSecond() {
+        long now = System.nanoTime();
+        long records = processingService.getProcessedRecordCount();
+        if (now - rateSampleNanos >= RATE_WINDOW_NANOS || rateSampleNanos == startNanos) {
+            long elapsedNanos = Math.max(1, now - rateSampleNanos);
+            recordsPerSecond = (records - rateSampleRecords) * 1_000_000_000.0 / elapsedNanos;
+            rateSampleNanos = now;
+            rateSampleRecords = records;
+        }
+        return recordsPerSecond;
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return processingService.getActiveFileCount();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return Math.max(0, getFilesTotal() - getFilesDone() - getActiveWorkers());
+    }
+
+    @Override
+    public int getDistinctKeys() {
+        return statistics.size();
+    }
+
+    @Override
+    public long getAggregateHeapBytesEstimate() {
+        int size = statistics.size();
+        if (size == 0) {
+            return 0;
+        }
+        long sampledChars = 0;
+        int sampled = 0;
+        Iterator<String> keys = statistics.keySet().iterator();
+        while (sampled < KEY_SAMPLE_SIZE && keys.hasNext()) {
+            sampledChars += keys.next().length();
+            sampled++;
+        }
+        // Latin-1 strings take a byte per character, padded to 8 bytes
+        double averageKeyBytes = sampled > 0 ? (double) sampledChars / sampled + 4 : 0;
+        return (long) (size * (ENTRY_OVERHEAD_BYTES + averageKeyBytes));
+    }
+
+    @Override
+    public int getPoolSize() {
+        return processingService.getPoolSize();
+    }
+
+    @Override
+    public void setPoolSize(int size) {
+        processingService.setPoolSize(size);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return processingService.isCancelled();
+    }
+
+    @Override
+    public void cancel() {
+        processingService.cancel();
+    }
+}
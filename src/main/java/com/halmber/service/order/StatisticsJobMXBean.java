@@ -0,0 +1,87 @@
+package com.halmber.service.order;
+
+/**
+ * JMX view of a running statistics job, registered as {@value StatisticsJob#OBJECT_NAME}.
+ * <p>
+ * Attributes are live values read on every request, so a dashboard polling the bean sees the progress of
+ * the run. The pool size is writable while the job runs in {@link com.halmber.config.ExecutionMode#FIXED_POOL}
+ * mode.
+ */
+public interface StatisticsJobMXBean {
+    /**
+     * Returns the number of input files of the job.
+     */
+    long getFilesTotal();
+
+    /**
+     * Returns the number of finished files, including failed and skipped ones.
+     */
+    long getFilesDone();
+
+    /**
+     * Returns the number of files that could not be processed or were skipped after a cancel.
+     */
+    long getFilesFailed();
+
+    /**
+     * Returns the input bytes consumed by the parsers so far, also within files that are still being parsed.
+     */
+    long getBytesRead();
+
+    /**
+     * Returns the number of orders parsed so far, including skipped duplicates.
+     */
+    long getRecordsProcessed();
+
+    /**
+     * Returns the orders parsed per second since the previous reading at least a second ago, or since the
+     * start for the first reading.
+     */
+    double getRecordsPerSecond();
+
+    /**
+     * Returns the number of files being processed right now.
+     */
+    int getActiveWorkers();
+
+    /**
+     * Returns the number of files waiting to be processed.
+     */
+    long getQueueDepth();
+
+    /**
+     * Returns the number of distinct attribute values aggregated so far.
+     */
+    int getDistinctKeys();
+
+    /**
+     * Returns an estimate of the heap used by the aggregate map, from its size and a sample of its keys.
+     */
+    long getAggregateHeapBytesEstimate();
+
+    /**
+     * Returns the number of worker threads, or {@code -1} in modes without a resizable pool.
+     */
+    int getPoolSize();
+
+    /**
+     * Changes the number of worker threads; supported in fixed-pool mode only.
+     *
+     * @throws IllegalArgumentException      if {@code size} is less than 1
+     * @throws UnsupportedOperationException if the job does not run in
+     *                                       {@link com.halmber.config.ExecutionMode#FIXED_POOL} mode on its own pool
+     */
+    void setPoolSize(int size);
+
+    /**
+     * Returns whether the job was cancelled.
+     */
+    boolean isCancelled();
+
+    /**
+     * Cancels the job: files that have not started are skipped, files being processed are finished. In
+     * {@link com.halmber.config.ExecutionMode#PIPELINE} mode the stage threads are interrupted and unfinished
+     * files are skipped too. The cancelled job writes no report.
+     */
+    void cancel();
+}
@@ -1,53 +1,101 @@
 package com.halmber.service.order;
 
 import com.halmber.config.ApplicationConfig;
-import com.halmber.factory.statistics.StatisticItemFactoryImpl;
-import com.halmber.factory.statistics.StatisticsWrapperFactoryImpl;
-import com.halmber.model.statistics.StatisticItem;
-import com.halmber.model.statistics.StatisticsWrapper;
-import com.halmber.service.FileService;
-import com.halmber.service.XmlFileWriter;
+import com.halmber.service.AggregateCache;
+import com.halmber.service.ReportPublisher;
+import com.halmber.service.SizedFile;
+import com.halmber.service.StatisticsWriter;
+import com.halmber.service.events.WriterPhaseEvent;
+import com.halmber.utils.InputFingerprint;
+import com.halmber.utils.PerformanceMonitor;
+import com.halmber.utils.PerformanceMonitor.Phase;
+import com.halmber.utils.StatisticsSorter;
+import com.halmber.utils.TopEntries;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service responsible for orchestrating the entire statistics processing workflow.
  * <p>
  * Delegates file processing to {@link ProcessingService} and writes aggregated results
- * to an XML file using {@link XmlFileWriter}.
+ * to a report file using the {@link StatisticsWriter} of the configured format, published by a
+ * {@link ReportPublisher}.
+ * <p>
+ * With {@link ApplicationConfig#isResultCache()} enabled, the aggregate of an unchanged input set is taken
+ * from the {@link AggregateCache} in the output directory and processing is skipped; a complete aggregate
+ * computed on a miss is stored for the next run.
+ * <p>
+ * Every run is followed by a {@link PerformanceMonitor} report of its phases: discovery, processing (split
+ * into parsing and aggregation), sorting and writing. While it runs, its progress is available over JMX as a
+ * {@link StatisticsJobMXBean}. With {@link ApplicationConfig#isWriteMetrics()} enabled, the figures of the report
+ * are also written as JSON next to the report, for tracking them across runs.
  */
 public class StatisticsService {
     private final ApplicationConfig config;
     private final ProcessingService processingService;
-    private final XmlFileWriter<StatisticsWrapper, StatisticItem> writer;
+    private final ReportPublisher publisher;
     private final Map<String, Integer> statistics;
+    private final AggregateCache aggregateCache;
 
     public StatisticsService(ApplicationConfig config) {
         this.config = config;
         this.processingService = new ProcessingService(config);
-        this.writer = new XmlFileWriter<>(
-                new StatisticsWrapperFactoryImpl(),
-                new StatisticItemFactoryImpl()
-        );
+        this.publisher = new ReportPublisher(config,
+                StatisticsWriter.forFormat(config.getReportFormat(), config.isPrettyPrintXml()));
         this.statistics = new ConcurrentHashMap<>();
+        this.aggregateCache = config.isResultCache() ? AggregateCache.fromConfig(config) : null;
     }
 
     /**
-     * Processes all JSON files in the input directory and generates an XML statistics report.
+     * Processes all JSON files in the input directory and generates a statistics report.
      * <p>
-     * Handles IO errors, interruptions, and unexpected exceptions.
+     * Handles IO errors, interruptions, and unexpected exceptions. A run cancelled over JMX exits without
+     * writing the report or the metrics.
      */
     public void processStatistics() {
-        try {
-            processingService.processAllFiles(statistics);
-            writeResults();
+        try (PerformanceMonitor monitor = new PerformanceMonitor(config.getThreadPoolSize());
+             StatisticsJob job = StatisticsJob.register(processingService, statistics)) {
+            monitor.startPhase(Phase.DISCOVERY);
+            List<SizedFile> files = processingService.discoverFiles();
+            monitor.recordInput(files.size(), files.stream().mapToLong(file -> Math.max(0, file.size())).sum());
+
+            monitor.startPhase(Phase.PROCESSING);
+            if (aggregateCache != null) {
+                processWithCache(files, monitor);
+            } else {
+                processFiles(files, monitor);
+            }
+            monitor.recordProcessing(processingService.getProcessedRecordCount(),
+                    processingService.getParseMillis(),
+                    processingService.getAggregateMillis(),
+                    processingService.getTaskTimings());
+            monitor.recordTaskAllocation(processingService.getAllocatedBytes());
+            if (job.isCancelled()) {
+                // The aggregate lacks the skipped files; publishing it would replace a complete report
+                throw new CancellationException(String.format("%d of %d files skipped, no report written",
+                        processingService.getFailedFileCount(), files.size()));
+            }
+
+            writeResults(monitor);
             System.out.println("\nStatistics processing completed successfully");
+            monitor.printReport();
+            if (config.isWriteMetrics()) {
+                writeMetrics(monitor);
+            }
         } catch (IOException e) {
             System.err.printf("Failed to process statistics: %s%n", e.getMessage());
             System.exit(1);
+        } catch (CancellationException e) {
+            System.err.printf("Statistics processing cancelled: %s%n", e.getMessage());
+            System.exit(1);
         } catch (InterruptedException e) {
             System.err.printf("Processing interrupted: %s%n", e.getMessage());
             Thread.currentThread().interrupt();
@@ -60,15 +108,111 @@ public class StatisticsService {
     }
 
     /**
-     * Writes the aggregated statistics to an XML file in the configured output directory.
+     * Takes the statistics from the cache if the input set did not change, otherwise processes the files
+     * and caches the result if every file was processed.
+     */
+    private void processWithCache(List<SizedFile> files, PerformanceMonitor monitor)
+            throws IOException, InterruptedException {
+        String key;
+        try {
+            key = AggregateCache.key(InputFingerprint.of(files.stream().map(SizedFile::path).toList()), config);
+        } catch (IOException e) {
+            System.err.printf("Result cache: skipped, input files changed while listing them: %s%n", e.getMessage());
+            processFiles(files, monitor);
+            return;
+        }
+
+        Map<String, Integer> cached = aggregateCache.get(key);
+        if (cached != null) {
+            statistics.putAll(cached);
+            note(monitor, String.format("Result cache: hit (%d files unchanged, processing skipped)", files.size()));
+            return;
+        }
+
+        processFiles(files, monitor);
+        if (processingService.getFailedFileCount() == 0) {
+            try {
+                aggregateCache.put(key, statistics);
+                note(monitor, "Result cache: miss (result stored)");
+            } catch (IOException e) {
+                // The aggregate is complete; only the next run loses the cache entry
+                note(monitor, String.format("Result cache: store failed: %s", e.getMessage()));
+            }
+        } else {
+            note(monitor, String.format("Result cache: miss (not stored, %d file(s) failed)",
+                    processingService.getFailedFileCount()));
+        }
+    }
+
+    private void processFiles(List<SizedFile> files, PerformanceMonitor monitor)
+            throws IOException, InterruptedException {
+        processingService.processSizedFiles(files, statistics);
+        if (config.isDeduplicateOrders()) {
+            note(monitor, String.format("Duplicate orders skipped: %d", processingService.getDuplicateOrderCount()));
+        }
+    }
+
+    /**
+     * Prints a line of the run summary and repeats it in the performance report.
+     */
+    private static void note(PerformanceMonitor monitor, String line) {
+        System.out.println(line);
+        monitor.addNote(line);
+    }
+
+    /**
+     * Sorts the aggregated statistics and writes them to a report file in the configured output directory.
      *
+     * @param monitor monitor of the run, timing the sort and write phases
      * @throws IOException if the output file cannot be created or written
      */
-    private void writeResults() throws IOException {
-        Path outputPath = FileService.createFile(
-                config.getOutputDirectory(),
-                config.getOutputFileName()
-        );
-        writer.writeStatistics(outputPath.toFile(), statistics);
+    private void writeResults(PerformanceMonitor monitor) throws IOException {
+        // The processing pool is shut down by now, so sorting and shard writing get a pool of the same size
+        try (ExecutorService outputPool = Executors.newFixedThreadPool(config.getThreadPoolSize())) {
+            monitor.startPhase(Phase.SORT);
+            WriterPhaseEvent sortEvent = new WriterPhaseEvent();
+            sortEvent.begin();
+            TopEntries.Selection selection = TopEntries.select(statistics, config.getReportLimit(),
+                    new StatisticsSorter(outputPool, config.getThreadPoolSize()));
+            commitWriterPhase(sortEvent, WriterPhaseEvent.SORT, selection, null);
+
+            monitor.startPhase(Phase.WRITE);
+            WriterPhaseEvent writeEvent = new WriterPhaseEvent();
+            writeEvent.begin();
+            Path outputPath = publisher.publish(selection, config.isReportIncludeOthers(), outputPool);
+            commitWriterPhase(writeEvent, WriterPhaseEvent.WRITE, selection, outputPath);
+            monitor.endPhase();
+            System.out.printf("Report written: %s%n", outputPath);
+        }
+    }
+
+    /**
+     * Writes the metrics of the run next to the report. A failure is reported but does not fail the run,
+     * whose report is already published.
+     */
+    private void writeMetrics(PerformanceMonitor monitor) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("attribute", config.getAttribute());
+        metrics.put("executionMode", config.getExecutionMode().name());
+        metrics.put("reportFormat", config.getReportFormat().name().toLowerCase());
+        metrics.put("failedFiles", processingService.getFailedFileCount());
+        metrics.put("distinctValues", statistics.size());
+        metrics.putAll(monitor.metrics());
+        try {
+            System.out.printf("Metrics written: %s%n", publisher.publishMetrics(metrics));
+        } catch (IOException e) {
+            System.err.printf("Failed to write metrics: %s%n", e.getMessage());
+        }
+    }
+
+    private void commitWriterPhase(WriterPhaseEvent event, String phase, TopEntries.Selection selection, Path output) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.format = config.getReportFormat().toString();
+            event.entries = selection.entries().size();
+            event.output = output != null ? output.toString() : "";
+            event.commit();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,489 @@
+package com.halmber.service.order;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.exception.InvalidAttributeException;
+import com.halmber.service.FileDiscovery;
+import com.halmber.service.ReportPublisher;
+import com.halmber.service.SizedFile;
+import com.halmber.service.StatisticsWriter;
+import com.halmber.utils.StatisticsSorter;
+import com.halmber.utils.TopEntries;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Long-running service that keeps statistics up to date while JSON files arrive in the input roots.
+ * <p>
+ * Files are selected like in batch mode, with the {@link FileDiscovery} of the configuration: every input root
+ * is registered with a {@link WatchService}, with recursion also every subdirectory the discovery would enter
+ * (including ones created later), and only files that match the include and exclude globs are processed.
+ * A created or modified file is processed only once it is fully written: its size and modification time must
+ * stay unchanged for {@link ApplicationConfig#getFileStabilityMillis()}. Producers that write to a temporary
+ * name (e.g. {@code orders.json.part}) and rename the file into place are picked up right after the rename,
+ * because the temporary name does not match the default {@code **.json} glob.
+ * <p>
+ * The contribution of every file is remembered, so a modified file replaces its previous counts and a
+ * deleted file removes them. Every event of a path stamps it with a new generation and a result is applied only
+ * if its generation is still the latest, so a file deleted or rewritten while it is being processed never has
+ * its outdated counts applied after the newer change. The report is rewritten on a debounced schedule: a write happens
+ * {@link ApplicationConfig#getReportDebounceMillis()} after the last change, but never later than
+ * {@value #MAX_DEBOUNCE_FACTOR} debounce intervals after the first unwritten change.
+ */
+public class WatchStatisticsService implements AutoCloseable {
+    private static final int MAX_DEBOUNCE_FACTOR = 10;
+
+    private final ApplicationConfig config;
+    private final FileAggregator fileAggregator;
+    private final ReportPublisher publisher;
+    private final StatisticsSorter sorter;
+    private final FileDiscovery discovery;
+    private final Map<WatchKey, WatchedDirectory> watchedDirectories = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> statistics = new HashMap<>();
+    private final Map<Path, Map<String, Integer>> fileContributions = new HashMap<>();
+    private final Map<Path, FileState> pendingFiles = new ConcurrentHashMap<>();
+    private final Map<Path, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong nextGeneration = new AtomicLong();
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledFuture<?> scheduledWrite;
+    private long dirtySinceNanos = -1;
+
+    public WatchStatisticsService(ApplicationConfig config) {
+        this(config, Executors.newFixedThreadPool(config.getThreadPoolSize()));
+    }
+
+    private WatchStatisticsService(ApplicationConfig config, ExecutorService workers) {
+        // Files are parsed one at a time on the worker threads, so the parser needs no threads of its own.
+        // A modified file is re-read completely, so its own order ids must not be treated as duplicates.
+        this(config, workers, new ProcessingService(config.toBuilder().deduplicateOrders(false).build(),
+                workers, null, ProcessingService.createReadBuffers(config))::processFileStatistics);
+    }
+
+    WatchStatisticsService(ApplicationConfig config, FileAggregator fileAggregator) {
+        this(config, Executors.newFixedThreadPool(config.getThreadPoolSize()), fileAggregator);
+    }
+
+    private WatchStatisticsService(ApplicationConfig config, ExecutorService workers, FileAggregator fileAggregator) {
+        this.config = config;
+        this.fileAggregator = fileAggregator;
+        this.publisher = new ReportPublisher(config,
+                StatisticsWriter.forFormat(config.getReportFormat(), config.isPrettyPrintXml()));
+        this.discovery = FileDiscovery.fromConfig(config);
+        this.workers = workers;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        // Reports are written on the scheduler thread, so sorting and shard writing can use the file workers
+        this.sorter = new StatisticsSorter(workers, config.getThreadPoolSize());
+    }
+
+    /**
+     * Registers the input roots, schedules the files already present and starts watching.
+     * Returns immediately; use {@link #awaitStop()} to block the caller.
+     *
+     * @throws IOException               if an input root cannot be watched or listed
+     * @throws InvalidAttributeException if the configured attribute is unknown
+     */
+    public void start() throws IOException {
+        if (!Arrays.asList(ApplicationConfig.getAvailableAttributes()).contains(config.getAttribute())) {
+            throw new InvalidAttributeException(String.format("Unknown attribute: %s", config.getAttribute()));
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        rescan();
+
+        long checkInterval = Math.max(10, config.getFileStabilityMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::checkPendingFiles, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+
+        watchThread = new Thread(this::watchLoop, "directory-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        System.out.printf("Watching %s for new JSON files%n", discovery.getRoots().stream()
+                .map(Path::toString).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Blocks until {@link #close()} is called.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * Returns a copy of the current aggregated statistics.
+     */
+    public Map<String, Integer> getStatistics() {
+        synchronized (fileContributions) {
+            return new HashMap<>(statistics);
+        }
+    }
+
+    /**
+     * Stops watching, waits for in-flight files and writes the final report.
+     */
+    @Override
+    public void close() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            System.err.printf("Error closing watch service: %s%n", e.getMessage());
+        }
+
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+            writeReport();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                WatchedDirectory watched = watchedDirectories.get(key);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescanQuietly();
+                        continue;
+                    }
+                    if (watched == null) {
+                        continue;
+                    }
+
+                    Path path = watched.directory().resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        removeTree(path);
+                    } else if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                                && discovery.entersDirectory(watched.root(), path)) {
+                            watchNewDirectory(watched.root(), path);
+                        }
+                    } else if (discovery.matches(watched.root(), path)) {
+                        markPending(path);
+                    }
+                }
+
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                    if (watched != null && watched.directory().equals(watched.root())) {
+                        System.err.printf("Input directory is no longer accessible: %s%n", watched.root());
+                    }
+                    if (watchedDirectories.isEmpty()) {
+                        break;
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Normal shutdown
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Registers the input roots and the subdirectories the discovery enters, and marks every input file as
+     * pending. Used on start and after an event overflow, when files may also have been deleted unnoticed.
+     */
+    private void rescan() throws IOException {
+        for (Path root : discovery.getRoots()) {
+            watchDirectory(root, root, false);
+        }
+
+        Set<Path> present = new HashSet<>();
+        for (SizedFile file : discovery.discover()) {
+            present.add(file.path());
+            markPending(file.path());
+        }
+        for (Path tracked : List.copyOf(generations.keySet())) {
+            if (!present.contains(tracked) && !Files.exists(tracked)) {
+                removeTree(tracked);
+            }
+        }
+    }
+
+    private void rescanQuietly() {
+        try {
+            rescan();
+        } catch (IOException e) {
+            System.err.printf("Error rescanning input: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a directory and, with recursion, the subdirectories the discovery enters.
+     *
+     * @param markFiles also mark the matching files as pending; used for directories created while watching,
+     *                  whose files may have been written before the directory was registered
+     */
+    private void watchDirectory(Path root, Path directory, boolean markFiles) throws IOException {
+        WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(key, new WatchedDirectory(root, directory));
+        if (!markFiles && !discovery.entersDirectory(root, directory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    if (discovery.entersDirectory(root, entry)) {
+                        watchDirectory(root, entry, markFiles);
+                    }
+                } else if (markFiles && discovery.matches(root, entry)) {
+                    markPending(entry);
+                }
+            }
+        }
+    }
+
+    private void watchNewDirectory(Path root, Path directory) {
+        try {
+            watchDirectory(root, directory, true);
+        } catch (IOException e) {
+            // Usually deleted again right away; its delete event cleans up
+            System.err.printf("Error watching directory %s: %s%n", directory, e.getMessage());
+        }
+    }
+
+    private void markPending(Path path) {
+        newGeneration(path);
+        pendingFiles.put(path, FileState.observe(path));
+    }
+
+    /**
+     * Removes the contribution of a deleted file, or of every known file under a deleted directory.
+     */
+    private void removeTree(Path deleted) {
+        for (Path path : List.copyOf(generations.keySet())) {
+            if (path.startsWith(deleted)) {
+                long generation = newGeneration(path);
+                pendingFiles.remove(path);
+                workers.execute(() -> applyContribution(path, null, generation));
+                System.out.printf("Removed: %s%n", path.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Submits pending files whose size and modification time did not change for the stability period.
+     */
+    private void checkPendingFiles() {
+        long now = System.nanoTime();
+        long stabilityNanos = TimeUnit.MILLISECONDS.toNanos(config.getFileStabilityMillis());
+
+        Iterator<Map.Entry<Path, FileState>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, FileState> entry = iterator.next();
+            Path path = entry.getKey();
+            FileState previous = entry.getValue();
+            FileState current = FileState.observe(path);
+
+            if (!current.exists()) {
+                iterator.remove();
+            } else if (!current.sameContentAs(previous)) {
+                entry.setValue(current);
+            } else if (now - previous.observedAtNanos() >= stabilityNanos) {
+                iterator.remove();
+                long generation = newGeneration(path);
+                workers.execute(() -> processFile(path, generation));
+            }
+        }
+    }
+
+    /**
+     * Stamps a path with a new generation; results of earlier generations of the path are discarded. Stamps are
+     * unique across paths, so a path can be stamped again after its entry was removed.
+     */
+    private long newGeneration(Path path) {
+        long generation = nextGeneration.incrementAndGet();
+        generations.put(path, generation);
+        return generation;
+    }
+
+    private void processFile(Path path, long generation) {
+        Map<String, Integer> partial = new HashMap<>();
+        try {
+            fileAggregator.aggregate(path, partial);
+            if (applyContribution(path, partial, generation)) {
+                System.out.printf("Processed by '%s': %s%n", config.getAttribute(), path.getFileName());
+            } else {
+                System.out.printf("Skipped outdated result: %s%n", path.getFileName());
+            }
+        } catch (IOException e) {
+            System.err.printf("Error reading file %s: %s%n", path.getFileName(), e.getMessage());
+            dropContribution(path, generation);
+        } catch (RuntimeException e) {
+            System.err.printf("Error processing file %s: %s%n", path.getFileName(), e.getMessage());
+            dropContribution(path, generation);
+        }
+    }
+
+    /**
+     * Removes the counts of an earlier version of a file that can no longer be parsed, so the aggregate never
+     * mixes them with the current content. The file counts as empty until a later change makes it readable.
+     */
+    private void dropContribution(Path path, long generation) {
+        applyContribution(path, Map.of(), generation);
+    }
+
+    /**
+     * Replaces the previous contribution of a file with a new one, unless a later event of the file
+     * superseded it.
+     *
+     * @param path       the file
+     * @param partial    statistics of the file, empty if it cannot be parsed, or {@code null} if it was deleted
+     * @param generation generation of the event the contribution belongs to
+     * @return {@code false} if the contribution was outdated and discarded
+     */
+    private boolean applyContribution(Path path, Map<String, Integer> partial, long generation) {
+        synchronized (fileContributions) {
+            Long latest = generations.get(path);
+            if (latest == null || latest != generation) {
+                return false;
+            }
+            if (partial == null) {
+                // Only if no event stamped the path meanwhile; stamps are taken outside this lock
+                generations.remove(path, generation);
+            }
+
+            Map<String, Integer> previous = partial == null
+                    ? fileContributions.remove(path)
+                    : fileContributions.put(path, partial);
+
+            if (previous == null && (partial == null || partial.isEmpty())) {
+                return true;
+            }
+            if (previous != null) {
+                previous.forEach((key, count) -> statistics.computeIfPresent(key,
+                        (k, total) -> total - count == 0 ? null : total - count));
+            }
+            if (partial != null) {
+                partial.forEach((key, count) -> statistics.merge(key, count, Integer::sum));
+            }
+
+            scheduleReportWrite();
+            return true;
+        }
+    }
+
+    /**
+     * (Re)schedules the debounced report write. Must be called while holding the contributions lock.
+     */
+    private void scheduleReportWrite() {
+        long now = System.nanoTime();
+        long debounce = config.getReportDebounceMillis();
+
+        if (dirtySinceNanos < 0) {
+            dirtySinceNanos = now;
+        }
+        if (scheduledWrite != null) {
+            scheduledWrite.cancel(false);
+        }
+
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(debounce * MAX_DEBOUNCE_FACTOR);
+        long delay = now - dirtySinceNanos >= maxDelayNanos ? 0 : debounce;
+
+        if (!scheduler.isShutdown()) {
+            scheduledWrite = scheduler.schedule(this::writeReport, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeReport() {
+        Map<String, Integer> snapshot;
+        synchronized (fileContributions) {
+            if (dirtySinceNanos < 0) {
+                return;
+            }
+            dirtySinceNanos = -1;
+            snapshot = new HashMap<>(statistics);
+        }
+
+        try {
+            TopEntries.Selection selection = TopEntries.select(snapshot, config.getReportLimit(), sorter);
+            Path outputPath = publisher.publish(selection, config.isReportIncludeOthers(), workers);
+            System.out.printf("Report updated: %s (%d entries)%n", outputPath, snapshot.size());
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("Failed to write report: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * A watched directory and the input root it belongs to, which globs are matched against.
+     */
+    private record WatchedDirectory(Path root, Path directory) {
+    }
+
+    /**
+     * Aggregates the orders of one file in the calling thread.
+     */
+    @FunctionalInterface
+    interface FileAggregator {
+        /**
+         * @param path       the JSON file
+         * @param statistics map to add the counts of the file to
+         * @throws IOException if the file cannot be read or parsed
+         */
+        void aggregate(Path path, Map<String, Integer> statistics) throws IOException;
+    }
+
+    /**
+     * Snapshot of file attributes used by the stability check.
+     */
+    private record FileState(boolean exists, long size, long modifiedMillis, long observedAtNanos) {
+        static FileState observe(Path path) {
+            long observedAt = System.nanoTime();
+            try {
+                return new FileState(true, Files.size(path), Files.getLastModifiedTime(path).toMillis(), observedAt);
+            } catch (IOException e) {
+                return new FileState(false, -1, -1, observedAt);
+            }
+        }
+
+        boolean sameContentAs(FileState other) {
+            return size == other.size && modifiedMillis == other.modifiedMillis;
+        }
+    }
+}
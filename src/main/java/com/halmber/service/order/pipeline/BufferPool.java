@@ -0,0 +1,38 @@
+package com.halmber.service.order.pipeline;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of reusable byte buffers for the reader stage.
+ * <p>
+ * Buffers are allocated on demand up to {@code maxBuffers}; after that {@link #acquire()} blocks until a
+ * buffer is released, which limits the amount of raw input held in memory by the pipeline.
+ */
+class BufferPool {
+    private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final int maxBuffers;
+    private final int bufferSize;
+
+    BufferPool(int maxBuffers, int bufferSize) {
+        this.maxBuffers = maxBuffers;
+        this.bufferSize = bufferSize;
+    }
+
+    byte[] acquire() throws InterruptedException {
+        byte[] buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (allocated.getAndUpdate(count -> count < maxBuffers ? count + 1 : count) < maxBuffers) {
+            return new byte[bufferSize];
+        }
+        return freeBuffers.take();
+    }
+
+    void release(byte[] buffer) {
+        freeBuffers.add(buffer);
+    }
+}
@@ -0,0 +1,131 @@
+package com.halmber.service.order.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+
+/**
+ * Raw content of one file, handed from a reader thread to a parser thread as a sequence of chunks.
+ * <p>
+ * The reader {@link #offer(byte[], int) offers} pooled buffers and finishes with {@link #complete()} or
+ * {@link #fail(IOException)}. The parser consumes the chunks in order through {@link #inputStream()},
+ * which returns every buffer to the pool once it has been read.
+ */
+class FileChunks {
+    private static final Chunk END = new Chunk(null, 0, null);
+
+    private final Path path;
+    private final StageQueue<Chunk> chunks;
+    private final BufferPool bufferPool;
+
+    FileChunks(Path path, int capacity, StageQueue.Metrics metrics, BufferPool bufferPool) {
+        this.path = path;
+        this.chunks = new StageQueue<>(capacity, metrics);
+        this.bufferPool = bufferPool;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void offer(byte[] buffer, int length) throws InterruptedException {
+        chunks.put(new Chunk(buffer, length, null));
+    }
+
+    void complete() throws InterruptedException {
+        chunks.put(END);
+    }
+
+    void fail(IOException error) throws InterruptedException {
+        chunks.put(new Chunk(null, 0, error));
+    }
+
+    /**
+     * Returns a stream over the chunks. Closing the stream before the end drains the remaining chunks,
+     * so the reader of this file is never left blocked on a full queue.
+     */
+    InputStream inputStream() {
+        return new ChunkInputStream();
+    }
+
+    private record Chunk(byte[] buffer, int length, IOException error) {
+    }
+
+    private class ChunkInputStream extends InputStream {
+        private Chunk current;
+        private int position;
+        private boolean finished;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (current == null || position >= current.length()) {
+                if (!advance()) {
+                    return -1;
+                }
+            }
+
+            int count = Math.min(length, current.length() - position);
+            System.arraycopy(current.buffer(), position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean advance() throws IOException {
+            releaseCurrent();
+            if (finished) {
+                return false;
+            }
+
+            Chunk next;
+            try {
+                next = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for file content");
+            }
+
+            if (next == END) {
+                finished = true;
+                return false;
+            }
+            if (next.error() != null) {
+                finished = true;
+                throw next.error();
+            }
+            current = next;
+            position = 0;
+            return true;
+        }
+
+        private void releaseCurrent() {
+            if (current != null) {
+                bufferPool.release(current.buffer());
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                while (!finished) {
+                    advance();
+                }
+            } catch (IOException e) {
+                // Reader failure after the parser gave up; nothing left to report
+            } finally {
+                releaseCurrent();
+            }
+        }
+    }
+}
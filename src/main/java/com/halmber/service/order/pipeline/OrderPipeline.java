@@ -0,0 +1,448 @@
+package com.halmber.service.order.pipeline;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.model.Order;
+import com.halmber.service.FileProgress;
+import com.halmber.service.JsonFileReader;
+import com.halmber.service.events.BatchAggregatedEvent;
+import com.halmber.service.events.FileProcessedEvent;
+import com.halmber.service.order.StatisticProcessor;
+import com.halmber.utils.AllocationTracker;
+import com.halmber.utils.TaskTimings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Staged processing pipeline that overlaps disk I/O, JSON parsing and aggregation.
+ * <p>
+ * <ol>
+ *     <li><b>Reader</b> threads read files into pooled buffers and pass them on as ordered chunks.</li>
+ *     <li><b>Parser</b> threads parse the chunks of one file into orders and project them to the values
+ *     of the configured attribute, grouped into batches.</li>
+ *     <li><b>Aggregator</b> threads merge the batches into the statistics map.</li>
+ * </ol>
+ * Stages are connected by bounded {@link StageQueue}s, so a slow stage blocks its producers instead of
+ * letting memory grow. The thread count of each stage is configured independently, and the queue
+ * metrics printed after a run show which stage is the bottleneck.
+ * <p>
+ * The buffer pool is sized so that every file that can hold chunks at the same time (being read, waiting
+ * for a parser or being parsed) can fill its chunk queue; readers therefore never wait for a buffer that
+ * only a blocked reader could free.
+ * <p>
+ * {@link #cancel()} stops a run: the stage queues are closed and the stage threads interrupted, and
+ * {@link #run(List, Map)} returns once every stage thread has stopped. Files that were not finished count as
+ * failed. A pipeline runs once; create a new one for every run.
+ */
+public class OrderPipeline {
+    private static final int BATCH_SIZE = 1024;
+    private static final Object END_OF_FILES = new Object();
+
+    private final ApplicationConfig config;
+    private final StatisticProcessor statisticProcessor;
+    private final Predicate<Order> orderFilter;
+
+    private final StageQueue.Metrics chunkMetrics;
+    private final StageQueue.Metrics fileMetrics;
+    private final StageQueue.Metrics batchMetrics;
+    private final LongAdder failedFiles = new LongAdder();
+    private final TaskTimings fileTimings = new TaskTimings();
+    private final LongAdder aggregateNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder completedFiles = new LongAdder();
+    private final LongAdder completedBytes = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final AtomicInteger activeFiles = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private List<ExecutorService> stagePools = List.of();
+    private List<StageQueue<?>> stageQueues = List.of();
+
+    /**
+     * @param config             configuration with attribute and stage settings
+     * @param statisticProcessor projects orders to attribute values
+     * @param orderFilter        orders rejected by the filter are not counted (e.g. duplicates)
+     */
+    public OrderPipeline(ApplicationConfig config, StatisticProcessor statisticProcessor, Predicate<Order> orderFilter) {
+        this.config = config;
+        this.statisticProcessor = statisticProcessor;
+        this.orderFilter = orderFilter;
+        this.chunkMetrics = new StageQueue.Metrics("chunks", config.getPipelineQueueCapacity());
+        this.fileMetrics = new StageQueue.Metrics("files", config.getPipelineParserThreads());
+        this.batchMetrics = new StageQueue.Metrics("batches", config.getPipelineQueueCapacity());
+    }
+
+    /**
+     * Processes the given files and blocks until all stages are finished.
+     *
+     * Returns normally after {@link #cancel()}, with the files that were not finished counted as failed.
+     *
+     * @param files      files to process, in submission order
+     * @param statistics thread-safe map to aggregate statistics
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the stages
+     */
+    public void run(List<Path> files, Map<String, Integer> statistics) throws InterruptedException {
+        int readers = config.getPipelineReaderThreads();
+        int parsers = config.getPipelineParserThreads();
+        int aggregators = config.getPipelineAggregatorThreads();
+        int queueCapacity = config.getPipelineQueueCapacity();
+
+        Queue<Path> pendingFiles = new ConcurrentLinkedQueue<>(files);
+        StageQueue<Object> readyFiles = new StageQueue<>(parsers, fileMetrics);
+        StageQueue<Object> batches = new StageQueue<>(queueCapacity, batchMetrics);
+        BufferPool bufferPool = new BufferPool(
+                (readers + 2 * parsers) * (queueCapacity + 1),
+                config.getPipelineChunkBytes()
+        );
+
+        ExecutorService readerPool = Executors.newFixedThreadPool(readers);
+        ExecutorService parserPool = Executors.newFixedThreadPool(parsers);
+        ExecutorService aggregatorPool = Executors.newFixedThreadPool(aggregators);
+        registerStages(List.of(readerPool, parserPool, aggregatorPool), List.of(readyFiles, batches));
+
+        try {
+            List<Future<?>> readerTasks = startWorkers(readerPool, readers,
+                    () -> readFiles(pendingFiles, readyFiles, bufferPool));
+            List<Future<?>> parserTasks = startWorkers(parserPool, parsers,
+                    () -> parseFiles(readyFiles, batches));
+            List<Future<?>> aggregatorTasks = startWorkers(aggregatorPool, aggregators,
+                    () -> aggregateBatches(batches, statistics));
+
+            awaitWorkers(readerTasks);
+            signalEnd(readyFiles, parsers);
+            awaitWorkers(parserTasks);
+            signalEnd(batches, aggregators);
+            awaitWorkers(aggregatorTasks);
+        } catch (InterruptedException | RuntimeException e) {
+            // Stages stopped by cancel() fail with interrupts, closed queues or cancelled tasks
+            if (!cancelled) {
+                throw e;
+            }
+        } finally {
+            readerPool.shutdownNow();
+            parserPool.shutdownNow();
+            aggregatorPool.shutdownNow();
+            if (cancelled) {
+                awaitTermination(List.of(readerPool, parserPool, aggregatorPool));
+            }
+        }
+
+        if (cancelled) {
+            long unfinished = files.size() - completedFiles.sum();
+            failedFiles.add(unfinished);
+            completedFiles.add(unfinished);
+        }
+    }
+
+    /**
+     * Stops the run: closes the stage queues and interrupts the stage threads. Files being parsed are abandoned,
+     * but the batches they already handed on may have been aggregated. May be called before {@link #run} starts,
+     * which then stops right away.
+     */
+    public void cancel() {
+        cancelled = true;
+        stopStages();
+    }
+
+    /**
+     * Returns whether {@link #cancel()} was called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private synchronized void registerStages(List<ExecutorService> pools, List<StageQueue<?>> queues) {
+        stagePools = pools;
+        stageQueues = queues;
+        if (cancelled) {
+            stopStages();
+        }
+    }
+
+    private synchronized void stopStages() {
+        for (StageQueue<?> queue : stageQueues) {
+            queue.close();
+        }
+        for (ExecutorService pool : stagePools) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits until the interrupted stage threads have stopped, so no thread touches the statistics after
+     * {@link #run} returns.
+     */
+    private static void awaitTermination(List<ExecutorService> pools) {
+        try {
+            for (ExecutorService pool : pools) {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of files that could not be read or parsed.
+     */
+    public long getFailedFileCount() {
+        return failedFiles.sum();
+    }
+
+    /**
+     * Returns the number of files the parser stage has finished so far, including failed ones.
+     */
+    public long getCompletedFileCount() {
+        return completedFiles.sum();
+    }
+
+    /**
+     * Returns the total size of the files the parser stage has finished so far.
+     */
+    public long getCompletedBytes() {
+        return completedBytes.sum();
+    }
+
+    /**
+     * Returns the input bytes consumed by the parser stage so far, including the rest of finished files that
+     * failed half way.
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Returns the number of files being parsed right now.
+     */
+    public int getActiveFileCount() {
+        return activeFiles.get();
+    }
+
+    /**
+     * Returns the time every file spent in the parser stage, from being taken by a parser until its last
+     * batch was handed on.
+     */
+    public TaskTimings getFileTimings() {
+        return fileTimings;
+    }
+
+    /**
+     * Returns the time the aggregators spent merging batches, summed across aggregator threads and
+     * excluding the time they waited for batches.
+     */
+    public long getAggregateNanos() {
+        return aggregateNanos.sum();
+    }
+
+    /**
+     * Returns the heap bytes allocated while parsing files and merging batches, measured per file and per
+     * batch on the stage threads; {@code 0} if allocation counters are not available.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Returns a per-stage queue report: how full every stage boundary was and how long producers
+     * were blocked and consumers starved.
+     */
+    public String metricsSummary() {
+        return String.join(System.lineSeparator(),
+                "Pipeline queues (reader -> chunks -> parser -> batches -> aggregator):",
+                "  " + fileMetrics.summary(),
+                "  " + chunkMetrics.summary(),
+                "  " + batchMetrics.summary());
+    }
+
+    private void readFiles(Queue<Path> pendingFiles, StageQueue<Object> readyFiles, BufferPool bufferPool)
+            throws InterruptedException {
+        Path path;
+        while ((path = pendingFiles.poll()) != null) {
+            FileChunks fileChunks = new FileChunks(path, config.getPipelineQueueCapacity(), chunkMetrics, bufferPool);
+            readyFiles.put(fileChunks);
+
+            try (InputStream input = Files.newInputStream(path)) {
+                while (true) {
+                    byte[] buffer = bufferPool.acquire();
+                    int length = input.readNBytes(buffer, 0, buffer.length);
+                    if (length == 0) {
+                        bufferPool.release(buffer);
+                        break;
+                    }
+                    fileChunks.offer(buffer, length);
+                }
+                fileChunks.complete();
+            } catch (IOException e) {
+                fileChunks.fail(e);
+            }
+        }
+    }
+
+    private void parseFiles(StageQueue<Object> readyFiles, StageQueue<Object> batches) throws InterruptedException {
+        while (true) {
+            Object next = readyFiles.take();
+            if (next == END_OF_FILES) {
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            long allocatedBefore = AllocationTracker.currentThreadAllocatedBytes();
+            FileProcessedEvent event = new FileProcessedEvent();
+            event.begin();
+            activeFiles.incrementAndGet();
+            boolean failed = true;
+            FileChunks fileChunks = (FileChunks) next;
+            Path path = fileChunks.getPath();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            BatchSink sink = new BatchSink(batches, batch);
+            FileProgress progress = new FileProgress(bytesRead);
+
+            try (InputStream input = fileChunks.inputStream()) {
+                JsonFileReader.readStream(input, Order.class, order -> {
+                    event.records++;
+                    if (orderFilter.test(order)) {
+                        statisticProcessor.extractValues(order, config.getAttribute(), sink::add);
+                    }
+                }, progress);
+                sink.flush();
+                failed = false;
+                if (config.getProgressIntervalMillis() <= 0) {
+                    System.out.printf("Processed by '%s': %s%n", config.getAttribute(), path.getFileName());
+                }
+            } catch (IOException e) {
+                failedFiles.increment();
+                if (!cancelled) {
+                    System.err.printf("Error reading file %s: %s%n", path.getFileName(), e.getMessage());
+                }
+            } catch (IllegalArgumentException e) {
+                failedFiles.increment();
+                System.err.printf("Error processing file %s: %s%n%s%n", path.getFileName(), e.getMessage(), e);
+            } catch (BatchSink.Interrupted e) {
+                throw new InterruptedException("Interrupted while handing a batch to the aggregators");
+            } finally {
+                fileTimings.record(startNanos, System.nanoTime());
+                allocatedBytes.add(AllocationTracker.allocatedSince(allocatedBefore));
+                event.commitFile(path, config.getAttribute(), failed);
+                long size = path.toFile().length();
+                completedBytes.add(size);
+                progress.complete(size);
+                completedFiles.increment();
+                activeFiles.decrementAndGet();
+            }
+        }
+    }
+
+    private void aggregateBatches(StageQueue<Object> batches, Map<String, Integer> statistics) throws InterruptedException {
+        while (true) {
+            Object next = batches.take();
+            if (next == END_OF_FILES) {
+                return;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<String> values = (List<String>) next;
+            BatchAggregatedEvent event = new BatchAggregatedEvent();
+            event.begin();
+            long startNanos = System.nanoTime();
+            long allocatedBefore = AllocationTracker.currentThreadAllocatedBytes();
+            for (String value : values) {
+                statistics.merge(value, 1, Integer::sum);
+            }
+            aggregateNanos.add(System.nanoTime() - startNanos);
+            allocatedBytes.add(AllocationTracker.allocatedSince(allocatedBefore));
+            event.end();
+            if (event.shouldCommit()) {
+                event.values = values.size();
+                event.distinctValues = statistics.size();
+                event.commit();
+            }
+        }
+    }
+
+    private static List<Future<?>> startWorkers(ExecutorService pool, int count, StageWorker worker) {
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(pool.submit(() -> {
+                worker.run();
+                return null;
+            }));
+        }
+        return futures;
+    }
+
+    private static void awaitWorkers(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Pipeline stage failed", e.getCause());
+            }
+        }
+    }
+
+    private static void signalEnd(StageQueue<Object> queue, int consumers) throws InterruptedException {
+        for (int i = 0; i < consumers; i++) {
+            queue.put(END_OF_FILES);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageWorker {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Collects projected values and hands full batches to the aggregator stage.
+     */
+    private static final class BatchSink {
+        private final StageQueue<Object> batches;
+        private List<String> batch;
+
+        BatchSink(StageQueue<Object> batches, List<String> batch) {
+            this.batches = batches;
+            this.batch = batch;
+        }
+
+        void add(String value) {
+            batch.add(value);
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                batches.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Interrupted();
+            }
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+
+        /**
+         * Carries an interruption out of the parser callback, which cannot throw checked exceptions.
+         */
+        private static final class Interrupted extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+        }
+    }
+}
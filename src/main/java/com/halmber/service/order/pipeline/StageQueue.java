@@ -0,0 +1,134 @@
+package com.halmber.service.order.pipeline;
+
+import com.halmber.service.events.QueueWaitEvent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue connecting two pipeline stages.
+ * <p>
+ * A full queue blocks the producing stage (backpressure). Every put records the resulting queue depth and
+ * the time the producer was blocked; every take records the time the consumer waited for an element.
+ * A queue that is mostly full points at a slow downstream stage, a queue that is mostly empty at a slow
+ * upstream stage. Several queues may share one {@link Metrics} instance, e.g. the per-file chunk queues.
+ * Waits longer than its threshold are also recorded as {@link QueueWaitEvent}s for JDK Flight Recorder.
+ * <p>
+ * A cancelled pipeline {@link #close() closes} its queues, so a producer blocked on a full queue whose
+ * consumers are gone is released and every later put fails.
+ *
+ * @param <T> element type
+ */
+class StageQueue<T> {
+    private final BlockingQueue<T> queue;
+    private final Metrics metrics;
+    private volatile boolean closed;
+
+    StageQueue(int capacity, Metrics metrics) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @throws InterruptedException if interrupted while waiting, or if the queue was closed
+     */
+    void put(T element) throws InterruptedException {
+        if (closed) {
+            throw new InterruptedException("Stage queue closed");
+        }
+        QueueWaitEvent event = new QueueWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
+        queue.put(element);
+        int depth = queue.size();
+        metrics.recordPut(System.nanoTime() - start, depth);
+        commitWait(event, QueueWaitEvent.PUT, depth);
+    }
+
+    T take() throws InterruptedException {
+        QueueWaitEvent event = new QueueWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
+        T element = queue.take();
+        metrics.recordTake(System.nanoTime() - start);
+        commitWait(event, QueueWaitEvent.TAKE, queue.size());
+        return element;
+    }
+
+    /**
+     * Drops the queued elements and fails every later put. Clearing the queue releases a producer blocked
+     * on it; the consumers are expected to be interrupted by the caller.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void commitWait(QueueWaitEvent event, String operation, int depth) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.queue = metrics.getName();
+            event.operation = operation;
+            event.depth = depth;
+            event.commit();
+        }
+    }
+
+    /**
+     * Queue statistics for one stage boundary.
+     */
+    static class Metrics {
+        private final String name;
+        private final int capacity;
+        private final LongAdder puts = new LongAdder();
+        private final LongAdder depthSum = new LongAdder();
+        private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+        private final AtomicLong producerBlockedNanos = new AtomicLong();
+        private final AtomicLong consumerWaitNanos = new AtomicLong();
+
+        Metrics(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        private void recordPut(long blockedNanos, int depth) {
+            puts.increment();
+            depthSum.add(depth);
+            maxDepth.accumulate(depth);
+            producerBlockedNanos.addAndGet(blockedNanos);
+        }
+
+        private void recordTake(long waitNanos) {
+            consumerWaitNanos.addAndGet(waitNanos);
+        }
+
+        double getAverageDepth() {
+            long count = puts.sum();
+            return count == 0 ? 0 : (double) depthSum.sum() / count;
+        }
+
+        long getMaxDepth() {
+            return maxDepth.get();
+        }
+
+        long getProducerBlockedMillis() {
+            return producerBlockedNanos.get() / 1_000_000;
+        }
+
+        long getConsumerWaitMillis() {
+            return consumerWaitNanos.get() / 1_000_000;
+        }
+
+        String summary() {
+            return String.format("%-8s queue: avg depth %6.2f / %d, max %d, producers blocked %d ms, consumers waited %d ms",
+                    name, getAverageDepth(), capacity, getMaxDepth(), getProducerBlockedMillis(), getConsumerWaitMillis());
+        }
+    }
+}
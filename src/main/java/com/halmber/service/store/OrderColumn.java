@@ -0,0 +1,60 @@
+package com.halmber.service.store;
+
+import com.halmber.model.Customer;
+import com.halmber.model.Order;
+
+import java.util.function.Function;
+
+/**
+ * String attributes of an order stored as dictionary-encoded columns by {@link OrderColumnStore}.
+ * The names are those of {@link com.halmber.config.ApplicationConfig#getAvailableAttributes()}.
+ */
+public enum OrderColumn {
+    ID("id", order -> customer(order).getId()),
+    STATUS("status", Order::getStatus),
+    TAGS("tags", Order::getTags),
+    PAYMENT_METHOD("paymentMethod", Order::getPaymentMethod),
+    FULL_NAME("fullName", order -> customer(order).getFullName()),
+    EMAIL("email", order -> customer(order).getEmail()),
+    PHONE("phone", order -> customer(order).getPhone()),
+    CITY("city", order -> customer(order).getCity());
+
+    private static final Customer NO_CUSTOMER = new Customer();
+
+    private final String attribute;
+    private final Function<Order, String> accessor;
+
+    OrderColumn(String attribute, Function<Order, String> accessor) {
+        this.attribute = attribute;
+        this.accessor = accessor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Returns the value of this attribute of the order, or {@code null} if it is not set.
+     */
+    String valueOf(Order order) {
+        return accessor.apply(order);
+    }
+
+    /**
+     * Returns the column of an attribute name, ignoring case.
+     *
+     * @throws IllegalArgumentException if there is no such attribute
+     */
+    public static OrderColumn fromAttribute(String attribute) {
+        for (OrderColumn column : values()) {
+            if (column.attribute.equalsIgnoreCase(attribute)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown attribute: %s", attribute));
+    }
+
+    private static Customer customer(Order order) {
+        return order.getCustomer() != null ? order.getCustomer() : NO_CUSTOMER;
+    }
+}
@@ -0,0 +1,358 @@
+package com.halmber.service.store;
+
+import com.halmber.model.Order;
+import com.halmber.service.JsonFileReader;
+import com.halmber.service.order.StatisticProcessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * In-memory store of orders in off-heap columns, for answering many queries over one loaded data set.
+ * <p>
+ * Rows are kept in chunks of {@link #CHUNK_ROWS} rows. Every chunk holds one column per attribute in direct
+ * (off-heap) buffers: an {@code int} dictionary code for each {@link OrderColumn}, a {@code double} for the
+ * amount and a {@code long} for the creation time, about 48 bytes per order. Distinct strings are stored
+ * once on the heap, in one {@link StringDictionary} per column, so the garbage collector has no per-order
+ * objects to trace.
+ * <p>
+ * Queries scan the columns they need in parallel: the chunks are split into ranges scanned by separate
+ * tasks, whose partial results are merged at the end. Values are counted per dictionary code and split into
+ * individual values (e.g. tags) only once per distinct code, with the same rules as
+ * {@link StatisticProcessor}.
+ * <p>
+ * Appending is synchronized; queries must not run while orders are still being appended.
+ */
+public class OrderColumnStore {
+    /**
+     * Number of rows per chunk.
+     */
+    public static final int CHUNK_ROWS = 1 << 16;
+
+    private static final OrderColumn[] COLUMNS = OrderColumn.values();
+    private static final int BYTES_PER_ROW = COLUMNS.length * Integer.BYTES + Double.BYTES + Long.BYTES;
+    private static final int LOAD_BATCH_SIZE = 4096;
+
+    private final StringDictionary[] dictionaries = new StringDictionary[COLUMNS.length];
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final StatisticProcessor statisticProcessor = new StatisticProcessor();
+    private long rowCount;
+
+    public OrderColumnStore() {
+        for (int i = 0; i < dictionaries.length; i++) {
+            dictionaries[i] = new StringDictionary();
+        }
+    }
+
+    /**
+     * Loads the orders of the files into a new store, parsing the files in parallel. Files that cannot be
+     * read or parsed are reported and skipped.
+     *
+     * @param files    JSON files with arrays of orders
+     * @param executor executor for parsing the files
+     * @return the loaded store
+     */
+    public static OrderColumnStore load(List<Path> files, Executor executor) {
+        OrderColumnStore store = new OrderColumnStore();
+        AtomicInteger failedFiles = new AtomicInteger();
+        long startNanos = System.nanoTime();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(files.size());
+        for (Path file : files) {
+            tasks.add(runAsync(() -> {
+                if (!store.loadFile(file)) {
+                    failedFiles.incrementAndGet();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+        System.out.printf("Loaded %d orders from %d file(s) in %d ms (%d failed), off-heap columns %d MB%n",
+                store.getRowCount(), files.size() - failedFiles.get(), (System.nanoTime() - startNanos) / 1_000_000,
+                failedFiles.get(), store.getOffHeapBytes() >> 20);
+        return store;
+    }
+
+    private boolean loadFile(Path file) {
+        List<Order> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        try {
+            JsonFileReader.readFile(file.toFile(), Order.class, order -> {
+                batch.add(order);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    appendAll(batch);
+                    batch.clear();
+                }
+            });
+            appendAll(batch);
+            return true;
+        } catch (IOException e) {
+            System.err.printf("Error reading file %s: %s%n", file.getFileName(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Error processing file %s: %s%n", file.getFileName(), e.getMessage());
+        }
+        // Orders appended before the error stay in the store
+        return false;
+    }
+
+    /**
+     * Appends an order.
+     */
+    public synchronized void append(Order order) {
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.size == CHUNK_ROWS) {
+            chunk = new Chunk();
+            chunks.add(chunk);
+        }
+
+        int row = chunk.size;
+        for (int i = 0; i < COLUMNS.length; i++) {
+            chunk.codes[i].put(row, dictionaries[i].encode(COLUMNS[i].valueOf(order)));
+        }
+        chunk.amounts.put(row, order.getAmount());
+        chunk.createdAt.put(row, order.getCreatedAt());
+        chunk.size++;
+        rowCount++;
+    }
+
+    /**
+     * Appends the orders in their order.
+     */
+    public synchronized void appendAll(List<Order> orders) {
+        for (Order order : orders) {
+            append(order);
+        }
+    }
+
+    public synchronized long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the size of the allocated off-heap columns.
+     */
+    public synchronized long getOffHeapBytes() {
+        return (long) chunks.size() * CHUNK_ROWS * BYTES_PER_ROW;
+    }
+
+    /**
+     * Returns the number of distinct values of the column.
+     */
+    public synchronized int getDistinctValueCount(OrderColumn column) {
+        return dictionaries[column.ordinal()].size();
+    }
+
+    /**
+     * Returns the number of rows matching the filter.
+     *
+     * @param filter   the rows to count
+     * @param executor executor for the parallel scan
+     */
+    public long count(RowFilter filter, Executor executor) {
+        return scan(executor, range -> new long[1], (partial, chunk, row) -> partial[0]++, filter)
+                .stream().mapToLong(partial -> partial[0]).sum();
+    }
+
+    /**
+     * Counts the individual values of the column in the rows matching the filter, like the statistics of
+     * the attribute would count them.
+     *
+     * @param column   the attribute to count
+     * @param filter   the rows to include
+     * @param executor executor for the parallel scan
+     * @return the number of matching rows per value
+     */
+    public Map<String, Integer> countBy(OrderColumn column, RowFilter filter, Executor executor) {
+        int columnIndex = column.ordinal();
+        int dictionarySize = getDistinctValueCount(column);
+        List<int[]> partials = scan(executor, range -> new int[dictionarySize], (partial, chunk, row) -> {
+            int code = chunk.codes[columnIndex].get(row);
+            if (code != StringDictionary.NULL_CODE) {
+                partial[code]++;
+            }
+        }, filter);
+
+        int[] counts = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            int[] partial = partials.get(i);
+            for (int code = 0; code < dictionarySize; code++) {
+                counts[code] += partial[code];
+            }
+        }
+
+        StringDictionary dictionary = dictionaries[columnIndex];
+        Map<String, Integer> statistics = new HashMap<>();
+        for (int code = 0; code < dictionarySize; code++) {
+            int count = counts[code];
+            if (count > 0) {
+                statisticProcessor.splitValue(dictionary.decode(code), value -> statistics.merge(value, count, Integer::sum));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the count, sum, minimum and maximum of the amounts of the rows matching the filter.
+     *
+     * @param filter   the rows to include
+     * @param executor executor for the parallel scan
+     */
+    public AmountSummary summarizeAmount(RowFilter filter, Executor executor) {
+        List<double[]> partials = scan(executor,
+                range -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY},
+                (partial, chunk, row) -> {
+                    double amount = chunk.amounts.get(row);
+                    partial[0]++;
+                    partial[1] += amount;
+                    partial[2] = Math.min(partial[2], amount);
+                    partial[3] = Math.max(partial[3], amount);
+                }, filter);
+
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] partial : partials) {
+            count += (long) partial[0];
+            sum += partial[1];
+            min = Math.min(min, partial[2]);
+            max = Math.max(max, partial[3]);
+        }
+        return new AmountSummary(count, sum, min, max);
+    }
+
+    /**
+     * Returns a mask over the codes of the column that matches the value. A code matches if its value, split
+     * like the statistics split it, contains the value.
+     */
+    synchronized boolean[] matchingCodes(OrderColumn column, String value) {
+        StringDictionary dictionary = dictionaries[column.ordinal()];
+        boolean[] mask = new boolean[dictionary.size()];
+        for (int code = 0; code < mask.length; code++) {
+            int matchingCode = code;
+            statisticProcessor.splitValue(dictionary.decode(code), element -> {
+                if (element.equals(value)) {
+                    mask[matchingCode] = true;
+                }
+            });
+        }
+        return mask;
+    }
+
+    /**
+     * Scans the chunks in parallel ranges, passing every matching row to the visitor with the partial result
+     * of its range.
+     *
+     * @return the partial results of all ranges, at least one
+     */
+    private <P> List<P> scan(Executor executor, IntFunction<P> partialFactory, RowVisitor<P> visitor, RowFilter filter) {
+        List<Chunk> snapshot;
+        synchronized (this) {
+            snapshot = List.copyOf(chunks);
+        }
+        int parallelism = Math.max(1, Math.min(snapshot.size(), Runtime.getRuntime().availableProcessors()));
+
+        List<P> partials = new ArrayList<>(parallelism);
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(parallelism);
+        for (int range = 0; range < parallelism; range++) {
+            P partial = partialFactory.apply(range);
+            partials.add(partial);
+            List<Chunk> rangeChunks = snapshot.subList(
+                    snapshot.size() * range / parallelism, snapshot.size() * (range + 1) / parallelism);
+            tasks.add(runAsync(() -> {
+                for (Chunk chunk : rangeChunks) {
+                    scanChunk(chunk, filter, partial, visitor);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        return partials;
+    }
+
+    private static <P> void scanChunk(Chunk chunk, RowFilter filter, P partial, RowVisitor<P> visitor) {
+        List<OrderColumn> maskColumns = filter.maskColumns();
+        IntBuffer[] maskCodes = new IntBuffer[maskColumns.size()];
+        boolean[][] masks = new boolean[maskColumns.size()][];
+        for (int i = 0; i < maskCodes.length; i++) {
+            maskCodes[i] = chunk.codes[maskColumns.get(i).ordinal()];
+            masks[i] = filter.mask(i);
+        }
+
+        rows:
+        for (int row = 0; row < chunk.size; row++) {
+            for (int i = 0; i < maskCodes.length; i++) {
+                int code = maskCodes[i].get(row);
+                if (code == StringDictionary.NULL_CODE || !masks[i][code]) {
+                    continue rows;
+                }
+            }
+            if (!filter.matchesAmount(chunk.amounts.get(row)) || !filter.matchesCreatedAt(chunk.createdAt.get(row))) {
+                continue;
+            }
+            visitor.visit(partial, chunk, row);
+        }
+    }
+
+    private static CompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        try {
+            return CompletableFuture.runAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowVisitor<P> {
+        void visit(P partial, Chunk chunk, int row);
+    }
+
+    /**
+     * Summary of the amounts of the matching rows.
+     *
+     * @param count number of rows
+     * @param sum   sum of the amounts
+     * @param min   smallest amount, {@link Double#POSITIVE_INFINITY} without rows
+     * @param max   largest amount, {@link Double#NEGATIVE_INFINITY} without rows
+     */
+    public record AmountSummary(long count, double sum, double min, double max) {
+        public double average() {
+            return count > 0 ? sum / count : 0;
+        }
+    }
+
+    /**
+     * Columns of {@link #CHUNK_ROWS} rows in direct buffers of the platform's byte order.
+     */
+    private static final class Chunk {
+        private final IntBuffer[] codes = new IntBuffer[COLUMNS.length];
+        private final DoubleBuffer amounts;
+        private final LongBuffer createdAt;
+        private int size;
+
+        Chunk() {
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = allocate(Integer.BYTES).asIntBuffer();
+            }
+            amounts = allocate(Double.BYTES).asDoubleBuffer();
+            createdAt = allocate(Long.BYTES).asLongBuffer();
+        }
+
+        private static ByteBuffer allocate(int bytesPerRow) {
+            return ByteBuffer.allocateDirect(CHUNK_ROWS * bytesPerRow).order(ByteOrder.nativeOrder());
+        }
+    }
+}
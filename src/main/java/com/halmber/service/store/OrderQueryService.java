@@ -0,0 +1,116 @@
+package com.halmber.service.store;
+
+import com.halmber.utils.StatisticsSorter;
+import com.halmber.utils.TopEntries;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers text queries over an {@link OrderColumnStore}, e.g. from an interactive console session.
+ * <p>
+ * Supported queries, with optional {@link RowFilter} conditions after {@code where}:
+ * <ul>
+ *     <li>{@code count [where <conditions>]} - number of matching orders;</li>
+ *     <li>{@code count by <attribute> [where <conditions>] [top <n>]} - values of the attribute with their
+ *     counts, in report order (default top {@value #DEFAULT_TOP});</li>
+ *     <li>{@code amount [where <conditions>]} - count, sum, average, minimum and maximum of the amounts.</li>
+ * </ul>
+ */
+public class OrderQueryService {
+    /**
+     * Number of values shown by {@code count by} without {@code top}.
+     */
+    public static final int DEFAULT_TOP = 20;
+
+    private static final Pattern QUERY = Pattern.compile(
+            "(count|amount)(?:\\s+by\\s+(\\w+))?(?:\\s+where\\s+(.+?))?(?:\\s+top\\s+(\\d+))?",
+            Pattern.CASE_INSENSITIVE);
+
+    private final OrderColumnStore store;
+    private final Executor executor;
+    private final StatisticsSorter sorter;
+
+    /**
+     * @param store       the loaded orders
+     * @param executor    executor for the parallel scans and sorts
+     * @param parallelism number of parallel sort tasks, usually the pool size
+     */
+    public OrderQueryService(OrderColumnStore store, Executor executor, int parallelism) {
+        this.store = store;
+        this.executor = executor;
+        this.sorter = new StatisticsSorter(executor, parallelism);
+    }
+
+    /**
+     * Returns the query syntax, for the console's help command.
+     */
+    public static String help() {
+        return String.join(System.lineSeparator(),
+                "Queries:",
+                "  count [where <conditions>]",
+                "  count by <attribute> [where <conditions>] [top <n>]",
+                "  amount [where <conditions>]",
+                "Conditions are joined by 'and': <attribute>=<value>, <attribute>!=<value>,",
+                "  amount or createdAt with =, >, >=, <, <=",
+                "Example: count by city where status=NEW and amount>=100 top 5");
+    }
+
+    /**
+     * Runs a query and returns its result as text.
+     *
+     * @param query the query text
+     * @return the result, followed by the time the query took
+     * @throws IllegalArgumentException if the query is malformed
+     */
+    public String execute(String query) {
+        Matcher matcher = QUERY.matcher(query.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(String.format("Unknown query: %s", query.trim()));
+        }
+        long startNanos = System.nanoTime();
+
+        String command = matcher.group(1).toLowerCase(Locale.ROOT);
+        String groupBy = matcher.group(2);
+        RowFilter filter = RowFilter.parse(matcher.group(3), store);
+        String top = matcher.group(4);
+
+        String result;
+        if (command.equals("count") && groupBy != null) {
+            result = countBy(OrderColumn.fromAttribute(groupBy), filter, top != null ? Integer.parseInt(top) : DEFAULT_TOP);
+        } else if (groupBy != null || top != null) {
+            throw new IllegalArgumentException(String.format("'by' and 'top' are only supported by 'count': %s", query.trim()));
+        } else if (command.equals("count")) {
+            result = String.format("Orders: %d", store.count(filter, executor));
+        } else {
+            result = formatAmount(store.summarizeAmount(filter, executor));
+        }
+        return String.format("%s%n(%d ms)", result, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private String countBy(OrderColumn column, RowFilter filter, int top) {
+        Map<String, Integer> statistics = store.countBy(column, filter, executor);
+        TopEntries.Selection selection = TopEntries.select(statistics, top, sorter);
+
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : selection.entries()) {
+            result.append(String.format("%10d  %s%n", entry.getValue(), entry.getKey()));
+        }
+        if (selection.otherValues() > 0) {
+            result.append(String.format("%10d  (%d other values)%n", selection.otherCount(), selection.otherValues()));
+        }
+        result.append(String.format("%d distinct value(s) of %s", selection.distinctValues(), column.getAttribute()));
+        return result.toString();
+    }
+
+    private static String formatAmount(OrderColumnStore.AmountSummary summary) {
+        if (summary.count() == 0) {
+            return "Orders: 0";
+        }
+        return String.format(Locale.ROOT, "Orders: %d, sum: %.2f, average: %.2f, min: %.2f, max: %.2f",
+                summary.count(), summary.sum(), summary.average(), summary.min(), summary.max());
+    }
+}
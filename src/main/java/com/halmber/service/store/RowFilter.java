@@ -0,0 +1,166 @@
+package com.halmber.service.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunction of conditions on the columns of an {@link OrderColumnStore}, compiled for fast scans.
+ * <p>
+ * A condition on a string attribute is turned into a mask over the codes of its dictionary, so a row is
+ * checked with one array lookup. Like the statistics, a multi-value attribute such as {@code tags} matches
+ * if any of its values matches. Conditions on {@code amount} and {@code createdAt} are folded into one
+ * inclusive range per column.
+ * <p>
+ * Syntax: conditions joined by {@code and}, each {@code <attribute>=<value>} or {@code <attribute>!=<value>}
+ * for string attributes, and {@code =, >, >=, <, <=} for {@code amount} and {@code createdAt}. A value
+ * may be enclosed in double quotes, e.g. {@code city="Kyiv" and amount>=100}.
+ */
+public final class RowFilter {
+    private static final Pattern CONDITION = Pattern.compile("\\s*(\\w+)\\s*(!=|>=|<=|=|>|<)\\s*(.+?)\\s*");
+    private static final Pattern AND = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+
+    private final List<OrderColumn> maskColumns;
+    private final List<boolean[]> masks;
+    private final double minAmount;
+    private final double maxAmount;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+
+    private RowFilter(List<OrderColumn> maskColumns, List<boolean[]> masks, double minAmount, double maxAmount,
+                      long minCreatedAt, long maxCreatedAt) {
+        this.maskColumns = maskColumns;
+        this.masks = masks;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.minCreatedAt = minCreatedAt;
+        this.maxCreatedAt = maxCreatedAt;
+    }
+
+    /**
+     * Returns a filter that matches every row.
+     */
+    public static RowFilter all() {
+        return new RowFilter(List.of(), List.of(), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Compiles the conditions against the dictionaries of the store.
+     *
+     * @param conditions conditions joined by {@code and}; blank for a filter that matches every row
+     * @param store      the store the filter is used with
+     * @return the compiled filter
+     * @throws IllegalArgumentException if a condition is malformed or refers to an unknown attribute
+     */
+    public static RowFilter parse(String conditions, OrderColumnStore store) {
+        if (conditions == null || conditions.isBlank()) {
+            return all();
+        }
+
+        List<OrderColumn> maskColumns = new ArrayList<>();
+        List<boolean[]> masks = new ArrayList<>();
+        double minAmount = Double.NEGATIVE_INFINITY;
+        double maxAmount = Double.POSITIVE_INFINITY;
+        long minCreatedAt = Long.MIN_VALUE;
+        long maxCreatedAt = Long.MAX_VALUE;
+
+        for (String condition : AND.split(conditions.trim())) {
+            Matcher matcher = CONDITION.matcher(condition);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException(String.format("Invalid condition: %s", condition));
+            }
+            String attribute = matcher.group(1);
+            String operator = matcher.group(2);
+            String value = unquote(matcher.group(3));
+
+            if (attribute.equalsIgnoreCase("amount")) {
+                double number = parseNumber(attribute, value, Double::parseDouble);
+                switch (operator) {
+                    case "=" -> {
+                        minAmount = Math.max(minAmount, number);
+                        maxAmount = Math.min(maxAmount, number);
+                    }
+                    case ">" -> minAmount = Math.max(minAmount, Math.nextUp(number));
+                    case ">=" -> minAmount = Math.max(minAmount, number);
+                    case "<" -> maxAmount = Math.min(maxAmount, Math.nextDown(number));
+                    case "<=" -> maxAmount = Math.min(maxAmount, number);
+                    default -> throw unsupported(attribute, operator);
+                }
+            } else if (attribute.equalsIgnoreCase("createdAt")) {
+                long number = parseNumber(attribute, value, Long::parseLong);
+                switch (operator) {
+                    case "=" -> {
+                        minCreatedAt = Math.max(minCreatedAt, number);
+                        maxCreatedAt = Math.min(maxCreatedAt, number);
+                    }
+                    case ">" -> minCreatedAt = Math.max(minCreatedAt, number == Long.MAX_VALUE ? number : number + 1);
+                    case ">=" -> minCreatedAt = Math.max(minCreatedAt, number);
+                    case "<" -> maxCreatedAt = Math.min(maxCreatedAt, number == Long.MIN_VALUE ? number : number - 1);
+                    case "<=" -> maxCreatedAt = Math.min(maxCreatedAt, number);
+                    default -> throw unsupported(attribute, operator);
+                }
+            } else {
+                OrderColumn column = OrderColumn.fromAttribute(attribute);
+                boolean[] mask = store.matchingCodes(column, value);
+                switch (operator) {
+                    case "=" -> {
+                    }
+                    case "!=" -> {
+                        for (int code = 0; code < mask.length; code++) {
+                            mask[code] = !mask[code];
+                        }
+                    }
+                    default -> throw unsupported(attribute, operator);
+                }
+                maskColumns.add(column);
+                masks.add(mask);
+            }
+        }
+        return new RowFilter(maskColumns, masks, minAmount, maxAmount, minCreatedAt, maxCreatedAt);
+    }
+
+    /**
+     * Returns the columns with a string condition, in the order of {@link #mask(int)}.
+     */
+    List<OrderColumn> maskColumns() {
+        return maskColumns;
+    }
+
+    /**
+     * Returns the mask of the i-th string condition: {@code mask[code]} is {@code true} for matching codes.
+     * A missing value never matches.
+     */
+    boolean[] mask(int index) {
+        return masks.get(index);
+    }
+
+    boolean matchesAmount(double amount) {
+        return amount >= minAmount && amount <= maxAmount;
+    }
+
+    boolean matchesCreatedAt(long createdAt) {
+        return createdAt >= minCreatedAt && createdAt <= maxCreatedAt;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static <N> N parseNumber(String attribute, String value, Function<String, N> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Not a number for %s: %s", attribute, value));
+        }
+    }
+
+    private static IllegalArgumentException unsupported(String attribute, String operator) {
+        return new IllegalArgumentException(String.format("Operator %s is not supported for %s", operator, attribute));
+    }
+}
@@ -0,0 +1,86 @@
+package com.halmber.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Per-thread heap allocation counters of {@link com.sun.management.ThreadMXBean}.
+ * <p>
+ * Unlike the used heap, which rises and falls with every collection, the allocated bytes of a thread only
+ * grow, so the difference of two readings is exactly what the thread allocated in between. This makes it
+ * a stable metric for allocation-reduction work. All methods fall back to "unknown" ({@code -1}, or no
+ * effect) on JVMs without the counters and on virtual threads, which have none.
+ */
+public final class AllocationTracker {
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = allocationBean();
+
+    private AllocationTracker() {
+    }
+
+    /**
+     * Returns whether allocation counters are available.
+     */
+    public static boolean isSupported() {
+        return THREAD_BEAN != null;
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread since it started, or {@code -1} if unknown.
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREAD_BEAN == null || Thread.currentThread().isVirtual()) {
+            return -1;
+        }
+        return THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Returns the bytes allocated by a platform thread since it started, or {@code -1} if unknown or the thread
+     * has exited.
+     */
+    public static long threadAllocatedBytes(long threadId) {
+        return THREAD_BEAN != null ? THREAD_BEAN.getThreadAllocatedBytes(threadId) : -1;
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread since an earlier reading of
+     * {@link #currentThreadAllocatedBytes()} on the same thread, or {@code 0} if unknown.
+     */
+    public static long allocatedSince(long allocatedBefore) {
+        long allocatedNow = currentThreadAllocatedBytes();
+        return allocatedBefore >= 0 && allocatedNow >= allocatedBefore ? allocatedNow - allocatedBefore : 0;
+    }
+
+    /**
+     * Fails if more bytes than the budget were allocated per unit of work, e.g. per order. Meant for tests that
+     * guard allocation-heavy code against regressions; does nothing when allocation counters are not available.
+     *
+     * @param subject          what was measured, for the message
+     * @param allocatedBytes   bytes allocated for the work
+     * @param units            units of work, e.g. processed orders
+     * @param maxBytesPerUnit  the budget
+     * @throws AssertionError if the budget is exceeded
+     */
+    public static void assertWithinBudget(String subject, long allocatedBytes, long units, double maxBytesPerUnit) {
+        if (!isSupported() || units <= 0) {
+            return;
+        }
+        double bytesPerUnit = (double) allocatedBytes / units;
+        if (bytesPerUnit > maxBytesPerUnit) {
+            throw new AssertionError(String.format(Locale.ROOT,
+                    "%s allocated %.1f bytes per unit (%d bytes for %d units), budget is %.1f",
+                    subject, bytesPerUnit, allocatedBytes, units, maxBytesPerUnit));
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+}
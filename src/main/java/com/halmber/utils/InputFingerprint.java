@@ -0,0 +1,55 @@
+package com.halmber.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Computes a fingerprint of a set of input files from their paths, sizes and modification times.
+ * <p>
+ * The file contents are not read, so a fingerprint is cheap even for large inputs. Adding, removing,
+ * replacing or rewriting any file changes the fingerprint; the order in which files are passed does not.
+ */
+public final class InputFingerprint {
+
+    private InputFingerprint() {
+    }
+
+    /**
+     * Returns the SHA-256 fingerprint of the given files as a hex string.
+     *
+     * @param files input files
+     * @return hex-encoded fingerprint
+     * @throws IOException if the attributes of a file cannot be read
+     */
+    public static String of(Collection<Path> files) throws IOException {
+        List<Path> sortedFiles = files.stream()
+                .map(path -> path.toAbsolutePath().normalize())
+                .sorted()
+                .toList();
+
+        MessageDigest digest = sha256();
+        for (Path file : sortedFiles) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String entry = String.format("%s|%d|%s%n",
+                    file, attributes.size(), attributes.lastModifiedTime().toInstant());
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -32,18 +32,18 @@ public class LargeJsonGenerator {
             "gift", "urgent", "newCustomer", "vip", "wholesale"
     );
 
-    private static <T> T randomItem(List<T> list) {
+    private static <T> T randomItem(Random random, List<T> list) {
         return list.get(random.nextInt(list.size()));
     }
 
-    private static String generateTags() {
+    private static String generateTags(Random random) {
         int count = 1 + random.nextInt(3);
         ArrayList<String> shuffledTags = new ArrayList<>(List.copyOf(tags));
-        Collections.shuffle(shuffledTags);
+        Collections.shuffle(shuffledTags, random);
         return String.join(", ", shuffledTags.subList(0, count));
     }
 
-    private static double randomAmount() {
+    private static double randomAmount(Random random) {
         return 100 + random.nextInt(900) + random.nextDouble();
     }
 
@@ -54,6 +54,22 @@ public class LargeJsonGenerator {
      * @param count    number of JSON objects to write
      */
     public static void generateLargeJson(String filePath, long count) throws IOException {
+        generateLargeJson(filePath, count, random);
+    }
+
+    /**
+     * Generates the same orders for the same seed, apart from {@code createdAt}, which is the generation time.
+     * Meant for benchmark fixtures that must not differ between runs.
+     *
+     * @param filePath path to output file
+     * @param count    number of JSON objects to write
+     * @param seed     seed of the random values
+     */
+    public static void generateLargeJson(String filePath, long count, long seed) throws IOException {
+        generateLargeJson(filePath, count, new Random(seed));
+    }
+
+    private static void generateLargeJson(String filePath, long count, Random random) throws IOException {
         File file = new File(filePath);
         file.getParentFile().mkdirs();
 
@@ -75,15 +91,15 @@ public class LargeJsonGenerator {
                 // Customer object
                 gen.writeObjectFieldStart("customer");
                 gen.writeStringField("id", "cust-" + i);
-                gen.writeStringField("fullName", randomItem(names));
+                gen.writeStringField("fullName", randomItem(random, names));
                 gen.writeStringField("email", "user" + i + "@example.com");
                 gen.writeStringField("phone", "+38050" + (1000000 + random.nextInt(9000000)));
-                gen.writeStringField("city", randomItem(cities));
+                gen.writeStringField("city", randomItem(random, cities));
                 gen.writeEndObject();
 
-                gen.writeStringField("status", randomItem(statuses));
-                gen.writeStringField("tags", generateTags());
-                gen.writeNumberField("amount", randomAmount());
+                gen.writeStringField("status", randomItem(random, statuses));
+                gen.writeStringField("tags", generateTags(random));
+                gen.writeNumberField("amount", randomAmount(random));
                 gen.writeStringField("paymentMethod", random.nextBoolean() ? "card" : "cash");
                 gen.writeNumberField("createdAt", System.currentTimeMillis() / 1000);
 
@@ -0,0 +1,198 @@
+package com.halmber.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe set of 64-bit fingerprints used to detect values that were already seen.
+ * <p>
+ * Values are reduced to a 64-bit hash and stored in primitive open-addressing tables, so one entry costs
+ * 8 bytes of table space (about 11-23 bytes with the load factor) instead of a {@code String} plus a
+ * {@code HashMap.Node}. The set is split into independently locked shards, which keeps lock contention
+ * low when several threads add fingerprints at the same time.
+ * <p>
+ * An optional Bloom filter in front of the tables answers most "never seen" lookups without probing
+ * the table for an equal entry. Two different values may share a fingerprint; with 64-bit hashes the
+ * chance of any collision stays below 3% even for a billion values.
+ */
+public class LongFingerprintSet {
+    private static final long EMPTY = 0L;
+    private static final float MAX_LOAD_FACTOR = 0.7f;
+    private static final int MIN_SHARD_CAPACITY = 1 << 10;
+    private static final int BLOOM_BITS_PER_VALUE = 10;
+    private static final int BLOOM_HASH_FUNCTIONS = 7;
+
+    private final Shard[] shards;
+    private final int shardShift;
+    private final AtomicLongArray bloomBits;
+    private final long bloomBitCount;
+
+    /**
+     * @param expectedSize   expected number of distinct values, used to pre-size tables and the Bloom filter
+     * @param shardCount     number of independently locked shards, rounded up to a power of two
+     * @param useBloomFilter whether to check a Bloom filter before the tables
+     */
+    public LongFingerprintSet(long expectedSize, int shardCount, boolean useBloomFilter) {
+        int shardBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, shardCount) - 1);
+        int shards = 1 << shardBits;
+        this.shardShift = 64 - shardBits;
+        this.shards = new Shard[shards];
+
+        long perShard = Math.max(MIN_SHARD_CAPACITY, (long) (expectedSize / shards / MAX_LOAD_FACTOR) + 1);
+        int shardCapacity = (int) Math.min(1 << 30, Long.highestOneBit(perShard - 1) << 1);
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(shardCapacity);
+        }
+
+        if (useBloomFilter) {
+            long bits = Math.max(Long.SIZE, expectedSize * BLOOM_BITS_PER_VALUE);
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (bits + Long.SIZE - 1) / Long.SIZE);
+            this.bloomBits = new AtomicLongArray(words);
+            this.bloomBitCount = (long) words * Long.SIZE;
+        } else {
+            this.bloomBits = null;
+            this.bloomBitCount = 0;
+        }
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of a string (FNV-1a over UTF-8 bytes, followed by a murmur3 finalizer).
+     *
+     * @param value the string to hash
+     * @return fingerprint, never {@code 0}
+     */
+    public static long fingerprint(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = mix(hash);
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    /**
+     * Adds the fingerprint of {@code value} to the set.
+     *
+     * @param value value to remember
+     * @return {@code true} if the value was not seen before
+     */
+    public boolean add(String value) {
+        return add(fingerprint(value));
+    }
+
+    /**
+     * Adds a fingerprint to the set.
+     *
+     * @param fingerprint fingerprint to remember, see {@link #fingerprint(String)}
+     * @return {@code true} if the fingerprint was not present before
+     */
+    public boolean add(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            fingerprint = 1L;
+        }
+
+        Shard shard = shards.length == 1 ? shards[0] : shards[(int) (fingerprint >>> shardShift)];
+        synchronized (shard) {
+            // Equal fingerprints always map to the same shard, so the shard lock also makes the
+            // Bloom filter check-and-set atomic for them.
+            boolean definitelyNew = bloomBits != null && !bloomPutIfAbsent(fingerprint);
+            return shard.add(fingerprint, definitelyNew);
+        }
+    }
+
+    /**
+     * Returns the number of distinct fingerprints in the set.
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Sets all Bloom filter bits of the fingerprint.
+     *
+     * @return {@code true} if all bits were already set, i.e. the fingerprint may have been seen
+     */
+    private boolean bloomPutIfAbsent(long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        boolean allSet = true;
+
+        for (int i = 1; i <= BLOOM_HASH_FUNCTIONS; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bloomBitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            if ((bloomBits.get(word) & mask) == 0) {
+                allSet = false;
+                bloomBits.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+        return allSet;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Open-addressing table with linear probing. Not thread-safe; guarded by its own monitor.
+     */
+    private static final class Shard {
+        private long[] table;
+        private int size;
+
+        Shard(int capacity) {
+            this.table = new long[capacity];
+        }
+
+        boolean add(long fingerprint, boolean skipLookup) {
+            if (size + 1 > table.length * MAX_LOAD_FACTOR) {
+                resize();
+            }
+            if (insert(table, fingerprint, skipLookup)) {
+                size++;
+                return true;
+            }
+            return false;
+        }
+
+        private void resize() {
+            long[] resized = new long[table.length << 1];
+            for (long value : table) {
+                if (value != EMPTY) {
+                    insert(resized, value, true);
+                }
+            }
+            table = resized;
+        }
+
+        private static boolean insert(long[] table, long fingerprint, boolean skipLookup) {
+            int mask = table.length - 1;
+            int index = (int) fingerprint & mask;
+
+            while (true) {
+                long current = table[index];
+                if (current == EMPTY) {
+                    table[index] = fingerprint;
+                    return true;
+                }
+                if (!skipLookup && current == fingerprint) {
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+    }
+}
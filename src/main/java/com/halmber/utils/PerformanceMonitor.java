@@ -1,71 +1,519 @@
 package com.halmber.utils;
 
+import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
-import java.lang.management.MemoryMXBean;
 import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Utility class for monitoring application performance metrics.
- * Provides detailed statistics about execution time, memory usage, and thread activity.
+ * Utility class for monitoring application performance metrics, phase by phase.
+ * <p>
+ * A run is divided into {@link Phase}s, each timed in wall time and CPU time. The worker time of the
+ * processing phase is split further into parsing and aggregation as measured by the processing service,
+ * and the report shows records/s and bytes/s of the processing phase together with the latency
+ * distribution of the files.
+ * <p>
+ * Allocation is reported instead of used-heap deltas, which depend on when the collector ran: the bytes
+ * allocated by all threads in every phase, per order and per input byte, and the exact allocation of the
+ * file tasks as measured by the processing service with {@link AllocationTracker}.
+ * <p>
+ * CPU time and allocated bytes are summed across all platform threads of the JVM with
+ * {@link ThreadMXBean#getThreadCpuTime(long)} and {@link AllocationTracker#threadAllocatedBytes(long)}.
+ * A daemon thread samples every thread each {@value #SAMPLE_INTERVAL_MILLIS} ms and every phase boundary
+ * takes a sample too. The last sample of a thread that has exited stays counted, so a pool thread loses
+ * at most its last sampling interval. CPU work of virtual threads is counted on their carrier threads; their
+ * allocation is not visible to the per-thread counters.
+ * <p>
+ * Garbage collections during the run are counted per collector from the {@link GarbageCollectorMXBean}s.
+ * Besides the text report, {@link #metrics()} returns all figures as a map that can be written as JSON for
+ * trend tracking across runs.
  */
-public class PerformanceMonitor {
+public class PerformanceMonitor implements AutoCloseable {
+    static final long SAMPLE_INTERVAL_MILLIS = 50;
+
+    /**
+     * Consecutive phases of a statistics run.
+     */
+    public enum Phase {
+        DISCOVERY("discovery"),
+        PROCESSING("processing"),
+        SORT("sort"),
+        WRITE("write");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
     private final long startTime;
-    private final long startMemory;
-    private final long startCpuTime;
     private final int threadCount;
-    private final MemoryMXBean memoryBean;
     private final ThreadMXBean threadBean;
+    private final boolean cpuTimeSupported;
+    private final Map<Long, Long> startCpuByThread = new HashMap<>();
+    private final Map<Long, Long> cpuByThread = new HashMap<>();
+    private final Map<Long, Long> startAllocatedByThread = new HashMap<>();
+    private final Map<Long, Long> allocatedByThread = new HashMap<>();
+    private final ScheduledExecutorService sampler;
+    private final List<GarbageCollectorMXBean> gcBeans;
+    private final Map<String, long[]> startGcByCollector = new HashMap<>();
+    private volatile long samplerThreadId = -1;
+
+    private final Map<Phase, Long> phaseWallNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> phaseCpuNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> phaseAllocatedBytes = new EnumMap<>(Phase.class);
+    private Phase currentPhase;
+    private long phaseStartNanos;
+    private long phaseStartCpuNanos;
+    private long phaseStartAllocatedBytes;
 
+    private int fileCount;
+    private long byteCount;
+    private long recordCount;
+    private double parseMillis;
+    private double aggregateMillis;
+    private long taskAllocatedBytes;
+    private TaskTimings fileTimings = new TaskTimings();
+    private final List<String> notes = new ArrayList<>();
+
+    /**
+     * Starts monitoring.
+     *
+     * @param threadCount size of the processing thread pool, shown in the report
+     */
     public PerformanceMonitor(int threadCount) {
         this.threadCount = threadCount;
-        this.memoryBean = ManagementFactory.getMemoryMXBean();
         this.threadBean = ManagementFactory.getThreadMXBean();
+        this.cpuTimeSupported = threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
 
         // Capture start metrics
         this.startTime = System.nanoTime();
-        this.startMemory = getUsedMemory();
-        this.startCpuTime = threadBean.getCurrentThreadCpuTime();
+        this.gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            startGcByCollector.put(gcBean.getName(), gcCountAndTime(gcBean));
+        }
+
+        if (cpuTimeSupported || AllocationTracker.isSupported()) {
+            for (long threadId : threadBean.getAllThreadIds()) {
+                long cpuTime = cpuTimeSupported ? threadBean.getThreadCpuTime(threadId) : -1;
+                if (cpuTime >= 0) {
+                    startCpuByThread.put(threadId, cpuTime);
+                }
+                long allocated = AllocationTracker.threadAllocatedBytes(threadId);
+                if (allocated >= 0) {
+                    startAllocatedByThread.put(threadId, allocated);
+                }
+            }
+            this.sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "performance-monitor");
+                thread.setDaemon(true);
+                samplerThreadId = thread.threadId();
+                return thread;
+            });
+            sampler.scheduleAtFixedRate(this::sampleThreads, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.sampler = null;
+        }
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the given one.
+     */
+    public synchronized void startPhase(Phase phase) {
+        if (currentPhase != null) {
+            endPhase();
+        }
+        currentPhase = phase;
+        phaseStartNanos = System.nanoTime();
+        sampleThreads();
+        phaseStartCpuNanos = sum(cpuByThread);
+        phaseStartAllocatedBytes = sum(allocatedByThread);
+    }
+
+    /**
+     * Ends the current phase and adds its wall time, CPU time and allocation to the phase; does nothing outside a phase.
+     */
+    public synchronized void endPhase() {
+        if (currentPhase == null) {
+            return;
+        }
+        long wallNanos = System.nanoTime() - phaseStartNanos;
+        sampleThreads();
+        phaseWallNanos.merge(currentPhase, wallNanos, Long::sum);
+        phaseCpuNanos.merge(currentPhase, sum(cpuByThread) - phaseStartCpuNanos, Long::sum);
+        phaseAllocatedBytes.merge(currentPhase, sum(allocatedByThread) - phaseStartAllocatedBytes, Long::sum);
+        currentPhase = null;
+    }
+
+    /**
+     * Records the size of the input.
+     *
+     * @param files number of input files
+     * @param bytes total size of the input files
+     */
+    public synchronized void recordInput(int files, long bytes) {
+        this.fileCount = files;
+        this.byteCount = bytes;
+    }
+
+    /**
+     * Records the work done in the processing phase.
+     *
+     * @param records         number of parsed orders
+     * @param parseMillis     worker time spent reading and parsing, summed across threads
+     * @param aggregateMillis worker time spent aggregating, summed across threads
+     * @param fileTimings     start and end times of the processed files
+     */
+    public synchronized void recordProcessing(long records, double parseMillis, double aggregateMillis,
+                                              TaskTimings fileTimings) {
+        this.recordCount = records;
+        this.parseMillis = parseMillis;
+        this.aggregateMillis = aggregateMillis;
+        this.fileTimings = fileTimings;
+    }
+
+    /**
+     * Records the exact allocation of the file tasks, measured by the processing service around every task.
+     */
+    public synchronized void recordTaskAllocation(long allocatedBytes) {
+        this.taskAllocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Adds a line to the end of the report, e.g. the outcome of the result cache.
+     */
+    public synchronized void addNote(String note) {
+        notes.add(note);
+    }
+
+    /**
+     * Returns the wall time of a phase, or {@code 0} if it did not run.
+     */
+    public synchronized double getPhaseWallMillis(Phase phase) {
+        return phaseWallNanos.getOrDefault(phase, 0L) / 1_000_000.0;
+    }
+
+    /**
+     * Returns the CPU time of all threads during a phase, or {@code 0} if it did not run or CPU time
+     * is not supported.
+     */
+    public synchronized double getPhaseCpuMillis(Phase phase) {
+        return phaseCpuNanos.getOrDefault(phase, 0L) / 1_000_000.0;
+    }
+
+    /**
+     * Returns the CPU time of all threads since monitoring started.
+     */
+    public synchronized double getCpuMillis() {
+        sampleThreads();
+        return sum(cpuByThread) / 1_000_000.0;
+    }
+
+    /**
+     * Returns the bytes allocated by all threads during a phase, or {@code 0} if it did not run or allocation
+     * counters are not available.
+     */
+    public synchronized long getPhaseAllocatedBytes(Phase phase) {
+        return phaseAllocatedBytes.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Returns the bytes allocated by all threads since monitoring started.
+     */
+    public synchronized long getAllocatedBytes() {
+        sampleThreads();
+        return sum(allocatedByThread);
+    }
+
+    /**
+     * Returns the number of garbage collections since monitoring started, summed over all collectors.
+     */
+    public synchronized long getGcCount() {
+        long count = 0;
+        for (long[] collector : gcSinceStart().values()) {
+            count += collector[0];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the time spent in garbage collections since monitoring started, as reported by the collectors.
+     * Concurrent collectors include time that overlapped with the application.
+     */
+    public synchronized long getGcMillis() {
+        long millis = 0;
+        for (long[] collector : gcSinceStart().values()) {
+            millis += collector[1];
+        }
+        return millis;
+    }
+
+    /**
+     * Returns the parsed orders per second of processing wall time.
+     */
+    public synchronized double getRecordsPerSecond() {
+        return perSecond(recordCount, getPhaseWallMillis(Phase.PROCESSING));
     }
 
-    private long getUsedMemory() {
-        return memoryBean.getHeapMemoryUsage().getUsed() +
-                memoryBean.getNonHeapMemoryUsage().getUsed();
+    /**
+     * Returns the input bytes per second of processing wall time.
+     */
+    public synchronized double getBytesPerSecond() {
+        return perSecond(byteCount, getPhaseWallMillis(Phase.PROCESSING));
     }
 
     public void printReport() {
+        System.out.print(report());
+    }
+
+    /**
+     * Formats the report; the current phase, if any, is ended first.
+     */
+    public synchronized String report() {
+        endPhase();
+
         long endTime = System.nanoTime();
-        long endMemory = getUsedMemory();
-        long endCpuTime = threadBean.getCurrentThreadCpuTime();
 
         // Calculate metrics
         double durationSeconds = (endTime - startTime) / 1_000_000_000.0;
         double durationMillis = (endTime - startTime) / 1_000_000.0;
-        long memoryUsed = Math.max(0, endMemory - startMemory);
-        double memoryMB = memoryUsed / (1024.0 * 1024.0);
-        long cpuTimeUsed = endCpuTime - startCpuTime;
-        double cpuSeconds = cpuTimeUsed / 1_000_000_000.0;
+        double cpuMillis = getCpuMillis();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        StringBuilder report = new StringBuilder();
+        appendSeparator(report);
+        report.append(String.format("                 PERFORMANCE REPORT%n"));
+        appendSeparator(report);
+
+        report.append(String.format("%n📊 EXECUTION METRICS:%n"));
+        report.append(String.format("   Total execution time:     %.3f seconds (%.2f ms)%n",
+                durationSeconds, durationMillis));
+        if (AllocationTracker.isSupported()) {
+            report.append(String.format("   Heap allocated:           %.2f MB (all threads)%n", megabytes(getAllocatedBytes())));
+        }
+        if (cpuTimeSupported) {
+            report.append(String.format("   CPU time used:            %.3f seconds (all threads, %.0f%% of %d cores)%n",
+                    cpuMillis / 1000.0, 100.0 * cpuMillis / Math.max(1e-9, durationMillis * processors), processors));
+        } else {
+            report.append(String.format("   CPU time used:            not supported by this JVM%n"));
+        }
+        report.append(String.format("   GC:                       %d collections, %d ms%n", getGcCount(), getGcMillis()));
+        report.append(String.format("   Thread pool size:         %d threads%n", threadCount));
+
+        report.append(String.format("%n⏱️ PHASES:                          wall ms        cpu ms%n"));
+        for (Phase phase : Phase.values()) {
+            if (!phaseWallNanos.containsKey(phase)) {
+                continue;
+            }
+            report.append(String.format("   %-28s %10.2f    %10.2f%n",
+                    phase.getLabel(), getPhaseWallMillis(phase), getPhaseCpuMillis(phase)));
+            if (phase == Phase.PROCESSING && parseMillis + aggregateMillis > 0) {
+                double workerMillis = parseMillis + aggregateMillis;
+                report.append(String.format("     parse (worker time)        %10.2f    (%.0f%%)%n",
+                        parseMillis, 100.0 * parseMillis / workerMillis));
+                report.append(String.format("     aggregate (worker time)    %10.2f    (%.0f%%)%n",
+                        aggregateMillis, 100.0 * aggregateMillis / workerMillis));
+            }
+        }
+
+        report.append(String.format("%n🚀 THROUGHPUT:%n"));
+        report.append(String.format("   Input:                    %d files, %.2f MB%n", fileCount, megabytes(byteCount)));
+        report.append(String.format("   Records:                  %d (%.0f records/s)%n",
+                recordCount, getRecordsPerSecond()));
+        report.append(String.format("   Bytes:                    %.2f MB/s%n", megabytes((long) getBytesPerSecond())));
+
+        if (AllocationTracker.isSupported()) {
+            report.append(String.format("%n🧮 ALLOCATION:                     alloc MB      B/order   B/input byte%n"));
+            for (Phase phase : Phase.values()) {
+                if (phaseWallNanos.containsKey(phase)) {
+                    appendAllocation(report, phase.getLabel(), getPhaseAllocatedBytes(phase));
+                }
+            }
+            if (taskAllocatedBytes > 0) {
+                appendAllocation(report, "file tasks (exact)", taskAllocatedBytes);
+            }
+        }
+
+        if (fileTimings.getTaskCount() > 0) {
+            report.append(String.format("%n📁 FILE LATENCY:%n"));
+            report.append(String.format("   p50 / p90 / p99 / max:    %.2f / %.2f / %.2f / %.2f ms%n",
+                    fileTimings.getPercentileMillis(0.5),
+                    fileTimings.getPercentileMillis(0.9),
+                    fileTimings.getPercentileMillis(0.99),
+                    fileTimings.getLongestMillis()));
+            report.append(String.format("   %s%n", fileTimings.summary()));
+        }
+
+        if (!notes.isEmpty()) {
+            report.append(String.format("%n"));
+            for (String note : notes) {
+                report.append(String.format("   %s%n", note));
+            }
+        }
+
+        appendSeparator(report);
+        return report.toString();
+    }
+
+    /**
+     * Returns the figures of the report as nested maps of names to numbers, in report order, e.g. for a JSON
+     * metrics file. The current phase, if any, is ended first.
+     */
+    public synchronized Map<String, Object> metrics() {
+        endPhase();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("timestamp", Instant.now().toString());
+        metrics.put("totalMillis", (System.nanoTime() - startTime) / 1_000_000.0);
+        metrics.put("cpuMillis", cpuTimeSupported ? getCpuMillis() : null);
+        metrics.put("allocatedBytes", AllocationTracker.isSupported() ? getAllocatedBytes() : null);
+        metrics.put("threads", threadCount);
+
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            if (!phaseWallNanos.containsKey(phase)) {
+                continue;
+            }
+            Map<String, Object> phaseMetrics = new LinkedHashMap<>();
+            phaseMetrics.put("wallMillis", getPhaseWallMillis(phase));
+            phaseMetrics.put("cpuMillis", getPhaseCpuMillis(phase));
+            phaseMetrics.put("allocatedBytes", getPhaseAllocatedBytes(phase));
+            if (phase == Phase.PROCESSING) {
+                phaseMetrics.put("parseMillis", parseMillis);
+                phaseMetrics.put("aggregateMillis", aggregateMillis);
+                phaseMetrics.put("taskAllocatedBytes", taskAllocatedBytes);
+            }
+            phases.put(phase.getLabel(), phaseMetrics);
+        }
+        metrics.put("phases", phases);
+
+        Map<String, Object> input = new LinkedHashMap<>();
+        input.put("files", fileCount);
+        input.put("bytes", byteCount);
+        input.put("records", recordCount);
+        metrics.put("input", input);
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("recordsPerSecond", getRecordsPerSecond());
+        throughput.put("bytesPerSecond", getBytesPerSecond());
+        metrics.put("throughput", throughput);
+
+        if (fileTimings.getTaskCount() > 0) {
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", fileTimings.getPercentileMillis(0.5));
+            latency.put("p90", fileTimings.getPercentileMillis(0.9));
+            latency.put("p99", fileTimings.getPercentileMillis(0.99));
+            latency.put("max", fileTimings.getLongestMillis());
+            metrics.put("fileLatencyMillis", latency);
+        }
+
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        gcSinceStart().forEach((name, collector) -> {
+            Map<String, Object> collectorMetrics = new LinkedHashMap<>();
+            collectorMetrics.put("count", collector[0]);
+            collectorMetrics.put("millis", collector[1]);
+            collectors.put(name, collectorMetrics);
+        });
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gc.put("count", getGcCount());
+        gc.put("millis", getGcMillis());
+        gc.put("collectors", collectors);
+        metrics.put("gc", gc);
+
+        metrics.put("notes", List.copyOf(notes));
+        return metrics;
+    }
+
+    /**
+     * Stops the CPU sampling thread.
+     */
+    @Override
+    public void close() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
 
-        // Print report
-        printSeparator();
-        System.out.println("                 PERFORMANCE REPORT");
-        printSeparator();
+    /**
+     * Samples the CPU time and allocated bytes of all live threads since monitoring started. Threads that
+     * have exited keep their last sample.
+     */
+    private synchronized void sampleThreads() {
+        for (long threadId : threadBean.getAllThreadIds()) {
+            if (threadId == samplerThreadId) {
+                continue;
+            }
+            long cpuTime = cpuTimeSupported ? threadBean.getThreadCpuTime(threadId) : -1;
+            if (cpuTime >= 0) {
+                cpuByThread.merge(threadId, cpuTime - startCpuByThread.getOrDefault(threadId, 0L), Math::max);
+            }
+            long allocated = AllocationTracker.threadAllocatedBytes(threadId);
+            if (allocated >= 0) {
+                allocatedByThread.merge(threadId,
+                        allocated - startAllocatedByThread.getOrDefault(threadId, 0L), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Returns the collections and collection time of every collector since monitoring started, in the order
+     * of the collector beans.
+     */
+    private Map<String, long[]> gcSinceStart() {
+        Map<String, long[]> sinceStart = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            long[] now = gcCountAndTime(gcBean);
+            long[] start = startGcByCollector.getOrDefault(gcBean.getName(), new long[2]);
+            sinceStart.put(gcBean.getName(), new long[]{now[0] - start[0], now[1] - start[1]});
+        }
+        return sinceStart;
+    }
 
-        System.out.println("\n📊 EXECUTION METRICS:");
-        System.out.printf("   Total execution time:     %.3f seconds (%.2f ms)%n",
-                durationSeconds, durationMillis);
-        System.out.printf("   Memory used:              %.2f MB%n", memoryMB);
-        System.out.printf("   CPU time used:            %.3f seconds%n", cpuSeconds);
-        System.out.printf("   Thread pool size:         %d threads%n", threadCount);
+    /**
+     * Returns the collection count and time of a collector; {@code -1} (undefined) is read as {@code 0}.
+     */
+    private static long[] gcCountAndTime(GarbageCollectorMXBean gcBean) {
+        return new long[]{Math.max(0, gcBean.getCollectionCount()), Math.max(0, gcBean.getCollectionTime())};
+    }
 
-        if (threadCount > 0) {
-            System.out.printf("   Avg time per thread:      %.2f ms%n",
-                    durationMillis / threadCount);
+    private void appendAllocation(StringBuilder report, String label, long bytes) {
+        report.append(String.format("   %-28s %10.2f   %10.1f     %10.2f%n", label, megabytes(bytes),
+                recordCount > 0 ? (double) bytes / recordCount : 0,
+                byteCount > 0 ? (double) bytes / byteCount : 0));
+    }
+
+    private static long sum(Map<Long, Long> valuesByThread) {
+        long total = 0;
+        for (long value : valuesByThread.values()) {
+            total += value;
         }
+        return total;
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
 
-        printSeparator();
+    private static double perSecond(double amount, double millis) {
+        return millis > 0 ? amount * 1000.0 / millis : 0;
     }
 
-    private void printSeparator() {
-        System.out.println("=".repeat(70));
+    private static void appendSeparator(StringBuilder report) {
+        report.append("=".repeat(70)).append(System.lineSeparator());
     }
 }
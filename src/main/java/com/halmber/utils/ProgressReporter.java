@@ -0,0 +1,148 @@
+package com.halmber.utils;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Prints the progress of a run at a fixed interval: percent of the input consumed, smoothed throughput
+ * and the estimated time left.
+ * <p>
+ * Progress is measured in input bytes consumed by the parsers rather than in finished files, so a run over
+ * a few large files advances steadily instead of jumping from file to file. The throughput of every interval
+ * is smoothed with an exponentially weighted moving average (weight {@value #SMOOTHING} for the newest
+ * interval), which keeps the estimate calm while still following a change of pace within a few intervals.
+ * The remaining bytes divided by the smoothed throughput give the estimate.
+ */
+public final class ProgressReporter implements AutoCloseable {
+    static final double SMOOTHING = 0.3;
+
+    private final long totalBytes;
+    private final LongSupplier doneBytes;
+    private final PrintStream out;
+    private final long startNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private long lastNanos;
+    private long lastBytes;
+    private double bytesPerSecond = -1;
+    private boolean closed;
+
+    private ProgressReporter(long totalBytes, LongSupplier doneBytes, PrintStream out,
+                             ScheduledExecutorService scheduler) {
+        this.totalBytes = totalBytes;
+        this.doneBytes = doneBytes;
+        this.out = out;
+        this.scheduler = scheduler;
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+    }
+
+    /**
+     * Starts reporting.
+     *
+     * @param totalBytes     total size of the input
+     * @param doneBytes      bytes consumed so far
+     * @param intervalMillis time between two progress lines; {@code 0} or less prints only the final line
+     * @param out            stream to print the progress lines to
+     * @return the running reporter; close it to print the final line
+     */
+    public static ProgressReporter start(long totalBytes, LongSupplier doneBytes, long intervalMillis,
+                                         PrintStream out) {
+        if (intervalMillis <= 0) {
+            return new ProgressReporter(totalBytes, doneBytes, out, null);
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "progress-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Scheduled only once the reporter is fully constructed
+        ProgressReporter reporter = new ProgressReporter(totalBytes, doneBytes, out, scheduler);
+        scheduler.scheduleAtFixedRate(reporter::printProgress, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    /**
+     * Takes a sample at the given time and formats the progress line, e.g.
+     * {@code Progress: 42.1% (27.35 of 64.96 MB), 31.20 MB/s, ETA 12s}.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return the progress line
+     */
+    synchronized String progressLine(long nowNanos) {
+        long done = Math.min(doneBytes.getAsLong(), totalBytes);
+        double seconds = (nowNanos - lastNanos) / 1_000_000_000.0;
+        if (seconds > 0) {
+            double intervalRate = Math.max(0, done - lastBytes) / seconds;
+            bytesPerSecond = bytesPerSecond < 0 ? intervalRate
+                    : SMOOTHING * intervalRate + (1 - SMOOTHING) * bytesPerSecond;
+            lastNanos = nowNanos;
+            lastBytes = done;
+        }
+
+        long remaining = totalBytes - done;
+        String eta = remaining == 0 ? "0s"
+                : bytesPerSecond > 0 ? formatDuration(remaining / bytesPerSecond) : "unknown";
+        return String.format(Locale.ROOT, "Progress: %.1f%% (%.2f of %.2f MB), %.2f MB/s, ETA %s",
+                percent(done), megabytes(done), megabytes(totalBytes), megabytes(Math.max(0, bytesPerSecond)), eta);
+    }
+
+    private synchronized void printProgress() {
+        // A line that was already due must not follow the final one
+        if (!closed) {
+            out.println(progressLine(System.nanoTime()));
+        }
+    }
+
+    /**
+     * Returns the smoothed throughput of the last sample, or {@code -1} before the first one.
+     */
+    synchronized double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Stops reporting and prints the final line with the average throughput of the whole run.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        long done = Math.min(doneBytes.getAsLong(), totalBytes);
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        out.println(String.format(Locale.ROOT, "Progress: %.1f%% (%.2f of %.2f MB) in %s, average %.2f MB/s",
+                percent(done), megabytes(done), megabytes(totalBytes), formatDuration(seconds),
+                seconds > 0 ? megabytes(done) / seconds : 0));
+    }
+
+    /**
+     * Formats a duration as e.g. {@code 12s}, {@code 3m 05s} or {@code 1h 02m}.
+     */
+    static String formatDuration(double seconds) {
+        long total = Math.round(seconds);
+        if (total < 60) {
+            return total + "s";
+        }
+        if (total < 3600) {
+            return String.format(Locale.ROOT, "%dm %02ds", total / 60, total % 60);
+        }
+        return String.format(Locale.ROOT, "%dh %02dm", total / 3600, total % 3600 / 60);
+    }
+
+    private double percent(long done) {
+        return totalBytes > 0 ? 100.0 * done / totalBytes : 100.0;
+    }
+
+    private static double megabytes(double bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
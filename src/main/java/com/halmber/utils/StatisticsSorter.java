@@ -0,0 +1,308 @@
+package com.halmber.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sorts a whole statistics map by count in descending order, then by value in ascending order.
+ * <p>
+ * The values and counts are copied into two plain arrays and sorted in two steps:
+ * <ol>
+ *     <li>an LSD radix sort on the count, one byte per pass, skipping the passes in which every count has
+ *     the same byte (usually all but one or two, as counts are small). Each pass builds per-chunk
+ *     histograms and scatters the chunks in parallel into disjoint ranges of the target arrays;</li>
+ *     <li>a sort of the values within every run of equal counts. Small runs are sorted in batches, a large
+ *     run is split into chunks that are sorted in parallel and merged pairwise.</li>
+ * </ol>
+ * Breaking ties by value makes the order independent of the map's iteration order, which for a
+ * {@link java.util.concurrent.ConcurrentHashMap} depends on its capacity and insertion history, so
+ * reports are reproducible between runs.
+ * <p>
+ * Parallel steps run on the given executor, typically the processing pool. If the executor rejects a task
+ * (e.g. it was shut down), the task runs on the calling thread.
+ */
+public class StatisticsSorter {
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Creates a sorter that runs on the calling thread.
+     */
+    public StatisticsSorter() {
+        this(Runnable::run, 1);
+    }
+
+    /**
+     * @param executor    executor for the parallel steps; must not run them on the calling thread's own
+     *                    single-threaded pool, as the caller waits for them
+     * @param parallelism number of chunks to split the work into, usually the pool size
+     */
+    public StatisticsSorter(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Returns the entries sorted by count in descending order, then by value. The map must not be modified
+     * while it is copied.
+     *
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @return an immutable random-access list backed by the sorted arrays
+     */
+    public List<Map.Entry<String, Integer>> sort(Map<String, Integer> statistics) {
+        String[] keys = new String[statistics.size()];
+        int[] counts = new int[keys.length];
+        int size = 0;
+        for (Map.Entry<String, Integer> entry : statistics.entrySet()) {
+            keys[size] = entry.getKey();
+            counts[size] = entry.getValue();
+            size++;
+        }
+
+        int chunks = size < PARALLEL_THRESHOLD ? 1 : parallelism;
+        SortArrays arrays = new SortArrays(keys, counts, new String[size], new int[size]);
+        radixSortByCountDescending(arrays, size, chunks);
+        sortRunsByKey(arrays, size, chunks);
+        return new SortedEntries(arrays.keys, arrays.counts);
+    }
+
+    private void radixSortByCountDescending(SortArrays arrays, int size, int chunks) {
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int pass = shift;
+            String[] keys = arrays.keys;
+            int[] counts = arrays.counts;
+
+            int[][] histograms = new int[chunks][BUCKETS];
+            runChunks(chunks, size, (chunk, from, to) -> {
+                int[] histogram = histograms[chunk];
+                for (int i = from; i < to; i++) {
+                    histogram[bucket(counts[i], pass)]++;
+                }
+            });
+
+            // offsets[chunk][bucket]: where the chunk's first element of the bucket goes
+            int[][] offsets = new int[chunks][BUCKETS];
+            int position = 0;
+            boolean singleBucket = false;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                int bucketStart = position;
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    offsets[chunk][bucket] = position;
+                    position += histograms[chunk][bucket];
+                }
+                singleBucket |= position - bucketStart == size;
+            }
+            if (singleBucket) {
+                continue;
+            }
+
+            String[] keyTarget = arrays.keyBuffer;
+            int[] countTarget = arrays.countBuffer;
+            runChunks(chunks, size, (chunk, from, to) -> {
+                int[] offset = offsets[chunk];
+                for (int i = from; i < to; i++) {
+                    int target = offset[bucket(counts[i], pass)]++;
+                    keyTarget[target] = keys[i];
+                    countTarget[target] = counts[i];
+                }
+            });
+            arrays.swap();
+        }
+    }
+
+    /**
+     * Returns the bucket of the count's byte at {@code shift}, so that buckets ascend as counts descend.
+     */
+    private static int bucket(int count, int shift) {
+        int digit = (count >>> shift) & (BUCKETS - 1);
+        if (shift == Integer.SIZE - RADIX_BITS) {
+            digit ^= BUCKETS >> 1; // Flip the sign bit: negative counts sort below positive ones
+        }
+        return BUCKETS - 1 - digit;
+    }
+
+    private void sortRunsByKey(SortArrays arrays, int size, int chunks) {
+        String[] keys = arrays.keys;
+        int[] counts = arrays.counts;
+        int batchTarget = Math.max(PARALLEL_THRESHOLD, size / chunks);
+
+        List<Runnable> batches = new ArrayList<>();
+        List<int[]> largeRuns = new ArrayList<>();
+        List<int[]> batch = new ArrayList<>();
+        int batchSize = 0;
+
+        int runStart = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i < size && counts[i] == counts[runStart]) {
+                continue;
+            }
+            int runLength = i - runStart;
+            if (runLength >= PARALLEL_THRESHOLD && chunks > 1) {
+                largeRuns.add(new int[]{runStart, i});
+            } else if (runLength > 1) {
+                batch.add(new int[]{runStart, i});
+                batchSize += runLength;
+                if (batchSize >= batchTarget) {
+                    batches.add(sortRunsTask(keys, batch));
+                    batch = new ArrayList<>();
+                    batchSize = 0;
+                }
+            }
+            runStart = i;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(sortRunsTask(keys, batch));
+        }
+
+        runAll(batches);
+        for (int[] run : largeRuns) {
+            parallelSortRange(keys, arrays.keyBuffer, run[0], run[1], chunks);
+        }
+    }
+
+    private static Runnable sortRunsTask(String[] keys, List<int[]> runs) {
+        return () -> {
+            for (int[] run : runs) {
+                Arrays.sort(keys, run[0], run[1]);
+            }
+        };
+    }
+
+    /**
+     * Sorts {@code keys[from, to)} by splitting it into chunks sorted in parallel and merging adjacent
+     * chunks pairwise, each merge round in parallel.
+     */
+    private void parallelSortRange(String[] keys, String[] buffer, int from, int to, int chunks) {
+        int[] bounds = new int[chunks + 1];
+        for (int chunk = 0; chunk <= chunks; chunk++) {
+            bounds[chunk] = (int) (from + (long) (to - from) * chunk / chunks);
+        }
+        runChunks(chunks, to - from, (chunk, chunkFrom, chunkTo) ->
+                Arrays.sort(keys, bounds[chunk], bounds[chunk + 1]));
+
+        String[] source = keys;
+        String[] target = buffer;
+        for (int width = 1; width < chunks; width *= 2) {
+            List<Runnable> merges = new ArrayList<>();
+            for (int left = 0; left < chunks; left += 2 * width) {
+                int start = bounds[left];
+                int middle = bounds[Math.min(left + width, chunks)];
+                int end = bounds[Math.min(left + 2 * width, chunks)];
+                String[] mergeSource = source;
+                String[] mergeTarget = target;
+                merges.add(() -> merge(mergeSource, mergeTarget, start, middle, end));
+            }
+            runAll(merges);
+            String[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != keys) {
+            System.arraycopy(source, from, keys, from, to - from);
+        }
+    }
+
+    private static void merge(String[] source, String[] target, int start, int middle, int end) {
+        int left = start;
+        int right = middle;
+        for (int i = start; i < end; i++) {
+            if (right >= end || (left < middle && source[left].compareTo(source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+
+    private void runChunks(int chunks, int size, ChunkTask task) {
+        List<Runnable> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int index = chunk;
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            tasks.add(() -> task.run(index, from, to));
+        }
+        runAll(tasks);
+    }
+
+    private void runAll(List<Runnable> tasks) {
+        if (tasks.size() == 1) {
+            tasks.get(0).run();
+            return;
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            try {
+                futures.add(CompletableFuture.runAsync(task, executor));
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * The arrays being sorted and the buffers the radix passes scatter into.
+     */
+    private static final class SortArrays {
+        private String[] keys;
+        private int[] counts;
+        private String[] keyBuffer;
+        private int[] countBuffer;
+
+        SortArrays(String[] keys, int[] counts, String[] keyBuffer, int[] countBuffer) {
+            this.keys = keys;
+            this.counts = counts;
+            this.keyBuffer = keyBuffer;
+            this.countBuffer = countBuffer;
+        }
+
+        void swap() {
+            String[] keySwap = keys;
+            keys = keyBuffer;
+            keyBuffer = keySwap;
+            int[] countSwap = counts;
+            counts = countBuffer;
+            countBuffer = countSwap;
+        }
+    }
+
+    /**
+     * Read-only list view of the sorted arrays; the entries are created on access.
+     */
+    private static final class SortedEntries extends AbstractList<Map.Entry<String, Integer>> implements RandomAccess {
+        private final String[] keys;
+        private final int[] counts;
+
+        SortedEntries(String[] keys, int[] counts) {
+            this.keys = keys;
+            this.counts = counts;
+        }
+
+        @Override
+        public Map.Entry<String, Integer> get(int index) {
+            return Map.entry(keys[index], counts[index]);
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    }
+}
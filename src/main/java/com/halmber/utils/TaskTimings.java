@@ -0,0 +1,104 @@
+package com.halmber.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe collector of task start and end times, used to measure how well work is balanced
+ * across worker threads.
+ * <p>
+ * Besides the average and the longest task duration it reports the <em>tail</em>: the time at the
+ * end of the run during which only the last task was still running.
+ */
+public class TaskTimings {
+    private final ConcurrentLinkedQueue<long[]> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Records one finished task.
+     *
+     * @param startNanos task start, as returned by {@link System#nanoTime()}
+     * @param endNanos   task end, as returned by {@link System#nanoTime()}
+     */
+    public void record(long startNanos, long endNanos) {
+        tasks.add(new long[]{startNanos, endNanos});
+    }
+
+    /**
+     * Records all tasks of another collector, e.g. the file timings of a pipeline run.
+     */
+    public void recordAll(TaskTimings other) {
+        tasks.addAll(other.tasks);
+    }
+
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    public double getAverageMillis() {
+        return tasks.stream().mapToLong(task -> task[1] - task[0]).average().orElse(0) / 1_000_000.0;
+    }
+
+    public double getLongestMillis() {
+        return tasks.stream().mapToLong(task -> task[1] - task[0]).max().orElse(0) / 1_000_000.0;
+    }
+
+    /**
+     * Returns the summed duration of all tasks, i.e. the worker time spent on them.
+     */
+    public double getTotalMillis() {
+        return tasks.stream().mapToLong(task -> task[1] - task[0]).sum() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the task duration below which the given share of tasks finished (nearest-rank method),
+     * e.g. {@code 0.9} for the 90th percentile.
+     *
+     * @param fraction share of tasks, from {@code 0} to {@code 1}
+     * @return the duration, or {@code 0} if no task was recorded
+     */
+    public double getPercentileMillis(double fraction) {
+        long[] durations = tasks.stream().mapToLong(task -> task[1] - task[0]).toArray();
+        if (durations.length == 0) {
+            return 0;
+        }
+        Arrays.sort(durations);
+        int rank = (int) Math.ceil(fraction * durations.length);
+        return durations[Math.min(durations.length, Math.max(1, rank)) - 1] / 1_000_000.0;
+    }
+
+    /**
+     * Returns the time between the end of the second-to-last task and the end of the last task,
+     * i.e. how long a single task kept the run going on its own.
+     */
+    public double getTailMillis() {
+        long last = Long.MIN_VALUE;
+        long secondLast = Long.MIN_VALUE;
+
+        for (long[] task : tasks) {
+            long end = task[1];
+            if (end > last) {
+                secondLast = last;
+                last = end;
+            } else if (end > secondLast) {
+                secondLast = end;
+            }
+        }
+
+        if (secondLast == Long.MIN_VALUE) {
+            return 0;
+        }
+        return (last - secondLast) / 1_000_000.0;
+    }
+
+    /**
+     * Returns a one-line summary of the task balance.
+     */
+    public String summary() {
+        return String.format("Tasks: %d, average %.2f ms, longest %.2f ms (%.2f ms above average), tail %.2f ms",
+                getTaskCount(),
+                getAverageMillis(),
+                getLongestMillis(),
+                getLongestMillis() - getAverageMillis(),
+                getTailMillis());
+    }
+}
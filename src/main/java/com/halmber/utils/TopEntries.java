@@ -0,0 +1,100 @@
+package com.halmber.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the entries with the highest counts from a statistics map, ordered by count in descending order
+ * and then by value, so the order does not depend on the map's iteration order.
+ * <p>
+ * With a limit, a bounded min-heap of {@code limit} entries is kept while the map is scanned once, which
+ * costs O(n log limit) instead of the O(n log n) of a full sort. The selection is always exactly the first
+ * {@code limit} entries of the full order. Without a limit the whole map is sorted by a
+ * {@link StatisticsSorter}.
+ */
+public final class TopEntries {
+    private static final Comparator<Map.Entry<String, Integer>> REPORT_ORDER = Comparator
+            .comparingInt((Map.Entry<String, Integer> entry) -> entry.getValue()).reversed()
+            .thenComparing(Map.Entry::getKey);
+
+    private TopEntries() {
+    }
+
+    /**
+     * Returns the entries with the highest counts, sorting on the calling thread.
+     *
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @param limit      maximum number of entries to return; {@code 0} or less returns all entries
+     * @return the selected entries and totals of the entries left out
+     */
+    public static Selection select(Map<String, Integer> statistics, int limit) {
+        return select(statistics, limit, new StatisticsSorter());
+    }
+
+    /**
+     * Returns the entries with the highest counts.
+     *
+     * @param statistics a map of statistics where the key is the statistic name and the value is the count
+     * @param limit      maximum number of entries to return; {@code 0} or less returns all entries
+     * @param sorter     sorts the whole map when there is no limit
+     * @return the selected entries and totals of the entries left out
+     */
+    public static Selection select(Map<String, Integer> statistics, int limit, StatisticsSorter sorter) {
+        if (limit <= 0 || limit >= statistics.size()) {
+            List<Map.Entry<String, Integer>> entries = sorter.sort(statistics);
+            return new Selection(entries, entries.size(), 0, 0);
+        }
+
+        // Root is the weakest selected entry: the lowest count, then the greatest value
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(limit, REPORT_ORDER.reversed());
+
+        long totalCount = 0;
+        int distinctValues = 0;
+        for (Map.Entry<String, Integer> entry : statistics.entrySet()) {
+            String value = entry.getKey();
+            int count = entry.getValue();
+            totalCount += count;
+            distinctValues++;
+            // Most entries lose against the root, so an immutable copy is made only for admitted ones
+            if (heap.size() < limit) {
+                heap.add(Map.entry(value, count));
+            } else if (precedes(value, count, heap.peek())) {
+                heap.poll();
+                heap.add(Map.entry(value, count));
+            }
+        }
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(heap);
+        entries.sort(REPORT_ORDER);
+
+        long selectedCount = 0;
+        for (Map.Entry<String, Integer> entry : entries) {
+            selectedCount += entry.getValue();
+        }
+        return new Selection(entries, distinctValues, distinctValues - entries.size(), totalCount - selectedCount);
+    }
+
+    /**
+     * Tells whether a value with its count comes before the entry in the report order, without allocating an
+     * entry for it.
+     */
+    private static boolean precedes(String value, int count, Map.Entry<String, Integer> entry) {
+        int entryCount = entry.getValue();
+        return count != entryCount ? count > entryCount : value.compareTo(entry.getKey()) < 0;
+    }
+
+    /**
+     * Result of a selection.
+     *
+     * @param entries        selected entries, sorted by count in descending order, then by value
+     * @param distinctValues number of entries in the whole map
+     * @param otherValues    number of entries left out
+     * @param otherCount     sum of the counts of the entries left out
+     */
+    public record Selection(List<Map.Entry<String, Integer>> entries, int distinctValues, int otherValues,
+                            long otherCount) {
+    }
+}
@@ -7,8 +7,8 @@ import static org.junit.jupiter.api.Assertions.*;
 class ApplicationConfigTest {
 
     @Test
-    void testDefaultConstructor_CreatesConfigWithDefaultValues() {
-        ApplicationConfig config = new ApplicationConfig();
+    void testDefaults_CreatesConfigWithDefaultValues() {
+        ApplicationConfig config = ApplicationConfig.defaults();
 
         assertEquals("src/main/resources/", config.getInputDirectory());
         assertEquals("src/main/resources/outputFiles", config.getOutputDirectory());
@@ -17,8 +17,8 @@ class ApplicationConfigTest {
     }
 
     @Test
-    void testParameterizedConstructor_CreatesConfigWithCustomValues() {
-        ApplicationConfig config = new ApplicationConfig(
+    void testOf_CreatesConfigWithCustomValues() {
+        ApplicationConfig config = ApplicationConfig.of(
                 "custom/input/",
                 "custom/output/",
                 "status",
@@ -33,7 +33,7 @@ class ApplicationConfigTest {
 
     @Test
     void testGetOutputFileName_GeneratesCorrectFileName() {
-        ApplicationConfig config = new ApplicationConfig(
+        ApplicationConfig config = ApplicationConfig.of(
                 "input/",
                 "output/",
                 "city",
@@ -43,9 +43,21 @@ class ApplicationConfigTest {
         assertEquals("statistics_by_city.xml", config.getOutputFileName());
     }
 
+    @Test
+    void testGetOutputFileName_UsesReportFormatExtension() {
+        ApplicationConfig config = ApplicationConfig.builder()
+                .attribute("status")
+                .reportFormat(ReportFormat.CSV)
+                .build();
+
+        assertEquals("statistics_by_status.csv", config.getOutputFileName());
+        assertEquals("statistics_by_status.bin",
+                config.toBuilder().reportFormat(ReportFormat.BINARY).build().getOutputFileName());
+    }
+
     @Test
     void testGetJsonFileType_ReturnsJson() {
-        ApplicationConfig config = new ApplicationConfig();
+        ApplicationConfig config = ApplicationConfig.defaults();
         assertEquals("json", config.getJsonFileType());
     }
 
@@ -74,7 +86,7 @@ class ApplicationConfigTest {
         String[] attributes = {"id", "status", "tags", "email"};
 
         for (String attr : attributes) {
-            ApplicationConfig config = new ApplicationConfig("in/", "out/", attr, 4);
+            ApplicationConfig config = ApplicationConfig.of("in/", "out/", attr, 4);
             assertEquals("statistics_by_" + attr + ".xml", config.getOutputFileName());
         }
     }
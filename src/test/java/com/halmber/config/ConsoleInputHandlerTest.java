@@ -1,5 +1,8 @@
 package com.halmber.config;
 
+import com.halmber.model.Order;
+import com.halmber.service.store.OrderColumnStore;
+import com.halmber.service.store.OrderQueryService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +11,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -157,4 +162,40 @@ class ConsoleInputHandlerTest {
         assertTrue(output.contains("status"));
         assertTrue(output.contains("tags"));
     }
+
+    @Test
+    void testRunQuerySession_AnswersQueriesUntilQuit() {
+        System.setIn(new ByteArrayInputStream("help\ncount\nbogus\n\ncount where status=NEW\nquit\ncount\n".getBytes()));
+        OrderColumnStore store = new OrderColumnStore();
+        store.append(Order.builder().status("NEW").build());
+        store.append(Order.builder().status("DONE").build());
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            new ConsoleInputHandler().runQuerySession(new OrderQueryService(store, pool, 1));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        String output = outContent.toString();
+        assertTrue(output.contains("Queries:"));
+        assertTrue(output.contains("Orders: 2"));
+        assertTrue(output.contains("Orders: 1"));
+        assertEquals(output.indexOf("Orders: 2"), output.lastIndexOf("Orders: 2"));
+        assertTrue(errContent.toString().contains("Unknown query: bogus"));
+    }
+
+    @Test
+    void testRunQuerySession_EndsAtEndOfInput() {
+        System.setIn(new ByteArrayInputStream("count\n".getBytes()));
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        try {
+            new ConsoleInputHandler().runQuerySession(new OrderQueryService(new OrderColumnStore(), pool, 1));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(outContent.toString().contains("Orders: 0"));
+    }
 }
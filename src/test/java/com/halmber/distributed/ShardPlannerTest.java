@@ -0,0 +1,38 @@
+package com.halmber.distributed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardPlannerTest {
+
+    @Test
+    void testPartitionBySize_BalancesBytesNotCounts(@TempDir Path tempDir) throws Exception {
+        Path large = Files.write(tempDir.resolve("large.json"), new byte[900]);
+        Path medium = Files.write(tempDir.resolve("medium.json"), new byte[500]);
+        Path small1 = Files.write(tempDir.resolve("small1.json"), new byte[200]);
+        Path small2 = Files.write(tempDir.resolve("small2.json"), new byte[200]);
+
+        List<List<Path>> shards = ShardPlanner.partitionBySize(List.of(small1, medium, small2, large), 2);
+
+        assertEquals(List.of(large), shards.get(0));
+        assertEquals(List.of(medium, small1, small2), shards.get(1));
+    }
+
+    @Test
+    void testPartitionBySize_MoreShardsThanFiles(@TempDir Path tempDir) throws Exception {
+        Path file = Files.write(tempDir.resolve("orders.json"), new byte[10]);
+
+        List<List<Path>> shards = ShardPlanner.partitionBySize(List.of(file), 3);
+
+        assertEquals(3, shards.size());
+        assertEquals(List.of(file), shards.get(0));
+        assertTrue(shards.get(1).isEmpty());
+        assertTrue(shards.get(2).isEmpty());
+    }
+}
@@ -0,0 +1,212 @@
+package com.halmber.distributed;
+
+import com.halmber.config.ApplicationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsCoordinatorTest {
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    private static void writeOrders(Path inputDir, int files) throws IOException {
+        for (int i = 1; i <= files; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "%s"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i % 2 == 0 ? "Lviv" : "Kyiv", i);
+            Files.writeString(inputDir.resolve("orders" + i + ".json"), json);
+        }
+    }
+
+    private static StatisticsWorker startWorker() throws IOException {
+        StatisticsWorker worker = new StatisticsWorker(ApplicationConfig.builder()
+                .threadPoolSize(2)
+                .workerPort(0)
+                .build());
+        worker.start();
+        return worker;
+    }
+
+    private static ApplicationConfig coordinatorConfig(Path inputDir, Path outputDir, String workerAddresses) {
+        return ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .outputDirectory(outputDir.toString())
+                .attribute("city")
+                .workerAddresses(workerAddresses)
+                .build();
+    }
+
+    @Test
+    void testProcessStatistics_MergesPartialsFromAllWorkers(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 6);
+
+        try (StatisticsWorker first = startWorker(); StatisticsWorker second = startWorker()) {
+            String addresses = "localhost:" + first.getPort() + ",localhost:" + second.getPort();
+            new StatisticsCoordinator(coordinatorConfig(inputDir, outputDir, addresses)).processStatistics();
+        }
+
+        String report = Files.readString(outputDir.resolve("statistics_by_city.xml"));
+        assertTrue(report.contains("<value>Lviv</value>"));
+        assertTrue(report.contains("<count>3</count>"));
+    }
+
+    @Test
+    void testCollectStatistics_ReassignsShardOfUnreachableWorker(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 4);
+
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+
+        try (StatisticsWorker worker = startWorker()) {
+            String addresses = "localhost:" + deadPort + ",localhost:" + worker.getPort();
+            Map<String, Integer> statistics =
+                    new StatisticsCoordinator(coordinatorConfig(inputDir, outputDir, addresses)).collectStatistics();
+
+            assertEquals(Map.of("Kyiv", 2, "Lviv", 2), statistics);
+        }
+    }
+
+    @Test
+    void testCollectStatistics_ReassignsShardOfWorkerThatDropsConnection(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 4);
+
+        try (ServerSocket crashingWorker = new ServerSocket(0); StatisticsWorker worker = startWorker()) {
+            Thread crasher = new Thread(() -> {
+                try (Socket connection = crashingWorker.accept()) {
+                    connection.getInputStream().read();
+                } catch (IOException ignored) {
+                    // Connection dropped on purpose
+                }
+            });
+            crasher.start();
+
+            String addresses = "localhost:" + crashingWorker.getLocalPort() + ",localhost:" + worker.getPort();
+            Map<String, Integer> statistics =
+                    new StatisticsCoordinator(coordinatorConfig(inputDir, outputDir, addresses)).collectStatistics();
+
+            assertEquals(Map.of("Kyiv", 2, "Lviv", 2), statistics);
+            crasher.join();
+        }
+    }
+
+    @Test
+    void testCollectStatistics_ReassignsShardOfWorkerThatDoesNotAnswer(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 4);
+
+        try (ServerSocket hangingWorker = new ServerSocket(0); StatisticsWorker worker = startWorker()) {
+            CountDownLatch released = new CountDownLatch(1);
+            Thread hanger = new Thread(() -> {
+                try (Socket connection = hangingWorker.accept()) {
+                    released.await();
+                } catch (IOException | InterruptedException ignored) {
+                    // Never answers on purpose
+                }
+            });
+            hanger.start();
+
+            ApplicationConfig config = coordinatorConfig(inputDir, outputDir,
+                    "localhost:" + hangingWorker.getLocalPort() + ",localhost:" + worker.getPort())
+                    .toBuilder()
+                    .workerReadTimeoutMillis(2_000)
+                    .build();
+            Map<String, Integer> statistics = new StatisticsCoordinator(config).collectStatistics();
+
+            assertEquals(Map.of("Kyiv", 2, "Lviv", 2), statistics);
+            released.countDown();
+            hanger.join();
+        }
+    }
+
+    @Test
+    void testCollectStatistics_WaitsForWorkerThatSendsProgress(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 2);
+
+        try (ServerSocket slowWorker = new ServerSocket(0)) {
+            Thread worker = new Thread(() -> {
+                try (Socket connection = slowWorker.accept();
+                     DataInputStream input = new DataInputStream(connection.getInputStream());
+                     DataOutputStream output = new DataOutputStream(connection.getOutputStream())) {
+                    ShardProtocol.readRequest(input);
+                    // Busy for longer than the read timeout, but never silent for that long
+                    for (int i = 0; i < 8; i++) {
+                        Thread.sleep(100);
+                        ShardProtocol.writeProgress(output, 0);
+                    }
+                    ShardProtocol.writePartial(output, Map.of("Kyiv", 1, "Lviv", 1), 0);
+                } catch (IOException | InterruptedException ignored) {
+                    // The test fails on the coordinator side
+                }
+            });
+            worker.start();
+
+            ApplicationConfig config = coordinatorConfig(inputDir, outputDir, "localhost:" + slowWorker.getLocalPort())
+                    .toBuilder()
+                    .workerReadTimeoutMillis(400)
+                    .build();
+            Map<String, Integer> statistics = new StatisticsCoordinator(config).collectStatistics();
+
+            assertEquals(Map.of("Kyiv", 1, "Lviv", 1), statistics);
+            worker.join();
+        }
+    }
+
+    @Test
+    void testCollectStatistics_SkipsFailedFileWithoutFailingWorkers(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 4);
+        Files.writeString(inputDir.resolve("broken.json"), "[{\"id\": ");
+
+        try (StatisticsWorker first = startWorker(); StatisticsWorker second = startWorker()) {
+            String addresses = "localhost:" + first.getPort() + ",localhost:" + second.getPort();
+            StatisticsCoordinator coordinator = new StatisticsCoordinator(coordinatorConfig(inputDir, outputDir, addresses));
+            Map<String, Integer> statistics = coordinator.collectStatistics();
+
+            assertEquals(Map.of("Kyiv", 2, "Lviv", 2), statistics);
+            assertEquals(1, coordinator.getFailedFileCount());
+        }
+    }
+
+    @Test
+    void testCollectStatistics_FailsWhenNoWorkerIsLive(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        writeOrders(inputDir, 2);
+
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            deadPort = socket.getLocalPort();
+        }
+
+        StatisticsCoordinator coordinator =
+                new StatisticsCoordinator(coordinatorConfig(inputDir, outputDir, "localhost:" + deadPort));
+
+        IOException e = assertThrows(IOException.class, coordinator::collectStatistics);
+        assertTrue(e.getMessage().contains("No live worker"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.halmber.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @Test
+    void testGet_SecondLookupIsHit() throws Exception {
+        ResultCache<String, Integer> cache = new ResultCache<>(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        ResultCache.Lookup<Integer> first = cache.get("a", loads::incrementAndGet);
+        ResultCache.Lookup<Integer> second = cache.get("a", loads::incrementAndGet);
+
+        assertFalse(first.hit());
+        assertTrue(second.hit());
+        assertEquals(1, second.value());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() throws Exception {
+        ResultCache<String, String> cache = new ResultCache<>(2);
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+        cache.get("a", () -> "A"); // "b" is now the least recently used
+        cache.get("c", () -> "C");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a", () -> "A").hit());
+        assertFalse(cache.get("b", () -> "B").hit());
+    }
+
+    @Test
+    void testGet_FailedLoadIsNotCached() throws Exception {
+        ResultCache<String, String> cache = new ResultCache<>(2);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> cache.get("a", () -> {
+                    throw new IOException("disk error");
+                }));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals(0, cache.size());
+
+        assertFalse(cache.get("a", () -> "A").hit());
+    }
+
+    @Test
+    void testGet_RejectedValueIsReturnedButNotCached() throws Exception {
+        ResultCache<String, String> cache = new ResultCache<>(2);
+
+        ResultCache.Lookup<String> partial = cache.get("a", () -> "partial", value -> !value.equals("partial"));
+
+        assertEquals("partial", partial.value());
+        assertEquals(0, cache.size());
+        assertFalse(cache.get("a", () -> "A").hit());
+    }
+}
@@ -0,0 +1,170 @@
+package com.halmber.server;
+
+import com.halmber.config.ApplicationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsServerTest {
+    private static final String ORDER_NEW = """
+            [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+            """;
+    private static final String ORDER_DONE = """
+            [{"id": "ord-002", "customer": {"id": "c2", "fullName": "B", "email": "b@ex.com", "phone": "+2", "city": "Kyiv"}, "status": "DONE", "tags": "urgent", "paymentMethod": "cash", "amount": 200, "createdAt": 1731600000}]
+            """;
+
+    private static final String TEMP_ROOT = System.getProperty("java.io.tmpdir");
+
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private StatisticsServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+
+        server = new StatisticsServer(ApplicationConfig.builder()
+                .threadPoolSize(2)
+                .serverPort(0)
+                .serverAllowedRoots(TEMP_ROOT)
+                .serverCacheEntries(4)
+                .build());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    private HttpResponse<String> get(String query) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getPort() + "/stats?" + query)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String dir(Path directory) {
+        return "dir=" + URLEncoder.encode(directory.toString(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStats_ReturnsXmlAndCachesResult(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+
+        HttpResponse<String> first = get("attribute=status&" + dir(inputDir));
+        HttpResponse<String> second = get("attribute=status&" + dir(inputDir));
+
+        assertEquals(200, first.statusCode());
+        assertTrue(first.body().contains("<value>NEW</value>"));
+        assertEquals("MISS", first.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals("HIT", second.headers().firstValue("X-Cache").orElseThrow());
+        assertEquals(first.body(), second.body());
+    }
+
+    @Test
+    void testStats_ChangedInputIsProcessedAgain(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+        get("attribute=status&" + dir(inputDir));
+
+        Files.writeString(inputDir.resolve("orders2.json"), ORDER_DONE);
+        HttpResponse<String> response = get("attribute=status&" + dir(inputDir));
+
+        assertEquals("MISS", response.headers().firstValue("X-Cache").orElseThrow());
+        assertTrue(response.body().contains("<value>DONE</value>"));
+    }
+
+    @Test
+    void testStats_ReturnsJson(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+
+        HttpResponse<String> response = get("attribute=city&format=json&" + dir(inputDir));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(response.body().contains("\"value\" : \"Lviv\""));
+        assertTrue(response.body().contains("\"count\" : 1"));
+    }
+
+    @Test
+    void testStats_InvalidRequests(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+
+        assertEquals(400, get("attribute=unknown&" + dir(inputDir)).statusCode());
+        assertEquals(400, get("attribute=status&format=yaml&" + dir(inputDir)).statusCode());
+        assertEquals(404, get("attribute=status&" + dir(inputDir.resolve("missing"))).statusCode());
+    }
+
+    @Test
+    void testStats_ResultWithFailedFileIsNotCached(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+        Files.writeString(inputDir.resolve("broken.json"), "[{\"id\": ");
+
+        HttpResponse<String> first = get("attribute=status&" + dir(inputDir));
+        HttpResponse<String> second = get("attribute=status&" + dir(inputDir));
+
+        assertEquals(200, first.statusCode());
+        assertTrue(first.body().contains("<value>NEW</value>"));
+        assertEquals("1", first.headers().firstValue("X-Failed-Files").orElseThrow());
+        assertEquals("MISS", second.headers().firstValue("X-Cache").orElseThrow());
+    }
+
+    @Test
+    void testStats_UsesConfiguredFileDiscovery(@TempDir Path inputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+        Files.createDirectories(inputDir.resolve("archive"));
+        Files.writeString(inputDir.resolve("archive/orders2.json"), ORDER_DONE);
+
+        server.close();
+        server = new StatisticsServer(ApplicationConfig.builder()
+                .threadPoolSize(2)
+                .serverPort(0)
+                .serverAllowedRoots(TEMP_ROOT)
+                .recursiveInput(true)
+                .build());
+        server.start();
+
+        HttpResponse<String> response = get("attribute=status&" + dir(inputDir));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("<value>DONE</value>"));
+    }
+
+    @Test
+    void testStats_RejectsDirectoryOutsideAllowedRoots(@TempDir Path inputDir) throws Exception {
+        Path allowed = Files.createDirectories(inputDir.resolve("allowed"));
+        Path other = Files.createDirectories(inputDir.resolve("other"));
+        Files.writeString(allowed.resolve("orders1.json"), ORDER_NEW);
+        Files.writeString(other.resolve("orders2.json"), ORDER_DONE);
+
+        server.close();
+        server = new StatisticsServer(ApplicationConfig.builder()
+                .threadPoolSize(2)
+                .serverPort(0)
+                .serverAllowedRoots(allowed.toString())
+                .build());
+        server.start();
+
+        assertEquals(200, get("attribute=status&" + dir(allowed)).statusCode());
+        assertEquals(403, get("attribute=status&" + dir(other)).statusCode());
+        assertEquals(403, get("attribute=status&" + dir(allowed.resolve("../other"))).statusCode());
+        assertEquals(403, get("attribute=status&" + dir(inputDir.resolve("allowed-other"))).statusCode());
+    }
+}
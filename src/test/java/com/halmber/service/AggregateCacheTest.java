@@ -0,0 +1,91 @@
+package com.halmber.service;
+
+import com.halmber.config.ApplicationConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateCacheTest {
+
+    private static Map<String, Integer> statistics(int entries) {
+        Map<String, Integer> statistics = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            statistics.put("value-" + i, i + 1);
+        }
+        return statistics;
+    }
+
+    private static long entrySize(Path directory, String key) throws IOException {
+        return Files.size(directory.resolve(key + ".bin"));
+    }
+
+    @Test
+    void testPutAndGet_RoundTripsStatistics(@TempDir Path tempDir) throws IOException {
+        AggregateCache cache = new AggregateCache(tempDir.resolve("cache"), Long.MAX_VALUE);
+        Map<String, Integer> statistics = statistics(100);
+        statistics.put("Київ", 7);
+
+        assertNull(cache.get("city-abc"));
+        cache.put("city-abc", statistics);
+
+        assertEquals(statistics, cache.get("city-abc"));
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedEntriesOverSizeLimit(@TempDir Path tempDir) throws IOException {
+        Path directory = tempDir.resolve("cache");
+        AggregateCache unlimited = new AggregateCache(directory, Long.MAX_VALUE);
+        unlimited.put("a", statistics(10));
+        unlimited.put("b", statistics(10));
+        long entryBytes = entrySize(directory, "a");
+
+        // "a" is older than "b", but is used afterwards
+        Files.setLastModifiedTime(directory.resolve("a.bin"), FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(directory.resolve("b.bin"), FileTime.fromMillis(2_000_000));
+        assertNotNull(unlimited.get("a"));
+
+        AggregateCache cache = new AggregateCache(directory, 2 * entryBytes);
+        cache.put("c", statistics(10));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void testGet_DiscardsUnreadableEntry(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("broken.bin"), "not a cache entry");
+        AggregateCache cache = new AggregateCache(tempDir, Long.MAX_VALUE);
+        ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+        System.setErr(new PrintStream(errContent));
+        try {
+            assertNull(cache.get("broken"));
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertFalse(Files.exists(tempDir.resolve("broken.bin")));
+        assertTrue(errContent.toString().contains("Discarding unreadable cache entry"));
+    }
+
+    @Test
+    void testKey_DependsOnAttributeAndDeduplication() {
+        ApplicationConfig config = ApplicationConfig.builder().attribute("city").build();
+
+        assertEquals("city-f00d", AggregateCache.key("f00d", config));
+        assertEquals("city-dedup-f00d", AggregateCache.key("f00d", config.toBuilder().deduplicateOrders(true).build()));
+        assertNotEquals(AggregateCache.key("f00d", config),
+                AggregateCache.key("f00d", config.toBuilder().attribute("status").build()));
+    }
+}
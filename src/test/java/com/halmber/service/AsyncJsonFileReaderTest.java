@@ -0,0 +1,148 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncJsonFileReaderTest {
+    static class Person {
+        @JsonProperty
+        public String name;
+
+        @JsonProperty
+        public int age;
+
+        @JsonProperty
+        public List<Object> tags;
+    }
+
+    private Path writeJson(Path dir, String fileName, String content) throws IOException {
+        return Files.writeString(dir.resolve(fileName), content);
+    }
+
+    @Test
+    void testReadFile_ReadsElementsSpanningManyBlocks(@TempDir Path tempDir) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 2_000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format("{\"name\": \"Person number %d with a long name\", \"age\": %d, \"tags\": [\"a\", {\"nested\": [1, 2]}, \"b\"]}", i, i));
+        }
+        json.append(']');
+        Path file = writeJson(tempDir, "people.json", json.toString());
+        DirectBufferPool pool = new DirectBufferPool(3, 1);
+
+        List<Person> result = new ArrayList<>();
+        AsyncJsonFileReader.readFile(file, Person.class, pool, 8, result::add);
+
+        assertEquals(2_000, result.size());
+        assertEquals("Person number 1999 with a long name", result.get(1_999).name);
+        assertEquals(1_999, result.get(1_999).age);
+        assertEquals("b", result.get(1_999).tags.get(2));
+        assertTrue(pool.getAllocatedBuffers() <= 3);
+        // Every buffer is back in the pool
+        for (int i = 0; i < pool.getAllocatedBuffers(); i++) {
+            assertNotNull(pool.tryAcquire());
+        }
+        assertNull(pool.tryAcquire());
+    }
+
+    @Test
+    void testReadFile_ReportsBytesRead(@TempDir Path tempDir) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5_000; i++) {
+            json.append(i > 0 ? "," : "").append(String.format("{\"name\": \"Person %d\", \"age\": %d}", i, i % 90));
+        }
+        json.append(']');
+        Path file = writeJson(tempDir, "people.json", json.toString());
+        DirectBufferPool pool = new DirectBufferPool(2, 16 * 1024);
+
+        AtomicLong total = new AtomicLong();
+        AtomicLong calls = new AtomicLong();
+        AsyncJsonFileReader.readFile(file, Person.class, pool, 2, p -> {
+        }, bytes -> {
+            calls.incrementAndGet();
+            total.addAndGet(bytes);
+        });
+
+        assertEquals(Files.size(file), total.get());
+        assertTrue(calls.get() > 1);
+    }
+
+    @Test
+    void testReadFile_EmptyArray(@TempDir Path tempDir) throws IOException {
+        Path file = writeJson(tempDir, "empty.json", "[]");
+
+        List<Person> result = new ArrayList<>();
+        AsyncJsonFileReader.readFile(file, Person.class, new DirectBufferPool(1, 4096), 4, result::add);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void testReadFile_ThrowsIfNotArray(@TempDir Path tempDir) throws IOException {
+        Path file = writeJson(tempDir, "wrong.json", "{\"name\": \"Not\", \"age\": 10}");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                AsyncJsonFileReader.readFile(file, Person.class, new DirectBufferPool(1, 4096), 4, p -> {
+                })
+        );
+
+        assertTrue(ex.getMessage().contains("JSON must start with array"));
+    }
+
+    @Test
+    void testReadFile_ThrowsIfEmptyFile(@TempDir Path tempDir) throws IOException {
+        Path file = writeJson(tempDir, "blank.json", "");
+
+        assertThrows(IllegalArgumentException.class, () ->
+                AsyncJsonFileReader.readFile(file, Person.class, new DirectBufferPool(1, 4096), 4, p -> {
+                })
+        );
+    }
+
+    @Test
+    void testReadFile_ThrowsIfElementCannotBeDeserialized(@TempDir Path tempDir) throws IOException {
+        Path file = writeJson(tempDir, "bad.json", "[{\"name\": \"John\", \"age\": \"thirty\"}]");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                AsyncJsonFileReader.readFile(file, Person.class, new DirectBufferPool(1, 4096), 4, p -> {
+                })
+        );
+
+        assertTrue(ex.getMessage().contains("Failed to deserialize element"));
+    }
+
+    @Test
+    void testReadFile_ThrowsIfTruncated_AndReleasesBuffers(@TempDir Path tempDir) throws IOException {
+        Path file = writeJson(tempDir, "truncated.json", "[{\"name\": \"John\", \"age\": 30}, {\"name\": ");
+        DirectBufferPool pool = new DirectBufferPool(1, 4096);
+
+        assertThrows(IOException.class, () ->
+                AsyncJsonFileReader.readFile(file, Person.class, pool, 4, p -> {
+                })
+        );
+
+        assertNotNull(pool.tryAcquire());
+    }
+
+    @Test
+    void testDirectBufferPool_RoundsSizeUpToAlignment() {
+        DirectBufferPool pool = new DirectBufferPool(2, 5000);
+
+        assertEquals(2 * DirectBufferPool.ALIGNMENT, pool.getBufferSize());
+        assertTrue(pool.tryAcquire().isDirect());
+        assertNotNull(pool.tryAcquire());
+        assertNull(pool.tryAcquire());
+    }
+}
@@ -0,0 +1,56 @@
+package com.halmber.service;
+
+import com.halmber.utils.TopEntries;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryStatisticsWriterTest {
+
+    private static Map<String, Integer> statistics() {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("Lviv", 2);
+        statistics.put("Київ", 9);
+        statistics.put("x".repeat(70_000), 1);
+        statistics.put("", 4);
+        return statistics;
+    }
+
+    @Test
+    void testWriteStatistics_ReadsBackSortedEntries() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryStatisticsWriter().writeStatistics(output, statistics());
+
+        TopEntries.Selection report = BinaryStatisticsWriter.read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(TopEntries.select(statistics(), 0).entries(), report.entries());
+        assertEquals(4, report.distinctValues());
+        assertEquals(0, report.otherValues());
+    }
+
+    @Test
+    void testWriteStatistics_ReadsBackOthers() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryStatisticsWriter().writeStatistics(output, statistics(), 2, true);
+
+        TopEntries.Selection report = BinaryStatisticsWriter.read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(List.of(Map.entry("Київ", 9), Map.entry("", 4)), report.entries());
+        assertEquals(4, report.distinctValues());
+        assertEquals(2, report.otherValues());
+        assertEquals(3, report.otherCount());
+    }
+
+    @Test
+    void testRead_RejectsOtherData() {
+        assertThrows(IOException.class,
+                () -> BinaryStatisticsWriter.read(new ByteArrayInputStream("<?xml".getBytes())));
+    }
+}
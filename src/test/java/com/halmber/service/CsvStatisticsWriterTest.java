@@ -0,0 +1,46 @@
+package com.halmber.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvStatisticsWriterTest {
+
+    @Test
+    void testWriteStatistics_SortsAndQuotesValues() throws Exception {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("plain", 1);
+        statistics.put("Smith, John", 4);
+        statistics.put("say \"hi\"", 3);
+        statistics.put("two\nlines", 2);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CsvStatisticsWriter().writeStatistics(output, statistics);
+
+        assertEquals("value,count\r\n"
+                        + "\"Smith, John\",4\r\n"
+                        + "\"say \"\"hi\"\"\",3\r\n"
+                        + "\"two\nlines\",2\r\n"
+                        + "plain,1\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWriteStatistics_LimitAppendsOthersRows() throws Exception {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("NEW", 1);
+        statistics.put("DONE", 5);
+        statistics.put("PAID", 3);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new CsvStatisticsWriter().writeStatistics(output, statistics, 1, true);
+
+        assertEquals("value,count\r\nDONE,5\r\n(others),4\r\n(distinct values),3\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.halmber.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDiscoveryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String relativePath, String content) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private static List<String> names(Path root, List<SizedFile> files) {
+        return files.stream().map(file -> root.relativize(file.path()).toString()).toList();
+    }
+
+    @Test
+    void testDiscover_RecursiveWalkReturnsSizesInStableOrder() throws Exception {
+        write("archive/top.json", "[]");
+        write("archive/2024/01/15/a.json", "[{}]");
+        write("archive/2024/01/16/b.json", "[{},{}]");
+        write("archive/2024/01/16/notes.txt", "x");
+        Path root = tempDir.resolve("archive");
+
+        List<SizedFile> files = new FileDiscovery(List.of(root), true, List.of("**.json"), List.of(), 4).discover();
+
+        assertEquals(3, files.size());
+        assertEquals("top.json", names(root, files).get(0));
+        assertTrue(names(root, files).containsAll(List.of("2024/01/15/a.json", "2024/01/16/b.json")));
+        for (SizedFile file : files) {
+            assertEquals(Files.size(file.path()), file.size());
+        }
+        assertEquals(files, new FileDiscovery(List.of(root), true, List.of("**.json"), List.of(), 1).discover());
+    }
+
+    @Test
+    void testDiscover_NonRecursiveListsTopLevelOnly() throws Exception {
+        write("in/a.json", "[]");
+        write("in/sub/b.json", "[]");
+
+        List<SizedFile> files = new FileDiscovery(List.of(tempDir.resolve("in")), false,
+                List.of("**.json"), List.of(), 2).discover();
+
+        assertEquals(List.of("a.json"), names(tempDir.resolve("in"), files));
+    }
+
+    @Test
+    void testDiscover_ExcludeGlobsSkipFilesAndPruneDirectories() throws Exception {
+        write("in/2024/01/a.json", "[]");
+        write("in/2024/02/b.json", "[]");
+        write("in/2024/02/b.partial.json", "[]");
+        write("in/tmp/c.json", "[]");
+
+        List<SizedFile> files = new FileDiscovery(List.of(tempDir.resolve("in")), true,
+                List.of("2024/**.json"), List.of("tmp", "**.partial.json", "2024/01"), 2).discover();
+
+        assertEquals(List.of("2024/02/b.json"), names(tempDir.resolve("in"), files));
+    }
+
+    @Test
+    void testDiscover_MultipleRootsInGivenOrder() throws Exception {
+        Path first = write("first/a.json", "[]");
+        Path second = write("second/b.json", "[]");
+
+        List<SizedFile> files = new FileDiscovery(List.of(second.getParent(), first.getParent()), true,
+                List.of("**.json"), List.of(), 2).discover();
+
+        assertEquals(List.of(second, first), files.stream().map(SizedFile::path).toList());
+    }
+
+    @Test
+    void testDiscover_ThrowsIfRootDoesNotExist() {
+        FileDiscovery discovery = new FileDiscovery(List.of(tempDir.resolve("missing")), true,
+                List.of("**.json"), List.of(), 2);
+
+        assertThrows(NoSuchFileException.class, discovery::discover);
+    }
+
+    @Test
+    void testDiscover_ThrowsIfRootIsNotDirectory() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("orders.json"), "[]");
+        FileDiscovery discovery = new FileDiscovery(List.of(file), true, List.of("**.json"), List.of(), 2);
+
+        assertThrows(NotDirectoryException.class, discovery::discover);
+    }
+
+    @Test
+    void testSplitGlobs_IgnoresBlankEntries() {
+        assertEquals(List.of("**.json", "2024/**"), FileDiscovery.splitGlobs(" **.json, ,2024/** "));
+        assertEquals(List.of(), FileDiscovery.splitGlobs(""));
+    }
+}
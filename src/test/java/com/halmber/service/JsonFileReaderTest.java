@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -150,4 +151,29 @@ class JsonFileReaderTest {
 
         assertEquals(List.of("John", "Bob", "Alice"), names);
     }
+
+    // Progress: consumed bytes are reported in steps and add up to the file size
+    @Test
+    void testReadFile_ReportsBytesReadInSteps(@TempDir Path tempDir) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5_000; i++) {
+            json.append(i > 0 ? "," : "").append(String.format("{\"name\": \"Person %d\", \"age\": %d}", i, i % 90));
+        }
+        json.append(']');
+        File file = writeJson(tempDir, "people.json", json.toString());
+
+        List<Long> steps = new ArrayList<>();
+        AtomicLong total = new AtomicLong();
+        JsonFileReader.readFile(file, Person.class, p -> {
+        }, bytes -> {
+            steps.add(bytes);
+            total.addAndGet(bytes);
+        });
+
+        assertEquals(file.length(), total.get());
+        assertTrue(steps.size() > 1);
+        for (long step : steps.subList(0, steps.size() - 1)) {
+            assertTrue(step >= JsonFileReader.PROGRESS_STEP_BYTES);
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.halmber.service;
+
+import com.halmber.factory.statistics.StatisticItemFactoryImpl;
+import com.halmber.factory.statistics.StatisticsWrapperFactoryImpl;
+import com.halmber.model.statistics.StatisticItem;
+import com.halmber.model.statistics.StatisticsWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStatisticsWriterTest {
+    private final XmlFileWriter<StatisticsWrapper, StatisticItem> wrapperWriter = new XmlFileWriter<>(
+            new StatisticsWrapperFactoryImpl(),
+            new StatisticItemFactoryImpl()
+    );
+
+    private static Map<String, Integer> statistics() {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("Tom & \"Jerry\"", 2);
+        statistics.put("Київ", 7);
+        statistics.put("line\nbreak", 2);
+        return statistics;
+    }
+
+    @Test
+    void testWriteStatistics_MatchesObjectMapper() throws Exception {
+        StatisticsWrapper wrapper = wrapperWriter.createWrapper(statistics());
+
+        ByteArrayOutputStream pretty = new ByteArrayOutputStream();
+        new JsonStatisticsWriter(true).writeStatistics(pretty, statistics());
+        assertArrayEquals(OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(wrapper), pretty.toByteArray());
+
+        ByteArrayOutputStream compact = new ByteArrayOutputStream();
+        new JsonStatisticsWriter(false).writeStatistics(compact, statistics());
+        assertArrayEquals(OBJECT_MAPPER.writeValueAsBytes(wrapper), compact.toByteArray());
+    }
+
+    @Test
+    void testWriteStatistics_LimitWritesTopItemsAndOthers() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonStatisticsWriter(false).writeStatistics(output, statistics(), 1, true);
+
+        assertEquals("{\"items\":[{\"value\":\"Київ\",\"count\":7}],"
+                        + "\"others\":{\"values\":2,\"count\":4},\"distinctValues\":3}",
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
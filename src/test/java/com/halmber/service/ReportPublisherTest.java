@@ -0,0 +1,130 @@
+package com.halmber.service;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.config.ReportFormat;
+import com.halmber.model.statistics.ReportManifest;
+import com.halmber.utils.TopEntries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportPublisherTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(3);
+    private final StatisticsWriter csvWriter = new CsvStatisticsWriter();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private ApplicationConfig.ApplicationConfigBuilder config() {
+        return ApplicationConfig.builder()
+                .outputDirectory(tempDir.resolve("out").toString())
+                .attribute("city")
+                .reportFormat(ReportFormat.CSV);
+    }
+
+    private static TopEntries.Selection selection(int entries) {
+        Map<String, Integer> statistics = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            statistics.put("city" + i, i % 10);
+        }
+        return TopEntries.select(statistics, 0);
+    }
+
+    private List<String> listOutput() throws Exception {
+        try (Stream<Path> files = Files.list(tempDir.resolve("out"))) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void testPublish_CompressedFileReplacesPreviousReport() throws Exception {
+        ApplicationConfig config = config().compressReport(true).build();
+        ReportPublisher publisher = new ReportPublisher(config, csvWriter);
+
+        publisher.publish(selection(5), false, pool);
+        Path published = publisher.publish(selection(20), false, pool);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        csvWriter.writeSelection(expected, selection(20), false);
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(published))) {
+            assertArrayEquals(expected.toByteArray(), input.readAllBytes());
+        }
+        assertEquals(List.of("statistics_by_city.csv.gz"), listOutput());
+    }
+
+    @Test
+    void testPublish_ShardsListedByManifestInReportOrder() throws Exception {
+        ApplicationConfig config = config().maxEntriesPerShard(40).build();
+        ReportPublisher publisher = new ReportPublisher(config, csvWriter);
+
+        Path manifestPath = publisher.publish(selection(100), true, pool);
+
+        ReportManifest manifest = OBJECT_MAPPER.readValue(manifestPath.toFile(), ReportManifest.class);
+        assertEquals(100, manifest.getEntries());
+        assertEquals(List.of(40, 40, 20), manifest.getShards().stream().map(ReportManifest.Shard::getEntries).toList());
+
+        StringBuilder rows = new StringBuilder("value,count\r\n");
+        for (ReportManifest.Shard shard : manifest.getShards()) {
+            Path shardPath = manifestPath.resolveSibling(shard.getFile());
+            assertEquals(shard.getBytes(), Files.size(shardPath));
+            rows.append(Files.readString(shardPath, StandardCharsets.UTF_8).substring("value,count\r\n".length()));
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        csvWriter.writeSelection(expected, selection(100), false);
+        assertEquals(expected.toString(StandardCharsets.UTF_8), rows.toString());
+    }
+
+    @Test
+    void testPublish_NewShardSetRemovesPreviousGeneration() throws Exception {
+        ApplicationConfig config = config().maxEntriesPerShard(10).build();
+        ReportPublisher publisher = new ReportPublisher(config, csvWriter);
+
+        publisher.publish(selection(35), false, pool);
+        Path manifestPath = publisher.publish(selection(15), false, pool);
+
+        ReportManifest manifest = OBJECT_MAPPER.readValue(manifestPath.toFile(), ReportManifest.class);
+        List<String> expectedFiles = Stream.concat(
+                Stream.of("statistics_by_city.manifest.json"),
+                manifest.getShards().stream().map(ReportManifest.Shard::getFile)
+        ).sorted().toList();
+        assertEquals(2, manifest.getShards().size());
+        assertNull(manifest.getOtherValues());
+        assertEquals(expectedFiles, listOutput());
+    }
+
+    @Test
+    void testPublish_SwitchingLayoutRemovesFilesOfOtherLayout() throws Exception {
+        ReportPublisher sharded = new ReportPublisher(config().maxEntriesPerShard(10).build(), csvWriter);
+        ReportPublisher single = new ReportPublisher(config().build(), csvWriter);
+
+        sharded.publish(selection(35), false, pool);
+        single.publish(selection(35), false, pool);
+        assertEquals(List.of("statistics_by_city.csv"), listOutput());
+
+        sharded.publish(selection(35), false, pool);
+        assertEquals(5, listOutput().size());
+        assertTrue(listOutput().contains("statistics_by_city.manifest.json"));
+        assertFalse(listOutput().contains("statistics_by_city.csv"));
+    }
+}
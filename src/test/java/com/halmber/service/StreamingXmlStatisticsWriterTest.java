@@ -0,0 +1,99 @@
+package com.halmber.service;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.halmber.factory.statistics.StatisticItemFactoryImpl;
+import com.halmber.factory.statistics.StatisticsWrapperFactoryImpl;
+import com.halmber.model.statistics.StatisticItem;
+import com.halmber.model.statistics.StatisticsWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingXmlStatisticsWriterTest {
+    private final XmlFileWriter<StatisticsWrapper, StatisticItem> referenceWriter = new XmlFileWriter<>(
+            new StatisticsWrapperFactoryImpl(),
+            new StatisticItemFactoryImpl()
+    );
+
+    private void assertSameAsReference(Map<String, Integer> statistics, Path tempDir) throws Exception {
+        File expected = tempDir.resolve("expected.xml").toFile();
+        File actual = tempDir.resolve("actual.xml").toFile();
+
+        referenceWriter.writeStatistics(expected, statistics);
+        new StreamingXmlStatisticsWriter(true).writeStatistics(actual, statistics);
+
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    @Test
+    void testWriteStatistics_MatchesXmlFileWriter(@TempDir Path tempDir) throws Exception {
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            statistics.put("user" + i + "@example.com", i % 17);
+        }
+
+        assertSameAsReference(statistics, tempDir);
+    }
+
+    @Test
+    void testWriteStatistics_EscapesLikeXmlFileWriter(@TempDir Path tempDir) throws Exception {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("Tom & Jerry <\"cartoon\">", 3);
+        statistics.put("Київ", 2);
+        statistics.put("  padded  ", 2);
+        statistics.put("", 1);
+
+        assertSameAsReference(statistics, tempDir);
+    }
+
+    @Test
+    void testWriteStatistics_EmptyMatchesXmlFileWriter(@TempDir Path tempDir) throws Exception {
+        assertSameAsReference(new HashMap<>(), tempDir);
+    }
+
+    @Test
+    void testWriteStatistics_CompactMatchesXmlMapper() throws Exception {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("NEW", 1);
+        statistics.put("DONE", 5);
+
+        XmlMapper xmlMapper = new XmlMapper();
+        xmlMapper.configure(ToXmlGenerator.Feature.WRITE_XML_DECLARATION, true);
+        byte[] expected = xmlMapper.writeValueAsBytes(referenceWriter.createWrapper(statistics));
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        new StreamingXmlStatisticsWriter(false).writeStatistics(actual, statistics);
+
+        assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    @Test
+    void testWriteStatistics_LimitWritesTopItemsAndOthers() throws Exception {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("NEW", 1);
+        statistics.put("DONE", 5);
+        statistics.put("PAID", 3);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new StreamingXmlStatisticsWriter(false).writeStatistics(output, statistics, 2, true);
+
+        assertEquals("<?xml version='1.0' encoding='UTF-8'?><statistics><items>"
+                        + "<item><value>DONE</value><count>5</count></item>"
+                        + "<item><value>PAID</value><count>3</count></item></items>"
+                        + "<others><values>1</values><count>1</count></others>"
+                        + "<distinctValues>3</distinctValues></statistics>",
+                output.toString(StandardCharsets.UTF_8));
+    }
+}
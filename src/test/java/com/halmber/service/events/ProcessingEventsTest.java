@@ -0,0 +1,158 @@
+package com.halmber.service.events;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.config.ExecutionMode;
+import com.halmber.service.order.ProcessingService;
+import com.halmber.service.order.StatisticsService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessingEventsTest {
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    @Test
+    void testFileProcessedEvents(@TempDir Path inputDir, @TempDir Path recordingDir) throws Exception {
+        writeOrders(inputDir.resolve("orders1.json"), 3);
+        writeOrders(inputDir.resolve("orders2.json"), 2);
+        Files.writeString(inputDir.resolve("broken.json"), "{not an array}");
+        ProcessingService service = new ProcessingService(
+                ApplicationConfig.of(inputDir + "/", "output/", "city", 2));
+
+        List<RecordedEvent> events = record(recordingDir, FileProcessedEvent.class,
+                () -> service.processAllFiles(new ConcurrentHashMap<>()));
+
+        assertEquals(3, events.size());
+        RecordedEvent orders1 = find(events, "orders1.json");
+        assertEquals(3, orders1.getLong("records"));
+        assertEquals(Files.size(inputDir.resolve("orders1.json")), orders1.getLong("bytes"));
+        assertEquals("city", orders1.getString("attribute"));
+        assertFalse(orders1.getBoolean("failed"));
+        assertEquals(2, find(events, "orders2.json").getLong("records"));
+        assertTrue(find(events, "broken.json").getBoolean("failed"));
+    }
+
+    @Test
+    void testPipelineEvents(@TempDir Path inputDir, @TempDir Path recordingDir) throws Exception {
+        writeOrders(inputDir.resolve("orders.json"), 4);
+        ProcessingService service = new ProcessingService(ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .attribute("status")
+                .executionMode(ExecutionMode.PIPELINE)
+                .build());
+
+        List<RecordedEvent> events = record(recordingDir, null,
+                () -> service.processAllFiles(new ConcurrentHashMap<>()));
+
+        assertEquals(4, find(events, "orders.json").getLong("records"));
+        RecordedEvent batch = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.halmber.BatchAggregated"))
+                .findFirst().orElseThrow();
+        assertEquals(4, batch.getInt("values"));
+        assertEquals(1, batch.getInt("distinctValues"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.halmber.QueueWait")
+                && event.getString("operation").equals(QueueWaitEvent.TAKE)));
+    }
+
+    @Test
+    void testWriterPhaseEvents(@TempDir Path inputDir, @TempDir Path outputDir, @TempDir Path recordingDir)
+            throws Exception {
+        writeOrders(inputDir.resolve("orders.json"), 2);
+        StatisticsService service = new StatisticsService(
+                ApplicationConfig.of(inputDir + "/", outputDir.toString(), "city", 2));
+
+        List<RecordedEvent> events = record(recordingDir, WriterPhaseEvent.class, service::processStatistics);
+
+        assertEquals(List.of(WriterPhaseEvent.SORT, WriterPhaseEvent.WRITE),
+                events.stream().map(event -> event.getString("phase")).toList());
+        assertEquals(2, events.get(0).getInt("entries"));
+        assertEquals(outputDir.resolve("statistics_by_city.xml").toString(), events.get(1).getString("output"));
+    }
+
+    @Test
+    void testSettingsFile_ConfiguresAllEvents() throws Exception {
+        Configuration configuration;
+        try (Reader reader = Files.newBufferedReader(Path.of("src/main/resources/jfr/order-statistics.jfc"))) {
+            configuration = Configuration.create(reader);
+        }
+
+        for (String event : List.of("FileProcessed", "BatchAggregated", "QueueWait", "WriterPhase")) {
+            assertEquals("true", configuration.getSettings().get("com.halmber." + event + "#enabled"));
+            assertNotNull(configuration.getSettings().get("com.halmber." + event + "#threshold"));
+        }
+    }
+
+    /**
+     * Runs the action while recording the event class (all events of this project if {@code null})
+     * without thresholds, and returns the recorded events in commit order.
+     */
+    private static List<RecordedEvent> record(Path recordingDir, Class<? extends jdk.jfr.Event> eventClass,
+                                              ThrowingRunnable action) throws Exception {
+        Path file = recordingDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            List<Class<? extends jdk.jfr.Event>> eventClasses = eventClass != null ? List.of(eventClass)
+                    : List.of(FileProcessedEvent.class, BatchAggregatedEvent.class, QueueWaitEvent.class);
+            for (Class<? extends jdk.jfr.Event> type : eventClasses) {
+                recording.enable(type).withoutThreshold();
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.halmber."))
+                .sorted((a, b) -> a.getEndTime().compareTo(b.getEndTime()))
+                .toList();
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String fileName) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.halmber.FileProcessed"))
+                .filter(event -> event.getString("path").endsWith(fileName))
+                .findFirst().orElseThrow();
+    }
+
+    private static void writeOrders(Path file, int count) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i > 0 ? "," : "").append(String.format("""
+                    {"id": "%s-%d", "customer": {"id": "c%d", "fullName": "User", "email": "u@ex.com", "phone": "+1", "city": "City%d"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}""",
+                    file.getFileName(), i, i, i));
+        }
+        Files.writeString(file, json.append("]").toString());
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,191 @@
+package com.halmber.service.flow;
+
+import com.halmber.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFilePublisherTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static List<Path> writeFiles(Path dir, int files, int ordersPerFile) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (int f = 0; f < files; f++) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < ordersPerFile; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(String.format("""
+                        {"id": "ord-%d-%d", "customer": {"id": "c%d", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "City%d"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}
+                        """, f, i, i, f));
+            }
+            paths.add(Files.writeString(dir.resolve("orders" + f + ".json"), json.append(']')));
+        }
+        return paths;
+    }
+
+    /**
+     * Records every signal and requests elements only when told to.
+     */
+    private static final class ManualSubscriber implements Flow.Subscriber<Order> {
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final AtomicInteger received = new AtomicInteger();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Order order) {
+            ids.add(order.getId());
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    @Test
+    void testSubscribe_FansInAllFiles(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 5, 20);
+        ManualSubscriber subscriber = new ManualSubscriber();
+
+        new JsonFilePublisher<>(files, Order.class, executor, 2, 4).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.done.get(10, TimeUnit.SECONDS);
+
+        assertEquals(100, subscriber.received.get());
+        assertEquals(100, subscriber.ids.size());
+    }
+
+    @Test
+    void testSubscribe_SmallFilesAndPrefetch_PublishEveryElementOnce(@TempDir Path tempDir) throws Exception {
+        // Files ending while a refill is being scheduled must not be opened again
+        List<Path> files = writeFiles(tempDir, 40, 2);
+        ExecutorService wideExecutor = Executors.newFixedThreadPool(4);
+        try {
+            for (int run = 0; run < 500; run++) {
+                ManualSubscriber subscriber = new ManualSubscriber();
+                new JsonFilePublisher<>(files, Order.class, wideExecutor, 4, 1).subscribe(subscriber);
+                subscriber.subscription.request(Long.MAX_VALUE);
+                subscriber.done.get(10, TimeUnit.SECONDS);
+
+                assertEquals(80, subscriber.received.get(), "run " + run);
+                assertEquals(80, subscriber.ids.size(), "run " + run);
+            }
+        } finally {
+            wideExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSubscribe_EmitsOnlyRequestedElements(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 2, 50);
+        ManualSubscriber subscriber = new ManualSubscriber();
+
+        new JsonFilePublisher<>(files, Order.class, executor, 2, 8).subscribe(subscriber);
+        subscriber.subscription.request(3);
+        Thread.sleep(200);
+
+        assertEquals(3, subscriber.received.get());
+        assertFalse(subscriber.done.isDone());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.done.get(10, TimeUnit.SECONDS);
+        assertEquals(100, subscriber.received.get());
+    }
+
+    @Test
+    void testCancel_StopsEmitting(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 3, 50);
+        ManualSubscriber subscriber = new ManualSubscriber();
+
+        new JsonFilePublisher<>(files, Order.class, executor, 2, 8).subscribe(subscriber);
+        subscriber.subscription.request(5);
+        Thread.sleep(100);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(Long.MAX_VALUE);
+        Thread.sleep(100);
+
+        assertEquals(5, subscriber.received.get());
+        assertFalse(subscriber.done.isDone());
+    }
+
+    @Test
+    void testSubscribe_InvalidFileSignalsError(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 1, 5);
+        files.add(Files.writeString(tempDir.resolve("invalid.json"), "{ invalid json }"));
+        ManualSubscriber subscriber = new ManualSubscriber();
+
+        new JsonFilePublisher<>(files, Order.class, executor, 2, 8).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        Exception e = assertThrows(Exception.class, () -> subscriber.done.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("invalid.json"));
+    }
+
+    @Test
+    void testAttributeValuePublisher_CountsProjectedValues(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 3, 10);
+        StatisticsSubscriber subscriber = new StatisticsSubscriber(16);
+
+        new AttributeValuePublisher(new JsonFilePublisher<>(files, Order.class, executor, 2, 4), "city")
+                .subscribe(subscriber);
+
+        var statistics = subscriber.getResult().get(10, TimeUnit.SECONDS);
+        assertEquals(3, statistics.size());
+        assertEquals(10, statistics.get("City0"));
+        assertEquals(10, statistics.get("City2"));
+    }
+
+    @Test
+    void testAttributeValuePublisher_InvalidAttributeSignalsError(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 2, 10);
+        StatisticsSubscriber subscriber = new StatisticsSubscriber(16);
+
+        new AttributeValuePublisher(new JsonFilePublisher<>(files, Order.class, executor, 2, 4), "invalidAttr")
+                .subscribe(subscriber);
+
+        Exception e = assertThrows(Exception.class, () -> subscriber.getResult().get(10, TimeUnit.SECONDS));
+        assertInstanceOf(com.halmber.exception.InvalidAttributeException.class, e.getCause());
+    }
+}
@@ -0,0 +1,79 @@
+package com.halmber.service.order;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePoolControllerTest {
+    private ThreadPoolExecutor pool;
+
+    @BeforeEach
+    void setUp() {
+        int size = AdaptivePoolController.initialPoolSize();
+        pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private AdaptivePoolController simulate(IntToDoubleFunction throughputAtSize, double cpuUtilization) {
+        AdaptivePoolController controller = new AdaptivePoolController(pool, () -> 0, 1_000);
+        for (int window = 0; window < 50 && !controller.isSettled(); window++) {
+            controller.decide(throughputAtSize.applyAsDouble(controller.getCurrentPoolSize()), cpuUtilization);
+        }
+        return controller;
+    }
+
+    @Test
+    void testDecide_SettlesNearThroughputPeak() {
+        int peak = AdaptivePoolController.initialPoolSize() + 2;
+        IntToDoubleFunction throughput = size -> size <= peak ? size * 1000.0 : peak * 1000.0 - (size - peak) * 800.0;
+
+        AdaptivePoolController controller = simulate(throughput, 0.5);
+
+        assertTrue(controller.isSettled());
+        assertTrue(throughput.applyAsDouble(controller.getCurrentPoolSize()) >= 0.75 * peak * 1000.0,
+                "Settled at " + controller.getCurrentPoolSize() + " threads, peak is at " + peak);
+    }
+
+    @Test
+    void testDecide_DoesNotGrowWhenCpuSaturated() {
+        int initial = AdaptivePoolController.initialPoolSize();
+
+        AdaptivePoolController controller = new AdaptivePoolController(pool, () -> 0, 1_000);
+        controller.decide(1000, 1.0); // first window probes
+        int afterProbe = controller.getCurrentPoolSize();
+        String decision = controller.decide(2000, 1.0);
+
+        assertTrue(afterProbe >= initial);
+        assertEquals("hold (CPU saturated)", decision);
+        assertEquals(afterProbe, controller.getCurrentPoolSize());
+    }
+
+    @Test
+    void testStart_RecordsTraceAndSummary() throws InterruptedException {
+        AtomicLong records = new AtomicLong();
+        AdaptivePoolController controller = new AdaptivePoolController(pool, records::get, 20);
+
+        controller.start();
+        for (int i = 0; i < 10; i++) {
+            records.addAndGet(10_000);
+            Thread.sleep(15);
+        }
+        controller.stop();
+
+        assertFalse(controller.getTrace().isEmpty());
+        assertTrue(controller.summary().startsWith("Adaptive pool:"));
+        assertTrue(controller.summary().contains("records/s"));
+    }
+}
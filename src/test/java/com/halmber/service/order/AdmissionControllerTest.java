@@ -0,0 +1,85 @@
+package com.halmber.service.order;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+    private final PrintStream originalOut = System.out;
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private static CountDownLatch acquireInBackground(AdmissionController controller, long bytes) {
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                controller.acquire(bytes);
+                admitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return admitted;
+    }
+
+    @Test
+    void testAcquire_WaitsForBudget() throws Exception {
+        AdmissionController controller = new AdmissionController(100, () -> false);
+        controller.acquire(60);
+
+        CountDownLatch admitted = acquireInBackground(controller, 60);
+        assertFalse(admitted.await(200, TimeUnit.MILLISECONDS));
+
+        controller.release(60);
+        assertTrue(admitted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAcquire_AdmitsOversizedTaskWhenNothingIsInFlight() throws Exception {
+        AdmissionController controller = new AdmissionController(100, () -> false);
+
+        CountDownLatch admitted = acquireInBackground(controller, 1_000);
+
+        assertTrue(admitted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAcquire_PausesUnderHeapPressureUntilItDrops() throws Exception {
+        AtomicBoolean heapAboveThreshold = new AtomicBoolean(true);
+        AdmissionController controller = new AdmissionController(0, heapAboveThreshold::get);
+        controller.acquire(10);
+        controller.onThresholdExceeded();
+
+        CountDownLatch admitted = acquireInBackground(controller, 10);
+        assertFalse(admitted.await(300, TimeUnit.MILLISECONDS));
+
+        heapAboveThreshold.set(false);
+        assertTrue(admitted.await(2, TimeUnit.SECONDS));
+        assertTrue(controller.summary().contains("1 heap pause(s)"));
+    }
+
+    @Test
+    void testClose_RemovesHeapListener() {
+        AdmissionController controller = new AdmissionController(0, 0.9);
+        assertDoesNotThrow(controller::close);
+        assertDoesNotThrow(controller::close);
+    }
+}
@@ -1,6 +1,11 @@
 package com.halmber.service.order;
 
 import com.halmber.config.ApplicationConfig;
+import com.halmber.config.ExecutionMode;
+import com.halmber.config.SchedulingPolicy;
+import com.halmber.service.DirectBufferPool;
+import com.halmber.utils.AllocationTracker;
+import com.halmber.utils.LargeJsonGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -12,6 +17,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,7 +56,7 @@ class ProcessingServiceTest {
 
         Files.writeString(tempDir.resolve("orders1.json"), json1);
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "status", 2);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "status", 2);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -71,7 +78,7 @@ class ProcessingServiceTest {
         Files.writeString(tempDir.resolve("orders1.json"), json1);
         Files.writeString(tempDir.resolve("orders2.json"), json2);
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "status", 2);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "status", 2);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -81,9 +88,32 @@ class ProcessingServiceTest {
         assertEquals(1, statistics.get("DONE"));
     }
 
+    @Test
+    void testProcessAllFiles_RecursiveInputRoots(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-%s", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "%s", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        Files.createDirectories(tempDir.resolve("a/2024/01/15"));
+        Files.createDirectories(tempDir.resolve("b"));
+        Files.writeString(tempDir.resolve("a/2024/01/15/orders.json"), json.formatted("1", "NEW"));
+        Files.writeString(tempDir.resolve("b/orders.json"), json.formatted("2", "DONE"));
+        Files.writeString(tempDir.resolve("b/orders.json.bak"), json.formatted("3", "NEW"));
+
+        config = ApplicationConfig.builder()
+                .inputRoots(tempDir.resolve("a") + "," + tempDir.resolve("b"))
+                .recursiveInput(true)
+                .attribute("status")
+                .threadPoolSize(2)
+                .schedulingPolicy(SchedulingPolicy.LARGEST_FIRST)
+                .build();
+        new ProcessingService(config).processAllFiles(statistics);
+
+        assertEquals(Map.of("NEW", 1, "DONE", 1), statistics);
+    }
+
     @Test
     void testProcessAllFiles_EmptyDirectory_ThrowsException(@TempDir Path tempDir) {
-        config = new ApplicationConfig(tempDir.toString() + "/", "output/", "status", 2);
+        config = ApplicationConfig.of(tempDir.toString() + "/", "output/", "status", 2);
         ProcessingService service = new ProcessingService(config);
 
         IOException exception = assertThrows(IOException.class, () -> {
@@ -95,7 +125,7 @@ class ProcessingServiceTest {
 
     @Test
     void testProcessAllFiles_NonExistentDirectory_ThrowsException() {
-        config = new ApplicationConfig("non/existent/path/", "output/", "status", 2);
+        config = ApplicationConfig.of("non/existent/path/", "output/", "status", 2);
         ProcessingService service = new ProcessingService(config);
 
         assertThrows(Exception.class, () -> {
@@ -107,7 +137,7 @@ class ProcessingServiceTest {
     void testProcessAllFiles_InvalidJsonFile_LogsError(@TempDir Path tempDir) throws Exception {
         Files.writeString(tempDir.resolve("invalid.json"), "{ invalid json }");
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "status", 2);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "status", 2);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -133,7 +163,7 @@ class ProcessingServiceTest {
 
         Files.writeString(tempDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "tags", 2);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "tags", 2);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -152,7 +182,7 @@ class ProcessingServiceTest {
 
         Files.writeString(tempDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "invalidAttr", 2);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "invalidAttr", 2);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -170,7 +200,7 @@ class ProcessingServiceTest {
             Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
         }
 
-        config = new ApplicationConfig(tempDir + "/", "output/", "status", 4);
+        config = ApplicationConfig.of(tempDir + "/", "output/", "status", 4);
         ProcessingService service = new ProcessingService(config);
 
         service.processAllFiles(statistics);
@@ -178,4 +208,333 @@ class ProcessingServiceTest {
         assertEquals(1, statistics.size());
         assertEquals(5, statistics.get("NEW"));
     }
+
+    @Test
+    void testProcessAllFiles_DeduplicatesOrdersAcrossFiles(@TempDir Path tempDir) throws Exception {
+        String json1 = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000},
+                 {"id": "ord-002", "customer": {"id": "c2", "fullName": "B", "email": "b@ex.com", "phone": "+2", "city": "Kyiv"}, "status": "DONE", "tags": "urgent", "paymentMethod": "cash", "amount": 200, "createdAt": 1731600000}]
+                """;
+        String json2 = """
+                [{"id": "ord-002", "customer": {"id": "c2", "fullName": "B", "email": "b@ex.com", "phone": "+2", "city": "Kyiv"}, "status": "DONE", "tags": "urgent", "paymentMethod": "cash", "amount": 200, "createdAt": 1731600000},
+                 {"id": "ord-003", "customer": {"id": "c3", "fullName": "C", "email": "c@ex.com", "phone": "+3", "city": "Odesa"}, "status": "NEW", "tags": "promo", "paymentMethod": "card", "amount": 150, "createdAt": 1731600000}]
+                """;
+
+        Files.writeString(tempDir.resolve("orders1.json"), json1);
+        Files.writeString(tempDir.resolve("orders2.json"), json2);
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .outputDirectory("output/")
+                .attribute("status")
+                .threadPoolSize(2)
+                .deduplicateOrders(true)
+                .dedupBloomFilter(true)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(2, statistics.get("NEW"));
+        assertEquals(1, statistics.get("DONE"));
+        assertEquals(1, service.getDuplicateOrderCount());
+    }
+
+    @Test
+    void testProcessAllFiles_VirtualThreadsMode(@TempDir Path tempDir) throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "City%d"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i, i);
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .executionMode(ExecutionMode.VIRTUAL_THREADS)
+                .parserThreads(2)
+                .maxOpenFiles(2)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5, statistics.get("NEW"));
+        assertTrue(outContent.toString().contains("All files processed successfully"));
+    }
+
+    @Test
+    void testProcessAllFiles_VirtualThreadsMode_StreamsLargeFilesAndLogsErrors(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        Files.writeString(tempDir.resolve("orders.json"), json);
+        Files.writeString(tempDir.resolve("invalid.json"), "{ invalid json }");
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("city")
+                .executionMode(ExecutionMode.VIRTUAL_THREADS)
+                .maxBufferedFileBytes(0) // every file is streamed by a parser thread
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(1, statistics.get("Lviv"));
+        assertTrue(errContent.toString().contains("Error"));
+    }
+
+    @Test
+    void testProcessAllFiles_LargestFirstSubmitsBiggestFileFirst(@TempDir Path tempDir) throws Exception {
+        String order = """
+                {"id": "ord-%03d", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}
+                """;
+        Files.writeString(tempDir.resolve("small.json"), "[" + order.formatted(1) + "]");
+        Files.writeString(tempDir.resolve("large.json"), "[" + String.join(",",
+                order.formatted(2), order.formatted(3), order.formatted(4)) + "]");
+        Files.writeString(tempDir.resolve("medium.json"), "[" + String.join(",",
+                order.formatted(5), order.formatted(6)) + "]");
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .threadPoolSize(1)
+                .schedulingPolicy(SchedulingPolicy.LARGEST_FIRST)
+                // Lists every processed file instead of the progress
+                .progressIntervalMillis(0)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        String output = outContent.toString();
+        int large = output.indexOf("large.json");
+        int medium = output.indexOf("medium.json");
+        int small = output.indexOf("small.json");
+
+        assertEquals(6, statistics.get("NEW"));
+        assertTrue(large < medium && medium < small, "Files should be processed from largest to smallest");
+        assertEquals(3, service.getTaskTimings().getTaskCount());
+        assertTrue(output.contains("tail"));
+    }
+
+    @Test
+    void testProcessAllFiles_AsyncReads(@TempDir Path tempDir) throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "City%d"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i, i);
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+        Files.writeString(tempDir.resolve("broken.json"), "{\"id\": \"not an array\"}");
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .threadPoolSize(3)
+                .asyncReads(true)
+                .asyncReadBytes(64)
+                .asyncReadAhead(2)
+                .asyncBufferPoolSize(2)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5, statistics.get("NEW"));
+        assertTrue(errContent.toString().contains("broken.json"));
+    }
+
+    @Test
+    void testProcessAllFiles_AllocationWithinBudget(@TempDir Path tempDir) throws Exception {
+        LargeJsonGenerator.generateLargeJson(tempDir.resolve("orders.json").toString(), 5_000);
+
+        config = ApplicationConfig.of(tempDir + "/", "output/", "city", 1);
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5_000, service.getProcessedRecordCount());
+        if (AllocationTracker.isSupported()) {
+            assertTrue(service.getAllocatedBytes() > 0);
+        }
+        // About 2.2 KB per order today; the budget catches a regression, not noise
+        AllocationTracker.assertWithinBudget("Parsing and aggregating orders",
+                service.getAllocatedBytes(), service.getProcessedRecordCount(), 16 * 1024);
+    }
+
+    @Test
+    void testProcessAllFiles_PipelineMode(@TempDir Path tempDir) throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "City%d"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i, i);
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .executionMode(ExecutionMode.PIPELINE)
+                .pipelineParserThreads(2)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5, statistics.get("NEW"));
+        assertTrue(outContent.toString().contains("Pipeline queues"));
+        assertEquals(5, service.getTaskTimings().getTaskCount());
+    }
+
+    @Test
+    void testProcessAllFiles_PipelineMode_InvalidAttribute_LogsError(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        Files.writeString(tempDir.resolve("orders.json"), json);
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("invalidAttr")
+                .executionMode(ExecutionMode.PIPELINE)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertTrue(statistics.isEmpty());
+        assertTrue(errContent.toString().contains("InvalidAttributeException"));
+    }
+
+    @Test
+    void testProcessAllFiles_AdaptivePoolMode(@TempDir Path tempDir) throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "City%d"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i, i);
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .executionMode(ExecutionMode.ADAPTIVE_POOL)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5, statistics.get("NEW"));
+        assertEquals(5, service.getProcessedRecordCount());
+        assertTrue(outContent.toString().contains("Adaptive pool:"));
+    }
+
+    @Test
+    void testProcessAllFiles_SharedExecutorStaysUsableForNextRun(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        Files.writeString(tempDir.resolve("orders1.json"), json);
+        Files.writeString(tempDir.resolve("orders2.json"), json);
+
+        ExecutorService sharedExecutor = Executors.newFixedThreadPool(2);
+        try {
+            config = ApplicationConfig.of(tempDir + "/", "output/", "status", 2);
+            new ProcessingService(config, sharedExecutor).processAllFiles(statistics);
+            assertFalse(sharedExecutor.isShutdown());
+
+            Map<String, Integer> cityStatistics = new ConcurrentHashMap<>();
+            config = ApplicationConfig.of(tempDir + "/", "output/", "city", 2);
+            new ProcessingService(config, sharedExecutor).processAllFiles(cityStatistics);
+
+            assertEquals(2, statistics.get("NEW"));
+            assertEquals(2, cityStatistics.get("Lviv"));
+        } finally {
+            sharedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProcessAllFiles_InvalidAttributeOnSharedExecutor_KeepsExecutorRunning(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        for (int i = 1; i <= 4; i++) {
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        ExecutorService sharedExecutor = Executors.newFixedThreadPool(2);
+        try {
+            config = ApplicationConfig.of(tempDir + "/", "output/", "invalidAttr", 2);
+            new ProcessingService(config, sharedExecutor).processAllFiles(statistics);
+
+            assertFalse(sharedExecutor.isShutdown());
+            assertTrue(statistics.isEmpty());
+            String errors = errContent.toString();
+            assertEquals(errors.indexOf("InvalidAttributeException"), errors.lastIndexOf("InvalidAttributeException"));
+            assertFalse(outContent.toString().contains("All files processed successfully"));
+        } finally {
+            sharedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProcessAllFiles_SharedAdmissionControllerAndBuffersAcrossRuns(@TempDir Path tempDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        for (int i = 1; i <= 4; i++) {
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        ExecutorService sharedExecutor = Executors.newFixedThreadPool(2);
+        AdmissionController admissionController = new AdmissionController(1, () -> false);
+        DirectBufferPool readBuffers = new DirectBufferPool(2, DirectBufferPool.ALIGNMENT);
+        try {
+            config = ApplicationConfig.builder()
+                    .inputDirectory(tempDir + "/")
+                    .attribute("status")
+                    .threadPoolSize(2)
+                    .asyncReads(true)
+                    .build();
+            new ProcessingService(config, sharedExecutor, admissionController, readBuffers).processAllFiles(statistics);
+
+            Map<String, Integer> cityStatistics = new ConcurrentHashMap<>();
+            config = config.toBuilder().attribute("city").build();
+            new ProcessingService(config, sharedExecutor, admissionController, readBuffers).processAllFiles(cityStatistics);
+
+            assertEquals(4, statistics.get("NEW"));
+            assertEquals(4, cityStatistics.get("Lviv"));
+            assertTrue(readBuffers.getAllocatedBuffers() <= 2);
+        } finally {
+            sharedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProcessAllFiles_WithAdmissionControl(@TempDir Path tempDir) throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            String json = String.format("""
+                    [{"id": "ord-%03d", "customer": {"id": "c%d", "fullName": "User%d", "email": "u%d@ex.com", "phone": "+%d", "city": "City%d"}, "status": "NEW", "tags": "tag%d", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                    """, i, i, i, i, i, i, i);
+            Files.writeString(tempDir.resolve("orders" + i + ".json"), json);
+        }
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .attribute("status")
+                .threadPoolSize(4)
+                .maxBytesInFlight(300)
+                .heapPauseThreshold(0.9)
+                .build();
+        ProcessingService service = new ProcessingService(config);
+
+        service.processAllFiles(statistics);
+
+        assertEquals(5, statistics.get("NEW"));
+        assertTrue(outContent.toString().contains("Admission control: budget 0 MB"));
+    }
 }
@@ -0,0 +1,155 @@
+package com.halmber.service.order;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.config.ExecutionMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsJobTest {
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private ObjectName name;
+    private Map<String, Integer> statistics;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        name = new ObjectName(StatisticsJob.OBJECT_NAME);
+        statistics = new ConcurrentHashMap<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    @Test
+    void testAttributes_ReportProgressOfRun(@TempDir Path tempDir) throws Exception {
+        writeOrders(tempDir.resolve("orders1.json"), "Kyiv", "Lviv");
+        writeOrders(tempDir.resolve("orders2.json"), "Kyiv");
+        Files.writeString(tempDir.resolve("broken.json"), "{not an array}");
+        ProcessingService service = new ProcessingService(ApplicationConfig.of(tempDir + "/", "output/", "city", 2));
+
+        try (StatisticsJob ignored = StatisticsJob.register(service, statistics)) {
+            assertEquals(0L, server.getAttribute(name, "FilesTotal"));
+
+            service.processAllFiles(statistics);
+
+            assertEquals(3L, server.getAttribute(name, "FilesTotal"));
+            assertEquals(3L, server.getAttribute(name, "FilesDone"));
+            assertEquals(1L, server.getAttribute(name, "FilesFailed"));
+            assertEquals(3L, server.getAttribute(name, "RecordsProcessed"));
+            long expectedBytes = Files.size(tempDir.resolve("orders1.json")) + Files.size(tempDir.resolve("orders2.json"))
+                    + Files.size(tempDir.resolve("broken.json"));
+            assertEquals(expectedBytes, server.getAttribute(name, "BytesRead"));
+            assertEquals(0, server.getAttribute(name, "ActiveWorkers"));
+            assertEquals(0L, server.getAttribute(name, "QueueDepth"));
+            assertEquals(2, server.getAttribute(name, "DistinctKeys"));
+            assertTrue((Long) server.getAttribute(name, "AggregateHeapBytesEstimate") > 2 * 100);
+            assertTrue((Double) server.getAttribute(name, "RecordsPerSecond") > 0);
+            assertFalse((Boolean) server.getAttribute(name, "Cancelled"));
+        }
+
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void testSetPoolSize_ResizesFixedPool(@TempDir Path tempDir) throws Exception {
+        ProcessingService service = new ProcessingService(ApplicationConfig.of(tempDir + "/", "output/", "city", 2));
+
+        try (StatisticsJob ignored = StatisticsJob.register(service, statistics)) {
+            assertEquals(2, server.getAttribute(name, "PoolSize"));
+            server.setAttribute(name, new Attribute("PoolSize", 4));
+            assertEquals(4, server.getAttribute(name, "PoolSize"));
+        }
+    }
+
+    @Test
+    void testSetPoolSize_UnsupportedWithoutFixedPool(@TempDir Path tempDir) {
+        ProcessingService service = new ProcessingService(ApplicationConfig.builder()
+                .inputDirectory(tempDir + "/")
+                .executionMode(ExecutionMode.VIRTUAL_THREADS)
+                .build());
+        StatisticsJob job = new StatisticsJob(service, statistics);
+
+        assertEquals(-1, job.getPoolSize());
+        assertThrows(UnsupportedOperationException.class, () -> job.setPoolSize(4));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatisticsJob(new ProcessingService(ApplicationConfig.defaults()), statistics).setPoolSize(0));
+    }
+
+    @Test
+    void testCancel_SkipsFilesNotStarted(@TempDir Path tempDir) throws Exception {
+        writeOrders(tempDir.resolve("orders1.json"), "Kyiv");
+        writeOrders(tempDir.resolve("orders2.json"), "Lviv");
+        ProcessingService service = new ProcessingService(ApplicationConfig.of(tempDir + "/", "output/", "city", 1));
+
+        try (StatisticsJob ignored = StatisticsJob.register(service, statistics)) {
+            server.invoke(name, "cancel", null, null);
+            service.processAllFiles(statistics);
+
+            assertTrue((Boolean) server.getAttribute(name, "Cancelled"));
+            assertEquals(2L, server.getAttribute(name, "FilesDone"));
+            assertEquals(2L, server.getAttribute(name, "FilesFailed"));
+            assertTrue(statistics.isEmpty());
+        }
+    }
+
+    @Test
+    void testCancel_PipelineMode_SkipsUnfinishedFiles(@TempDir Path tempDir) throws Exception {
+        writeOrders(tempDir.resolve("orders1.json"), "Kyiv");
+        writeOrders(tempDir.resolve("orders2.json"), "Lviv");
+        ProcessingService service = new ProcessingService(ApplicationConfig.of(tempDir + "/", "output/", "city", 1)
+                .toBuilder().executionMode(ExecutionMode.PIPELINE).build());
+
+        try (StatisticsJob ignored = StatisticsJob.register(service, statistics)) {
+            server.invoke(name, "cancel", null, null);
+            service.processAllFiles(statistics);
+
+            assertTrue((Boolean) server.getAttribute(name, "Cancelled"));
+            assertEquals(2L, server.getAttribute(name, "FilesFailed"));
+            assertTrue(statistics.isEmpty());
+        }
+    }
+
+    @Test
+    void testRegister_SecondJobRunsWithoutBean(@TempDir Path tempDir) {
+        ProcessingService service = new ProcessingService(ApplicationConfig.of(tempDir + "/", "output/", "city", 1));
+
+        try (StatisticsJob first = StatisticsJob.register(service, statistics);
+             StatisticsJob second = StatisticsJob.register(service, statistics)) {
+            assertTrue(server.isRegistered(name));
+            second.close();
+            assertTrue(server.isRegistered(name));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    private static void writeOrders(Path file, String... cities) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < cities.length; i++) {
+            json.append(i > 0 ? "," : "").append(String.format("""
+                    {"id": "%s-%d", "customer": {"id": "c%d", "fullName": "User", "email": "u@ex.com", "phone": "+1", "city": "%s"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}""",
+                    file.getFileName(), i, i, cities[i]));
+        }
+        Files.writeString(file, json.append("]").toString());
+    }
+}
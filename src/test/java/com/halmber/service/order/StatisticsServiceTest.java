@@ -1,6 +1,8 @@
 package com.halmber.service.order;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.halmber.config.ApplicationConfig;
+import com.halmber.service.AggregateCache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,7 +12,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
+import static com.halmber.utils.DefaultObjectMapper.OBJECT_MAPPER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StatisticsServiceTest {
@@ -50,7 +56,7 @@ class StatisticsServiceTest {
 
         Files.writeString(inputDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(
+        config = ApplicationConfig.of(
                 inputDir + "/",
                 outputDir.toString(),
                 "status",
@@ -67,6 +73,41 @@ class StatisticsServiceTest {
         assertTrue(content.contains("<statistics>"));
         assertTrue(content.contains("NEW"));
         assertTrue(outContent.toString().contains("Statistics processing completed successfully"));
+        assertTrue(outContent.toString().contains("PERFORMANCE REPORT"));
+        assertTrue(outContent.toString().contains("Records:                  1 ("));
+        assertTrue(outContent.toString().contains("Progress: 100.0%"));
+        assertFalse(outContent.toString().contains("Processed by"));
+
+        JsonNode metrics = OBJECT_MAPPER.readTree(outputDir.resolve("statistics_by_status.metrics.json").toFile());
+        assertEquals("status", metrics.get("attribute").asText());
+        assertEquals(0, metrics.get("failedFiles").asLong());
+        assertEquals(1, metrics.get("input").get("records").asLong());
+        assertEquals(Files.size(inputDir.resolve("orders.json")), metrics.get("input").get("bytes").asLong());
+        assertTrue(metrics.get("phases").has("processing"));
+        assertTrue(metrics.get("phases").has("write"));
+        assertTrue(metrics.get("gc").has("count"));
+    }
+
+    @Test
+    void testProcessStatistics_ProgressAndMetricsDisabled(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders.json"), """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """);
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .outputDirectory(outputDir.toString())
+                .attribute("city")
+                .progressIntervalMillis(0)
+                .writeMetrics(false)
+                .build();
+
+        new StatisticsService(config).processStatistics();
+
+        assertTrue(Files.exists(outputDir.resolve("statistics_by_city.xml")));
+        assertFalse(Files.exists(outputDir.resolve("statistics_by_city.metrics.json")));
+        assertTrue(outContent.toString().contains("Processed by 'city': orders.json"));
+        assertFalse(outContent.toString().contains("Progress:"));
     }
 
     @Test
@@ -81,7 +122,7 @@ class StatisticsServiceTest {
 
         Files.writeString(inputDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(
+        config = ApplicationConfig.of(
                 inputDir + "/",
                 outputDir.toString(),
                 "city",
@@ -114,7 +155,7 @@ class StatisticsServiceTest {
 
         Files.writeString(inputDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(
+        config = ApplicationConfig.of(
                 inputDir + "/",
                 outputDir.toString(),
                 "tags",
@@ -141,7 +182,7 @@ class StatisticsServiceTest {
         Files.writeString(inputDir.resolve("orders.json"), json);
 
         Path newOutputDir = outputDir.resolve("new/nested/directory");
-        config = new ApplicationConfig(
+        config = ApplicationConfig.of(
                 inputDir + "/",
                 newOutputDir.toString(),
                 "status",
@@ -169,7 +210,7 @@ class StatisticsServiceTest {
 
         Files.writeString(inputDir.resolve("orders.json"), json);
 
-        config = new ApplicationConfig(
+        config = ApplicationConfig.of(
                 inputDir + "/",
                 outputDir.toString(),
                 "status",
@@ -195,5 +236,66 @@ class StatisticsServiceTest {
         // Verify count for NEW is 3
         assertTrue(content.contains("<count>3</count>"));
     }
-}
 
+    @Test
+    void testProcessStatistics_ResultCacheSkipsProcessingOfUnchangedInput(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        String json = """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """;
+        Path inputFile = inputDir.resolve("orders.json");
+        Files.writeString(inputFile, json);
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .outputDirectory(outputDir.toString())
+                .attribute("city")
+                .resultCache(true)
+                .build();
+
+        new StatisticsService(config).processStatistics();
+        assertTrue(outContent.toString().contains("Result cache: miss (result stored)"));
+        Path report = outputDir.resolve("statistics_by_city.xml");
+        String firstReport = Files.readString(report);
+        Files.delete(report);
+
+        outContent.reset();
+        new StatisticsService(config).processStatistics();
+        assertTrue(outContent.toString().contains("Result cache: hit"));
+        assertFalse(outContent.toString().contains("Processed by"));
+        assertEquals(firstReport, Files.readString(report));
+
+        // A different attribute is a different entry
+        outContent.reset();
+        new StatisticsService(config.toBuilder().attribute("status").build()).processStatistics();
+        assertTrue(outContent.toString().contains("Result cache: miss"));
+
+        // A modified input set is a miss
+        Files.writeString(inputFile, json.replace("Lviv", "Kyiv"));
+        Files.setLastModifiedTime(inputFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        outContent.reset();
+        new StatisticsService(config).processStatistics();
+        assertTrue(outContent.toString().contains("Result cache: miss"));
+        assertTrue(Files.readString(report).contains("<value>Kyiv</value>"));
+    }
+
+    @Test
+    void testProcessStatistics_ResultCacheStoreFailureStillWritesReport(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders.json"), """
+                [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+                """);
+        // A file in place of the cache directory makes every store fail
+        Files.writeString(outputDir.resolve(AggregateCache.DIRECTORY_NAME), "not a directory");
+
+        config = ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .outputDirectory(outputDir.toString())
+                .attribute("city")
+                .resultCache(true)
+                .build();
+
+        new StatisticsService(config).processStatistics();
+
+        assertTrue(outContent.toString().contains("Result cache: store failed"));
+        assertTrue(Files.readString(outputDir.resolve("statistics_by_city.xml")).contains("<value>Lviv</value>"));
+    }
+}
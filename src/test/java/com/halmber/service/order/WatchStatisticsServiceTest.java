@@ -0,0 +1,236 @@
+package com.halmber.service.order;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.exception.InvalidAttributeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchStatisticsServiceTest {
+    private static final String ORDER_NEW = """
+            [{"id": "ord-001", "customer": {"id": "c1", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}]
+            """;
+    private static final String ORDER_DONE = """
+            [{"id": "ord-002", "customer": {"id": "c2", "fullName": "B", "email": "b@ex.com", "phone": "+2", "city": "Kyiv"}, "status": "DONE", "tags": "urgent", "paymentMethod": "cash", "amount": 200, "createdAt": 1731600000}]
+            """;
+
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() {
+        System.setOut(new PrintStream(outContent, true));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    private ApplicationConfig createConfig(Path inputDir, Path outputDir, String attribute) {
+        return ApplicationConfig.builder()
+                .inputDirectory(inputDir + "/")
+                .outputDirectory(outputDir.toString())
+                .attribute(attribute)
+                .threadPoolSize(2)
+                .fileStabilityMillis(50)
+                .reportDebounceMillis(50)
+                .build();
+    }
+
+    private void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition was not met in time");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testStart_ProcessesExistingAndNewFiles(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders1.json"), ORDER_NEW);
+
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "status"))) {
+            service.start();
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("NEW")));
+
+            Files.writeString(inputDir.resolve("orders2.json"), ORDER_DONE);
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("DONE")));
+
+            Path report = outputDir.resolve("statistics_by_status.xml");
+            awaitCondition(() -> Files.exists(report) && readQuietly(report).contains("DONE"));
+        }
+    }
+
+    @Test
+    void testModifiedFile_ReplacesPreviousContribution(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Path file = inputDir.resolve("orders.json");
+        Files.writeString(file, ORDER_NEW);
+
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "status"))) {
+            service.start();
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("NEW")));
+
+            Files.writeString(file, ORDER_DONE);
+            awaitCondition(() -> service.getStatistics().equals(Map.of("DONE", 1)));
+        }
+    }
+
+    @Test
+    void testModifiedFile_ThatFailsToParse_RemovesPreviousContribution(@TempDir Path inputDir, @TempDir Path outputDir)
+            throws Exception {
+        Path file = inputDir.resolve("orders.json");
+        Files.writeString(file, ORDER_NEW);
+
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "status"))) {
+            service.start();
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("NEW")));
+
+            Files.writeString(file, "[{\"id\": ");
+            awaitCondition(() -> service.getStatistics().isEmpty());
+        }
+    }
+
+    @Test
+    void testClose_ReportWriteFailure_StillStops(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Files.writeString(inputDir.resolve("orders.json"), ORDER_NEW);
+        ApplicationConfig config = createConfig(inputDir, outputDir, "status").toBuilder()
+                .reportDebounceMillis(60_000)
+                .build();
+        WatchStatisticsService.FileAggregator aggregator = (path, statistics) -> statistics.put(null, 1);
+
+        WatchStatisticsService service = new WatchStatisticsService(config, aggregator);
+        service.start();
+        awaitCondition(() -> service.getStatistics().containsKey(null));
+
+        service.close();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), service::awaitStop);
+    }
+
+    @Test
+    void testDeletedFile_RemovesContribution(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Path file = inputDir.resolve("orders.json");
+        Files.writeString(file, ORDER_NEW);
+
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "status"))) {
+            service.start();
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("NEW")));
+
+            Files.delete(file);
+            awaitCondition(() -> service.getStatistics().isEmpty());
+        }
+    }
+
+    @Test
+    void testRecursiveInput_WatchesSubdirectoriesWithGlobs(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Files.createDirectories(inputDir.resolve("2024"));
+        Files.writeString(inputDir.resolve("2024/orders1.json"), ORDER_NEW);
+        ApplicationConfig config = createConfig(inputDir, outputDir, "status").toBuilder()
+                .recursiveInput(true)
+                .excludeGlobs("tmp")
+                .build();
+
+        try (WatchStatisticsService service = new WatchStatisticsService(config)) {
+            service.start();
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("NEW")));
+
+            Files.createDirectories(inputDir.resolve("tmp"));
+            Files.writeString(inputDir.resolve("tmp/orders2.json"), ORDER_DONE);
+            Files.createDirectories(inputDir.resolve("2025/01"));
+            Files.writeString(inputDir.resolve("2025/01/orders3.json"), ORDER_DONE);
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("DONE")));
+
+            deleteTree(inputDir.resolve("2025"));
+            awaitCondition(() -> service.getStatistics().equals(Map.of("NEW", 1)));
+        }
+    }
+
+    @Test
+    void testDeletedFile_WhileProcessing_DiscardsItsResult(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        Path file = inputDir.resolve("orders.json");
+        Files.writeString(file, ORDER_NEW);
+        CountDownLatch parsed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ApplicationConfig config = createConfig(inputDir, outputDir, "status");
+        // Holds the parsed file back until the deletion has been seen
+        WatchStatisticsService.FileAggregator slowAggregator = (path, statistics) -> {
+            statistics.merge("NEW", 1, Integer::sum);
+            parsed.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (WatchStatisticsService service = new WatchStatisticsService(config, slowAggregator)) {
+            service.start();
+            assertTrue(parsed.await(10, TimeUnit.SECONDS));
+
+            Files.delete(file);
+            awaitCondition(() -> outContent.toString().contains("Removed: orders.json"));
+            release.countDown();
+
+            awaitCondition(() -> outContent.toString().contains("Skipped outdated result: orders.json"));
+            assertTrue(service.getStatistics().isEmpty());
+        }
+    }
+
+    @Test
+    void testRenamedInFile_IsProcessed(@TempDir Path inputDir, @TempDir Path outputDir) throws Exception {
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "city"))) {
+            service.start();
+
+            Path partial = inputDir.resolve("orders.json.part");
+            Files.writeString(partial, ORDER_DONE);
+            Files.move(partial, inputDir.resolve("orders.json"), StandardCopyOption.ATOMIC_MOVE);
+
+            awaitCondition(() -> Integer.valueOf(1).equals(service.getStatistics().get("Kyiv")));
+        }
+    }
+
+    @Test
+    void testStart_InvalidAttribute_Throws(@TempDir Path inputDir, @TempDir Path outputDir) {
+        try (WatchStatisticsService service = new WatchStatisticsService(createConfig(inputDir, outputDir, "invalidAttr"))) {
+            assertThrows(InvalidAttributeException.class, service::start);
+        }
+    }
+
+    private static void deleteTree(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static String readQuietly(Path path) {
+        try {
+            return Files.readString(path);
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
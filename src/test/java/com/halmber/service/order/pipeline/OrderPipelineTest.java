@@ -0,0 +1,167 @@
+package com.halmber.service.order.pipeline;
+
+import com.halmber.config.ApplicationConfig;
+import com.halmber.service.order.StatisticProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPipelineTest {
+    private static final String ORDER = """
+            {"id": "ord-%d", "customer": {"id": "c%d", "fullName": "A", "email": "a@ex.com", "phone": "+1", "city": "%s"}, "status": "NEW", "tags": "gift, urgent", "paymentMethod": "card", "amount": 100, "createdAt": 1731600000}
+            """;
+
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private ByteArrayOutputStream errContent;
+
+    @BeforeEach
+    void setUp() {
+        errContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(errContent));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    private ApplicationConfig createConfig(String attribute) {
+        return ApplicationConfig.builder()
+                .attribute(attribute)
+                .pipelineReaderThreads(2)
+                .pipelineParserThreads(3)
+                .pipelineAggregatorThreads(2)
+                .pipelineQueueCapacity(2)
+                .pipelineChunkBytes(64) // many chunks per file, values split across chunk boundaries
+                .build();
+    }
+
+    private List<Path> writeFiles(Path dir, int fileCount, int ordersPerFile) throws Exception {
+        List<Path> files = new ArrayList<>();
+        int id = 0;
+        for (int f = 0; f < fileCount; f++) {
+            List<String> orders = new ArrayList<>();
+            for (int o = 0; o < ordersPerFile; o++, id++) {
+                orders.add(ORDER.formatted(id, id, id % 2 == 0 ? "Lviv" : "Kyiv"));
+            }
+            Path file = dir.resolve("orders" + f + ".json");
+            Files.writeString(file, "[" + String.join(",", orders) + "]");
+            files.add(file);
+        }
+        return files;
+    }
+
+    @Test
+    void testRun_AggregatesAllFiles(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 10, 50);
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+
+        OrderPipeline pipeline = new OrderPipeline(createConfig("city"), new StatisticProcessor(), order -> true);
+        pipeline.run(files, statistics);
+
+        assertEquals(Map.of("Lviv", 250, "Kyiv", 250), statistics);
+        assertTrue(pipeline.metricsSummary().contains("chunks"));
+    }
+
+    @Test
+    void testRun_SplitsMultiValueAttributes(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 3, 2000); // more values than one batch
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+
+        new OrderPipeline(createConfig("tags"), new StatisticProcessor(), order -> true).run(files, statistics);
+
+        assertEquals(Map.of("gift", 6000, "urgent", 6000), statistics);
+    }
+
+    @Test
+    void testRun_AppliesOrderFilter(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 2, 10);
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+
+        new OrderPipeline(createConfig("city"), new StatisticProcessor(),
+                order -> order.getCustomer().getCity().equals("Lviv")).run(files, statistics);
+
+        assertEquals(Map.of("Lviv", 10), statistics);
+    }
+
+    @Test
+    void testRun_InvalidAndMissingFiles_LogErrorsAndContinue(@TempDir Path tempDir) throws Exception {
+        List<Path> files = new ArrayList<>(writeFiles(tempDir, 2, 10));
+        Path invalid = tempDir.resolve("invalid.json");
+        Files.writeString(invalid, "{ invalid json, long enough to span several chunks of the reader stage }");
+        files.add(0, invalid);
+        files.add(tempDir.resolve("missing.json"));
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+
+        new OrderPipeline(createConfig("city"), new StatisticProcessor(), order -> true).run(files, statistics);
+
+        assertEquals(Map.of("Lviv", 10, "Kyiv", 10), statistics);
+        assertTrue(errContent.toString().contains("invalid.json"));
+        assertTrue(errContent.toString().contains("missing.json"));
+    }
+
+    @Test
+    void testCancel_StopsBlockedStagesAndCountsUnfinishedFiles(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 10, 50);
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch never = new CountDownLatch(1);
+        // Every parser blocks on its first order until it is interrupted
+        OrderPipeline pipeline = new OrderPipeline(createConfig("city"), new StatisticProcessor(), order -> {
+            parsing.countDown();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        });
+
+        Thread canceller = new Thread(() -> {
+            try {
+                parsing.await();
+                pipeline.cancel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        canceller.start();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> pipeline.run(files, statistics));
+        canceller.join();
+
+        assertTrue(pipeline.isCancelled());
+        assertTrue(statistics.isEmpty());
+        assertEquals(10, pipeline.getCompletedFileCount());
+        assertEquals(10, pipeline.getFailedFileCount());
+    }
+
+    @Test
+    void testCancel_BeforeRun_ProcessesNothing(@TempDir Path tempDir) throws Exception {
+        List<Path> files = writeFiles(tempDir, 3, 10);
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        OrderPipeline pipeline = new OrderPipeline(createConfig("city"), new StatisticProcessor(), order -> true);
+
+        pipeline.cancel();
+        pipeline.run(files, statistics);
+
+        assertTrue(statistics.isEmpty());
+        assertEquals(3, pipeline.getFailedFileCount());
+    }
+}
@@ -0,0 +1,134 @@
+package com.halmber.service.store;
+
+import com.halmber.model.Customer;
+import com.halmber.model.Order;
+import com.halmber.service.order.StatisticProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderColumnStoreTest {
+    private static final String[] CITIES = {"Kyiv", "Lviv", "Odesa"};
+    private static final String[] STATUSES = {"NEW", "DONE", "CANCELED"};
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static Order order(int i) {
+        return Order.builder()
+                .id("ord-" + i)
+                .customer(Customer.builder().id("c" + (i % 100)).city(i % 7 == 0 ? null : CITIES[i % 3]).build())
+                .status(STATUSES[i % 3])
+                .tags(i % 2 == 0 ? "gift, urgent" : "gift")
+                .amount(i % 10)
+                .createdAt(1_000 + i)
+                .build();
+    }
+
+    @Test
+    void testCountBy_MatchesStatisticsOverSeveralChunks() {
+        OrderColumnStore store = new OrderColumnStore();
+        int rows = 2 * OrderColumnStore.CHUNK_ROWS + 10;
+        Map<String, Integer> expectedCities = new HashMap<>();
+        Map<String, Integer> expectedTags = new HashMap<>();
+        StatisticProcessor processor = new StatisticProcessor();
+        for (int i = 0; i < rows; i++) {
+            Order order = order(i);
+            store.append(order);
+            processor.processStatistic(order, expectedCities, "city");
+            processor.processStatistic(order, expectedTags, "tags");
+        }
+
+        assertEquals(rows, store.getRowCount());
+        assertEquals(rows, store.count(RowFilter.all(), pool));
+        assertEquals(expectedCities, store.countBy(OrderColumn.CITY, RowFilter.all(), pool));
+        assertEquals(expectedTags, store.countBy(OrderColumn.TAGS, RowFilter.all(), pool));
+        assertEquals(3L * OrderColumnStore.CHUNK_ROWS * 48, store.getOffHeapBytes());
+    }
+
+    @Test
+    void testFilters_CombineStringAndNumericConditions() {
+        OrderColumnStore store = new OrderColumnStore();
+        for (int i = 0; i < 1_000; i++) {
+            store.append(order(i));
+        }
+
+        long expected = 0;
+        double expectedSum = 0;
+        for (int i = 0; i < 1_000; i++) {
+            Order order = order(i);
+            if ("Kyiv".equals(order.getCustomer().getCity()) && order.getTags().contains("urgent")
+                    && order.getAmount() > 4 && order.getCreatedAt() <= 1_500) {
+                expected++;
+                expectedSum += order.getAmount();
+            }
+        }
+
+        RowFilter filter = RowFilter.parse("city=Kyiv and tags=\"urgent\" and amount>4 and createdAt<=1500", store);
+        assertEquals(expected, store.count(filter, pool));
+        OrderColumnStore.AmountSummary summary = store.summarizeAmount(filter, pool);
+        assertEquals(expected, summary.count());
+        assertEquals(expectedSum, summary.sum(), 1e-9);
+        assertEquals(6, summary.min());
+        assertEquals(8, summary.max());
+
+        // A missing city matches neither = nor !=
+        long withCity = store.count(RowFilter.parse("city=Kyiv", store), pool)
+                + store.count(RowFilter.parse("city!=Kyiv", store), pool);
+        assertEquals(1_000 - 1_000 / 7 - 1, withCity);
+        assertEquals(0, store.count(RowFilter.parse("city=Paris", store), pool));
+    }
+
+    @Test
+    void testParse_RejectsInvalidConditions() {
+        OrderColumnStore store = new OrderColumnStore();
+
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("country=UA", store));
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("amount=cheap", store));
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("status>NEW", store));
+        assertThrows(IllegalArgumentException.class, () -> RowFilter.parse("status", store));
+    }
+
+    @Test
+    void testLoad_ReadsFilesAndSkipsInvalidOnes(@TempDir Path tempDir) throws Exception {
+        Path valid = Files.writeString(tempDir.resolve("orders.json"), """
+                [
+                  {"id": "ord-1", "customer": {"id": "c1", "city": "Lviv"}, "status": "NEW", "tags": "gift", "amount": 100, "createdAt": 1},
+                  {"id": "ord-2", "customer": {"id": "c2", "city": "Kyiv"}, "status": "NEW", "amount": 50, "createdAt": 2}
+                ]
+                """);
+        Path invalid = Files.writeString(tempDir.resolve("invalid.json"), "{}");
+
+        OrderColumnStore store;
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            store = OrderColumnStore.load(List.of(valid, invalid), pool);
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        assertEquals(2, store.getRowCount());
+        assertEquals(Map.of("NEW", 2), store.countBy(OrderColumn.STATUS, RowFilter.all(), pool));
+        assertEquals(150, store.summarizeAmount(RowFilter.all(), pool).sum());
+    }
+}
@@ -0,0 +1,68 @@
+package com.halmber.service.store;
+
+import com.halmber.model.Customer;
+import com.halmber.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderQueryServiceTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+    private OrderQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        OrderColumnStore store = new OrderColumnStore();
+        String[] cities = {"Kyiv", "Kyiv", "Kyiv", "Lviv", "Lviv", "Odesa"};
+        for (int i = 0; i < cities.length; i++) {
+            store.append(Order.builder()
+                    .customer(Customer.builder().city(cities[i]).build())
+                    .status(i < 4 ? "NEW" : "DONE")
+                    .amount(10 * (i + 1))
+                    .createdAt(i)
+                    .build());
+        }
+        queryService = new OrderQueryService(store, pool, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testExecute_Count() {
+        assertTrue(queryService.execute("count").startsWith("Orders: 6"));
+        assertTrue(queryService.execute("COUNT where status=NEW and amount>15").startsWith("Orders: 3"));
+    }
+
+    @Test
+    void testExecute_CountByInReportOrderWithTop() {
+        String result = queryService.execute("count by city top 2");
+
+        assertTrue(result.indexOf("Kyiv") < result.indexOf("Lviv"));
+        assertFalse(result.contains("Odesa"));
+        assertTrue(result.contains("(1 other values)"));
+        assertTrue(result.contains("3 distinct value(s) of city"));
+    }
+
+    @Test
+    void testExecute_Amount() {
+        String result = queryService.execute("amount where city=Lviv");
+
+        assertTrue(result.startsWith("Orders: 2, sum: 90.00, average: 45.00, min: 40.00, max: 50.00"), result);
+        assertTrue(queryService.execute("amount where city=Paris").startsWith("Orders: 0"));
+    }
+
+    @Test
+    void testExecute_RejectsInvalidQueries() {
+        assertThrows(IllegalArgumentException.class, () -> queryService.execute("select *"));
+        assertThrows(IllegalArgumentException.class, () -> queryService.execute("amount by city"));
+        assertThrows(IllegalArgumentException.class, () -> queryService.execute("count by country"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AllocationTrackerTest {
+    private static volatile Object sink;
+
+    @Test
+    void testAllocatedSince_CountsAllocationsOfCurrentThread() {
+        assumeTrue(AllocationTracker.isSupported());
+
+        long before = AllocationTracker.currentThreadAllocatedBytes();
+        sink = new byte[1024 * 1024];
+        long allocated = AllocationTracker.allocatedSince(before);
+
+        assertTrue(allocated >= 1024 * 1024, "allocated " + allocated);
+        assertTrue(AllocationTracker.threadAllocatedBytes(Thread.currentThread().threadId()) >= before + allocated);
+    }
+
+    @Test
+    void testAllocatedSince_UnknownOnVirtualThread() throws Exception {
+        long[] readings = new long[2];
+        Thread.ofVirtual().start(() -> {
+            readings[0] = AllocationTracker.currentThreadAllocatedBytes();
+            readings[1] = AllocationTracker.allocatedSince(readings[0]);
+        }).join();
+
+        assertEquals(-1, readings[0]);
+        assertEquals(0, readings[1]);
+    }
+
+    @Test
+    void testAssertWithinBudget() {
+        assumeTrue(AllocationTracker.isSupported());
+
+        assertDoesNotThrow(() -> AllocationTracker.assertWithinBudget("parsing", 4000, 10, 400));
+        assertDoesNotThrow(() -> AllocationTracker.assertWithinBudget("parsing", 4000, 0, 1));
+
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> AllocationTracker.assertWithinBudget("parsing", 4010, 10, 400));
+        assertTrue(error.getMessage().contains("parsing allocated 401.0 bytes per unit"));
+    }
+}
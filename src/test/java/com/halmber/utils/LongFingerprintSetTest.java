@@ -0,0 +1,75 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongFingerprintSetTest {
+
+    @Test
+    void testAdd_ReturnsFalseForRepeatedValue() {
+        LongFingerprintSet set = new LongFingerprintSet(100, 4, false);
+
+        assertTrue(set.add("ord-001"));
+        assertTrue(set.add("ord-002"));
+        assertFalse(set.add("ord-001"));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void testAdd_WithBloomFilter_ReturnsFalseForRepeatedValue() {
+        LongFingerprintSet set = new LongFingerprintSet(100, 4, true);
+
+        assertTrue(set.add("ord-001"));
+        assertFalse(set.add("ord-001"));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void testAdd_GrowsBeyondExpectedSize() {
+        LongFingerprintSet set = new LongFingerprintSet(10, 1, false);
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(set.add("ord-" + i));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertFalse(set.add("ord-" + i));
+        }
+        assertEquals(100_000, set.size());
+    }
+
+    @Test
+    void testFingerprint_IsStableAndNonZero() {
+        assertEquals(LongFingerprintSet.fingerprint("ord-001"), LongFingerprintSet.fingerprint("ord-001"));
+        assertNotEquals(LongFingerprintSet.fingerprint("ord-001"), LongFingerprintSet.fingerprint("ord-002"));
+        assertNotEquals(0L, LongFingerprintSet.fingerprint(""));
+    }
+
+    @Test
+    void testAdd_ConcurrentThreadsAcceptEachValueOnce() throws InterruptedException {
+        LongFingerprintSet set = new LongFingerprintSet(1_000, 8, true);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Every thread adds the same 50_000 ids
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    if (set.add("ord-" + i)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(50_000, accepted.get());
+        assertEquals(50_000, set.size());
+    }
+}
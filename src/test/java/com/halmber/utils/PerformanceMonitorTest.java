@@ -0,0 +1,151 @@
+package com.halmber.utils;
+
+import com.halmber.utils.PerformanceMonitor.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PerformanceMonitorTest {
+    private static final long MS = 1_000_000L;
+    private static volatile Object sink;
+
+    @Test
+    void testPhases_TimedSeparatelyAndReported() throws Exception {
+        try (PerformanceMonitor monitor = new PerformanceMonitor(2)) {
+            monitor.startPhase(Phase.DISCOVERY);
+            Thread.sleep(20);
+            monitor.startPhase(Phase.PROCESSING);
+            Thread.sleep(40);
+            monitor.endPhase();
+
+            TaskTimings fileTimings = new TaskTimings();
+            fileTimings.record(0, 10 * MS);
+            fileTimings.record(0, 30 * MS);
+            monitor.recordInput(2, 4 * 1024 * 1024);
+            monitor.recordProcessing(1000, 30, 10, fileTimings);
+            monitor.addNote("Result cache: miss (result stored)");
+
+            assertTrue(monitor.getPhaseWallMillis(Phase.DISCOVERY) >= 20);
+            assertTrue(monitor.getPhaseWallMillis(Phase.PROCESSING) >= 40);
+            assertEquals(0, monitor.getPhaseWallMillis(Phase.SORT));
+            double processingSeconds = monitor.getPhaseWallMillis(Phase.PROCESSING) / 1000.0;
+            assertEquals(1000 / processingSeconds, monitor.getRecordsPerSecond(), 0.001);
+            assertEquals(4 * 1024 * 1024 / processingSeconds, monitor.getBytesPerSecond(), 0.001);
+
+            String report = monitor.report();
+            assertTrue(report.contains("discovery"));
+            assertTrue(report.contains("processing"));
+            assertFalse(report.contains("sort"));
+            assertTrue(report.contains("parse (worker time)"));
+            assertTrue(report.contains("(75%)"));
+            assertTrue(report.contains("p50 / p90 / p99 / max:    10.00 / 30.00 / 30.00 / 30.00 ms"));
+            assertTrue(report.contains("Result cache: miss (result stored)"));
+        }
+    }
+
+    @Test
+    void testAllocation_ReportedPerPhase() throws Exception {
+        assumeTrue(AllocationTracker.isSupported());
+
+        try (PerformanceMonitor monitor = new PerformanceMonitor(1)) {
+            monitor.startPhase(Phase.PROCESSING);
+            CountDownLatch allocated = new CountDownLatch(1);
+            CountDownLatch phaseEnded = new CountDownLatch(1);
+            // Like a pool thread, the worker is still alive when the phase ends
+            Thread worker = new Thread(() -> {
+                sink = new byte[8 * 1024 * 1024];
+                allocated.countDown();
+                awaitQuietly(phaseEnded);
+            });
+            worker.start();
+            allocated.await();
+            monitor.startPhase(Phase.WRITE);
+            phaseEnded.countDown();
+            worker.join();
+            monitor.endPhase();
+            monitor.recordInput(1, 1024 * 1024);
+            monitor.recordProcessing(1024, 0, 0, new TaskTimings());
+            monitor.recordTaskAllocation(8 * 1024 * 1024);
+
+            assertTrue(monitor.getPhaseAllocatedBytes(Phase.PROCESSING) >= 8 * 1024 * 1024);
+            assertTrue(monitor.getPhaseAllocatedBytes(Phase.WRITE) < 8 * 1024 * 1024);
+            assertTrue(monitor.getAllocatedBytes() >= monitor.getPhaseAllocatedBytes(Phase.PROCESSING));
+            assertTrue(monitor.report().contains("file tasks (exact)                 8.00       8192.0           8.00"));
+        }
+    }
+
+    @Test
+    void testCpu_IncludesWorkerThreadsThatHaveExited() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean().isThreadCpuTimeSupported());
+
+        try (PerformanceMonitor monitor = new PerformanceMonitor(1)) {
+            monitor.startPhase(Phase.PROCESSING);
+            Thread worker = new Thread(() -> {
+                long workerStart = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+                while (ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - workerStart < 300 * MS) {
+                    Thread.onSpinWait();
+                }
+            });
+            worker.start();
+            worker.join();
+            monitor.endPhase();
+
+            // Only the last sampling interval of the exited worker may be missing
+            double expectedMillis = 300 - PerformanceMonitor.SAMPLE_INTERVAL_MILLIS - 20;
+            assertTrue(monitor.getPhaseCpuMillis(Phase.PROCESSING) >= expectedMillis,
+                    "CPU time " + monitor.getPhaseCpuMillis(Phase.PROCESSING));
+            assertTrue(monitor.getCpuMillis() >= monitor.getPhaseCpuMillis(Phase.PROCESSING));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMetrics_ContainPhasesThroughputAndGc() throws Exception {
+        try (PerformanceMonitor monitor = new PerformanceMonitor(2)) {
+            monitor.startPhase(Phase.PROCESSING);
+            Thread.sleep(20);
+            System.gc();
+            monitor.startPhase(Phase.WRITE);
+
+            TaskTimings fileTimings = new TaskTimings();
+            fileTimings.record(0, 10 * MS);
+            monitor.recordInput(1, 1024);
+            monitor.recordProcessing(100, 15, 5, fileTimings);
+            monitor.addNote("Result cache: miss (result stored)");
+
+            Map<String, Object> metrics = monitor.metrics();
+
+            assertEquals(List.of("timestamp", "totalMillis", "cpuMillis", "allocatedBytes", "threads", "phases",
+                    "input", "throughput", "fileLatencyMillis", "gc", "notes"), List.copyOf(metrics.keySet()));
+            Map<String, Object> phases = (Map<String, Object>) metrics.get("phases");
+            assertEquals(List.of("processing", "write"), List.copyOf(phases.keySet()));
+            Map<String, Object> processing = (Map<String, Object>) phases.get("processing");
+            assertTrue((double) processing.get("wallMillis") >= 20);
+            assertEquals(15.0, processing.get("parseMillis"));
+            assertEquals(100L, ((Map<String, Object>) metrics.get("input")).get("records"));
+            assertEquals(10.0, ((Map<String, Object>) metrics.get("fileLatencyMillis")).get("p50"));
+
+            // The explicit collection is counted; the JVM of the tests does not disable System.gc()
+            Map<String, Object> gc = (Map<String, Object>) metrics.get("gc");
+            assertTrue((long) gc.get("count") >= 1);
+            assertEquals(ManagementFactory.getGarbageCollectorMXBeans().size(),
+                    ((Map<String, Object>) gc.get("collectors")).size());
+            assertTrue(monitor.report().contains("GC:"));
+            assertEquals(List.of("Result cache: miss (result stored)"), metrics.get("notes"));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
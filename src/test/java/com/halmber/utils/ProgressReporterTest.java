@@ -0,0 +1,65 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressReporterTest {
+    private static final long SECOND = 1_000_000_000L;
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void testProgressLine_PercentThroughputAndEta() {
+        AtomicLong done = new AtomicLong();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ProgressReporter progress = ProgressReporter.start(100 * MB, done::get, 0, new PrintStream(output))) {
+            long start = System.nanoTime();
+
+            done.set(10 * MB);
+            assertEquals("Progress: 10.0% (10.00 of 100.00 MB), 10.00 MB/s, ETA 9s",
+                    progress.progressLine(start + SECOND));
+
+            // The faster second interval moves the smoothed throughput only part of the way
+            done.set(30 * MB);
+            assertEquals("Progress: 30.0% (30.00 of 100.00 MB), 13.00 MB/s, ETA 5s",
+                    progress.progressLine(start + 2 * SECOND));
+            assertEquals(13.0 * MB, progress.getBytesPerSecond(), MB / 100.0);
+        }
+        assertTrue(output.toString().startsWith("Progress: 30.0% (30.00 of 100.00 MB) in "));
+    }
+
+    @Test
+    void testProgressLine_UnknownEtaBeforeAnyProgress() {
+        try (ProgressReporter progress = ProgressReporter.start(MB, () -> 0, 0, new PrintStream(new ByteArrayOutputStream()))) {
+            assertTrue(progress.progressLine(System.nanoTime() + SECOND).endsWith("0.00 MB/s, ETA unknown"));
+        }
+    }
+
+    @Test
+    void testProgress_PrintedAtIntervalAndFinalLineLast() throws Exception {
+        AtomicLong done = new AtomicLong(MB / 2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ProgressReporter ignored = ProgressReporter.start(MB, done::get, 20, new PrintStream(output, true))) {
+            Thread.sleep(100);
+            done.set(MB);
+        }
+        Thread.sleep(50);
+
+        String[] lines = output.toString().strip().split("\\R");
+        assertTrue(lines.length >= 2);
+        assertTrue(lines[0].startsWith("Progress: 50.0%"));
+        assertTrue(lines[lines.length - 1].startsWith("Progress: 100.0% (1.00 of 1.00 MB) in "));
+    }
+
+    @Test
+    void testFormatDuration() {
+        assertEquals("0s", ProgressReporter.formatDuration(0.2));
+        assertEquals("59s", ProgressReporter.formatDuration(59));
+        assertEquals("3m 05s", ProgressReporter.formatDuration(185));
+        assertEquals("1h 02m", ProgressReporter.formatDuration(3720));
+    }
+}
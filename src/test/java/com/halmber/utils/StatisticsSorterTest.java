@@ -0,0 +1,93 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsSorterTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static List<Map.Entry<String, Integer>> expectedOrder(Map<String, Integer> statistics) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        statistics.forEach((key, count) -> entries.add(Map.entry(key, count)));
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return entries;
+    }
+
+    @Test
+    void testSort_ParallelMatchesComparatorSort() {
+        Random random = new Random(7);
+        Map<String, Integer> statistics = new ConcurrentHashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int count = switch (i % 4) {
+                case 0 -> random.nextInt(5);
+                case 1 -> random.nextInt(300);
+                case 2 -> random.nextInt(100_000);
+                default -> random.nextInt() / 2;
+            };
+            statistics.put("value-" + random.nextInt(1_000_000_000), count);
+        }
+
+        assertEquals(expectedOrder(statistics), new StatisticsSorter(pool, 4).sort(statistics));
+        assertEquals(expectedOrder(statistics), new StatisticsSorter().sort(statistics));
+    }
+
+    @Test
+    void testSort_LargeRunOfEqualCountsSortedByValue() {
+        Map<String, Integer> statistics = new HashMap<>();
+        for (int i = 0; i < 150_000; i++) {
+            statistics.put("user" + i + "@example.com", 1);
+        }
+        statistics.put("top", 2);
+
+        assertEquals(expectedOrder(statistics), new StatisticsSorter(pool, 3).sort(statistics));
+    }
+
+    @Test
+    void testSort_OrderDoesNotDependOnIterationOrder() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            values.add("city" + i);
+        }
+        Map<String, Integer> first = new HashMap<>();
+        values.forEach(value -> first.put(value, value.length() % 3));
+        Collections.shuffle(values, new Random(1));
+        Map<String, Integer> second = new ConcurrentHashMap<>(16_384);
+        values.forEach(value -> second.put(value, value.length() % 3));
+
+        assertEquals(new StatisticsSorter().sort(first), new StatisticsSorter(pool, 4).sort(second));
+    }
+
+    @Test
+    void testSort_RunsInlineWhenExecutorIsShutDown() {
+        Map<String, Integer> statistics = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            statistics.put("v" + i, i % 1_000);
+        }
+        pool.shutdown();
+
+        assertEquals(expectedOrder(statistics), new StatisticsSorter(pool, 4).sort(statistics));
+    }
+
+    @Test
+    void testSort_EmptyMap() {
+        assertTrue(new StatisticsSorter(pool, 4).sort(Map.of()).isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTimingsTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testMetrics_ComputedFromRecordedTasks() {
+        TaskTimings timings = new TaskTimings();
+        timings.record(0, 10 * MS);
+        timings.record(0, 20 * MS);
+        timings.record(0, 60 * MS);
+
+        assertEquals(3, timings.getTaskCount());
+        assertEquals(30.0, timings.getAverageMillis(), 0.001);
+        assertEquals(60.0, timings.getLongestMillis(), 0.001);
+        assertEquals(40.0, timings.getTailMillis(), 0.001);
+    }
+
+    @Test
+    void testMetrics_EmptyAndSingleTask() {
+        TaskTimings timings = new TaskTimings();
+        assertEquals(0, timings.getTailMillis());
+        assertEquals(0, timings.getAverageMillis());
+
+        timings.record(5 * MS, 15 * MS);
+        assertEquals(0, timings.getTailMillis());
+        assertTrue(timings.summary().contains("Tasks: 1"));
+    }
+
+    @Test
+    void testPercentilesAndTotal() {
+        TaskTimings timings = new TaskTimings();
+        assertEquals(0, timings.getPercentileMillis(0.5));
+
+        for (int i = 1; i <= 100; i++) {
+            timings.record(0, i * MS);
+        }
+        assertEquals(50.0, timings.getPercentileMillis(0.5), 0.001);
+        assertEquals(99.0, timings.getPercentileMillis(0.99), 0.001);
+        assertEquals(100.0, timings.getPercentileMillis(1.0), 0.001);
+        assertEquals(1.0, timings.getPercentileMillis(0), 0.001);
+        assertEquals(5050.0, timings.getTotalMillis(), 0.001);
+
+        TaskTimings merged = new TaskTimings();
+        merged.recordAll(timings);
+        assertEquals(100, merged.getTaskCount());
+    }
+}
@@ -0,0 +1,65 @@
+package com.halmber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopEntriesTest {
+
+    private static Map<String, Integer> statisticsWithTies() {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            statistics.put("value" + i, (i * 7) % 13);
+        }
+        return statistics;
+    }
+
+    @Test
+    void testSelect_MatchesPrefixOfFullSort() {
+        Map<String, Integer> statistics = statisticsWithTies();
+        List<Map.Entry<String, Integer>> fullSort = new ArrayList<>(statistics.entrySet());
+        fullSort.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        for (int limit : new int[]{1, 10, 38, 39, 250, 499}) {
+            List<Map.Entry<String, Integer>> selected = TopEntries.select(statistics, limit).entries();
+
+            assertEquals(fullSort.subList(0, limit), selected, "limit " + limit);
+        }
+    }
+
+    @Test
+    void testSelect_ReportsOthersAndDistinctValues() {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("Kyiv", 5);
+        statistics.put("Lviv", 2);
+        statistics.put("Odesa", 7);
+        statistics.put("Dnipro", 1);
+
+        TopEntries.Selection selection = TopEntries.select(statistics, 2);
+
+        assertEquals(List.of(Map.entry("Odesa", 7), Map.entry("Kyiv", 5)), selection.entries());
+        assertEquals(4, selection.distinctValues());
+        assertEquals(2, selection.otherValues());
+        assertEquals(3, selection.otherCount());
+    }
+
+    @Test
+    void testSelect_NoLimitOrLimitAboveSizeReturnsAllEntries() {
+        Map<String, Integer> statistics = statisticsWithTies();
+
+        for (int limit : new int[]{0, -1, 500, 1_000}) {
+            TopEntries.Selection selection = TopEntries.select(statistics, limit);
+
+            assertEquals(500, selection.entries().size());
+            assertEquals(500, selection.distinctValues());
+            assertEquals(0, selection.otherValues());
+            assertEquals(0, selection.otherCount());
+        }
+    }
+}